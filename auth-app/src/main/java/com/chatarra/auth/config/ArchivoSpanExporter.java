@@ -0,0 +1,92 @@
+package com.chatarra.auth.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Exportador de spans a un archivo local (una línea JSON por span).
+ *
+ * Permite revisar las trazas sin un colector OTLP, por ejemplo:
+ *   grep 'traceId":"4bf92f' logs/trazas.jsonl
+ *
+ * Lo invoca el BatchSpanProcessor de OpenTelemetry desde un solo hilo y en lotes.
+ */
+@Slf4j
+public class ArchivoSpanExporter implements SpanExporter {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BufferedWriter writer;
+
+    public ArchivoSpanExporter(Path ruta) throws IOException {
+        if (ruta.getParent() != null) {
+            Files.createDirectories(ruta.getParent());
+        }
+        this.writer = Files.newBufferedWriter(ruta, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        log.info("📝 Exportando trazas a {}", ruta.toAbsolutePath());
+    }
+
+    @Override
+    public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+        try {
+            for (SpanData span : spans) {
+                Map<String, Object> linea = new LinkedHashMap<>();
+                linea.put("traceId", span.getTraceId());
+                linea.put("spanId", span.getSpanId());
+                linea.put("parentSpanId", span.getParentSpanId());
+                linea.put("nombre", span.getName());
+                linea.put("tipo", span.getKind().name());
+                linea.put("inicioEpochNanos", span.getStartEpochNanos());
+                linea.put("duracionMs", (span.getEndEpochNanos() - span.getStartEpochNanos()) / 1_000_000.0);
+                linea.put("estado", span.getStatus().getStatusCode().name());
+
+                Map<String, Object> atributos = new LinkedHashMap<>();
+                span.getAttributes().forEach((clave, valor) -> atributos.put(clave.getKey(), valor));
+                linea.put("atributos", atributos);
+
+                writer.write(objectMapper.writeValueAsString(linea));
+                writer.newLine();
+            }
+            writer.flush();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            log.warn("No se pudieron escribir {} spans: {}", spans.size(), e.getMessage());
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        try {
+            synchronized (this) {
+                writer.flush();
+            }
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    @Override
+    public synchronized CompletableResultCode shutdown() {
+        try {
+            writer.close();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            return CompletableResultCode.ofFailure();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.chatarra.auth.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * Habilita los métodos @Async.
+ *
+ * Se ejecutan en el applicationTaskExecutor de Spring Boot: un pool de hilos
+ * normal, o hilos virtuales cuando spring.threads.virtual.enabled=true (perfil "virtual").
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
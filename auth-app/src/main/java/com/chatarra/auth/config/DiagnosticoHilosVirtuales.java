@@ -0,0 +1,75 @@
+package com.chatarra.auth.config;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+/**
+ * Registra en el log los hilos virtuales que quedan "pinned" (fijados a su hilo portador).
+ *
+ * Un hilo virtual queda pinned cuando se bloquea dentro de un bloque synchronized
+ * o de código nativo: mientras tanto el hilo portador no puede ejecutar otros hilos.
+ * En esta aplicación los candidatos son el driver JDBC y el pool de conexiones.
+ *
+ * Escucha el evento jdk.VirtualThreadPinned de JFR, que solo existe en Java 21+.
+ * Solo se activa con spring.threads.virtual.enabled=true (perfil "virtual").
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+@Slf4j
+public class DiagnosticoHilosVirtuales {
+
+    private static final String EVENTO_PINNED = "jdk.VirtualThreadPinned";
+
+    @Value("${diagnostico.hilos-virtuales.umbral-pinning-ms:20}")
+    private long umbralMs;
+
+    private RecordingStream stream;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        if (Runtime.version().feature() < 21) {
+            log.warn("⚠️ spring.threads.virtual.enabled=true pero la JVM es Java {}: se usan hilos de plataforma",
+                    Runtime.version().feature());
+            return;
+        }
+
+        stream = new RecordingStream();
+        stream.enable(EVENTO_PINNED)
+                .withThreshold(Duration.ofMillis(umbralMs))
+                .withStackTrace();
+        stream.onEvent(EVENTO_PINNED, evento -> log.warn("📌 Hilo virtual pinned durante {} ms en:\n{}",
+                evento.getDuration().toMillis(), resumirPila(evento.getStackTrace())));
+        stream.startAsync();
+
+        log.info("✅ Diagnóstico de pinning activo (umbral: {} ms)", umbralMs);
+    }
+
+    @PreDestroy
+    public void detener() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private String resumirPila(RecordedStackTrace pila) {
+        if (pila == null) {
+            return "    (sin pila)";
+        }
+        return pila.getFrames().stream()
+                .limit(12)
+                .map(RecordedFrame::getMethod)
+                .map(m -> "    at " + m.getType().getName() + "." + m.getName())
+                .collect(Collectors.joining("\n"));
+    }
+}
@@ -0,0 +1,56 @@
+package com.chatarra.auth.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * DataSource que envía las transacciones de solo lectura a una réplica y todo lo demás a la primaria.
+ *
+ * - @Transactional(readOnly = true) -> réplica (round-robin entre las disponibles)
+ * - Escrituras, lecturas fuera de transacción y métodos de solo lectura llamados dentro
+ *   de una transacción de escritura -> primaria
+ * - Usuario que escribió hace poco (EscriturasRecientes) -> primaria
+ *
+ * Debe envolverse en un LazyConnectionDataSourceProxy: Hibernate pide la conexión al iniciar la
+ * transacción, antes de que Spring la marque como solo lectura.
+ *
+ * Métrica bd.enrutamiento{destino, motivo}: conexiones entregadas por destino.
+ */
+public class EnrutadorDataSource extends AbstractRoutingDataSource {
+
+    private final ReplicasLectura replicas;
+    private final EscriturasRecientes escriturasRecientes;
+    private final MeterRegistry registry;
+
+    public EnrutadorDataSource(ReplicasLectura replicas, EscriturasRecientes escriturasRecientes,
+                               MeterRegistry registry) {
+        this.replicas = replicas;
+        this.escriturasRecientes = escriturasRecientes;
+        this.registry = registry;
+        setTargetDataSources(replicas.destinos());
+        setDefaultTargetDataSource(replicas.getPrimaria());
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String destino = ReplicasLectura.PRIMARIA;
+        String motivo;
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            motivo = "escritura";
+        } else if (escriturasRecientes.usuarioActualEscribioRecientemente()) {
+            motivo = "lectura-propia";
+        } else {
+            String replica = replicas.elegir();
+            if (replica != null) {
+                destino = replica;
+                motivo = "lectura";
+            } else {
+                motivo = "sin-replica";
+            }
+        }
+        registry.counter("bd.enrutamiento", "destino", destino, "motivo", motivo).increment();
+        return destino;
+    }
+}
@@ -0,0 +1,68 @@
+package com.chatarra.auth.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Usuarios que escribieron hace poco (lectura de las propias escrituras).
+ *
+ * Después de crear o cancelar una oferta, reservar o pujar, las lecturas de ese usuario van a
+ * la primaria durante unos segundos: así no ve su listado sin la oferta o la reserva nueva por
+ * el retraso de la réplica.
+ * Es memoria de esta instancia; con varias instancias solo vale si el balanceador
+ * mantiene al usuario en la misma.
+ */
+@Component
+public class EscriturasRecientes {
+
+    @Value("${bd.replicas.lectura-propia-ms:5000}")
+    private long ventanaMs;
+
+    // Usuario (email) -> instante (ms) hasta el que lee de la primaria
+    private final ConcurrentHashMap<String, Long> hasta = new ConcurrentHashMap<>();
+
+    public void registrarUsuarioActual() {
+        String usuario = usuarioActual();
+        if (usuario != null) {
+            hasta.put(usuario, System.currentTimeMillis() + ventanaMs);
+        }
+    }
+
+    public boolean usuarioActualEscribioRecientemente() {
+        if (hasta.isEmpty()) {
+            return false;
+        }
+        String usuario = usuarioActual();
+        if (usuario == null) {
+            return false;
+        }
+        Long limite = hasta.get(usuario);
+        if (limite == null) {
+            return false;
+        }
+        if (limite < System.currentTimeMillis()) {
+            hasta.remove(usuario, limite);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Elimina las entradas vencidas de usuarios que no volvieron a leer (cada minuto)
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void purgar() {
+        long ahora = System.currentTimeMillis();
+        hasta.values().removeIf(limite -> limite < ahora);
+    }
+
+    private static String usuarioActual() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+    }
+}
@@ -0,0 +1,125 @@
+package com.chatarra.auth.config;
+
+import com.chatarra.auth.exception.ErrorResponse;
+import com.chatarra.auth.service.IdempotenciaService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+/**
+ * Cabecera Idempotency-Key en las peticiones que modifican datos de vendedores y admins
+ * (POST/PUT/PATCH/DELETE bajo /api/vendedor y /api/admin).
+ *
+ * La primera petición con una clave se ejecuta y su respuesta se guarda (IdempotenciaService);
+ * un reintento del mismo usuario con la misma clave recibe esa respuesta, con la cabecera
+ * Idempotent-Replayed, sin ejecutarse otra vez. La clave usada con otro método o ruta da 422.
+ * Sin cabecera, la petición sigue como siempre.
+ *
+ * Se registra como filtro de la aplicación, después de la cadena de Spring Security: el usuario
+ * ya está autenticado.
+ */
+@Component
+@RequiredArgsConstructor
+public class FiltroIdempotencia extends OncePerRequestFilter {
+
+    public static final String CABECERA = "Idempotency-Key";
+    public static final String CABECERA_REPETIDA = "Idempotent-Replayed";
+    private static final int LONGITUD_MAXIMA = 255;
+
+    private final IdempotenciaService idempotenciaService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String metodo = request.getMethod();
+        String ruta = request.getRequestURI();
+        return request.getHeader(CABECERA) == null
+                || !(metodo.equals("POST") || metodo.equals("PUT") || metodo.equals("PATCH") || metodo.equals("DELETE"))
+                || !(ruta.startsWith("/api/vendedor/") || ruta.startsWith("/api/admin/"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String clave = request.getHeader(CABECERA).trim();
+        if (clave.isEmpty() || clave.length() > LONGITUD_MAXIMA) {
+            error(request, response, HttpStatus.BAD_REQUEST,
+                    "La cabecera " + CABECERA + " debe tener entre 1 y " + LONGITUD_MAXIMA + " caracteres");
+            return;
+        }
+        String metodo = request.getMethod();
+        String ruta = request.getQueryString() == null
+                ? request.getRequestURI()
+                : request.getRequestURI() + "?" + request.getQueryString();
+
+        IdempotenciaService.Turno turno = idempotenciaService.turno(authentication.getName(), clave, metodo, ruta);
+        if (!turno.propio()) {
+            repetir(request, response, turno, metodo, ruta);
+            return;
+        }
+
+        ContentCachingResponseWrapper envoltura = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(request, envoltura);
+        } catch (IOException | ServletException | RuntimeException e) {
+            idempotenciaService.abandonar(turno, e);
+            throw e;
+        }
+        idempotenciaService.completar(turno, new IdempotenciaService.Respuesta(metodo, ruta, envoltura.getStatus(),
+                envoltura.getContentType(), envoltura.getContentAsByteArray()));
+        envoltura.copyBodyToResponse();
+    }
+
+    private void repetir(HttpServletRequest request, HttpServletResponse response, IdempotenciaService.Turno turno,
+                         String metodo, String ruta) throws IOException {
+        IdempotenciaService.Respuesta respuesta;
+        try {
+            respuesta = idempotenciaService.esperar(turno);
+        } catch (IllegalStateException e) {
+            error(request, response, HttpStatus.CONFLICT, e.getMessage());
+            return;
+        }
+        if (!respuesta.mismaPeticion(metodo, ruta)) {
+            error(request, response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    "La " + CABECERA + " ya se usó en " + respuesta.metodo() + " " + respuesta.ruta());
+            return;
+        }
+
+        response.setStatus(respuesta.estado());
+        response.setHeader(CABECERA_REPETIDA, "true");
+        if (respuesta.tipoContenido() != null) {
+            response.setContentType(respuesta.tipoContenido());
+        }
+        response.setContentLength(respuesta.cuerpo().length);
+        response.getOutputStream().write(respuesta.cuerpo());
+    }
+
+    private void error(HttpServletRequest request, HttpServletResponse response, HttpStatus estado, String mensaje)
+            throws IOException {
+        response.setStatus(estado.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(),
+                new ErrorResponse(estado.value(), estado.getReasonPhrase(), mensaje, request.getRequestURI()));
+    }
+}
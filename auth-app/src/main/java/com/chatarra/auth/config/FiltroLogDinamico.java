@@ -0,0 +1,128 @@
+package com.chatarra.auth.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Filtro de Logback que se evalúa antes del nivel de cada logger.
+ *
+ * 1. Elevaciones temporales: para un usuario o un requestId concretos (leídos del MDC)
+ *    se aceptan los eventos desde el nivel indicado (p. ej. DEBUG), aunque el logger esté en INFO.
+ * 2. Muestreo: de los eventos DEBUG/TRACE habilitados se deja pasar 1 de cada N por logger,
+ *    para que un logger muy verboso no sature la salida. Solo cuentan las llamadas que escriben
+ *    (con mensaje): las consultas isDebugEnabled() llegan sin format y no se muestrean, si no un
+ *    debug protegido por isDebugEnabled() pasaría 1 de cada N².
+ *
+ * Sin elevaciones activas y sin muestreo el costo es una lectura de un campo volatile.
+ */
+public class FiltroLogDinamico extends TurboFilter {
+
+    public static final String MDC_USUARIO = "usuario";
+    public static final String MDC_REQUEST_ID = "requestId";
+
+    public enum Tipo { USUARIO, REQUEST }
+
+    public record Elevacion(Tipo tipo, String valor, Level nivel, String logger, Instant expira) {
+
+        boolean aplica(String nombreLogger, Level nivelEvento, long ahoraMs) {
+            return nivelEvento.isGreaterOrEqual(nivel)
+                    && nombreLogger.startsWith(logger)
+                    && ahoraMs < expira.toEpochMilli();
+        }
+    }
+
+    private final Map<String, Elevacion> elevaciones = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> contadoresMuestreo = new ConcurrentHashMap<>();
+    private final int muestreoCada;
+    private volatile boolean hayElevaciones;
+
+    /**
+     * @param muestreoCada deja pasar 1 de cada N eventos DEBUG/TRACE por logger (1 = sin muestreo)
+     */
+    public FiltroLogDinamico(int muestreoCada) {
+        this.muestreoCada = Math.max(1, muestreoCada);
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format,
+                              Object[] params, Throwable t) {
+        if (level == null) {
+            return FilterReply.NEUTRAL;
+        }
+
+        if (hayElevaciones && estaElevado(logger.getName(), level)) {
+            return FilterReply.ACCEPT;
+        }
+
+        if (muestreoCada > 1
+                && format != null
+                && level.toInt() <= Level.DEBUG_INT
+                && level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            long n = contadoresMuestreo.computeIfAbsent(logger.getName(), k -> new AtomicLong())
+                    .getAndIncrement();
+            return n % muestreoCada == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+        }
+        return FilterReply.NEUTRAL;
+    }
+
+    public Elevacion elevar(Tipo tipo, String valor, Level nivel, String logger, Instant expira) {
+        Elevacion elevacion = new Elevacion(tipo, valor, nivel, logger, expira);
+        elevaciones.put(clave(tipo, valor), elevacion);
+        hayElevaciones = true;
+        return elevacion;
+    }
+
+    public boolean quitar(Tipo tipo, String valor) {
+        boolean quitada = elevaciones.remove(clave(tipo, valor)) != null;
+        hayElevaciones = !elevaciones.isEmpty();
+        return quitada;
+    }
+
+    public Collection<Elevacion> activas() {
+        return List.copyOf(elevaciones.values());
+    }
+
+    /**
+     * Elimina las elevaciones vencidas
+     *
+     * @return cantidad eliminada
+     */
+    public int purgarExpiradas(Instant ahora) {
+        int antes = elevaciones.size();
+        elevaciones.values().removeIf(e -> !e.expira().isAfter(ahora));
+        hayElevaciones = !elevaciones.isEmpty();
+        return antes - elevaciones.size();
+    }
+
+    private boolean estaElevado(String nombreLogger, Level nivel) {
+        long ahora = System.currentTimeMillis();
+        String usuario = MDC.get(MDC_USUARIO);
+        if (usuario != null) {
+            Elevacion e = elevaciones.get(clave(Tipo.USUARIO, usuario));
+            if (e != null && e.aplica(nombreLogger, nivel, ahora)) {
+                return true;
+            }
+        }
+        String requestId = MDC.get(MDC_REQUEST_ID);
+        if (requestId != null) {
+            Elevacion e = elevaciones.get(clave(Tipo.REQUEST, requestId));
+            return e != null && e.aplica(nombreLogger, nivel, ahora);
+        }
+        return false;
+    }
+
+    private static String clave(Tipo tipo, String valor) {
+        return tipo.name() + ":" + valor;
+    }
+}
@@ -0,0 +1,41 @@
+package com.chatarra.auth.config;
+
+import com.chatarra.auth.service.VentasAgregadasService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Backfill de los agregados de ventas (perfil "reconstruir-ventas"):
+ *
+ *   mvn spring-boot:run -Dspring-boot.run.profiles=reconstruir-ventas
+ *
+ * Recalcula ventas_agregadas desde las ofertas vendidas (ofertas y ofertas_archivo) y cierra
+ * la aplicación. Necesario una vez al desplegar los agregados y después de cargar datos con
+ * SQL directo (p. ej. el perfil "semilla"), que no pasa por OfertaService.
+ */
+@Component
+@Profile("reconstruir-ventas")
+@RequiredArgsConstructor
+public class ReconstructorVentasAgregadas implements ApplicationRunner {
+
+    private final VentasAgregadasService ventasAgregadasService;
+    private final ApplicationContext applicationContext;
+
+    @Value("${ventas.reconstruir.terminar:true}")
+    private boolean terminar;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        ventasAgregadasService.reconstruir();
+
+        if (terminar) {
+            System.exit(SpringApplication.exit(applicationContext, () -> 0));
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.chatarra.auth.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+/**
+ * Reloj del sistema para las fechas de negocio (por ahora, la fecha de venta de las ofertas).
+ * Los tests lo sustituyen por uno fijo para no depender de la hora a la que se ejecutan.
+ */
+@Configuration
+public class RelojConfig {
+
+    @Bean
+    public Clock reloj() {
+        return Clock.systemDefaultZone();
+    }
+}
@@ -0,0 +1,111 @@
+package com.chatarra.auth.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.observation.boot.autoconfigure.JdbcProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Réplicas de lectura (bd.replicas.habilitado=true).
+ *
+ * La primaria usa spring.datasource.*; cada URL de bd.replicas.urls es un pool más, con la misma
+ * configuración de Hikari (spring.datasource.hikari.*) y las mismas credenciales salvo que se
+ * indiquen bd.replicas.usuario y bd.replicas.password.
+ *
+ * Sin esta propiedad la aplicación usa el DataSource único de Spring Boot, como siempre.
+ */
+@Configuration
+@ConditionalOnProperty(name = "bd.replicas.habilitado", havingValue = "true")
+@Slf4j
+public class ReplicasConfig {
+
+    @Bean
+    public ReplicasLectura replicasLectura(
+            DataSourceProperties propiedades,
+            Environment environment,
+            MeterRegistry registry,
+            @Value("${bd.replicas.urls}") List<String> urls,
+            @Value("${bd.replicas.usuario:}") String usuario,
+            @Value("${bd.replicas.password:}") String password,
+            @Value("${bd.replicas.retraso-maximo-ms:2000}") long retrasoMaximoMs,
+            @Value("${bd.replicas.verificacion-ms:1000}") long verificacionMs,
+            @Value("${bd.replicas.consulta-retraso:}") String consultaRetraso) {
+
+        Binder binder = Binder.get(environment);
+        HikariDataSource primaria = crearPool(propiedades, binder, registry, ReplicasLectura.PRIMARIA);
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = crearPool(propiedades, binder, registry, "replica-" + (i + 1));
+            replica.setJdbcUrl(urls.get(i).trim());
+            if (!usuario.isBlank()) {
+                replica.setUsername(usuario);
+                replica.setPassword(password);
+            }
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+
+        log.info("📚 Réplicas de lectura: {} (retraso máximo {} ms)", urls.size(), retrasoMaximoMs);
+        return new ReplicasLectura(primaria, replicas, retrasoMaximoMs,
+                consultaRetraso.isBlank() ? ReplicasLectura.CONSULTA_RETRASO_POSTGRES : consultaRetraso,
+                verificacionMs, registry);
+    }
+
+    @Bean
+    public DataSource enrutadorDataSource(ReplicasLectura replicas, EscriturasRecientes escriturasRecientes,
+                                          MeterRegistry registry) {
+        return new EnrutadorDataSource(replicas, escriturasRecientes, registry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("enrutadorDataSource") DataSource enrutador, ReplicasLectura replicas,
+                                 ObjectProvider<JdbcProperties> jdbcProperties) {
+        // Las trazas JDBC envuelven a enrutadorDataSource. Envolver también este proxy pediría
+        // la conexión real al iniciar la transacción, antes de saber si es de solo lectura.
+        jdbcProperties.ifAvailable(propiedades -> {
+            Set<String> excluidos = new HashSet<>(propiedades.getExcludedDataSourceBeanNames());
+            excluidos.add("dataSource");
+            propiedades.setExcludedDataSourceBeanNames(excluidos);
+        });
+
+        // La conexión real se pide en la primera sentencia, con la transacción ya marcada como solo lectura
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy();
+        proxy.setTargetDataSource(enrutador);
+        proxy.setDefaultAutoCommit(replicas.getPrimaria().isAutoCommit());
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        proxy.afterPropertiesSet();
+        return proxy;
+    }
+
+    private HikariDataSource crearPool(DataSourceProperties propiedades, Binder binder,
+                                       MeterRegistry registry, String nombre) {
+        HikariDataSource pool = propiedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(nombre);
+        // Spring Boot solo registra métricas de pools que son beans; estos quedan detrás del enrutador
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        return pool;
+    }
+}
@@ -0,0 +1,158 @@
+package com.chatarra.auth.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pools de la primaria y de las réplicas de lectura, con control del retraso de replicación.
+ *
+ * Cada réplica se consulta periódicamente (consultaRetraso devuelve el retraso en ms).
+ * Si el retraso supera el máximo o la consulta falla, la réplica deja de recibir lecturas
+ * hasta la siguiente verificación correcta. Sin réplicas disponibles se lee de la primaria.
+ *
+ * La verificación corre en su propio hilo: una réplica caída (timeout de conexión) no
+ * debe retrasar las tareas @Scheduled de la aplicación.
+ */
+@Slf4j
+public class ReplicasLectura implements DisposableBean {
+
+    public static final String PRIMARIA = "primaria";
+
+    // Retraso en ms; 0 si la réplica ya aplicó todo lo recibido (una primaria sin escrituras
+    // no avanza pg_last_xact_replay_timestamp y no por eso la réplica está atrasada)
+    public static final String CONSULTA_RETRASO_POSTGRES =
+            "SELECT CASE WHEN pg_is_in_recovery() AND pg_last_wal_receive_lsn() IS DISTINCT FROM pg_last_wal_replay_lsn() "
+                    + "THEN COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) "
+                    + "ELSE 0 END";
+
+    private static class Replica {
+        final String nombre;
+        final HikariDataSource dataSource;
+        volatile boolean disponible;
+        volatile double retrasoMs = -1;
+
+        Replica(String nombre, HikariDataSource dataSource) {
+            this.nombre = nombre;
+            this.dataSource = dataSource;
+        }
+    }
+
+    private final HikariDataSource primaria;
+    private final List<Replica> replicas;
+    private final long retrasoMaximoMs;
+    private final String consultaRetraso;
+    private final AtomicInteger turno = new AtomicInteger();
+    private final ScheduledExecutorService verificador;
+
+    public ReplicasLectura(HikariDataSource primaria, List<HikariDataSource> replicas, long retrasoMaximoMs,
+                           String consultaRetraso, long verificacionMs, MeterRegistry registry) {
+        this.primaria = primaria;
+        this.replicas = replicas.stream()
+                .map(ds -> new Replica(ds.getPoolName(), ds))
+                .toList();
+        this.retrasoMaximoMs = retrasoMaximoMs;
+        this.consultaRetraso = consultaRetraso;
+
+        for (Replica replica : this.replicas) {
+            Gauge.builder("bd.replicas.retraso", replica, r -> r.retrasoMs)
+                    .description("Retraso de replicación en ms (-1 si no responde)")
+                    .tag("replica", replica.nombre)
+                    .register(registry);
+            Gauge.builder("bd.replicas.disponible", replica, r -> r.disponible ? 1 : 0)
+                    .tag("replica", replica.nombre)
+                    .register(registry);
+        }
+
+        // Primera verificación antes de recibir tráfico
+        verificarRetraso();
+        verificador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "verificador-replicas");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        verificador.scheduleWithFixedDelay(this::verificarRetraso, verificacionMs, verificacionMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * DataSources por nombre (primaria y réplicas) para el enrutador
+     */
+    public Map<Object, Object> destinos() {
+        Map<Object, Object> destinos = new LinkedHashMap<>();
+        destinos.put(PRIMARIA, primaria);
+        replicas.forEach(r -> destinos.put(r.nombre, r.dataSource));
+        return destinos;
+    }
+
+    public HikariDataSource getPrimaria() {
+        return primaria;
+    }
+
+    /**
+     * Siguiente réplica disponible (round-robin), o null si no hay ninguna
+     */
+    public String elegir() {
+        int cantidad = replicas.size();
+        if (cantidad == 0) {
+            return null;
+        }
+        int inicio = Math.floorMod(turno.getAndIncrement(), cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            Replica replica = replicas.get((inicio + i) % cantidad);
+            if (replica.disponible) {
+                return replica.nombre;
+            }
+        }
+        return null;
+    }
+
+    void verificarRetraso() {
+        for (Replica replica : replicas) {
+            boolean antes = replica.disponible;
+            try (Connection conexion = replica.dataSource.getConnection();
+                 Statement sentencia = conexion.createStatement();
+                 ResultSet rs = sentencia.executeQuery(consultaRetraso)) {
+                rs.next();
+                replica.retrasoMs = rs.getDouble(1);
+                replica.disponible = replica.retrasoMs <= retrasoMaximoMs;
+            } catch (SQLException | RuntimeException e) {
+                // RuntimeException: Hikari lanza PoolInitializationException si no puede abrir el pool
+                replica.retrasoMs = -1;
+                replica.disponible = false;
+                if (antes) {
+                    log.warn("⚠️ Réplica {} no responde: {}", replica.nombre, e.getMessage());
+                }
+            }
+
+            if (antes != replica.disponible) {
+                if (replica.disponible) {
+                    log.info("✅ Réplica {} disponible (retraso {} ms)", replica.nombre, Math.round(replica.retrasoMs));
+                } else if (replica.retrasoMs >= 0) {
+                    log.warn("⚠️ Réplica {} fuera de servicio: retraso {} ms (máximo {} ms)",
+                            replica.nombre, Math.round(replica.retrasoMs), retrasoMaximoMs);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        verificador.shutdownNow();
+        replicas.forEach(r -> r.dataSource.close());
+        primaria.close();
+    }
+}
@@ -0,0 +1,12 @@
+package com.chatarra.auth.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas programadas (@Scheduled), como el relay de eventos de ofertas.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -2,6 +2,9 @@ package com.chatarra.auth.config;
 
 import com.chatarra.auth.security.CustomUserDetailsService;
 import com.chatarra.auth.security.JwtRequestFilter;
+import com.chatarra.auth.security.PasswordEncoderMedido;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -33,12 +36,16 @@ public class SecurityConfig {
     private final CustomUserDetailsService userDetailsService;
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   AuthenticationProvider authenticationProvider) throws Exception {
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
 
                 .authorizeHttpRequests(auth -> auth
+                        // ✅ Re-despachos asíncronos (SSE): la petición original ya fue autorizada
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // ✅ Endpoints públicos (sin autenticación)
                         .requestMatchers(
                                 "/api/auth/**",
@@ -46,11 +53,15 @@ public class SecurityConfig {
                                 "/error"
                         ).permitAll()
 
+                        // ✅ Scrape de Prometheus y health check (servidos en el puerto de management)
+                        .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
+
                         // ✅ Endpoints solo para ADMIN (Tu regla ya existe)
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
 
                         // ✅ Endpoints para usuarios autenticados (VENDEDOR o ADMIN)
                         .requestMatchers("/api/solicitudes/**").hasAnyRole("VENDEDOR", "ADMIN")
+                        .requestMatchers("/api/comprador/**").hasAnyRole("COMPRADOR", "ADMIN")
                         .requestMatchers("/api/perfil/**").authenticated()
 
                         // ✅ Cualquier otra petición requiere autenticación
@@ -79,23 +90,24 @@ public class SecurityConfig {
                         session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
 
-                .authenticationProvider(authenticationProvider())
+                .authenticationProvider(authenticationProvider)
                 .addFilterBefore(jwtRequestFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
 
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        // BCrypt con métricas de tiempo (chatarra.bcrypt)
+        return new PasswordEncoderMedido(new BCryptPasswordEncoder(), meterRegistry);
     }
 
     @Bean
@@ -110,8 +122,10 @@ public class SecurityConfig {
         // es buena idea añadir también el puerto de Vite (ej. 5173)
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOrigins(Arrays.asList("http://localhost:3000", "http://localhost:5173"));
-        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        // El navegador solo deja leer las cabeceras de respuesta expuestas
+        configuration.setExposedHeaders(Arrays.asList(FiltroIdempotencia.CABECERA_REPETIDA));
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
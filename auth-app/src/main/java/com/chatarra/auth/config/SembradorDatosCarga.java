@@ -0,0 +1,256 @@
+package com.chatarra.auth.config;
+
+import com.chatarra.auth.entity.Cantidad;
+import com.chatarra.auth.entity.Dinero;
+import com.chatarra.auth.entity.Oferta;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * Carga masiva de datos para pruebas de carga (perfil "semilla").
+ *
+ *   mvn spring-boot:run -Dspring-boot.run.profiles=semilla \
+ *       -Dspring-boot.run.arguments="--semilla.vendedores=2000 --semilla.ofertas=200000"
+ *
+ * - Usuarios vendedorN@carga.test y adminN@carga.test, todos con la misma contraseña
+ *   (se calcula un solo hash BCrypt)
+ * - Ofertas con distribución realista de estado y material; pocos vendedores concentran
+ *   la mayoría de las ofertas, como en producción
+ * - Misma semilla aleatoria = mismos datos: las corridas son comparables
+ *
+ * Antes de cargar elimina los datos de una carga anterior (solo los usuarios @carga.test).
+ * Al terminar escribe un manifiesto que lee el runner de carga (CargaEscenario) y cierra la aplicación.
+ */
+@Component
+@Profile("semilla")
+@RequiredArgsConstructor
+@Slf4j
+public class SembradorDatosCarga implements ApplicationRunner {
+
+    private static final String DOMINIO = "@carga.test";
+    private static final int LOTE = 1000;
+
+    // Distribuciones: valor y peso relativo
+    private static final Object[][] ESTADOS = {
+            {Oferta.EstadoOferta.PENDIENTE, 15},
+            {Oferta.EstadoOferta.APROBADA, 40},
+            {Oferta.EstadoOferta.VENDIDA, 30},
+            {Oferta.EstadoOferta.RECHAZADA, 10},
+            {Oferta.EstadoOferta.CANCELADA, 5}
+    };
+    // Material, peso relativo y precio base por kg (céntimos)
+    private static final Object[][] MATERIALES = {
+            {"HIERRO", 30, 35L},
+            {"ACERO", 15, 45L},
+            {"ALUMINIO", 15, 140L},
+            {"COBRE", 12, 850L},
+            {"INOXIDABLE", 7, 120L},
+            {"LATON", 6, 520L},
+            {"BRONCE", 5, 580L},
+            {"PLOMO", 4, 190L},
+            {"ZINC", 3, 230L},
+            {"OTRO", 3, 20L}
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final ApplicationContext applicationContext;
+
+    @Value("${semilla.vendedores:1000}")
+    private int vendedores;
+
+    @Value("${semilla.admins:5}")
+    private int admins;
+
+    @Value("${semilla.ofertas:100000}")
+    private int ofertas;
+
+    @Value("${semilla.password:Carga123!}")
+    private String password;
+
+    @Value("${semilla.aleatoria:42}")
+    private long semillaAleatoria;
+
+    @Value("${semilla.manifiesto:target/semilla-carga.properties}")
+    private String manifiesto;
+
+    @Value("${semilla.terminar:true}")
+    private boolean terminar;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        long inicio = System.currentTimeMillis();
+        Random random = new Random(semillaAleatoria);
+
+        limpiar();
+
+        String hash = passwordEncoder.encode(password);
+        List<Long> idsVendedores = insertarUsuarios("vendedor", "VENDEDOR", vendedores, hash);
+        insertarUsuarios("admin", "ADMIN", admins, hash);
+        long[] rangoOfertas = insertarOfertas(idsVendedores, random);
+
+        escribirManifiesto(rangoOfertas);
+        log.info("🌱 Semilla cargada en {} s: {} vendedores, {} admins, {} ofertas (ids {}-{}). Manifiesto: {}",
+                (System.currentTimeMillis() - inicio) / 1000, vendedores, admins, ofertas,
+                rangoOfertas[0], rangoOfertas[1], Paths.get(manifiesto).toAbsolutePath());
+
+        if (terminar) {
+            System.exit(SpringApplication.exit(applicationContext, () -> 0));
+        }
+    }
+
+    private void limpiar() {
+        transactionTemplate.executeWithoutResult(status -> {
+            String usuariosCarga = "SELECT id FROM usuarios WHERE email LIKE '%" + DOMINIO + "'";
+            int ofertasBorradas = jdbcTemplate.update("DELETE FROM ofertas WHERE vendedor_id IN (" + usuariosCarga + ")");
+            jdbcTemplate.update("DELETE FROM refresh_tokens WHERE usuario_id IN (" + usuariosCarga + ")");
+            int usuariosBorrados = jdbcTemplate.update("DELETE FROM usuarios WHERE email LIKE '%" + DOMINIO + "'");
+            log.info("🧹 Carga anterior eliminada: {} usuarios, {} ofertas", usuariosBorrados, ofertasBorradas);
+        });
+    }
+
+    private List<Long> insertarUsuarios(String prefijo, String rol, int cantidad, String hash) {
+        LocalDateTime ahora = LocalDateTime.now();
+        for (int desde = 1; desde <= cantidad; desde += LOTE) {
+            List<Object[]> filas = new ArrayList<>(LOTE);
+            for (int i = desde; i < desde + LOTE && i <= cantidad; i++) {
+                filas.add(new Object[]{
+                        "Usuario de Carga " + prefijo + " " + i,
+                        prefijo + i + DOMINIO,
+                        hash,
+                        rol,
+                        true,
+                        Timestamp.valueOf(ahora.minusDays(i % 365))
+                });
+            }
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                    "INSERT INTO usuarios (nombre_completo, email, password, rol, activo, fecha_registro) "
+                            + "VALUES (?, ?, ?, ?, ?, ?)", filas));
+        }
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM usuarios WHERE email LIKE ? ORDER BY id", Long.class, prefijo + "%" + DOMINIO);
+    }
+
+    /**
+     * @return id mínimo y máximo de las ofertas insertadas
+     */
+    private long[] insertarOfertas(List<Long> idsVendedores, Random random) {
+        LocalDateTime ahora = LocalDateTime.now();
+        int pesoEstados = sumarPesos(ESTADOS);
+        int pesoMateriales = sumarPesos(MATERIALES);
+
+        for (int desde = 0; desde < ofertas; desde += LOTE) {
+            List<Object[]> filas = new ArrayList<>(LOTE);
+            for (int i = desde; i < desde + LOTE && i < ofertas; i++) {
+                // Sesgo cuadrático: el 10% de los vendedores concentra ~30% de las ofertas
+                double u = random.nextDouble();
+                Long vendedorId = idsVendedores.get((int) (u * u * idsVendedores.size()));
+
+                Object[] material = elegir(MATERIALES, pesoMateriales, random);
+                Oferta.EstadoOferta estado = (Oferta.EstadoOferta) elegir(ESTADOS, pesoEstados, random)[0];
+                // En gramos y céntimos (ver Dinero): sin BigDecimal intermedios por fila
+                long gramos = (5 + random.nextInt(5000)) * 1000L;
+                long centimosPorKg = Math.round((Long) material[2] * (0.8 + random.nextDouble() * 0.4));
+
+                LocalDateTime fechaCreacion = ahora.minusMinutes(random.nextInt(365 * 24 * 60));
+                // Vendida entre 0 y 14 días después de publicarse (sin pasar de hoy)
+                LocalDateTime fechaVenta = estado == Oferta.EstadoOferta.VENDIDA
+                        ? min(fechaCreacion.plusMinutes(random.nextInt(14 * 24 * 60)), ahora)
+                        : null;
+
+                filas.add(new Object[]{
+                        vendedorId,
+                        material[0],
+                        Cantidad.aKilos(gramos),
+                        Dinero.aBigDecimal(centimosPorKg),
+                        Dinero.aBigDecimal(Dinero.totalOferta(gramos, centimosPorKg)),
+                        "Lote de " + material[0].toString().toLowerCase() + " para reciclaje",
+                        "Bodega " + (1 + random.nextInt(40)),
+                        estado.name(),
+                        Timestamp.valueOf(fechaCreacion),
+                        fechaVenta == null ? null : Timestamp.valueOf(fechaVenta)
+                });
+            }
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                    "INSERT INTO ofertas (id, vendedor_id, tipo_material, cantidad, precio_unitario, precio_total, "
+                            + "descripcion, ubicacion, estado, fecha_creacion, fecha_venta) "
+                            + "VALUES (nextval('ofertas_id_seq'), ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                    filas));
+            if ((desde / LOTE) % 50 == 49) {
+                log.info("🌱 {} / {} ofertas", desde + LOTE, ofertas);
+            }
+        }
+
+        return jdbcTemplate.queryForObject(
+                "SELECT MIN(o.id), MAX(o.id) FROM ofertas o JOIN usuarios u ON u.id = o.vendedor_id "
+                        + "WHERE u.email LIKE '%" + DOMINIO + "'",
+                (rs, n) -> new long[]{rs.getLong(1), rs.getLong(2)});
+    }
+
+    private void escribirManifiesto(long[] rangoOfertas) throws IOException {
+        Properties propiedades = new Properties();
+        propiedades.setProperty("vendedores", String.valueOf(vendedores));
+        propiedades.setProperty("admins", String.valueOf(admins));
+        propiedades.setProperty("password", password);
+        propiedades.setProperty("email.vendedor", "vendedor{n}" + DOMINIO);
+        propiedades.setProperty("email.admin", "admin{n}" + DOMINIO);
+        propiedades.setProperty("ofertas.desde", String.valueOf(rangoOfertas[0]));
+        propiedades.setProperty("ofertas.hasta", String.valueOf(rangoOfertas[1]));
+        propiedades.setProperty("aleatoria", String.valueOf(semillaAleatoria));
+
+        Path ruta = Paths.get(manifiesto);
+        if (ruta.getParent() != null) {
+            Files.createDirectories(ruta.getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(ruta, StandardCharsets.UTF_8)) {
+            propiedades.store(writer, "Datos de carga generados por SembradorDatosCarga");
+        }
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static int sumarPesos(Object[][] distribucion) {
+        int total = 0;
+        for (Object[] fila : distribucion) {
+            total += (Integer) fila[1];
+        }
+        return total;
+    }
+
+    private static Object[] elegir(Object[][] distribucion, int pesoTotal, Random random) {
+        int r = random.nextInt(pesoTotal);
+        for (Object[] fila : distribucion) {
+            r -= (Integer) fila[1];
+            if (r < 0) {
+                return fila;
+            }
+        }
+        return distribucion[distribucion.length - 1];
+    }
+}
@@ -0,0 +1,159 @@
+package com.chatarra.auth.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationFilter;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.aop.ObservedAspect;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import net.ttddyy.observation.tracing.QueryContext;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Configuración de trazas distribuidas (Micrometer Observation + OpenTelemetry).
+ *
+ * Spans generados en cada petición:
+ * - HTTP (automático de Spring MVC)
+ * - chatarra.jwt.filtro: JwtRequestFilter
+ * - Servicios anotados con @Observed (OfertaService, AdminService, AuthService)
+ * - chatarra.repositorio: cada método de los repositorios de Spring Data
+ * - Cada conexión y sentencia SQL (datasource-micrometer), con su huella (db.statement.fingerprint)
+ * - chatarra.json.serializacion: escritura del body JSON de la respuesta
+ *
+ * Exportación:
+ * - A un colector OTLP local si se define management.otlp.tracing.endpoint
+ * - A un archivo JSON (trazas.archivo.habilitado=true), sin necesidad de red
+ *
+ * Por defecto se muestrea el 10% de las peticiones y no se escribe archivo; el perfil "trazas"
+ * (desarrollo) guarda todos los spans en logs/trazas.jsonl.
+ */
+@Configuration
+public class TracingConfig {
+
+    /**
+     * Habilita @Observed en los servicios
+     */
+    @Bean
+    public ObservedAspect observedAspect(ObservationRegistry observationRegistry) {
+        return new ObservedAspect(observationRegistry);
+    }
+
+    /**
+     * Exportador de spans a archivo (funciona sin colector)
+     */
+    @Bean
+    @ConditionalOnProperty(name = "trazas.archivo.habilitado", havingValue = "true")
+    public SpanExporter archivoSpanExporter(@Value("${trazas.archivo.ruta:logs/trazas.jsonl}") String ruta)
+            throws IOException {
+        return new ArchivoSpanExporter(Paths.get(ruta));
+    }
+
+    /**
+     * Agrega a cada span SQL una huella de la sentencia: el texto normalizado (sin literales
+     * ni espacios extra) resumido en un hash. Permite agrupar sentencias iguales.
+     */
+    @Bean
+    public ObservationFilter huellaSqlObservationFilter() {
+        return context -> {
+            if (context instanceof QueryContext queryContext && !queryContext.getQueries().isEmpty()) {
+                context.addHighCardinalityKeyValue(KeyValue.of("db.statement.fingerprint",
+                        HuellaSql.calcular(queryContext.getQueries().get(0))));
+            }
+            return context;
+        };
+    }
+
+    /**
+     * Envuelve cada repositorio de Spring Data con un span "chatarra.repositorio"
+     * (los spans SQL quedan como hijos del método del repositorio que los generó)
+     */
+    @Bean
+    public static BeanPostProcessor observacionRepositoriosPostProcessor(
+            ObjectProvider<ObservationRegistry> observationRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, info) -> proxyFactory.addAdvice(interceptorRepositorio(
+                                    observationRegistry, info.getRepositoryInterface().getSimpleName()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Conversor JSON que crea un span por cada respuesta serializada
+     * (reemplaza al conversor por defecto de Spring Boot)
+     */
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(
+            ObjectMapper objectMapper, ObservationRegistry observationRegistry) {
+        return new MappingJackson2HttpMessageConverter(objectMapper) {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+                    throws IOException {
+                // observeChecked abre el scope, registra el error y cierra el span
+                Observation.createNotStarted("chatarra.json.serializacion", observationRegistry)
+                        .lowCardinalityKeyValue("tipo", object.getClass().getSimpleName())
+                        .observeChecked(() -> super.writeInternal(object, type, outputMessage));
+            }
+        };
+    }
+
+    private static MethodInterceptor interceptorRepositorio(ObjectProvider<ObservationRegistry> registry,
+                                                            String repositorio) {
+        return invocation -> {
+            String metodo = invocation.getMethod().getName();
+            if (invocation.getMethod().getDeclaringClass() == Object.class) {
+                return invocation.proceed();
+            }
+            return Observation.createNotStarted("chatarra.repositorio",
+                            registry.getIfAvailable(() -> ObservationRegistry.NOOP))
+                    .contextualName(repositorio + "." + metodo)
+                    .lowCardinalityKeyValue("repositorio", repositorio)
+                    .lowCardinalityKeyValue("metodo", metodo)
+                    .observeChecked(invocation::proceed);
+        };
+    }
+
+    /**
+     * Huella de una sentencia SQL: literales → ?, espacios colapsados, minúsculas.
+     */
+    static final class HuellaSql {
+
+        private static final Pattern LITERAL_TEXTO = Pattern.compile("'(?:[^']|'')*'");
+        private static final Pattern LITERAL_NUMERO = Pattern.compile("\\b\\d+(\\.\\d+)?\\b");
+        private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+        static String calcular(String sql) {
+            String normalizado = LITERAL_TEXTO.matcher(sql).replaceAll("?");
+            normalizado = LITERAL_NUMERO.matcher(normalizado).replaceAll("?");
+            normalizado = ESPACIOS.matcher(normalizado).replaceAll(" ").trim().toLowerCase(Locale.ROOT);
+
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < normalizado.length(); i++) {
+                hash ^= normalizado.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return Long.toHexString(hash);
+        }
+    }
+}
@@ -1,17 +1,37 @@
 // src/main/java/com/chatarra/auth/controller/AdminController.java
 package com.chatarra.auth.controller;
 
+import com.chatarra.auth.dto.ConsultaAnaliticaDTO;
+import com.chatarra.auth.dto.CrearSubastaDTO;
+import com.chatarra.auth.dto.ElevacionLogDTO;
+import com.chatarra.auth.dto.EstadisticasPlataformaDTO;
+import com.chatarra.auth.dto.ResultadoAnaliticaDTO;
+import com.chatarra.auth.dto.SubastaDTO;
 import com.chatarra.auth.dto.UpdateRoleDTO;
 import com.chatarra.auth.dto.UserDTO;
+import com.chatarra.auth.dto.VentaAgregadaDTO;
 import com.chatarra.auth.entity.Oferta;
+import com.chatarra.auth.entity.OfertaArchivada;
+import com.chatarra.auth.entity.RegistroAuditoria;
 import com.chatarra.auth.service.AdminService;
+import com.chatarra.auth.service.AnaliticaColumnarService;
+import com.chatarra.auth.service.ArchivoOfertasService;
+import com.chatarra.auth.service.AuditoriaService;
+import com.chatarra.auth.service.EstadisticasPlataformaService;
+import com.chatarra.auth.service.NivelLogService;
 import com.chatarra.auth.service.OfertaService;
+import com.chatarra.auth.service.SubastaService;
+import com.chatarra.auth.service.VentasAgregadasService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -24,6 +44,13 @@ public class AdminController {
 
     private final AdminService adminService;
     private final OfertaService ofertaService;
+    private final NivelLogService nivelLogService;
+    private final ArchivoOfertasService archivoOfertasService;
+    private final EstadisticasPlataformaService estadisticasPlataformaService;
+    private final VentasAgregadasService ventasAgregadasService;
+    private final AnaliticaColumnarService analiticaColumnarService;
+    private final SubastaService subastaService;
+    private final AuditoriaService auditoriaService;
 
     // ========== GESTIÓN DE USUARIOS ==========
 
@@ -73,7 +100,7 @@ public class AdminController {
     // ========== GESTIÓN DE OFERTAS ==========
 
     /**
-     * Obtener todas las ofertas del sistema
+     * Obtener todas las ofertas del sistema, sin las archivadas (ver GET /api/admin/ofertas/archivo)
      * GET /api/admin/ofertas
      */
     @GetMapping("/ofertas")
@@ -126,4 +153,164 @@ public class AdminController {
         Oferta oferta = ofertaService.cambiarEstadoOfertaAdmin(id, Oferta.EstadoOferta.VENDIDA);
         return ResponseEntity.ok(oferta);
     }
-}
\ No newline at end of file
+
+    // ========== SUBASTAS ==========
+
+    /**
+     * Abrir una subasta sobre una oferta APROBADA (precios por kg)
+     * POST /api/admin/ofertas/{id}/subasta
+     * Body: { "duracionMinutos": 60, "precioInicial": 8.00, "incrementoMinimo": 0.10 }
+     */
+    @PostMapping("/ofertas/{id}/subasta")
+    public ResponseEntity<SubastaDTO> crearSubasta(@PathVariable Long id, @Valid @RequestBody CrearSubastaDTO dto) {
+        return ResponseEntity.ok(subastaService.crear(id, dto));
+    }
+
+    /**
+     * Cerrar ya una subasta: se adjudica a la mejor puja (o queda desierta)
+     * POST /api/admin/subastas/{id}/cerrar
+     */
+    @PostMapping("/subastas/{id}/cerrar")
+    public ResponseEntity<SubastaDTO> cerrarSubasta(@PathVariable Long id) {
+        return ResponseEntity.ok(subastaService.cerrar(id));
+    }
+
+    /**
+     * Cancelar una subasta sin adjudicar: la oferta sigue APROBADA
+     * POST /api/admin/subastas/{id}/cancelar
+     */
+    @PostMapping("/subastas/{id}/cancelar")
+    public ResponseEntity<SubastaDTO> cancelarSubasta(@PathVariable Long id) {
+        return ResponseEntity.ok(subastaService.cancelar(id));
+    }
+
+    /**
+     * Estadísticas globales: ofertas por estado, volumen por material y ventas por día
+     * GET /api/admin/estadisticas?dias=30
+     */
+    @GetMapping("/estadisticas")
+    public ResponseEntity<EstadisticasPlataformaDTO> getEstadisticas(@RequestParam(defaultValue = "30") int dias) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(estadisticasPlataformaService.getTtl()).cachePrivate())
+                .body(estadisticasPlataformaService.obtener(dias));
+    }
+
+    /**
+     * Ventas agregadas (buckets por hora y día) en un rango, agrupadas por dia, hora, material y/o vendedor
+     * GET /api/admin/ventas?desde=2024-01-01T00:00&hasta=2024-07-01T00:00&agrupar=material,dia
+     */
+    @GetMapping("/ventas")
+    public ResponseEntity<List<VentaAgregadaDTO>> getVentasAgregadas(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            @RequestParam(required = false) String agrupar,
+            @RequestParam(required = false) String tipoMaterial,
+            @RequestParam(required = false) Long vendedorId
+    ) {
+        return ResponseEntity.ok(ventasAgregadasService.consultar(desde,
+                hasta != null ? hasta : LocalDateTime.now(),
+                VentasAgregadasService.parsearClaves(agrupar), tipoMaterial, vendedorId));
+    }
+
+    // ========== ANALÍTICA (INSTANTÁNEA COLUMNAR) ==========
+
+    /**
+     * Consulta ad hoc sobre la instantánea en memoria: filtros opcionales, agrupación y sumas
+     * GET /api/admin/analitica/ofertas?tiposMaterial=COBRE,BRONCE&estados=VENDIDA&precioMin=5
+     *     &ubicacion=bodega&desde=2024-01-01&hasta=2025-01-01&agrupar=material,mes
+     */
+    @GetMapping("/analitica/ofertas")
+    public ResponseEntity<ResultadoAnaliticaDTO> consultarAnalitica(ConsultaAnaliticaDTO consulta) {
+        return ResponseEntity.ok(analiticaColumnarService.consultar(consulta));
+    }
+
+    /**
+     * Vuelve a leer todas las ofertas (p. ej. después de cargar datos con SQL directo)
+     * POST /api/admin/analitica/recargar
+     */
+    @PostMapping("/analitica/recargar")
+    public ResponseEntity<Map<String, Integer>> recargarAnalitica() {
+        return ResponseEntity.ok(Map.of("ofertas", analiticaColumnarService.recargar()));
+    }
+
+    // ========== ARCHIVO DE OFERTAS CERRADAS ==========
+
+    /**
+     * Ofertas archivadas creadas en un periodo
+     * GET /api/admin/ofertas/archivo?desde=2024-01-01&hasta=2024-02-01&maximo=500
+     */
+    @GetMapping("/ofertas/archivo")
+    public ResponseEntity<List<OfertaArchivada>> getOfertasArchivadas(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(defaultValue = "500") int maximo
+    ) {
+        return ResponseEntity.ok(archivoOfertasService.buscarPorPeriodo(desde, hasta, Math.min(maximo, 5000)));
+    }
+
+    /**
+     * Archivar ahora las ofertas cerradas antiguas (sin esperar a la tarea nocturna)
+     * POST /api/admin/ofertas/archivo
+     */
+    @PostMapping("/ofertas/archivo")
+    public ResponseEntity<Map<String, Integer>> archivarOfertas() {
+        return ResponseEntity.ok(Map.of("archivadas", archivoOfertasService.archivar()));
+    }
+
+    // ========== AUDITORÍA ==========
+
+    /**
+     * Historial de auditoría de una entidad o de un actor (el más reciente primero)
+     * GET /api/admin/auditoria?entidad=OFERTA&entidadId=12&maximo=100
+     * GET /api/admin/auditoria?actor=admin@chatarra.com&antesDe=5000
+     * Página siguiente: antesDe = id del último registro recibido
+     */
+    @GetMapping("/auditoria")
+    public ResponseEntity<List<RegistroAuditoria>> getAuditoria(
+            @RequestParam(required = false) String entidad,
+            @RequestParam(required = false) String entidadId,
+            @RequestParam(required = false) String actor,
+            @RequestParam(required = false) Long antesDe,
+            @RequestParam(defaultValue = "100") int maximo
+    ) {
+        int limite = Math.max(1, Math.min(maximo, 1000));
+        if (entidad != null && entidadId != null) {
+            return ResponseEntity.ok(auditoriaService.porEntidad(entidad, entidadId, antesDe, limite));
+        }
+        if (actor != null) {
+            return ResponseEntity.ok(auditoriaService.porActor(actor, antesDe, limite));
+        }
+        throw new IllegalArgumentException("Indique entidad y entidadId, o actor");
+    }
+
+    // ========== LOGS EN TIEMPO DE EJECUCIÓN ==========
+
+    /**
+     * Elevar el nivel de log para un usuario o una petición (sin reiniciar)
+     * POST /api/admin/logs/elevaciones
+     * Body: { "tipo": "USUARIO" | "REQUEST", "valor": "...", "nivel": "DEBUG", "minutos": 15 }
+     */
+    @PostMapping("/logs/elevaciones")
+    public ResponseEntity<ElevacionLogDTO> elevarLogs(@Valid @RequestBody ElevacionLogDTO dto) {
+        return ResponseEntity.ok(nivelLogService.elevar(dto));
+    }
+
+    /**
+     * Listar las elevaciones activas
+     * GET /api/admin/logs/elevaciones
+     */
+    @GetMapping("/logs/elevaciones")
+    public ResponseEntity<List<ElevacionLogDTO>> listarElevacionesLogs() {
+        return ResponseEntity.ok(nivelLogService.listar());
+    }
+
+    /**
+     * Quitar una elevación antes de que venza
+     * DELETE /api/admin/logs/elevaciones/{tipo}/{valor}
+     */
+    @DeleteMapping("/logs/elevaciones/{tipo}/{valor:.+}")
+    public ResponseEntity<Void> quitarElevacionLogs(@PathVariable String tipo, @PathVariable String valor) {
+        nivelLogService.quitar(tipo, valor);
+        return ResponseEntity.noContent().build();
+    }
+}
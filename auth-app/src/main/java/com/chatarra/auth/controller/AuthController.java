@@ -2,13 +2,17 @@ package com.chatarra.auth.controller;
 
 import com.chatarra.auth.dto.AuthResponseDTO;
 import com.chatarra.auth.dto.LoginDTO;
+import com.chatarra.auth.dto.RefreshTokenDTO;
 import com.chatarra.auth.dto.RegistroDTO;
+import com.chatarra.auth.security.LimitadorLogin;
 import com.chatarra.auth.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -20,6 +24,8 @@ import java.util.Map;
  * Endpoints disponibles:
  * - POST /api/auth/register - Registrar nuevo usuario
  * - POST /api/auth/login - Autenticar usuario
+ * - POST /api/auth/refresh - Renovar el token de acceso
+ * - POST /api/auth/logout - Cerrar sesión (revoca los tokens)
  * - GET /api/auth/test - Verificar que la API está funcionando
  * - GET /api/auth/info - Información sobre la API
  *
@@ -35,6 +41,7 @@ import java.util.Map;
 public class AuthController {
 
     private final AuthService authService;
+    private final LimitadorLogin limitadorLogin;
 
     /**
      * Endpoint para registrar un nuevo usuario.
@@ -100,22 +107,37 @@ public class AuthController {
      *   "email": "juan@test.com"
      * }
      *
+     * Si se supera el límite de intentos por IP o por email responde
+     * 429 Too Many Requests con el header Retry-After.
+     *
      * @param loginDTO Credenciales del usuario
      * @return ResponseEntity con AuthResponseDTO
      */
     @PostMapping("/login")
-    public ResponseEntity<AuthResponseDTO> login(@Valid @RequestBody LoginDTO loginDTO) {
+    public ResponseEntity<AuthResponseDTO> login(@Valid @RequestBody LoginDTO loginDTO,
+                                                 HttpServletRequest request) {
         log.info("POST /api/auth/login - Usuario intentando login: {}", loginDTO.getEmail());
 
+        // Detrás de un proxy, configurar server.forward-headers-strategy para obtener la IP real
+        String ip = request.getRemoteAddr();
+
+        // Rechazar antes de consultar la base de datos y BCrypt
+        limitadorLogin.verificar(ip, loginDTO.getEmail());
+
         try {
             // Llamar al servicio para autenticar el usuario
             AuthResponseDTO response = authService.login(loginDTO);
+            limitadorLogin.registrarExito(ip, loginDTO.getEmail());
 
             log.info("Login exitoso para: {}", loginDTO.getEmail());
 
             // Retornar respuesta con status 200 (OK)
             return ResponseEntity.ok(response);
 
+        } catch (BadCredentialsException e) {
+            limitadorLogin.registrarFallo(ip, loginDTO.getEmail());
+            log.error("Error al autenticar usuario: {}", e.getMessage());
+            throw e;
         } catch (Exception e) {
             // Las excepciones son manejadas por GlobalExceptionHandler
             log.error("Error al autenticar usuario: {}", e.getMessage());
@@ -123,6 +145,56 @@ public class AuthController {
         }
     }
 
+    /**
+     * Endpoint para renovar el token de acceso (de corta duración).
+     *
+     * URL: POST http://localhost:8080/api/auth/refresh
+     *
+     * Body (JSON):
+     * {
+     *   "refreshToken": "Yx3...q8"
+     * }
+     *
+     * Respuesta exitosa (200 OK): igual que el login, con un token de acceso
+     * y un token de refresco NUEVOS. El token de refresco enviado deja de servir.
+     *
+     * @param dto Token de refresco
+     * @return ResponseEntity con AuthResponseDTO
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponseDTO> refrescar(@Valid @RequestBody RefreshTokenDTO dto) {
+        return ResponseEntity.ok(authService.refrescar(dto));
+    }
+
+    /**
+     * Endpoint para cerrar sesión.
+     *
+     * URL: POST http://localhost:8080/api/auth/logout
+     * Header (opcional): Authorization: Bearer {token de acceso}
+     *
+     * Body (JSON):
+     * {
+     *   "refreshToken": "Yx3...q8"
+     * }
+     *
+     * Revoca el token de refresco (y su familia) y el token de acceso actual.
+     *
+     * @param dto Token de refresco
+     * @param authorization Header Authorization con el token de acceso
+     * @return 204 No Content
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+            @Valid @RequestBody RefreshTokenDTO dto,
+            @RequestHeader(value = "Authorization", required = false) String authorization
+    ) {
+        String tokenAcceso = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7)
+                : null;
+        authService.logout(dto, tokenAcceso);
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * Endpoint de prueba para verificar que el servidor está funcionando.
      *
@@ -169,6 +241,8 @@ public class AuthController {
         Map<String, String> endpoints = new HashMap<>();
         endpoints.put("register", "POST /api/auth/register");
         endpoints.put("login", "POST /api/auth/login");
+        endpoints.put("refresh", "POST /api/auth/refresh");
+        endpoints.put("logout", "POST /api/auth/logout");
         endpoints.put("test", "GET /api/auth/test");
         endpoints.put("info", "GET /api/auth/info");
 
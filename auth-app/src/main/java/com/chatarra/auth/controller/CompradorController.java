@@ -0,0 +1,155 @@
+package com.chatarra.auth.controller;
+
+import com.chatarra.auth.dto.CrearBusquedaDTO;
+import com.chatarra.auth.dto.CrearReservaDTO;
+import com.chatarra.auth.entity.AlertaBusqueda;
+import com.chatarra.auth.entity.BusquedaGuardada;
+import com.chatarra.auth.entity.Oferta;
+import com.chatarra.auth.entity.Reserva;
+import com.chatarra.auth.entity.Usuario;
+import com.chatarra.auth.repository.UsuarioRepository;
+import com.chatarra.auth.service.BusquedasGuardadasService;
+import com.chatarra.auth.service.ReservaService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controller para los compradores: ofertas disponibles, reservas de cantidad y búsquedas guardadas
+ */
+@RestController
+@RequestMapping("/api/comprador")
+@RequiredArgsConstructor
+@PreAuthorize("hasAnyRole('COMPRADOR', 'ADMIN')")
+public class CompradorController {
+
+    private final ReservaService reservaService;
+    private final BusquedasGuardadasService busquedasGuardadasService;
+    private final UsuarioRepository usuarioRepository;
+
+    /**
+     * Ofertas APROBADAS con cantidad sin reservar
+     * GET /api/comprador/ofertas
+     */
+    @GetMapping("/ofertas")
+    public ResponseEntity<List<Oferta>> obtenerOfertasDisponibles() {
+        return ResponseEntity.ok(reservaService.ofertasDisponibles());
+    }
+
+    /**
+     * Reservar parte de una oferta (vence si no se confirma a tiempo)
+     * POST /api/comprador/reservas
+     * Body: { "ofertaId": 12, "cantidad": 250.5 }
+     */
+    @PostMapping("/reservas")
+    public ResponseEntity<Reserva> reservar(
+            @Valid @RequestBody CrearReservaDTO dto,
+            Authentication authentication
+    ) {
+        Reserva reserva = reservaService.reservar(obtenerIdUsuarioAutenticado(authentication), dto);
+        return ResponseEntity.status(HttpStatus.CREATED).body(reserva);
+    }
+
+    /**
+     * Obtener mis reservas
+     * GET /api/comprador/reservas
+     */
+    @GetMapping("/reservas")
+    public ResponseEntity<List<Reserva>> obtenerMisReservas(Authentication authentication) {
+        return ResponseEntity.ok(reservaService.listarDelComprador(obtenerIdUsuarioAutenticado(authentication)));
+    }
+
+    /**
+     * Confirmar una reserva pendiente
+     * POST /api/comprador/reservas/{id}/confirmar
+     */
+    @PostMapping("/reservas/{id}/confirmar")
+    public ResponseEntity<Reserva> confirmarReserva(@PathVariable Long id, Authentication authentication) {
+        return ResponseEntity.ok(reservaService.confirmar(id, obtenerIdUsuarioAutenticado(authentication)));
+    }
+
+    /**
+     * Cancelar una reserva pendiente (la cantidad vuelve a la oferta)
+     * POST /api/comprador/reservas/{id}/cancelar
+     */
+    @PostMapping("/reservas/{id}/cancelar")
+    public ResponseEntity<Reserva> cancelarReserva(@PathVariable Long id, Authentication authentication) {
+        return ResponseEntity.ok(reservaService.cancelar(id, obtenerIdUsuarioAutenticado(authentication)));
+    }
+
+    /**
+     * Guardar una búsqueda: avisa de cada oferta aprobada que la cumpla (condiciones opcionales)
+     * POST /api/comprador/busquedas
+     * Body: { "tipoMaterial": "COBRE", "precioMax": 9.50, "cantidadMin": 100, "ubicacion": "Santiago" }
+     */
+    @PostMapping("/busquedas")
+    public ResponseEntity<BusquedaGuardada> guardarBusqueda(
+            @Valid @RequestBody CrearBusquedaDTO dto,
+            Authentication authentication
+    ) {
+        BusquedaGuardada busqueda = busquedasGuardadasService.crear(obtenerIdUsuarioAutenticado(authentication), dto);
+        return ResponseEntity.status(HttpStatus.CREATED).body(busqueda);
+    }
+
+    /**
+     * Obtener mis búsquedas guardadas
+     * GET /api/comprador/busquedas
+     */
+    @GetMapping("/busquedas")
+    public ResponseEntity<List<BusquedaGuardada>> obtenerMisBusquedas(Authentication authentication) {
+        return ResponseEntity.ok(busquedasGuardadasService.listar(obtenerIdUsuarioAutenticado(authentication)));
+    }
+
+    /**
+     * Eliminar una búsqueda guardada (y sus alertas)
+     * DELETE /api/comprador/busquedas/{id}
+     */
+    @DeleteMapping("/busquedas/{id}")
+    public ResponseEntity<Void> eliminarBusqueda(@PathVariable Long id, Authentication authentication) {
+        busquedasGuardadasService.eliminar(id, obtenerIdUsuarioAutenticado(authentication));
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Últimas alertas de mis búsquedas
+     * GET /api/comprador/alertas?maximo=50
+     */
+    @GetMapping("/alertas")
+    public ResponseEntity<List<AlertaBusqueda>> obtenerMisAlertas(
+            @RequestParam(defaultValue = "50") int maximo,
+            Authentication authentication
+    ) {
+        return ResponseEntity.ok(busquedasGuardadasService.alertas(obtenerIdUsuarioAutenticado(authentication),
+                Math.max(1, Math.min(maximo, 500))));
+    }
+
+    /**
+     * Marcar todas mis alertas como leídas
+     * PUT /api/comprador/alertas/leidas
+     */
+    @PutMapping("/alertas/leidas")
+    public ResponseEntity<Map<String, Integer>> marcarAlertasLeidas(Authentication authentication) {
+        return ResponseEntity.ok(Map.of("marcadas",
+                busquedasGuardadasService.marcarLeidas(obtenerIdUsuarioAutenticado(authentication))));
+    }
+
+    /**
+     * Método auxiliar para obtener el ID del usuario autenticado
+     */
+    private Long obtenerIdUsuarioAutenticado(Authentication authentication) {
+        String email = ((UserDetails) authentication.getPrincipal()).getUsername();
+
+        Usuario usuario = usuarioRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado: " + email));
+
+        return usuario.getId();
+    }
+}
@@ -0,0 +1,219 @@
+package com.chatarra.auth.controller;
+
+import com.chatarra.auth.service.ImagenService;
+import com.chatarra.auth.service.ImagenService.HuellaImagen;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+
+/**
+ * Controller público para servir las imágenes de las ofertas.
+ *
+ * Envío del contenido:
+ * - Si Tomcat soporta sendfile (conector NIO sin TLS), se le delega el envío del archivo: el
+ *   kernel copia directo al socket y el contenido no pasa por el heap de Java
+ * - Si no (TLS en el propio Tomcat, MockMvc), la API de servlets solo acepta byte[]: se copia
+ *   por tramos con un único buffer de COPIA_BYTES por petición
+ *
+ * Soporta peticiones Range (bytes=inicio-fin), If-None-Match e If-Range (ETag fuerte o fecha
+ * exacta de Last-Modified). La URL es el nombre del archivo, no el hash del contenido: si se
+ * reemplaza una imagen con el mismo nombre la URL no cambia. Por eso se envía no-cache: el
+ * navegador guarda la copia pero la revalida con If-None-Match (un 304 sin cuerpo si no cambió).
+ */
+@RestController
+@RequestMapping("/api/web/imagenes")
+@RequiredArgsConstructor
+@Slf4j
+public class ImagenController {
+
+    private static final String CACHE_REVALIDAR = "public, no-cache";
+    private static final int COPIA_BYTES = 16 * 1024;
+
+    // Atributos de Tomcat para delegar el envío con sendfile
+    private static final String SENDFILE_SOPORTADO = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_ARCHIVO = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_INICIO = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_FIN = "org.apache.tomcat.sendfile.end";
+
+    private final ImagenService imagenService;
+
+    /**
+     * Servir una imagen
+     * GET /api/web/imagenes/{nombre}
+     */
+    @GetMapping("/{nombre:.+}")
+    public void servirImagen(
+            @PathVariable String nombre,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        Optional<HuellaImagen> encontrada = imagenService.buscarImagen(nombre);
+        if (encontrada.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        HuellaImagen imagen = encontrada.get();
+
+        response.setHeader(HttpHeaders.ETAG, imagen.etag());
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, imagen.modificado());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_REVALIDAR);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        // 1. Petición condicional: el cliente ya tiene esta versión
+        if (coincideEtag(request.getHeader(HttpHeaders.IF_NONE_MATCH), imagen.etag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        // 2. Resolver el rango solicitado (si If-Range no coincide se envía el archivo completo)
+        long tamano = imagen.tamano();
+        long inicio = 0;
+        long fin = tamano - 1;
+        String rango = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+
+        if (rango != null && (ifRange == null || coincideIfRange(ifRange, imagen))) {
+            long[] limites = parsearRango(rango, tamano);
+            if (limites == null) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + tamano);
+                return;
+            }
+            if (limites.length == 2) {
+                inicio = limites[0];
+                fin = limites[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + inicio + "-" + fin + "/" + tamano);
+            }
+        }
+
+        long longitud = fin - inicio + 1;
+        response.setContentType(imagen.tipo().toString());
+        response.setContentLengthLong(longitud);
+
+        if ("HEAD".equals(request.getMethod()) || longitud == 0) {
+            return;
+        }
+
+        // 3. Enviar el contenido: con sendfile sin pasar por el heap
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SOPORTADO))) {
+            request.setAttribute(SENDFILE_ARCHIVO, imagen.ruta().toString());
+            request.setAttribute(SENDFILE_INICIO, inicio);
+            request.setAttribute(SENDFILE_FIN, fin + 1);
+            return;
+        }
+
+        try (FileChannel canal = FileChannel.open(imagen.ruta(), StandardOpenOption.READ)) {
+            ServletOutputStream salida = response.getOutputStream();
+            byte[] tramo = new byte[(int) Math.min(COPIA_BYTES, longitud)];
+            ByteBuffer buffer = ByteBuffer.wrap(tramo);
+            long enviados = 0;
+            while (enviados < longitud) {
+                buffer.clear().limit((int) Math.min(tramo.length, longitud - enviados));
+                int n = canal.read(buffer, inicio + enviados);
+                if (n <= 0) {
+                    break;
+                }
+                salida.write(tramo, 0, n);
+                enviados += n;
+            }
+        }
+    }
+
+    /**
+     * If-Range: el rango se envía solo si el validador es el ETag actual (comparación fuerte:
+     * un ETag débil nunca coincide) o la fecha exacta de Last-Modified.
+     */
+    private boolean coincideIfRange(String ifRange, HuellaImagen imagen) {
+        String valor = ifRange.trim();
+        if (valor.startsWith("\"") || valor.startsWith("W/")) {
+            return valor.equals(imagen.etag());
+        }
+        try {
+            long fecha = ZonedDateTime.parse(valor, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            // Las fechas HTTP tienen precisión de segundos
+            return fecha / 1000 == imagen.modificado() / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Compara el header If-None-Match (puede traer varios ETags o "*") con el ETag actual.
+     */
+    private boolean coincideEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidato : ifNoneMatch.split(",")) {
+            String valor = candidato.trim();
+            if (valor.startsWith("W/")) {
+                valor = valor.substring(2);
+            }
+            if (valor.equals("*") || valor.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Interpreta un header Range de un solo tramo.
+     *
+     * @return {inicio, fin} si el rango es válido, un arreglo vacío si debe ignorarse
+     *         (formato desconocido o varios tramos) y null si no se puede satisfacer
+     */
+    private long[] parsearRango(String rango, long tamano) {
+        if (!rango.startsWith("bytes=") || rango.indexOf(',') >= 0) {
+            return new long[0];
+        }
+        String tramo = rango.substring(6).trim();
+        int guion = tramo.indexOf('-');
+        if (guion < 0) {
+            return new long[0];
+        }
+
+        try {
+            String desde = tramo.substring(0, guion).trim();
+            String hasta = tramo.substring(guion + 1).trim();
+            long inicio;
+            long fin;
+
+            if (desde.isEmpty()) {
+                // bytes=-500 → los últimos 500 bytes
+                long sufijo = Long.parseLong(hasta);
+                if (sufijo <= 0) {
+                    return null;
+                }
+                inicio = Math.max(0, tamano - sufijo);
+                fin = tamano - 1;
+            } else {
+                inicio = Long.parseLong(desde);
+                fin = hasta.isEmpty() ? tamano - 1 : Math.min(Long.parseLong(hasta), tamano - 1);
+            }
+
+            if (inicio >= tamano || inicio > fin) {
+                return null;
+            }
+            return new long[]{inicio, fin};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+}
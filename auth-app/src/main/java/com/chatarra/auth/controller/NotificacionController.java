@@ -0,0 +1,71 @@
+package com.chatarra.auth.controller;
+
+import com.chatarra.auth.entity.Notificacion;
+import com.chatarra.auth.entity.Usuario;
+import com.chatarra.auth.repository.UsuarioRepository;
+import com.chatarra.auth.service.NotificacionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controller para la bandeja de notificaciones del usuario autenticado (cualquier rol)
+ */
+@RestController
+@RequestMapping("/api/notificaciones")
+@RequiredArgsConstructor
+public class NotificacionController {
+
+    private final NotificacionService notificacionService;
+    private final UsuarioRepository usuarioRepository;
+
+    /**
+     * Últimas notificaciones de mi bandeja
+     * GET /api/notificaciones?maximo=50
+     */
+    @GetMapping
+    public ResponseEntity<List<Notificacion>> obtenerMisNotificaciones(
+            @RequestParam(defaultValue = "50") int maximo,
+            Authentication authentication
+    ) {
+        return ResponseEntity.ok(notificacionService.bandeja(obtenerIdUsuarioAutenticado(authentication),
+                Math.max(1, Math.min(maximo, 500))));
+    }
+
+    /**
+     * Cantidad de notificaciones sin leer
+     * GET /api/notificaciones/no-leidas
+     */
+    @GetMapping("/no-leidas")
+    public ResponseEntity<Map<String, Long>> contarNoLeidas(Authentication authentication) {
+        return ResponseEntity.ok(Map.of("noLeidas",
+                notificacionService.noLeidas(obtenerIdUsuarioAutenticado(authentication))));
+    }
+
+    /**
+     * Marcar todas mis notificaciones como leídas
+     * PUT /api/notificaciones/leidas
+     */
+    @PutMapping("/leidas")
+    public ResponseEntity<Map<String, Integer>> marcarLeidas(Authentication authentication) {
+        return ResponseEntity.ok(Map.of("marcadas",
+                notificacionService.marcarLeidas(obtenerIdUsuarioAutenticado(authentication))));
+    }
+
+    /**
+     * Método auxiliar para obtener el ID del usuario autenticado
+     */
+    private Long obtenerIdUsuarioAutenticado(Authentication authentication) {
+        String email = ((UserDetails) authentication.getPrincipal()).getUsername();
+
+        Usuario usuario = usuarioRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado: " + email));
+
+        return usuario.getId();
+    }
+}
@@ -0,0 +1,66 @@
+package com.chatarra.auth.controller;
+
+import com.chatarra.auth.dto.PujaDTO;
+import com.chatarra.auth.dto.SubastaDTO;
+import com.chatarra.auth.entity.Puja;
+import com.chatarra.auth.service.SubastaService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Subastas abiertas y pujas (cualquier usuario autenticado; el vendedor no puja en las suyas)
+ */
+@RestController
+@RequestMapping("/api/subastas")
+@RequiredArgsConstructor
+public class SubastaController {
+
+    private final SubastaService subastaService;
+
+    /**
+     * Subastas abiertas, las que terminan antes primero
+     * GET /api/subastas
+     */
+    @GetMapping
+    public ResponseEntity<List<SubastaDTO>> listarAbiertas() {
+        return ResponseEntity.ok(subastaService.listarAbiertas());
+    }
+
+    /**
+     * Estado de una subasta
+     * GET /api/subastas/{id}
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<SubastaDTO> obtener(@PathVariable Long id) {
+        return ResponseEntity.ok(subastaService.obtener(id));
+    }
+
+    /**
+     * Últimas pujas de una subasta (la más reciente primero)
+     * GET /api/subastas/{id}/pujas?maximo=20
+     */
+    @GetMapping("/{id}/pujas")
+    public ResponseEntity<List<Puja>> ultimasPujas(@PathVariable Long id,
+                                                   @RequestParam(defaultValue = "20") int maximo) {
+        return ResponseEntity.ok(subastaService.ultimasPujas(id, Math.max(1, Math.min(maximo, 200))));
+    }
+
+    /**
+     * Pujar (precio por kg)
+     * POST /api/subastas/{id}/pujas
+     * Body: { "precio": 8.75 }
+     */
+    @PostMapping("/{id}/pujas")
+    public ResponseEntity<SubastaDTO> pujar(@PathVariable Long id,
+                                            @Valid @RequestBody PujaDTO dto,
+                                            Authentication authentication) {
+        String email = ((UserDetails) authentication.getPrincipal()).getUsername();
+        return ResponseEntity.ok(subastaService.pujar(id, email, dto.getPrecio()));
+    }
+}
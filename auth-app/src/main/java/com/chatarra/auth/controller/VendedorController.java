@@ -5,16 +5,21 @@ import com.chatarra.auth.dto.EstadisticasVendedorDTO;
 import com.chatarra.auth.entity.Oferta;
 import com.chatarra.auth.entity.Usuario;
 import com.chatarra.auth.repository.UsuarioRepository;
+import com.chatarra.auth.security.JwtRequestFilter;
+import com.chatarra.auth.service.EventosVendedorService;
 import com.chatarra.auth.service.OfertaService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Instant;
 import java.util.List;
 
 /**
@@ -28,6 +33,7 @@ public class VendedorController {
 
     private final OfertaService ofertaService;
     private final UsuarioRepository usuarioRepository;
+    private final EventosVendedorService eventosVendedorService;
 
     /**
      * Obtener estadísticas del vendedor para el dashboard
@@ -40,6 +46,25 @@ public class VendedorController {
         return ResponseEntity.ok(estadisticas);
     }
 
+    /**
+     * Suscribirse a los cambios de estado de mis ofertas (Server-Sent Events)
+     * GET /api/vendedor/eventos
+     *
+     * Eventos enviados:
+     * - "estadisticas": EstadisticasVendedorDTO actualizado (al conectar y tras cada cambio)
+     * - "oferta": CambioEstadoOfertaDTO con la transición de estado
+     *
+     * La conexión se cierra cuando expira el token; el cliente se reconecta con el renovado.
+     */
+    @GetMapping(value = "/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter suscribirseEventos(
+            Authentication authentication,
+            @RequestAttribute(name = JwtRequestFilter.ATRIBUTO_EXPIRACION, required = false) Instant expiraToken
+    ) {
+        Long vendedorId = obtenerIdUsuarioAutenticado(authentication);
+        return eventosVendedorService.suscribir(vendedorId, expiraToken);
+    }
+
     /**
      * Crear una nueva oferta
      * POST /api/vendedor/ofertas
@@ -15,6 +15,8 @@ public class AuthResponseDTO {
     private String nombreCompleto;
     private String email;
     private String rol;  // ← NUEVO: Campo rol
+    private String refreshToken;  // Token para renovar el token de acceso (POST /api/auth/refresh)
+    private Long expiraEn;        // Segundos de vida del token de acceso
 
     public AuthResponseDTO(String token, Long id, String nombreCompleto, String email, String rol) {
         this.token = token;
@@ -23,4 +25,11 @@ public class AuthResponseDTO {
         this.email = email;
         this.rol = rol;  // ← NUEVO
     }
+
+    public AuthResponseDTO(String token, String refreshToken, Long expiraEn,
+                           Long id, String nombreCompleto, String email, String rol) {
+        this(token, id, nombreCompleto, email, rol);
+        this.refreshToken = refreshToken;
+        this.expiraEn = expiraEn;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.chatarra.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO que se envía por SSE al vendedor cuando cambia una de sus ofertas
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CambioEstadoOfertaDTO {
+
+    private Long eventoId;
+    private Long ofertaId;
+    private String tipo;            // CREADA, ESTADO_CAMBIADO, ELIMINADA
+    private String estadoAnterior;
+    private String estadoNuevo;
+    private LocalDateTime fecha;
+}
@@ -0,0 +1,46 @@
+package com.chatarra.auth.dto;
+
+import com.chatarra.auth.entity.Oferta;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Filtros y agrupación de GET /api/admin/analitica/ofertas (parámetros de la URL).
+ * Todos los filtros son opcionales.
+ *
+ * Ejemplo:
+ * ?tiposMaterial=COBRE,BRONCE&estados=VENDIDA&precioMin=5&desde=2024-01-01&agrupar=material,mes
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConsultaAnaliticaDTO {
+    private List<String> tiposMaterial;
+    private List<Oferta.EstadoOferta> estados;
+
+    // Texto contenido en la ubicación (sin distinguir mayúsculas)
+    private String ubicacion;
+
+    // Banda de precio unitario (inclusive)
+    private BigDecimal precioMin;
+    private BigDecimal precioMax;
+
+    // Fecha de creación en [desde, hasta)
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate desde;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate hasta;
+
+    private Long vendedorId;
+
+    // material, estado, ubicacion, dia y/o mes
+    private List<String> agrupar;
+}
@@ -0,0 +1,36 @@
+package com.chatarra.auth.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO para guardar una búsqueda (usado por el comprador). Todas las condiciones son
+ * opcionales; precios por kg.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CrearBusquedaDTO {
+
+    @Size(max = 50, message = "El tipo de material no puede exceder 50 caracteres")
+    private String tipoMaterial;
+
+    @DecimalMin(value = "0.00", message = "El precio mínimo no puede ser negativo")
+    private BigDecimal precioMin;
+
+    @DecimalMin(value = "0.01", message = "El precio máximo debe ser mayor a 0")
+    private BigDecimal precioMax;
+
+    @DecimalMin(value = "0.01", message = "La cantidad mínima debe ser mayor a 0")
+    private BigDecimal cantidadMin;
+
+    @Size(max = 200, message = "La ubicación no puede exceder 200 caracteres")
+    private String ubicacion;
+}
@@ -0,0 +1,29 @@
+package com.chatarra.auth.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO para reservar parte de una oferta APROBADA (usado por el comprador)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CrearReservaDTO {
+
+    @NotNull(message = "La oferta es obligatoria")
+    private Long ofertaId;
+
+    @NotNull(message = "La cantidad es obligatoria")
+    @DecimalMin(value = "0.01", message = "La cantidad debe ser mayor a 0")
+    @Digits(integer = 8, fraction = 2, message = "La cantidad admite hasta 2 decimales")
+    private BigDecimal cantidad;
+}
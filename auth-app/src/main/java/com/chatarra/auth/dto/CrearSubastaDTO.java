@@ -0,0 +1,34 @@
+package com.chatarra.auth.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO para abrir una subasta sobre una oferta APROBADA (usado por admin).
+ * Precios por kg; sin precioInicial se usa el precio unitario de la oferta.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CrearSubastaDTO {
+
+    @NotNull(message = "La duración es obligatoria")
+    @Min(value = 1, message = "La duración mínima es 1 minuto")
+    @Max(value = 10080, message = "La duración máxima es 7 días")
+    private Integer duracionMinutos;
+
+    @DecimalMin(value = "0.01", message = "El precio inicial debe ser mayor a 0")
+    private BigDecimal precioInicial;
+
+    @DecimalMin(value = "0.01", message = "El incremento mínimo debe ser mayor a 0")
+    private BigDecimal incrementoMinimo;
+}
@@ -0,0 +1,46 @@
+package com.chatarra.auth.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * DTO para elevar temporalmente el nivel de log de un usuario o de un requestId.
+ *
+ * Ejemplo:
+ * { "tipo": "USUARIO", "valor": "vendedor@mail.com", "nivel": "DEBUG", "minutos": 10 }
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ElevacionLogDTO {
+
+    // USUARIO (email) o REQUEST (header X-Request-Id)
+    @NotBlank(message = "El tipo es obligatorio (USUARIO o REQUEST)")
+    private String tipo;
+
+    @NotBlank(message = "El valor es obligatorio")
+    private String valor;
+
+    // Nivel mínimo que se acepta para ese usuario o petición
+    @NotBlank(message = "El nivel es obligatorio (p. ej. DEBUG)")
+    private String nivel = "DEBUG";
+
+    // Prefijo de los loggers afectados (p. ej. org.hibernate.SQL)
+    @NotBlank(message = "El logger es obligatorio (p. ej. com.chatarra)")
+    private String logger = "com.chatarra";
+
+    @NotNull(message = "La duración es obligatoria")
+    @Min(value = 1, message = "La duración mínima es 1 minuto")
+    @Max(value = 240, message = "La duración máxima es 240 minutos")
+    private Integer minutos = 15;
+
+    // Solo en respuestas
+    private Instant expiraEn;
+}
@@ -0,0 +1,59 @@
+package com.chatarra.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Estadísticas de toda la plataforma para el panel de admin (GET /api/admin/estadisticas).
+ * Incluye las ofertas archivadas.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticasPlataformaDTO {
+    // Contadores de ofertas por estado
+    private Long ofertasPendientes;
+    private Long ofertasAprobadas;
+    private Long ofertasRechazadas;
+    private Long ofertasVendidas;
+    private Long ofertasCanceladas;
+    private Long totalOfertas;
+
+    // Suma de precio_total de ofertas VENDIDAS
+    private BigDecimal totalVendido;
+
+    private List<VolumenMaterial> volumenPorMaterial;
+
+    // Ventas por día de los últimos N días (días sin ventas en 0)
+    private List<VentasDia> ventasPorDia;
+
+    private LocalDateTime generadoEn;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class VolumenMaterial {
+        private String tipoMaterial;
+        private Long ofertas;
+        private BigDecimal cantidadOfertada;   // kg en todas las ofertas
+        private BigDecimal cantidadVendida;    // kg en ofertas VENDIDAS
+        private BigDecimal totalVendido;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class VentasDia {
+        private LocalDate fecha;
+        private Long ventas;
+        private BigDecimal totalVendido;
+    }
+}
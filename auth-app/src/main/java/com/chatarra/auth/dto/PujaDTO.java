@@ -0,0 +1,22 @@
+package com.chatarra.auth.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO para pujar en una subasta
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PujaDTO {
+
+    @NotNull(message = "El precio es obligatorio")
+    @DecimalMin(value = "0.01", message = "El precio debe ser mayor a 0")
+    private BigDecimal precio; // Por kg
+}
@@ -0,0 +1,18 @@
+package com.chatarra.auth.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO para recibir el token de refresco (refresh y logout).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshTokenDTO {
+
+    @NotBlank(message = "El token de refresco es obligatorio")
+    private String refreshToken;
+}
@@ -2,6 +2,7 @@ package com.chatarra.auth.dto;
 
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -27,4 +28,8 @@ public class RegistroDTO {
     @NotBlank(message = "La contraseña es obligatoria")
     @Size(min = 6, max = 50, message = "La contraseña debe tener entre 6 y 50 caracteres")
     private String password;
+
+    // Opcional: VENDEDOR (por defecto) o COMPRADOR. ADMIN solo lo asigna otro admin
+    @Pattern(regexp = "VENDEDOR|COMPRADOR", message = "El rol debe ser VENDEDOR o COMPRADOR")
+    private String rol;
 }
\ No newline at end of file
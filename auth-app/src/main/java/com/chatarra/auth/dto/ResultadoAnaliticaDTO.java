@@ -0,0 +1,47 @@
+package com.chatarra.auth.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Respuesta de GET /api/admin/analitica/ofertas: una fila por grupo con ofertas.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoAnaliticaDTO {
+    private List<Fila> filas;
+
+    private Long filasEscaneadas;
+    private Long filasCoincidentes;
+    private Double duracionMs;
+
+    // Momento del último cambio aplicado a la instantánea
+    private LocalDateTime actualizadoEn;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Fila {
+        // Claves de agrupación (solo las pedidas)
+        private String tipoMaterial;
+        private String estado;
+        private String ubicacion;
+        private LocalDate dia;
+        private String mes;          // yyyy-MM
+
+        private Long ofertas;
+        private BigDecimal cantidad; // kg
+        private BigDecimal total;    // Suma de precio_total
+    }
+}
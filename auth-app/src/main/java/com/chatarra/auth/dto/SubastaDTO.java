@@ -0,0 +1,35 @@
+package com.chatarra.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Estado de una subasta (precios por kg). Si está abierta, es el estado en memoria.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubastaDTO {
+    private Long id;
+    private Long ofertaId;
+    private String estado;
+
+    private BigDecimal precioInicial;
+    private BigDecimal incrementoMinimo;
+    private BigDecimal mejorPrecio;
+    private Long mejorPostorId;
+    private Integer pujas;
+
+    // Precio por kg que debe igualar o superar la siguiente puja
+    private BigDecimal pujaMinima;
+
+    private LocalDateTime inicio;
+    private LocalDateTime fin;
+    private Integer extensiones;
+}
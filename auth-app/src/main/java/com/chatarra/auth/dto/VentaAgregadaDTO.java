@@ -0,0 +1,31 @@
+package com.chatarra.auth.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Fila de GET /api/admin/ventas: totales de un grupo. Solo vienen las claves por las que se agrupó.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class VentaAgregadaDTO {
+    // Claves de agrupación
+    private LocalDate dia;
+    private LocalDateTime hora;
+    private String tipoMaterial;
+    private Long vendedorId;
+
+    private Long ventas;
+    private BigDecimal cantidad;   // kg vendidos
+    private BigDecimal total;      // Suma de precio_total
+}
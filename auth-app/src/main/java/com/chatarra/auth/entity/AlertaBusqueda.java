@@ -0,0 +1,43 @@
+package com.chatarra.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Oferta que coincidió con una búsqueda guardada. Se insertan por lotes con JDBC
+ * (BusquedasGuardadasService); una oferta avisa una sola vez por búsqueda.
+ */
+@Entity
+@Table(name = "alertas_busqueda",
+        uniqueConstraints = @UniqueConstraint(name = "uk_alertas_busqueda_oferta", columnNames = {"busqueda_id", "oferta_id"}),
+        indexes = @Index(name = "idx_alertas_comprador", columnList = "comprador_id, id"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertaBusqueda {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "busqueda_id", nullable = false)
+    private Long busquedaId;
+
+    @Column(name = "comprador_id", nullable = false)
+    private Long compradorId;
+
+    @Column(name = "oferta_id", nullable = false)
+    private Long ofertaId;
+
+    @Column(nullable = false)
+    private LocalDateTime fecha;
+
+    @Column(nullable = false)
+    private Boolean leida;
+}
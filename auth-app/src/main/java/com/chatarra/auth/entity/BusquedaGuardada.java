@@ -0,0 +1,58 @@
+package com.chatarra.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Búsqueda guardada de un comprador: recibe una alerta por cada oferta que pasa a APROBADA
+ * y cumple todas las condiciones (las vacías no filtran). Precios por kg.
+ */
+@Entity
+@Table(name = "busquedas_guardadas", indexes = {
+        @Index(name = "idx_busquedas_comprador", columnList = "comprador_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BusquedaGuardada {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "comprador_id", nullable = false)
+    private Long compradorId;
+
+    // null = cualquier material
+    @Column(length = 50)
+    private String tipoMaterial;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal precioMin;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal precioMax;
+
+    // Kg mínimos del lote
+    @Column(precision = 10, scale = 2)
+    private BigDecimal cantidadMin;
+
+    // Texto que debe contener la ubicación de la oferta (sin distinguir mayúsculas)
+    @Column(length = 255)
+    private String ubicacion;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime fechaCreacion;
+
+    @PrePersist
+    protected void onCreate() {
+        fechaCreacion = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,53 @@
+package com.chatarra.auth.entity;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Peso en gramos (long) para los cálculos internos; ver Dinero.
+ *
+ * La columna cantidad guarda kg con precision = 10, scale = 2: al convertir desde BigDecimal
+ * se redondea a centésimas de kg (HALF_UP), así los gramos siempre son múltiplos de 10 y
+ * coinciden con lo que queda guardado.
+ */
+public record Cantidad(long gramos) implements Comparable<Cantidad> {
+
+    public static final Cantidad CERO = new Cantidad(0);
+
+    public static Cantidad deKilos(BigDecimal kilos) {
+        return new Cantidad(gramos(kilos));
+    }
+
+    /**
+     * Gramos de una cantidad en kg (null cuenta como 0)
+     */
+    public static long gramos(BigDecimal kilos) {
+        return kilos == null ? 0
+                : Math.multiplyExact(kilos.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact(), 10);
+    }
+
+    /**
+     * Kg con scale 2, como en la columna
+     */
+    public static BigDecimal aKilos(long gramos) {
+        return BigDecimal.valueOf(Dinero.dividirRedondeando(gramos, 10), 2);
+    }
+
+    public Cantidad sumar(Cantidad otra) {
+        return new Cantidad(Math.addExact(gramos, otra.gramos));
+    }
+
+    public BigDecimal aKilos() {
+        return aKilos(gramos);
+    }
+
+    @Override
+    public int compareTo(Cantidad otra) {
+        return Long.compare(gramos, otra.gramos);
+    }
+
+    @Override
+    public String toString() {
+        return aKilos().toPlainString() + " kg";
+    }
+}
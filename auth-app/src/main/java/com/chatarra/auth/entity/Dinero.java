@@ -0,0 +1,96 @@
+package com.chatarra.auth.entity;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Importe en céntimos (long) para los cálculos internos: totales de ofertas, agregaciones
+ * y carga masiva. Sumar y multiplicar longs es exacto y no crea objetos; se convierte a
+ * BigDecimal solo al salir hacia la API o JPA.
+ *
+ * Mismas reglas que las columnas de dinero (precision = 10, scale = 2):
+ * - Redondeo a céntimos HALF_UP, como NUMERIC en PostgreSQL
+ * - El importe de una oferta no puede superar 99.999.999,99 (totalOferta lanza
+ *   ArithmeticException, igual que la base de datos rechazaría el valor). Las sumas de muchas
+ *   ofertas no tienen ese límite, solo el de long (se comprueba el desbordamiento)
+ *
+ * Los métodos estáticos trabajan con long sin envolver, para los bucles de agregación.
+ */
+public record Dinero(long centimos) implements Comparable<Dinero> {
+
+    public static final Dinero CERO = new Dinero(0);
+
+    // precision 10, scale 2
+    public static final long MAXIMO_COLUMNA = 9_999_999_999L;
+
+    public static Dinero de(BigDecimal valor) {
+        return new Dinero(centimos(valor));
+    }
+
+    /**
+     * Total de una oferta: cantidad (gramos) por precio por kg (céntimos), redondeado a céntimos
+     */
+    public static Dinero totalOferta(Cantidad cantidad, Dinero precioPorKg) {
+        return new Dinero(totalOferta(cantidad.gramos(), precioPorKg.centimos()));
+    }
+
+    public static long totalOferta(long gramos, long centimosPorKg) {
+        long total = dividirRedondeando(Math.multiplyExact(gramos, centimosPorKg), 1000);
+        if (Math.abs(total) > MAXIMO_COLUMNA) {
+            throw new ArithmeticException("El importe " + aBigDecimal(total) + " supera precision 10, scale 2");
+        }
+        return total;
+    }
+
+    /**
+     * Céntimos de un BigDecimal (null cuenta como 0)
+     */
+    public static long centimos(BigDecimal valor) {
+        return valor == null ? 0 : valor.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal aBigDecimal(long centimos) {
+        return BigDecimal.valueOf(centimos, 2);
+    }
+
+    /**
+     * División entera con redondeo HALF_UP (la mitad se aleja de cero)
+     */
+    public static long dividirRedondeando(long dividendo, long divisor) {
+        long cociente = dividendo / divisor;
+        long resto = dividendo % divisor;
+        if (Math.abs(resto) * 2 >= Math.abs(divisor)) {
+            cociente += (dividendo < 0) == (divisor < 0) ? 1 : -1;
+        }
+        return cociente;
+    }
+
+    public Dinero sumar(Dinero otro) {
+        return new Dinero(Math.addExact(centimos, otro.centimos));
+    }
+
+    public Dinero restar(Dinero otro) {
+        return new Dinero(Math.subtractExact(centimos, otro.centimos));
+    }
+
+    /**
+     * Reparto en partes iguales (p. ej. promedio de venta), redondeado a céntimos
+     */
+    public Dinero dividir(long partes) {
+        return new Dinero(dividirRedondeando(centimos, partes));
+    }
+
+    public BigDecimal aBigDecimal() {
+        return aBigDecimal(centimos);
+    }
+
+    @Override
+    public int compareTo(Dinero otro) {
+        return Long.compare(centimos, otro.centimos);
+    }
+
+    @Override
+    public String toString() {
+        return aBigDecimal().toPlainString();
+    }
+}
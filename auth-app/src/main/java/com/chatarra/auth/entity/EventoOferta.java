@@ -0,0 +1,84 @@
+// src/main/java/com/chatarra/auth/entity/EventoOferta.java
+package com.chatarra.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Evento de dominio de una oferta (tabla outbox).
+ *
+ * Se guarda en la MISMA transacción que el cambio de la oferta, así nunca
+ * existe un cambio sin su evento ni un evento sin su cambio.
+ * RelayEventosOfertaService lo publica después a los suscriptores.
+ */
+@Entity
+@Table(name = "eventos_oferta", indexes = {
+        @Index(name = "idx_eventos_oferta_publicado", columnList = "publicado, id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventoOferta {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TipoEvento tipo;
+
+    @Column(nullable = false)
+    private Long ofertaId;
+
+    @Column(nullable = false)
+    private Long vendedorId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private Oferta.EstadoOferta estadoAnterior;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private Oferta.EstadoOferta estadoNuevo;
+
+    // Copia de los datos de la oferta al momento del evento
+    // (la oferta puede haber sido eliminada cuando se publica)
+    @Column(length = 50)
+    private String tipoMaterial;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal cantidad;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal precioTotal;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime fechaCreacion;
+
+    @Column(nullable = false)
+    private Boolean publicado;
+
+    private LocalDateTime fechaPublicacion;
+
+    @PrePersist
+    protected void onCreate() {
+        fechaCreacion = LocalDateTime.now();
+        if (publicado == null) {
+            publicado = false;
+        }
+    }
+
+    public enum TipoEvento {
+        CREADA,
+        ESTADO_CAMBIADO,
+        ELIMINADA
+    }
+}
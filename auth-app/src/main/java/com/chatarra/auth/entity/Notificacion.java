@@ -0,0 +1,87 @@
+package com.chatarra.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Notificación en la cola persistente (NotificacionService). Una fila por canal y destinatario.
+ *
+ * Las del canal APP son además la bandeja de entrada del usuario en la aplicación.
+ */
+@Entity
+@Table(name = "notificaciones",
+        uniqueConstraints = @UniqueConstraint(name = "uk_notificaciones_clave", columnNames = "clave"),
+        indexes = {
+                @Index(name = "idx_notificaciones_despacho", columnList = "estado, canal, proximo_intento"),
+                @Index(name = "idx_notificaciones_usuario", columnList = "usuario_id, id")
+        })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Notificacion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Canal canal;
+
+    // Email o URL según el canal (null en APP)
+    @Column(length = 500)
+    private String destino;
+
+    @Column(nullable = false, length = 200)
+    private String asunto;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String mensaje;
+
+    // Deduplicación: la misma clave no se encola dos veces
+    @Column(nullable = false, length = 150)
+    private String clave;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EstadoNotificacion estado;
+
+    @Column(nullable = false)
+    private Integer intentos;
+
+    @Column(name = "proximo_intento", nullable = false)
+    private LocalDateTime proximoIntento;
+
+    @Column(length = 500)
+    private String ultimoError;
+
+    @Column(nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    private LocalDateTime fechaEnvio;
+
+    @Column(nullable = false)
+    private Boolean leida;
+
+    public enum Canal {
+        APP,       // Bandeja de entrada en la aplicación
+        EMAIL,
+        WEBHOOK
+    }
+
+    public enum EstadoNotificacion {
+        PENDIENTE,
+        ENVIANDO,  // Tomada por el worker de su canal
+        ENVIADA,
+        FALLIDA    // Agotó los reintentos
+    }
+}
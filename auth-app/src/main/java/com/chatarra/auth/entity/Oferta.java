@@ -19,6 +19,8 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Oferta {
 
+    // El perfil "persistencia" lo cambia por una secuencia con bloques de 50 ids
+    // (META-INF/orm-persistencia.xml) para agrupar los INSERT en lotes JDBC
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -40,6 +42,12 @@ public class Oferta {
     @Column(precision = 10, scale = 2)
     private BigDecimal precioTotal;
 
+    // Cantidad sin reservar (null en ofertas anteriores a las reservas = toda la cantidad).
+    // Solo la cambia ReservaService con UPDATE condicionales: JPA la escribe al crear y nunca
+    // en un UPDATE, para no pisarla con un valor leído antes
+    @Column(precision = 10, scale = 2, updatable = false)
+    private BigDecimal cantidadDisponible;
+
     @Column(columnDefinition = "TEXT")
     private String descripcion;
 
@@ -56,23 +64,35 @@ public class Oferta {
     @Column(nullable = false, updatable = false)
     private LocalDateTime fechaCreacion;
 
+    // Momento en que pasó a VENDIDA (null en ofertas vendidas antes de existir la columna)
+    private LocalDateTime fechaVenta;
+
+    // true si la VENDIDA la causaron las reservas al agotar la cantidad: solo entonces vuelve a
+    // APROBADA cuando se libera una reserva (null en ofertas anteriores = false)
+    private Boolean vendidaPorReservas;
+
     @PrePersist
     protected void onCreate() {
         fechaCreacion = LocalDateTime.now();
         if (estado == null) {
             estado = EstadoOferta.PENDIENTE;
         }
-        // Calcular precio total
-        if (cantidad != null && precioUnitario != null) {
-            precioTotal = cantidad.multiply(precioUnitario);
+        if (cantidadDisponible == null) {
+            cantidadDisponible = cantidad;
         }
+        calcularPrecioTotal();
     }
 
     @PreUpdate
     protected void onUpdate() {
-        // Recalcular precio total
+        calcularPrecioTotal();
+    }
+
+    // En céntimos y gramos (ver Dinero): mismo redondeo que la columna precio_total.
+    // Público para recalcular antes del flush (adjudicación de subastas)
+    public void calcularPrecioTotal() {
         if (cantidad != null && precioUnitario != null) {
-            precioTotal = cantidad.multiply(precioUnitario);
+            precioTotal = Dinero.totalOferta(Cantidad.deKilos(cantidad), Dinero.de(precioUnitario)).aBigDecimal();
         }
     }
 
@@ -0,0 +1,87 @@
+package com.chatarra.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Oferta cerrada (VENDIDA, RECHAZADA o CANCELADA) movida fuera de la tabla ofertas
+ * por ArchivoOfertasService. Conserva el mismo ID.
+ *
+ * En PostgreSQL la tabla está particionada por mes de fecha_creacion
+ * (ver db/ofertas-archivo-particionada.sql); en otras bases es una tabla normal.
+ */
+@Entity
+@Table(name = "ofertas_archivo", indexes = {
+        @Index(name = "idx_ofertas_archivo_vendedor", columnList = "vendedor_id, fecha_creacion")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OfertaArchivada {
+
+    @Id
+    private Long id;
+
+    @Column(name = "vendedor_id", nullable = false)
+    private Long vendedorId;
+
+    @Column(nullable = false, length = 50)
+    private String tipoMaterial;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal cantidad;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal precioUnitario;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal precioTotal;
+
+    @Column(columnDefinition = "TEXT")
+    private String descripcion;
+
+    @Column(length = 255)
+    private String ubicacion;
+
+    @Column(length = 500)
+    private String imagenUrl;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Oferta.EstadoOferta estado;
+
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    private LocalDateTime fechaVenta;
+
+    @Column(nullable = false)
+    private LocalDateTime fechaArchivo;
+
+    /**
+     * La oferta como si siguiera en la tabla ofertas (para las consultas de historial)
+     */
+    public Oferta aOferta(Usuario vendedor) {
+        return Oferta.builder()
+                .id(id)
+                .vendedor(vendedor)
+                .tipoMaterial(tipoMaterial)
+                .cantidad(cantidad)
+                .precioUnitario(precioUnitario)
+                .precioTotal(precioTotal)
+                .descripcion(descripcion)
+                .ubicacion(ubicacion)
+                .imagenUrl(imagenUrl)
+                .estado(estado)
+                .fechaCreacion(fechaCreacion)
+                .fechaVenta(fechaVenta)
+                .build();
+    }
+}
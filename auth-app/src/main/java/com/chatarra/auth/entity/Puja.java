@@ -0,0 +1,44 @@
+package com.chatarra.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Puja aceptada en una subasta. La secuencia da el orden estricto dentro de la subasta.
+ * Se insertan por lotes con JDBC (MotorSubastas), nunca desde JPA.
+ */
+@Entity
+@Table(name = "pujas",
+        uniqueConstraints = @UniqueConstraint(name = "uk_pujas_subasta_secuencia", columnNames = {"subasta_id", "secuencia"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Puja {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "subasta_id", nullable = false)
+    private Long subastaId;
+
+    @Column(nullable = false)
+    private Integer secuencia;
+
+    @Column(name = "postor_id", nullable = false)
+    private Long postorId;
+
+    // Precio por kg
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal precio;
+
+    @Column(nullable = false)
+    private LocalDateTime fecha;
+}
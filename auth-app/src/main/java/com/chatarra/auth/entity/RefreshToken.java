@@ -0,0 +1,59 @@
+// src/main/java/com/chatarra/auth/entity/RefreshToken.java
+package com.chatarra.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Token de refresco (rotativo).
+ *
+ * Solo se guarda el hash SHA-256 del token, nunca el valor original.
+ * Todos los tokens obtenidos a partir del mismo login comparten una "familia":
+ * si se reutiliza un token ya rotado (posible robo), se revoca la familia completa.
+ */
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_usuario", columnList = "usuarioId"),
+        @Index(name = "idx_refresh_tokens_familia", columnList = "familia")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    @Column(nullable = false)
+    private Long usuarioId;
+
+    @Column(nullable = false, length = 36)
+    private String familia;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime fechaCreacion;
+
+    @Column(nullable = false)
+    private LocalDateTime fechaExpiracion;
+
+    @Column(nullable = false)
+    private Boolean revocado;
+
+    @PrePersist
+    protected void onCreate() {
+        fechaCreacion = LocalDateTime.now();
+        if (revocado == null) {
+            revocado = false;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.chatarra.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registro de auditoría de una acción privilegiada: quién, sobre qué, antes/después y cuándo.
+ *
+ * Solo se insertan (en la transacción de la acción, AuditoriaService) y nunca se modifican. En PostgreSQL
+ * un trigger rechaza UPDATE y DELETE (ver db/auditoria-solo-insercion.sql).
+ */
+@Entity
+@Immutable
+@Table(name = "auditoria",
+        indexes = {
+                @Index(name = "idx_auditoria_entidad", columnList = "entidad, entidad_id, id"),
+                @Index(name = "idx_auditoria_actor", columnList = "actor, id")
+        })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegistroAuditoria {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Email del usuario autenticado ("sistema" para las tareas programadas)
+    @Column(nullable = false, length = 100)
+    private String actor;
+
+    // USUARIO_ROL, USUARIO_ESTADO, OFERTA_ESTADO, SUBASTA_CREADA...
+    @Column(nullable = false, length = 50)
+    private String accion;
+
+    // USUARIO, OFERTA, SUBASTA
+    @Column(nullable = false, length = 30)
+    private String entidad;
+
+    @Column(name = "entidad_id", nullable = false, length = 100)
+    private String entidadId;
+
+    // JSON con los campos que cambiaron
+    @Column(columnDefinition = "TEXT")
+    private String antes;
+
+    @Column(columnDefinition = "TEXT")
+    private String despues;
+
+    @Column(nullable = false)
+    private LocalDateTime fecha;
+}
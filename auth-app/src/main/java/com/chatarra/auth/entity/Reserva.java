@@ -0,0 +1,78 @@
+package com.chatarra.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Reserva de parte de la cantidad de una oferta APROBADA por un comprador.
+ *
+ * Al crearse descuenta la cantidad de ofertas.cantidad_disponible. Si no se confirma antes de
+ * expiraEn pasa a EXPIRADA y la cantidad vuelve a la oferta (ReservaService).
+ */
+@Entity
+@Table(name = "reservas", indexes = {
+        @Index(name = "idx_reservas_comprador", columnList = "comprador_id"),
+        @Index(name = "idx_reservas_oferta", columnList = "oferta_id"),
+        @Index(name = "idx_reservas_estado", columnList = "estado")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Reserva {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "oferta_id", nullable = false)
+    private Long ofertaId;
+
+    @Column(name = "comprador_id", nullable = false)
+    private Long compradorId;
+
+    // Kg reservados
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal cantidad;
+
+    // Precio por kg de la oferta al reservar
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal precioUnitario;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal total;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EstadoReserva estado;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime fechaCreacion;
+
+    @Column(nullable = false)
+    private LocalDateTime expiraEn;
+
+    // Confirmación, cancelación o expiración
+    private LocalDateTime fechaCierre;
+
+    @PrePersist
+    protected void onCreate() {
+        fechaCreacion = LocalDateTime.now();
+        if (estado == null) {
+            estado = EstadoReserva.PENDIENTE;
+        }
+    }
+
+    public enum EstadoReserva {
+        PENDIENTE,
+        CONFIRMADA,
+        EXPIRADA,
+        CANCELADA
+    }
+}
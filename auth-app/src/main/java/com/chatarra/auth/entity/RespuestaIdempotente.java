@@ -0,0 +1,57 @@
+package com.chatarra.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Respuesta guardada de una petición con cabecera Idempotency-Key (IdempotenciaService).
+ * Un reintento con la misma clave del mismo usuario recibe esta respuesta sin volver a ejecutarse.
+ */
+@Entity
+@Table(name = "idempotencia",
+        uniqueConstraints = @UniqueConstraint(name = "uk_idempotencia_usuario_clave", columnNames = {"usuario", "clave"}),
+        indexes = @Index(name = "idx_idempotencia_expira", columnList = "expira"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RespuestaIdempotente {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Email del usuario autenticado
+    @Column(nullable = false, length = 100)
+    private String usuario;
+
+    @Column(nullable = false, length = 255)
+    private String clave;
+
+    // Método y ruta de la petición original: la clave no sirve para otra petición
+    @Column(nullable = false, length = 10)
+    private String metodo;
+
+    @Column(nullable = false, length = 500)
+    private String ruta;
+
+    @Column(nullable = false)
+    private Integer estado;
+
+    @Column(length = 100)
+    private String tipoContenido;
+
+    @Column(columnDefinition = "TEXT")
+    private String cuerpo;
+
+    @Column(nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    @Column(nullable = false)
+    private LocalDateTime expira;
+}
@@ -0,0 +1,46 @@
+// src/main/java/com/chatarra/auth/entity/Revocacion.java
+package com.chatarra.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Revocación de tokens de acceso, persistida para sobrevivir reinicios.
+ *
+ * - Con jti: revoca un token concreto (logout)
+ * - Con email: revoca todos los tokens del usuario emitidos antes de fechaRevocacion
+ *   (desactivación o cambio de rol)
+ *
+ * Solo hace falta conservarla hasta que expiren los tokens afectados.
+ */
+@Entity
+@Table(name = "revocaciones", indexes = {
+        @Index(name = "idx_revocaciones_expiracion", columnList = "fechaExpiracion")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Revocacion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 36)
+    private String jti;
+
+    @Column(length = 100)
+    private String email;
+
+    @Column(nullable = false)
+    private LocalDateTime fechaRevocacion;
+
+    @Column(nullable = false)
+    private LocalDateTime fechaExpiracion;
+}
@@ -0,0 +1,82 @@
+package com.chatarra.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Subasta de una oferta APROBADA. Las pujas son precio por kg.
+ *
+ * Mientras está ABIERTA el estado vigente está en memoria (MotorSubastas); esta fila se
+ * actualiza en cada escritura por lotes de pujas. Al adjudicarse, la oferta pasa a VENDIDA
+ * con el precio por kg ganador.
+ *
+ * Una sola ABIERTA por oferta: SubastaService.crear bloquea la fila de la oferta y, en
+ * PostgreSQL, lo asegura un índice único parcial (db/subastas-abierta-unica.sql).
+ */
+@Entity
+@Table(name = "subastas", indexes = {
+        @Index(name = "idx_subastas_estado", columnList = "estado"),
+        @Index(name = "idx_subastas_oferta", columnList = "oferta_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Subasta {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "oferta_id", nullable = false)
+    private Long ofertaId;
+
+    @Column(name = "vendedor_id", nullable = false)
+    private Long vendedorId;
+
+    // Precio por kg mínimo de la primera puja
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal precioInicial;
+
+    // Diferencia mínima entre una puja y la mejor anterior
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal incrementoMinimo;
+
+    @Column(nullable = false)
+    private LocalDateTime inicio;
+
+    // Se extiende con pujas de último momento (anti-sniping)
+    @Column(nullable = false)
+    private LocalDateTime fin;
+
+    @Column(nullable = false)
+    private Integer extensiones;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal mejorPrecio;
+
+    private Long mejorPostorId;
+
+    // Número de pujas aceptadas (= secuencia de la última)
+    @Column(nullable = false)
+    private Integer pujas;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EstadoSubasta estado;
+
+    private LocalDateTime fechaCierre;
+
+    public enum EstadoSubasta {
+        ABIERTA,
+        ADJUDICADA,   // Con pujas: la oferta pasó a VENDIDA
+        DESIERTA,     // Sin pujas
+        CANCELADA     // Por un admin, o la oferta ya no estaba APROBADA al cerrar
+    }
+}
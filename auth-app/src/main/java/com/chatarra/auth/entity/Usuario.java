@@ -66,6 +66,7 @@ public class Usuario implements UserDetails {
 
     public enum Rol {
         VENDEDOR,
+        COMPRADOR,  // Reserva cantidades de ofertas APROBADAS
         ADMIN
     }
 
@@ -0,0 +1,61 @@
+package com.chatarra.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Bucket de ventas (ofertas que pasaron a VENDIDA) por hora o por día, material y vendedor.
+ *
+ * Se actualiza en la misma transacción que el cambio de estado (VentasAgregadasService) y se
+ * puede reconstruir desde las ofertas (perfil "reconstruir-ventas").
+ */
+@Entity
+@Table(name = "ventas_agregadas",
+        uniqueConstraints = @UniqueConstraint(name = "uk_ventas_agregadas_bucket",
+                columnNames = {"granularidad", "inicio", "tipo_material", "vendedor_id"}),
+        indexes = @Index(name = "idx_ventas_agregadas_vendedor", columnList = "vendedor_id, granularidad, inicio"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VentaAgregada {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 4)
+    private Granularidad granularidad;
+
+    // Inicio del bucket (hora o día en punto)
+    @Column(nullable = false)
+    private LocalDateTime inicio;
+
+    @Column(name = "tipo_material", nullable = false, length = 50)
+    private String tipoMaterial;
+
+    @Column(name = "vendedor_id", nullable = false)
+    private Long vendedorId;
+
+    @Column(nullable = false)
+    private Long ventas;
+
+    // kg vendidos
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal cantidad;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal total;
+
+    public enum Granularidad {
+        HORA,
+        DIA
+    }
+}
@@ -0,0 +1,25 @@
+package com.chatarra.auth.exception;
+
+/**
+ * Excepción que se lanza cuando se supera el límite de intentos de login
+ * o la cuenta/IP está bloqueada temporalmente.
+ *
+ * Lleva los segundos que el cliente debe esperar (header Retry-After).
+ */
+public class DemasiadosIntentosException extends RuntimeException {
+
+    private final long segundosEspera;
+
+    /**
+     * @param mensaje Descripción del error
+     * @param segundosEspera Segundos hasta que se permita un nuevo intento
+     */
+    public DemasiadosIntentosException(String mensaje, long segundosEspera) {
+        super(mensaje);
+        this.segundosEspera = segundosEspera;
+    }
+
+    public long getSegundosEspera() {
+        return segundosEspera;
+    }
+}
@@ -1,5 +1,6 @@
 package com.chatarra.auth.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -98,6 +99,70 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.UNAUTHORIZED);
     }
 
+    /**
+     * Maneja: TokenInvalidoException
+     * Cuándo: El token de refresco no existe, expiró o ya fue utilizado
+     * HTTP Status: 401 Unauthorized
+     *
+     * Ejemplo de respuesta JSON:
+     * {
+     *   "timestamp": "2024-01-15T10:30:00",
+     *   "status": 401,
+     *   "error": "Unauthorized",
+     *   "mensaje": "Token de refresco expirado",
+     *   "path": "/api/auth/refresh"
+     * }
+     */
+    @ExceptionHandler(TokenInvalidoException.class)
+    public ResponseEntity<ErrorResponse> manejarTokenInvalido(
+            TokenInvalidoException ex,
+            WebRequest request) {
+
+        ErrorResponse error = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.UNAUTHORIZED.value(),
+                "Unauthorized",
+                ex.getMessage(),
+                request.getDescription(false).replace("uri=", "")
+        );
+
+        return new ResponseEntity<>(error, HttpStatus.UNAUTHORIZED);
+    }
+
+    /**
+     * Maneja: DemasiadosIntentosException
+     * Cuándo: Se supera el límite de intentos de login o la cuenta/IP está bloqueada
+     * HTTP Status: 429 Too Many Requests
+     *
+     * Incluye el header Retry-After con los segundos a esperar.
+     *
+     * Ejemplo de respuesta JSON:
+     * {
+     *   "timestamp": "2024-01-15T10:30:00",
+     *   "status": 429,
+     *   "error": "Too Many Requests",
+     *   "mensaje": "Demasiados intentos de inicio de sesión. Intente nuevamente en 60 segundos",
+     *   "path": "/api/auth/login"
+     * }
+     */
+    @ExceptionHandler(DemasiadosIntentosException.class)
+    public ResponseEntity<ErrorResponse> manejarDemasiadosIntentos(
+            DemasiadosIntentosException ex,
+            WebRequest request) {
+
+        ErrorResponse error = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                "Too Many Requests",
+                ex.getMessage(),
+                request.getDescription(false).replace("uri=", "")
+        );
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getSegundosEspera()))
+                .body(error);
+    }
+
     /**
      * Maneja: UsernameNotFoundException
      * Cuándo: No se encuentra un usuario en la base de datos
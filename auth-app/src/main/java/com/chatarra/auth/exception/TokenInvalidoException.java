@@ -0,0 +1,15 @@
+package com.chatarra.auth.exception;
+
+/**
+ * Excepción que se lanza cuando un token de refresco no es válido:
+ * no existe, expiró o ya fue utilizado.
+ */
+public class TokenInvalidoException extends RuntimeException {
+
+    /**
+     * @param mensaje Descripción del error (ej: "Token de refresco expirado")
+     */
+    public TokenInvalidoException(String mensaje) {
+        super(mensaje);
+    }
+}
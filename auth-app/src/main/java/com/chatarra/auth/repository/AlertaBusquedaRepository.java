@@ -0,0 +1,28 @@
+package com.chatarra.auth.repository;
+
+import com.chatarra.auth.entity.AlertaBusqueda;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AlertaBusquedaRepository extends JpaRepository<AlertaBusqueda, Long> {
+
+    /**
+     * Últimas alertas de un comprador (la más reciente primero)
+     */
+    List<AlertaBusqueda> findByCompradorIdOrderByIdDesc(Long compradorId, Limit limite);
+
+    @Modifying
+    @Query("UPDATE AlertaBusqueda a SET a.leida = true WHERE a.compradorId = :compradorId AND a.leida = false")
+    int marcarLeidas(@Param("compradorId") Long compradorId);
+
+    @Modifying
+    @Query("DELETE FROM AlertaBusqueda a WHERE a.busquedaId = :busquedaId")
+    int eliminarPorBusqueda(@Param("busquedaId") Long busquedaId);
+}
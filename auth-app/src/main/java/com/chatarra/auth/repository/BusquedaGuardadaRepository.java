@@ -0,0 +1,15 @@
+package com.chatarra.auth.repository;
+
+import com.chatarra.auth.entity.BusquedaGuardada;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BusquedaGuardadaRepository extends JpaRepository<BusquedaGuardada, Long> {
+
+    List<BusquedaGuardada> findByCompradorIdOrderByFechaCreacionDesc(Long compradorId);
+
+    long countByCompradorId(Long compradorId);
+}
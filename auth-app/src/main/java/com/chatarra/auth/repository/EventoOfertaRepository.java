@@ -0,0 +1,27 @@
+package com.chatarra.auth.repository;
+
+import com.chatarra.auth.entity.EventoOferta;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EventoOfertaRepository extends JpaRepository<EventoOferta, Long> {
+
+    /**
+     * Eventos pendientes de publicar, en orden de creación
+     */
+    List<EventoOferta> findTop100ByPublicadoFalseOrderByIdAsc();
+
+    /**
+     * Elimina los eventos ya publicados antes de una fecha
+     */
+    @Modifying
+    @Query("DELETE FROM EventoOferta e WHERE e.publicado = true AND e.fechaPublicacion < :limite")
+    int eliminarPublicadosAntesDe(@Param("limite") LocalDateTime limite);
+}
@@ -0,0 +1,26 @@
+package com.chatarra.auth.repository;
+
+import com.chatarra.auth.entity.Notificacion;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface NotificacionRepository extends JpaRepository<Notificacion, Long> {
+
+    /**
+     * Bandeja de entrada: últimas notificaciones de un usuario en un canal (la más reciente primero)
+     */
+    List<Notificacion> findByUsuarioIdAndCanalOrderByIdDesc(Long usuarioId, Notificacion.Canal canal, Limit limite);
+
+    long countByUsuarioIdAndCanalAndLeidaFalse(Long usuarioId, Notificacion.Canal canal);
+
+    @Modifying
+    @Query("UPDATE Notificacion n SET n.leida = true WHERE n.usuarioId = :usuarioId AND n.canal = 'APP' AND n.leida = false")
+    int marcarLeidas(@Param("usuarioId") Long usuarioId);
+}
@@ -0,0 +1,72 @@
+package com.chatarra.auth.repository;
+
+import com.chatarra.auth.entity.OfertaArchivada;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OfertaArchivadaRepository extends JpaRepository<OfertaArchivada, Long> {
+
+    /**
+     * Historial archivado de un vendedor
+     */
+    List<OfertaArchivada> findByVendedorIdOrderByFechaCreacionDesc(Long vendedorId);
+
+    /**
+     * Cantidad y total por estado de las ofertas archivadas de un vendedor: [estado, cantidad, total]
+     */
+    @Query("SELECT a.estado, COUNT(a), COALESCE(SUM(a.precioTotal), 0) FROM OfertaArchivada a "
+            + "WHERE a.vendedorId = :vendedorId GROUP BY a.estado")
+    List<Object[]> resumirPorEstado(@Param("vendedorId") Long vendedorId);
+
+    /**
+     * Lo mismo que OfertaRepository.resumirPorEstado, sobre el archivo
+     */
+    @Query("SELECT a.estado, COUNT(a), COALESCE(SUM(a.precioTotal), 0) FROM OfertaArchivada a GROUP BY a.estado")
+    List<Object[]> resumirPorEstado();
+
+    /**
+     * Lo mismo que OfertaRepository.resumirPorMaterial, sobre el archivo
+     */
+    @Query("SELECT a.tipoMaterial, COUNT(a), COALESCE(SUM(a.cantidad), 0), "
+            + "COALESCE(SUM(CASE WHEN a.estado = 'VENDIDA' THEN a.cantidad ELSE 0 END), 0), "
+            + "COALESCE(SUM(CASE WHEN a.estado = 'VENDIDA' THEN a.precioTotal ELSE 0 END), 0) "
+            + "FROM OfertaArchivada a GROUP BY a.tipoMaterial")
+    List<Object[]> resumirPorMaterial();
+
+    /**
+     * Lo mismo que OfertaRepository.resumirVentasPorDia, sobre el archivo
+     */
+    @Query("SELECT EXTRACT(DATE FROM COALESCE(a.fechaVenta, a.fechaCreacion)), COUNT(a), COALESCE(SUM(a.precioTotal), 0) "
+            + "FROM OfertaArchivada a WHERE a.estado = 'VENDIDA' AND COALESCE(a.fechaVenta, a.fechaCreacion) >= :desde "
+            + "GROUP BY EXTRACT(DATE FROM COALESCE(a.fechaVenta, a.fechaCreacion))")
+    List<Object[]> resumirVentasPorDia(@Param("desde") LocalDateTime desde);
+
+    /**
+     * Ofertas archivadas creadas en [desde, hasta). El filtro por fecha_creacion
+     * limita la consulta a las particiones de ese periodo.
+     */
+    @Query("SELECT a FROM OfertaArchivada a WHERE a.fechaCreacion >= :desde AND a.fechaCreacion < :hasta "
+            + "ORDER BY a.fechaCreacion DESC")
+    List<OfertaArchivada> buscarPorPeriodo(@Param("desde") LocalDateTime desde,
+                                          @Param("hasta") LocalDateTime hasta,
+                                          Limit limite);
+
+    /**
+     * Copia las ofertas indicadas de la tabla ofertas al archivo (INSERT ... SELECT en la base)
+     */
+    @Modifying
+    @Query("INSERT INTO OfertaArchivada (id, vendedorId, tipoMaterial, cantidad, precioUnitario, precioTotal, "
+            + "descripcion, ubicacion, imagenUrl, estado, fechaCreacion, fechaVenta, fechaArchivo) "
+            + "SELECT o.id, o.vendedor.id, o.tipoMaterial, o.cantidad, o.precioUnitario, o.precioTotal, "
+            + "o.descripcion, o.ubicacion, o.imagenUrl, o.estado, o.fechaCreacion, o.fechaVenta, :ahora "
+            + "FROM Oferta o WHERE o.id IN :ids")
+    int copiarDesdeOfertas(@Param("ids") List<Long> ids, @Param("ahora") LocalDateTime ahora);
+}
@@ -1,13 +1,19 @@
 package com.chatarra.auth.repository;
 
 import com.chatarra.auth.entity.Oferta;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OfertaRepository extends JpaRepository<Oferta, Long> {
@@ -38,8 +44,67 @@ public interface OfertaRepository extends JpaRepository<Oferta, Long> {
     @Query("SELECT COALESCE(SUM(o.precioTotal), 0) FROM Oferta o WHERE o.vendedor.id = :vendedorId AND o.estado = 'VENDIDA'")
     BigDecimal calcularTotalVendidoPorVendedor(@Param("vendedorId") Long vendedorId);
 
+    /**
+     * Ofertas APROBADAS con cantidad sin reservar (con el vendedor en la misma consulta)
+     */
+    @Query("SELECT o FROM Oferta o JOIN FETCH o.vendedor WHERE o.estado = 'APROBADA' "
+            + "AND COALESCE(o.cantidadDisponible, o.cantidad) > 0 ORDER BY o.fechaCreacion DESC")
+    List<Oferta> buscarDisponiblesParaReservar();
+
     /**
      * Encuentra las ofertas más recientes de un vendedor (limitado)
      */
     List<Oferta> findTop5ByVendedorIdOrderByFechaCreacionDesc(Long vendedorId);
-}
\ No newline at end of file
+
+    /**
+     * Oferta con la fila bloqueada hasta el fin de la transacción: reservas y subastas sobre la
+     * misma oferta se ejecutan de a una
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Oferta o WHERE o.id = :id")
+    Optional<Oferta> bloquearPorId(@Param("id") Long id);
+
+    /**
+     * IDs de ofertas en los estados indicados creadas antes de la fecha límite (para archivar).
+     * Bloquea las filas: un cambio de estado concurrente espera a que termine el lote.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o.id FROM Oferta o WHERE o.estado IN :estados AND o.fechaCreacion < :limite ORDER BY o.id")
+    List<Long> buscarIdsParaArchivar(@Param("estados") List<Oferta.EstadoOferta> estados,
+                                     @Param("limite") LocalDateTime limite,
+                                     Limit cantidad);
+
+    /**
+     * Fecha de creación más antigua entre las ofertas indicadas
+     */
+    @Query("SELECT MIN(o.fechaCreacion) FROM Oferta o WHERE o.id IN :ids")
+    LocalDateTime buscarFechaMasAntigua(@Param("ids") List<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Oferta o WHERE o.id IN :ids")
+    int eliminarPorIds(@Param("ids") List<Long> ids);
+
+    /**
+     * Cantidad de ofertas y suma de precioTotal por estado: [estado, cantidad, total]
+     */
+    @Query("SELECT o.estado, COUNT(o), COALESCE(SUM(o.precioTotal), 0) FROM Oferta o GROUP BY o.estado")
+    List<Object[]> resumirPorEstado();
+
+    /**
+     * Volumen por material: [tipoMaterial, ofertas, kg ofertados, kg vendidos, total vendido]
+     */
+    @Query("SELECT o.tipoMaterial, COUNT(o), COALESCE(SUM(o.cantidad), 0), "
+            + "COALESCE(SUM(CASE WHEN o.estado = 'VENDIDA' THEN o.cantidad ELSE 0 END), 0), "
+            + "COALESCE(SUM(CASE WHEN o.estado = 'VENDIDA' THEN o.precioTotal ELSE 0 END), 0) "
+            + "FROM Oferta o GROUP BY o.tipoMaterial")
+    List<Object[]> resumirPorMaterial();
+
+    /**
+     * Ventas por día desde una fecha: [día, ventas, total]. Las ofertas vendidas antes de
+     * existir fechaVenta cuentan en su fecha de creación.
+     */
+    @Query("SELECT EXTRACT(DATE FROM COALESCE(o.fechaVenta, o.fechaCreacion)), COUNT(o), COALESCE(SUM(o.precioTotal), 0) "
+            + "FROM Oferta o WHERE o.estado = 'VENDIDA' AND COALESCE(o.fechaVenta, o.fechaCreacion) >= :desde "
+            + "GROUP BY EXTRACT(DATE FROM COALESCE(o.fechaVenta, o.fechaCreacion))")
+    List<Object[]> resumirVentasPorDia(@Param("desde") LocalDateTime desde);
+}
@@ -0,0 +1,17 @@
+package com.chatarra.auth.repository;
+
+import com.chatarra.auth.entity.Puja;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PujaRepository extends JpaRepository<Puja, Long> {
+
+    /**
+     * Últimas pujas de una subasta (la más reciente primero)
+     */
+    List<Puja> findBySubastaIdOrderBySecuenciaDesc(Long subastaId, Limit limite);
+}
@@ -0,0 +1,48 @@
+package com.chatarra.auth.repository;
+
+import com.chatarra.auth.entity.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    /**
+     * Busca un token por su hash
+     */
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    /**
+     * Marca el token como usado si todavía no lo estaba (0 si otra petición se adelantó)
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revocado = true WHERE r.id = :id AND r.revocado = false")
+    int marcarUsado(@Param("id") Long id);
+
+    /**
+     * Revoca todos los tokens de una familia (reutilización detectada o logout)
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revocado = true WHERE r.familia = :familia AND r.revocado = false")
+    int revocarFamilia(@Param("familia") String familia);
+
+    /**
+     * Revoca todos los tokens de un usuario (desactivación)
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revocado = true WHERE r.usuarioId = :usuarioId AND r.revocado = false")
+    int revocarPorUsuario(@Param("usuarioId") Long usuarioId);
+
+    /**
+     * Elimina los tokens expirados
+     */
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.fechaExpiracion < :limite")
+    int eliminarExpirados(@Param("limite") LocalDateTime limite);
+}
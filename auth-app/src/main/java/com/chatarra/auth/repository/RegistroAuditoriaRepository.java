@@ -0,0 +1,22 @@
+package com.chatarra.auth.repository;
+
+import com.chatarra.auth.entity.RegistroAuditoria;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Consultas de la auditoría con paginación por clave (id menor que el último visto): cada página
+ * es un recorrido acotado de idx_auditoria_entidad o idx_auditoria_actor, sin OFFSET, por
+ * grande que sea el historial.
+ */
+@Repository
+public interface RegistroAuditoriaRepository extends JpaRepository<RegistroAuditoria, Long> {
+
+    List<RegistroAuditoria> findByEntidadAndEntidadIdAndIdLessThanOrderByIdDesc(
+            String entidad, String entidadId, Long antesDe, Limit limite);
+
+    List<RegistroAuditoria> findByActorAndIdLessThanOrderByIdDesc(String actor, Long antesDe, Limit limite);
+}
@@ -0,0 +1,41 @@
+package com.chatarra.auth.repository;
+
+import com.chatarra.auth.entity.Reserva;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ReservaRepository extends JpaRepository<Reserva, Long> {
+
+    List<Reserva> findByEstado(Reserva.EstadoReserva estado);
+
+    List<Reserva> findByCompradorIdOrderByFechaCreacionDesc(Long compradorId);
+
+    /**
+     * Confirma la reserva si sigue pendiente, no venció y la oferta sigue APROBADA o agotada por
+     * reservas (0 si no: una oferta rechazada o cancelada ya no se vende)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Reserva r SET r.estado = 'CONFIRMADA', r.fechaCierre = :ahora "
+            + "WHERE r.id = :id AND r.compradorId = :compradorId AND r.estado = 'PENDIENTE' AND r.expiraEn > :ahora "
+            + "AND EXISTS (SELECT o.id FROM Oferta o WHERE o.id = r.ofertaId "
+            + "AND (o.estado = 'APROBADA' OR (o.estado = 'VENDIDA' AND o.vendidaPorReservas = true)))")
+    int confirmarPendiente(@Param("id") Long id, @Param("compradorId") Long compradorId,
+                           @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Pasa la reserva a EXPIRADA o CANCELADA si sigue pendiente (0 si no): quien lo consigue
+     * es el único que devuelve la cantidad a la oferta
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Reserva r SET r.estado = :estado, r.fechaCierre = :ahora "
+            + "WHERE r.id = :id AND r.estado = 'PENDIENTE'")
+    int liberarPendiente(@Param("id") Long id, @Param("estado") Reserva.EstadoReserva estado,
+                         @Param("ahora") LocalDateTime ahora);
+}
@@ -0,0 +1,21 @@
+package com.chatarra.auth.repository;
+
+import com.chatarra.auth.entity.RespuestaIdempotente;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface RespuestaIdempotenteRepository extends JpaRepository<RespuestaIdempotente, Long> {
+
+    Optional<RespuestaIdempotente> findByUsuarioAndClaveAndExpiraAfter(String usuario, String clave, LocalDateTime ahora);
+
+    @Modifying
+    @Query("DELETE FROM RespuestaIdempotente r WHERE r.expira < :ahora")
+    int eliminarExpiradas(@Param("ahora") LocalDateTime ahora);
+}
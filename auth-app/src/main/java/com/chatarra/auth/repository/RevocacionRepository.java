@@ -0,0 +1,27 @@
+package com.chatarra.auth.repository;
+
+import com.chatarra.auth.entity.Revocacion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevocacionRepository extends JpaRepository<Revocacion, Long> {
+
+    /**
+     * Revocaciones aún vigentes (se cargan en memoria al iniciar)
+     */
+    List<Revocacion> findByFechaExpiracionAfter(LocalDateTime fecha);
+
+    /**
+     * Elimina las revocaciones cuyos tokens ya expiraron
+     */
+    @Modifying
+    @Query("DELETE FROM Revocacion r WHERE r.fechaExpiracion < :limite")
+    int eliminarExpiradas(@Param("limite") LocalDateTime limite);
+}
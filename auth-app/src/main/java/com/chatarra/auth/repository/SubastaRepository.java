@@ -0,0 +1,29 @@
+package com.chatarra.auth.repository;
+
+import com.chatarra.auth.entity.Subasta;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SubastaRepository extends JpaRepository<Subasta, Long> {
+
+    List<Subasta> findByEstado(Subasta.EstadoSubasta estado);
+
+    boolean existsByOfertaIdAndEstado(Long ofertaId, Subasta.EstadoSubasta estado);
+
+    /**
+     * Pasa la subasta a su estado final si sigue ABIERTA (0 si no): quien lo consigue es el
+     * único que la liquida
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Subasta s SET s.estado = :estado, s.fechaCierre = :ahora "
+            + "WHERE s.id = :id AND s.estado = 'ABIERTA'")
+    int cerrarAbierta(@Param("id") Long id, @Param("estado") Subasta.EstadoSubasta estado,
+                      @Param("ahora") LocalDateTime ahora);
+}
@@ -2,7 +2,8 @@ package com.chatarra.auth.security;
 
 import com.chatarra.auth.entity.Usuario;
 import com.chatarra.auth.repository.UsuarioRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -12,14 +13,23 @@ import org.springframework.stereotype.Service;
 import java.util.Collections;
 
 @Service
-@RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UsuarioRepository usuarioRepository;
 
+    // Métrica: chatarra.usuarios.busqueda (tiempo de la consulta por email)
+    private final Timer timerBusqueda;
+
+    public CustomUserDetailsService(UsuarioRepository usuarioRepository, MeterRegistry meterRegistry) {
+        this.usuarioRepository = usuarioRepository;
+        this.timerBusqueda = Timer.builder("chatarra.usuarios.busqueda")
+                .description("Búsqueda de usuario por email para Spring Security")
+                .register(meterRegistry);
+    }
+
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        Usuario usuario = usuarioRepository.findByEmail(email)
+        Usuario usuario = timerBusqueda.record(() -> usuarioRepository.findByEmail(email))
                 .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado: " + email));
 
         if (!usuario.getActivo()) {
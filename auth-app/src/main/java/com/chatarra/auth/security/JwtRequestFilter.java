@@ -1,61 +1,108 @@
 package com.chatarra.auth.security;
 
+import com.chatarra.auth.config.FiltroLogDinamico;
+import io.jsonwebtoken.Claims;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.MDC;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
 
 /**
  * Filtro que intercepta cada petición HTTP para validar el token JWT.
  * Si el token es válido, establece la autenticación en el contexto de seguridad.
+ *
+ * No consulta la base de datos: el rol viaja en el token y las revocaciones
+ * (logout, desactivación, cambio de rol) se consultan en ListaRevocacion, en memoria.
+ *
+ * El trabajo propio del filtro queda en el span "chatarra.jwt.filtro" (sin incluir el resto de la cadena).
+ *
+ * También deja en el MDC el requestId (header X-Request-Id o uno generado) y el email del usuario,
+ * para los logs JSON y para elevar el nivel de log de una petición o usuario (FiltroLogDinamico).
  */
 @Component
 @RequiredArgsConstructor
 public class JwtRequestFilter extends OncePerRequestFilter {
 
+    public static final String HEADER_REQUEST_ID = "X-Request-Id";
+    // Instant de expiración del token de la petición (p. ej. para cerrar las conexiones SSE a tiempo)
+    public static final String ATRIBUTO_EXPIRACION = "chatarra.jwt.expiracion";
+    private static final Pattern REQUEST_ID_VALIDO = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
     private final CustomUserDetailsService userDetailsService;
     private final JwtUtil jwtUtil;
+    private final ListaRevocacion listaRevocacion;
+    private final ObservationRegistry observationRegistry;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
 
+        String requestId = request.getHeader(HEADER_REQUEST_ID);
+        if (requestId == null || !REQUEST_ID_VALIDO.matcher(requestId).matches()) {
+            requestId = UUID.randomUUID().toString();
+        }
+        MDC.put(FiltroLogDinamico.MDC_REQUEST_ID, requestId);
+        response.setHeader(HEADER_REQUEST_ID, requestId);
+
+        try {
+            Observation.createNotStarted("chatarra.jwt.filtro", observationRegistry)
+                    .observe(() -> autenticar(request));
+
+            // 9. Continuar con la cadena de filtros
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(FiltroLogDinamico.MDC_REQUEST_ID);
+            MDC.remove(FiltroLogDinamico.MDC_USUARIO);
+        }
+    }
+
+    /**
+     * Pasos 1 a 8: valida el token y, si corresponde, establece la autenticación
+     */
+    private void autenticar(HttpServletRequest request) {
         // 1. Extraer el header Authorization
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwt = null;
+        Claims claims = null;
 
         // 2. Verificar si contiene un token Bearer
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);  // Remover "Bearer "
+            String jwt = authorizationHeader.substring(7);  // Remover "Bearer "
 
             try {
-                // 3. Extraer el email del token
-                username = jwtUtil.extractUsername(jwt);
+                // 3. Verificar firma y expiración y extraer los claims (una sola vez)
+                claims = jwtUtil.extractAllClaims(jwt);
             } catch (Exception e) {
                 logger.error("Error al extraer username del token: " + e.getMessage());
             }
         }
 
-        // 4. Si hay un username y no hay autenticación previa
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        // 4. Si hay un token válido y no hay autenticación previa
+        if (claims != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-            // 5. Cargar los detalles del usuario
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+            // 5. Descartar tokens revocados
+            if (!listaRevocacion.estaRevocado(claims.getId(), claims.getSubject(), JwtUtil.emitidoMs(claims))) {
 
-            // 6. Validar el token
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+                // 6. Construir los detalles del usuario desde el token
+                UserDetails userDetails = construirUsuario(claims);
 
                 // 7. Crear el objeto de autenticación
                 UsernamePasswordAuthenticationToken authenticationToken =
@@ -71,10 +118,21 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
                 // 8. Establecer la autenticación en el contexto
                 SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+                request.setAttribute(ATRIBUTO_EXPIRACION, claims.getExpiration().toInstant());
+                MDC.put(FiltroLogDinamico.MDC_USUARIO, claims.getSubject());
             }
         }
+    }
 
-        // 9. Continuar con la cadena de filtros
-        filterChain.doFilter(request, response);
+    /**
+     * Crea el UserDetails a partir de los claims.
+     * Los tokens emitidos antes de incluir el rol se resuelven con la base de datos.
+     */
+    private UserDetails construirUsuario(Claims claims) {
+        String rol = claims.get(JwtUtil.CLAIM_ROL, String.class);
+        if (rol == null) {
+            return userDetailsService.loadUserByUsername(claims.getSubject());
+        }
+        return new User(claims.getSubject(), "", List.of(new SimpleGrantedAuthority(rol)));
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,15 @@
 package com.chatarra.auth.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
@@ -12,14 +17,25 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 /**
  * Utilidad para crear, validar y extraer información de tokens JWT.
+ *
+ * Los tokens de acceso son de corta duración e incluyen:
+ * - sub: email del usuario
+ * - rol: rol del usuario (ROLE_VENDEDOR / ROLE_ADMIN), para no consultar la BD en cada petición
+ * - jti: identificador único, para poder revocar el token (ver ListaRevocacion)
+ * - iat_ms: instante de emisión en milisegundos ("iat" solo tiene segundos), para saber si el
+ *   token es anterior a la revocación de su usuario
  */
 @Component
 public class JwtUtil {
 
+    public static final String CLAIM_ROL = "rol";
+    public static final String CLAIM_EMITIDO_MS = "iat_ms";
+
     // Lee la clave secreta desde application.properties
     @Value("${jwt.secret}")
     private String secret;
@@ -28,11 +44,36 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private Long expiration;
 
+    // La clave y el parser se crean una sola vez (no en cada petición)
+    private Key signingKey;
+    private JwtParser parser;
+
+    // Métricas: chatarra.jwt.parseo y chatarra.jwt.generacion
+    private final Timer timerParseo;
+    private final Timer timerGeneracion;
+
+    public JwtUtil(MeterRegistry meterRegistry) {
+        this.timerParseo = Timer.builder("chatarra.jwt.parseo")
+                .description("Verificación de firma y extracción de claims")
+                .register(meterRegistry);
+        this.timerGeneracion = Timer.builder("chatarra.jwt.generacion")
+                .description("Creación y firma de tokens de acceso")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+
     /**
-     * Genera la clave de firma a partir del secreto.
+     * Tiempo de vida del token de acceso en milisegundos.
      */
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    public long getExpiration() {
+        return expiration;
     }
 
     /**
@@ -49,6 +90,18 @@ public class JwtUtil {
         return extractClaim(token, Claims::getExpiration);
     }
 
+    /**
+     * Instante de emisión en milisegundos. Los tokens anteriores a iat_ms dan el inicio del
+     * segundo de "iat": ante la duda cuentan como emitidos antes de una revocación.
+     */
+    public static long emitidoMs(Claims claims) {
+        Long emitido = claims.get(CLAIM_EMITIDO_MS, Long.class);
+        if (emitido != null) {
+            return emitido;
+        }
+        return claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : 0L;
+    }
+
     /**
      * Extrae un claim específico del token.
      */
@@ -59,13 +112,10 @@ public class JwtUtil {
 
     /**
      * Extrae todos los claims del token.
+     * Verifica la firma y la expiración (lanza JwtException si no son válidas).
      */
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    public Claims extractAllClaims(String token) {
+        return timerParseo.record(() -> parser.parseClaimsJws(token).getBody());
     }
 
     /**
@@ -76,11 +126,15 @@ public class JwtUtil {
     }
 
     /**
-     * Genera un token JWT para un usuario.
-     * El token contiene el email del usuario y tiempo de expiración.
+     * Genera un token JWT de acceso para un usuario.
+     * El token contiene el email, el rol, un identificador único y la expiración.
      */
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .findFirst()
+                .ifPresent(rol -> claims.put(CLAIM_ROL, rol));
         return createToken(claims, userDetails.getUsername());
     }
 
@@ -90,14 +144,16 @@ public class JwtUtil {
     private String createToken(Map<String, Object> claims, String subject) {
         Date now = new Date();
         Date expirationDate = new Date(now.getTime() + expiration);
+        claims.put(CLAIM_EMITIDO_MS, now.getTime());
 
-        return Jwts.builder()
+        return timerGeneracion.record(() -> Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())  // "jti" para poder revocarlo
                 .setSubject(subject)  // El "subject" es el email del usuario
                 .setIssuedAt(now)     // Fecha de creación
                 .setExpiration(expirationDate)  // Fecha de expiración
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)  // Firma con HS256
-                .compact();
+                .signWith(signingKey, SignatureAlgorithm.HS256)  // Firma con HS256
+                .compact());
     }
 
     /**
@@ -108,4 +164,4 @@ public class JwtUtil {
         final String username = extractUsername(token);
         return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,287 @@
+package com.chatarra.auth.security;
+
+import com.chatarra.auth.exception.DemasiadosIntentosException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limitador de intentos de login por IP y por email.
+ *
+ * Se consulta ANTES de AuthService.login, así un intento rechazado no llega
+ * a la base de datos ni a BCrypt (cuesta microsegundos).
+ *
+ * Dos mecanismos:
+ * 1. Token bucket por clave (tasa + ráfaga). Se implementa como GCRA: el estado es
+ *    un solo AtomicLong con el "instante teórico de llegada" y se actualiza con CAS,
+ *    sin locks.
+ * 2. Bloqueo temporal tras N fallos consecutivos. Cada bloqueo nuevo dura el doble
+ *    que el anterior, hasta un máximo. Un login exitoso reinicia el contador.
+ *
+ * Los mapas tienen un tamaño máximo y las claves inactivas se eliminan periódicamente.
+ * Si un mapa se llena (ej: ataque con miles de IPs distintas), se desaloja la décima parte
+ * de las claves usadas hace más tiempo (LRU por lotes); las que tienen un bloqueo vigente
+ * no se desalojan. Solo si todas están bloqueadas, las claves nuevas caen en una de
+ * CUBETAS_DESBORDE cubetas repartidas por hash, que limitan la tasa pero no cuentan fallos
+ * (bloquearían a todos los que la comparten).
+ */
+@Component
+@Slf4j
+public class LimitadorLogin {
+
+    private static final int CUBETAS_DESBORDE = 1024;
+
+    @Value("${login.limite.ip.por-minuto:30}")
+    private int ipPorMinuto;
+
+    @Value("${login.limite.ip.rafaga:10}")
+    private int ipRafaga;
+
+    @Value("${login.limite.email.por-minuto:10}")
+    private int emailPorMinuto;
+
+    @Value("${login.limite.email.rafaga:5}")
+    private int emailRafaga;
+
+    @Value("${login.bloqueo.intentos-ip:20}")
+    private int intentosIp;
+
+    @Value("${login.bloqueo.intentos-email:5}")
+    private int intentosEmail;
+
+    @Value("${login.bloqueo.duracion-inicial-s:60}")
+    private long bloqueoInicialSegundos;
+
+    @Value("${login.bloqueo.duracion-maxima-s:900}")
+    private long bloqueoMaximoSegundos;
+
+    @Value("${login.limite.max-claves:100000}")
+    private int maxClaves;
+
+    @Value("${login.limite.expiracion-s:900}")
+    private long expiracionSegundos;
+
+    private final Map<String, Estado> porIp = new ConcurrentHashMap<>();
+    private final Map<String, Estado> porEmail = new ConcurrentHashMap<>();
+    private final Estado[] desbordeIp = new Estado[CUBETAS_DESBORDE];
+    private final Estado[] desbordeEmail = new Estado[CUBETAS_DESBORDE];
+
+    // Métrica: chatarra.login.rechazos{motivo=bloqueo|tasa}
+    private final Counter rechazosBloqueo;
+    private final Counter rechazosTasa;
+
+    public LimitadorLogin(MeterRegistry meterRegistry) {
+        this.rechazosBloqueo = Counter.builder("chatarra.login.rechazos")
+                .tag("motivo", "bloqueo")
+                .register(meterRegistry);
+        this.rechazosTasa = Counter.builder("chatarra.login.rechazos")
+                .tag("motivo", "tasa")
+                .register(meterRegistry);
+        for (int i = 0; i < CUBETAS_DESBORDE; i++) {
+            desbordeIp[i] = new Estado(true);
+            desbordeEmail[i] = new Estado(true);
+        }
+    }
+
+    /**
+     * Verifica si se permite un intento de login.
+     *
+     * @throws DemasiadosIntentosException con los segundos que el cliente debe esperar
+     */
+    public void verificar(String ip, String email) {
+        long ahora = System.nanoTime();
+        Estado estadoIp = obtener(porIp, ip, desbordeIp);
+        Estado estadoEmail = obtener(porEmail, normalizar(email), desbordeEmail);
+
+        // 1. Bloqueos vigentes (solo lecturas, sin consumir tokens)
+        long espera = Math.max(estadoIp.esperaBloqueo(ahora), estadoEmail.esperaBloqueo(ahora));
+        if (espera > 0) {
+            rechazosBloqueo.increment();
+            throw rechazar(espera, ip, email);
+        }
+
+        // 2. Tasa de intentos
+        espera = estadoIp.consumir(ahora, ipPorMinuto, ipRafaga);
+        if (espera == 0) {
+            espera = estadoEmail.consumir(ahora, emailPorMinuto, emailRafaga);
+        }
+        if (espera > 0) {
+            rechazosTasa.increment();
+            throw rechazar(espera, ip, email);
+        }
+    }
+
+    /**
+     * Registra un login fallido (credenciales incorrectas)
+     */
+    public void registrarFallo(String ip, String email) {
+        // Los fallos no se cuentan en las cubetas de desborde: bloquearían a todos los que la comparten
+        long ahora = System.nanoTime();
+        Estado estadoIp = obtener(porIp, ip, desbordeIp);
+        if (!estadoIp.desborde && estadoIp.fallar(ahora, intentosIp)) {
+            log.warn("🔒 IP {} bloqueada temporalmente por intentos fallidos", ip);
+        }
+        Estado estadoEmail = obtener(porEmail, normalizar(email), desbordeEmail);
+        if (!estadoEmail.desborde && estadoEmail.fallar(ahora, intentosEmail)) {
+            log.warn("🔒 Cuenta {} bloqueada temporalmente por intentos fallidos", email);
+        }
+    }
+
+    /**
+     * Registra un login exitoso: reinicia los fallos de la IP y del email
+     */
+    public void registrarExito(String ip, String email) {
+        Estado estadoIp = porIp.get(ip);
+        if (estadoIp != null) {
+            estadoIp.reiniciar();
+        }
+        Estado estadoEmail = porEmail.get(normalizar(email));
+        if (estadoEmail != null) {
+            estadoEmail.reiniciar();
+        }
+    }
+
+    /**
+     * Elimina las claves inactivas y sin bloqueo vigente (cada minuto)
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void limpiarExpirados() {
+        long ahora = System.nanoTime();
+        long expiracion = TimeUnit.SECONDS.toNanos(expiracionSegundos);
+        porIp.values().removeIf(e -> e.inactivo(ahora, expiracion));
+        porEmail.values().removeIf(e -> e.inactivo(ahora, expiracion));
+    }
+
+    private Estado obtener(Map<String, Estado> mapa, String clave, Estado[] desborde) {
+        Estado estado = mapa.get(clave);
+        if (estado != null) {
+            return estado;
+        }
+        if (mapa.size() >= maxClaves && !liberar(mapa)) {
+            return desborde[Math.floorMod(clave.hashCode(), CUBETAS_DESBORDE)];
+        }
+        return mapa.computeIfAbsent(clave, k -> new Estado(false));
+    }
+
+    /**
+     * Con el mapa lleno, elimina la décima parte de las claves sin bloqueo vigente usadas hace
+     * más tiempo. Una sola pasada (O(n log n)) cada maxClaves/10 claves nuevas.
+     *
+     * @return false si no queda lugar (todas las claves tienen un bloqueo vigente)
+     */
+    private boolean liberar(Map<String, Estado> mapa) {
+        synchronized (mapa) {
+            if (mapa.size() < maxClaves) {
+                return true;
+            }
+            long ahora = System.nanoTime();
+            // Antigüedad relativa a "ahora" (nanoTime solo se compara por diferencias)
+            long[] accesos = mapa.values().stream()
+                    .filter(e -> !e.bloqueado(ahora))
+                    .mapToLong(e -> e.ultimoAcceso - ahora)
+                    .sorted()
+                    .toArray();
+            if (accesos.length == 0) {
+                return false;
+            }
+            long corte = accesos[Math.min(accesos.length, Math.max(1, maxClaves / 10)) - 1];
+            mapa.values().removeIf(e -> !e.bloqueado(ahora) && e.ultimoAcceso - ahora <= corte);
+            log.debug("Limitador de login lleno: quedan {} claves tras desalojar las menos usadas", mapa.size());
+            return mapa.size() < maxClaves;
+        }
+    }
+
+    private DemasiadosIntentosException rechazar(long esperaNanos, String ip, String email) {
+        long segundos = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(esperaNanos + 999_999_999L));
+        log.debug("Login rechazado por límite: ip={}, email={}, esperar {} s", ip, email, segundos);
+        return new DemasiadosIntentosException(
+                "Demasiados intentos de inicio de sesión. Intente nuevamente en " + segundos + " segundos",
+                segundos);
+    }
+
+    private String normalizar(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Estado de una clave (IP o email). Todos los campos son atómicos: no hay locks.
+     */
+    private class Estado {
+
+        // Cubeta compartida por las claves que no entran en el mapa
+        private final boolean desborde;
+        // Instante teórico de llegada (GCRA), en nanos
+        private final AtomicLong tat = new AtomicLong(Long.MIN_VALUE);
+        private final AtomicInteger fallos = new AtomicInteger();
+        private final AtomicInteger bloqueos = new AtomicInteger();
+        private final AtomicLong bloqueadoHasta = new AtomicLong(Long.MIN_VALUE);
+        private volatile long ultimoAcceso = System.nanoTime();
+
+        Estado(boolean desborde) {
+            this.desborde = desborde;
+        }
+
+        long esperaBloqueo(long ahora) {
+            ultimoAcceso = ahora;
+            long hasta = bloqueadoHasta.get();
+            return hasta == Long.MIN_VALUE ? 0 : Math.max(0, hasta - ahora);
+        }
+
+        /**
+         * Consume un token. Devuelve 0 si se permite o los nanos a esperar.
+         */
+        long consumir(long ahora, int porMinuto, int rafaga) {
+            long intervalo = TimeUnit.MINUTES.toNanos(1) / porMinuto;
+            long tolerancia = intervalo * (rafaga - 1);
+            while (true) {
+                long actual = tat.get();
+                long base = actual == Long.MIN_VALUE ? ahora : Math.max(actual, ahora);
+                if (base - ahora > tolerancia) {
+                    return base - ahora - tolerancia;
+                }
+                if (tat.compareAndSet(actual, base + intervalo)) {
+                    return 0;
+                }
+            }
+        }
+
+        /**
+         * Suma un fallo. Devuelve true si con este fallo se inicia un bloqueo.
+         */
+        boolean fallar(long ahora, int intentos) {
+            ultimoAcceso = ahora;
+            if (fallos.incrementAndGet() < intentos) {
+                return false;
+            }
+            fallos.set(0);
+            int n = Math.min(bloqueos.getAndIncrement(), 20);
+            long segundos = Math.min(bloqueoInicialSegundos << n, bloqueoMaximoSegundos);
+            bloqueadoHasta.set(ahora + TimeUnit.SECONDS.toNanos(segundos));
+            return true;
+        }
+
+        void reiniciar() {
+            fallos.set(0);
+            bloqueos.set(0);
+        }
+
+        boolean bloqueado(long ahora) {
+            long hasta = bloqueadoHasta.get();
+            return hasta != Long.MIN_VALUE && hasta - ahora > 0;
+        }
+
+        boolean inactivo(long ahora, long expiracion) {
+            return !bloqueado(ahora) && ahora - ultimoAcceso > expiracion;
+        }
+    }
+}
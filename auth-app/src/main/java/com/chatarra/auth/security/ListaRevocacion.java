@@ -0,0 +1,223 @@
+package com.chatarra.auth.security;
+
+import com.chatarra.auth.entity.Revocacion;
+import com.chatarra.auth.repository.RevocacionRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lista de tokens de acceso revocados, consultada por JwtRequestFilter en cada petición.
+ *
+ * Estructura en memoria:
+ * - Un filtro de Bloom con los jti revocados: la gran mayoría de tokens NO están
+ *   revocados y se descartan con unos pocos accesos a memoria, sin locks
+ * - Un mapa exacto jti → expiración, consultado solo si el filtro de Bloom dice "quizás"
+ * - Un mapa email → instante de revocación: todo token del usuario emitido antes
+ *   queda revocado (desactivación o cambio de rol)
+ *
+ * Las revocaciones se guardan también en la tabla revocaciones y se recargan al iniciar.
+ * La memoria cambia cuando la transacción que las guarda se confirma: una revocación revertida
+ * no queda vigente en memoria. Como los tokens de acceso duran poco, las entradas se eliminan
+ * cuando el token expira.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ListaRevocacion {
+
+    private static final int CAPACIDAD_BLOOM = 100_000;
+
+    private final RevocacionRepository revocacionRepository;
+    private final JwtUtil jwtUtil;
+
+    private final Map<String, Long> jtiRevocados = new ConcurrentHashMap<>();
+    private final Map<String, Long> usuariosRevocados = new ConcurrentHashMap<>();
+    private volatile FiltroBloom filtro = new FiltroBloom(CAPACIDAD_BLOOM);
+
+    /**
+     * Carga las revocaciones vigentes guardadas en la base de datos
+     */
+    @PostConstruct
+    void cargar() {
+        for (Revocacion r : revocacionRepository.findByFechaExpiracionAfter(LocalDateTime.now())) {
+            if (r.getJti() != null) {
+                jtiRevocados.put(r.getJti(), aMillis(r.getFechaExpiracion()));
+            } else if (r.getEmail() != null) {
+                usuariosRevocados.merge(r.getEmail(), aMillis(r.getFechaRevocacion()), Math::max);
+            }
+        }
+        reconstruirFiltro();
+        log.info("🔐 Lista de revocación cargada: {} tokens, {} usuarios",
+                jtiRevocados.size(), usuariosRevocados.size());
+    }
+
+    /**
+     * Indica si un token de acceso está revocado (camino caliente: sin BD ni locks)
+     */
+    public boolean estaRevocado(String jti, String email, long emitidoMs) {
+        if (jti != null && filtro.podriaContener(jti) && jtiRevocados.containsKey(jti)) {
+            return true;
+        }
+        if (!usuariosRevocados.isEmpty() && email != null) {
+            Long corte = usuariosRevocados.get(email);
+            // Emisión en milisegundos (JwtUtil.emitidoMs): un token del mismo segundo pero
+            // anterior a la revocación también queda revocado
+            return corte != null && emitidoMs < corte;
+        }
+        return false;
+    }
+
+    /**
+     * Revoca un token de acceso concreto (logout)
+     */
+    @Transactional
+    public void revocarToken(String jti, Date expiracion) {
+        revocacionRepository.save(Revocacion.builder()
+                .jti(jti)
+                .fechaRevocacion(LocalDateTime.now())
+                .fechaExpiracion(aFecha(expiracion.getTime()))
+                .build());
+        alConfirmar(() -> agregarJti(jti, expiracion.getTime()));
+    }
+
+    /**
+     * Revoca todos los tokens de acceso emitidos hasta ahora para un usuario
+     */
+    @Transactional
+    public void revocarUsuario(String email) {
+        long ahora = System.currentTimeMillis();
+        revocacionRepository.save(Revocacion.builder()
+                .email(email)
+                .fechaRevocacion(aFecha(ahora))
+                .fechaExpiracion(aFecha(ahora + jwtUtil.getExpiration()))
+                .build());
+        // El corte es el instante de la revocación, no el del commit: un token emitido en medio
+        // ya lleva el rol o el estado nuevos
+        alConfirmar(() -> {
+            usuariosRevocados.merge(email, ahora, Math::max);
+            log.info("🔐 Tokens de acceso revocados para {}", email);
+        });
+    }
+
+    /**
+     * Elimina las entradas de tokens ya expirados y reconstruye el filtro de Bloom (cada minuto)
+     */
+    @Scheduled(fixedDelay = 60_000)
+    @Transactional
+    public void limpiarExpirados() {
+        long ahora = System.currentTimeMillis();
+        jtiRevocados.values().removeIf(expira -> expira < ahora);
+        usuariosRevocados.values().removeIf(corte -> corte + jwtUtil.getExpiration() < ahora);
+        reconstruirFiltro();
+        revocacionRepository.eliminarExpiradas(LocalDateTime.now());
+    }
+
+    /**
+     * Sincronizado con reconstruirFiltro para no perder un jti agregado durante la reconstrucción
+     */
+    private synchronized void agregarJti(String jti, long expiracion) {
+        jtiRevocados.put(jti, expiracion);
+        filtro.agregar(jti);
+    }
+
+    /**
+     * Aplica el cambio en memoria después del commit (o ya, fuera de una transacción)
+     */
+    private static void alConfirmar(Runnable cambio) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cambio.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cambio.run();
+            }
+        });
+    }
+
+    /**
+     * El filtro de Bloom no permite borrar: se crea uno nuevo con los jti vigentes.
+     * Sincronizado con agregarJti para no perder un jti agregado durante la reconstrucción.
+     */
+    private synchronized void reconstruirFiltro() {
+        FiltroBloom nuevo = new FiltroBloom(Math.max(CAPACIDAD_BLOOM, jtiRevocados.size() * 2));
+        jtiRevocados.keySet().forEach(nuevo::agregar);
+        filtro = nuevo;
+    }
+
+    private static long aMillis(LocalDateTime fecha) {
+        return fecha.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime aFecha(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    /**
+     * Filtro de Bloom con ~1% de falsos positivos para la capacidad indicada.
+     * Los bits se guardan en un AtomicLongArray: agregar y consultar no usan locks.
+     */
+    static final class FiltroBloom {
+
+        private static final int FUNCIONES_HASH = 7;
+
+        private final AtomicLongArray bits;
+        private final int numBits;
+
+        FiltroBloom(int capacidad) {
+            // m = -n·ln(0.01) / ln(2)² ≈ 9.6 bits por elemento
+            long m = (long) Math.ceil(capacidad * 9.6);
+            this.numBits = (int) Math.min(Integer.MAX_VALUE - 64, Math.max(64, m));
+            this.bits = new AtomicLongArray((numBits + 63) / 64);
+        }
+
+        void agregar(String clave) {
+            long hash = hash64(clave);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < FUNCIONES_HASH; i++) {
+                int bit = Math.floorMod(h1 + i * h2, numBits);
+                long mascara = 1L << bit;
+                bits.getAndAccumulate(bit >>> 6, mascara, (actual, m) -> actual | m);
+            }
+        }
+
+        boolean podriaContener(String clave) {
+            long hash = hash64(clave);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < FUNCIONES_HASH; i++) {
+                int bit = Math.floorMod(h1 + i * h2, numBits);
+                if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // FNV-1a de 64 bits sobre los caracteres (sin crear arreglos de bytes)
+        private static long hash64(String clave) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < clave.length(); i++) {
+                hash ^= clave.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.chatarra.auth.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PasswordEncoder que mide el tiempo de cada operación de BCrypt.
+ *
+ * Métricas:
+ * - chatarra.bcrypt{operacion=encode, resultado=n/a}: al registrar usuarios
+ * - chatarra.bcrypt{operacion=matches, resultado=ok|fallo}: al hacer login
+ *
+ * Todas las series llevan las mismas etiquetas: Prometheus descarta las que no coinciden
+ * con las claves de la primera serie registrada con ese nombre.
+ */
+public class PasswordEncoderMedido implements PasswordEncoder {
+
+    private final PasswordEncoder delegado;
+    private final Timer timerEncode;
+    private final Timer timerMatchesOk;
+    private final Timer timerMatchesFallo;
+
+    public PasswordEncoderMedido(PasswordEncoder delegado, MeterRegistry meterRegistry) {
+        this.delegado = delegado;
+        this.timerEncode = Timer.builder("chatarra.bcrypt")
+                .tag("operacion", "encode")
+                .tag("resultado", "n/a")
+                .register(meterRegistry);
+        this.timerMatchesOk = Timer.builder("chatarra.bcrypt")
+                .tag("operacion", "matches")
+                .tag("resultado", "ok")
+                .register(meterRegistry);
+        this.timerMatchesFallo = Timer.builder("chatarra.bcrypt")
+                .tag("operacion", "matches")
+                .tag("resultado", "fallo")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return timerEncode.record(() -> delegado.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        long inicio = System.nanoTime();
+        boolean coincide = delegado.matches(rawPassword, encodedPassword);
+        (coincide ? timerMatchesOk : timerMatchesFallo).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        return coincide;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegado.upgradeEncoding(encodedPassword);
+    }
+}
@@ -4,20 +4,27 @@ package com.chatarra.auth.service;
 import com.chatarra.auth.dto.UserDTO;
 import com.chatarra.auth.entity.Usuario;
 import com.chatarra.auth.repository.UsuarioRepository;
+import com.chatarra.auth.security.ListaRevocacion;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
+@Observed
 @RequiredArgsConstructor
 @Slf4j
 public class AdminService {
 
     private final UsuarioRepository usuarioRepository;
+    private final RefreshTokenService refreshTokenService;
+    private final ListaRevocacion listaRevocacion;
+    private final AuditoriaService auditoriaService;
 
     @Transactional(readOnly = true)
     public List<UserDTO> getAllUsers() {
@@ -45,11 +52,17 @@ public class AdminService {
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado con ID: " + userId));
 
         Usuario.Rol rol = Usuario.Rol.valueOf(newRole.toUpperCase());
+        Usuario.Rol rolAnterior = usuario.getRol();
         usuario.setRol(rol);
 
         Usuario usuarioActualizado = usuarioRepository.save(usuario);
         log.info("✅ Rol actualizado: {} -> {}", usuario.getEmail(), newRole);
 
+        // Los tokens de acceso llevan el rol anterior: se revocan y el próximo refresh trae el nuevo
+        listaRevocacion.revocarUsuario(usuario.getEmail());
+
+        auditoriaService.registrar("USUARIO_ROL", "USUARIO", userId,
+                Map.of("rol", rolAnterior), Map.of("rol", rol));
         return convertToDTO(usuarioActualizado);
     }
 
@@ -60,10 +73,19 @@ public class AdminService {
         Usuario usuario = usuarioRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado con ID: " + userId));
 
+        Boolean activoAnterior = usuario.getActivo();
         usuario.setActivo(activo);
         Usuario usuarioActualizado = usuarioRepository.save(usuario);
 
+        // Al desactivar, la sesión termina en segundos (no al expirar el token)
+        if (Boolean.FALSE.equals(activo)) {
+            refreshTokenService.revocarUsuario(userId);
+            listaRevocacion.revocarUsuario(usuario.getEmail());
+        }
+
         log.info("✅ Estado actualizado: {} -> {}", usuario.getEmail(), activo ? "Activo" : "Inactivo");
+        auditoriaService.registrar("USUARIO_ESTADO", "USUARIO", userId,
+                Map.of("activo", activoAnterior), Map.of("activo", activo));
 
         return convertToDTO(usuarioActualizado);
     }
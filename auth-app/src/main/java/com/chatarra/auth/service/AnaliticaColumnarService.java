@@ -0,0 +1,267 @@
+package com.chatarra.auth.service;
+
+import com.chatarra.auth.dto.ConsultaAnaliticaDTO;
+import com.chatarra.auth.dto.ResultadoAnaliticaDTO;
+import com.chatarra.auth.entity.EventoOferta;
+import com.chatarra.auth.entity.Oferta;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Instantánea columnar en memoria de las ofertas (ofertas y ofertas_archivo) para las
+ * consultas ad hoc del panel de admin: filtrar por material, banda de precio, ubicación,
+ * estado y fecha, agrupar y sumar sin pasar por JPA (ver ColumnasOfertas).
+ *
+ * - Opcional: analitica.columnar.habilitado=true. Se carga en segundo plano al arrancar
+ * - Se mantiene al día con los eventos del outbox (RelayEventosOfertaService): por cada evento
+ *   se relee la fila de la oferta, sin lock. Solo se aplica si desde esa lectura no se aplicó
+ *   otro cambio ni se cambió la instantánea (contador generacion); si no, se vuelve a leer, así
+ *   una lectura vieja nunca pisa una más nueva. Los eventos que llegan durante una carga
+ *   completa se guardan y se releen al terminarla
+ * - Las consultas toman el lock de lectura; aplicar un cambio, el de escritura (es un instante)
+ *
+ * Las ofertas insertadas con SQL directo (perfil "semilla") no generan eventos: recargar()
+ * vuelve a leer todo.
+ */
+@Service
+@Slf4j
+public class AnaliticaColumnarService {
+
+    private static final String COLUMNAS =
+            "id, vendedor_id, tipo_material, cantidad, precio_unitario, precio_total, ubicacion, estado, fecha_creacion";
+    private static final String SELECT_TODAS =
+            "SELECT " + COLUMNAS + " FROM ofertas UNION ALL SELECT " + COLUMNAS + " FROM ofertas_archivo";
+    // Lecturas sin lock que pierden contra otro cambio; después se relee con el lock tomado
+    private static final int INTENTOS_SIN_LOCK = 3;
+    private static final String SELECT_OFERTA =
+            "SELECT " + COLUMNAS + " FROM ofertas WHERE id = ? "
+                    + "UNION ALL SELECT " + COLUMNAS + " FROM ofertas_archivo WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate jdbcTemplateCarga;
+    private final TransactionTemplate lectura;
+    private final AuditoriaService auditoriaService;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Ofertas cambiadas mientras se hace una carga completa
+    private final Set<Long> pendientes = ConcurrentHashMap.newKeySet();
+
+    @Value("${analitica.columnar.habilitado:false}")
+    private boolean habilitado;
+
+    // null hasta terminar la primera carga
+    private volatile ColumnasOfertas columnas;
+    private volatile LocalDateTime actualizadoEn;
+    private boolean cargando;
+    // Sube con cada cambio aplicado y con cada instantánea nueva (se modifica con el lock de escritura)
+    private volatile long generacion;
+
+    public AnaliticaColumnarService(JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    AuditoriaService auditoriaService,
+                                    MeterRegistry registry,
+                                    @Value("${analitica.columnar.fetch-size:10000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.auditoriaService = auditoriaService;
+        // PostgreSQL solo lee por bloques (fetch size) dentro de una transacción
+        this.jdbcTemplateCarga = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbcTemplateCarga.setFetchSize(fetchSize);
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+
+        Gauge.builder("analitica.columnar.filas", this, s -> s.columnas != null ? s.columnas.getFilas() : 0)
+                .description("Ofertas en la instantánea columnar")
+                .register(registry);
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarAlIniciar() {
+        if (habilitado) {
+            recargar();
+        }
+    }
+
+    /**
+     * Lee todas las ofertas y reemplaza la instantánea
+     *
+     * @return ofertas cargadas
+     */
+    public synchronized int recargar() {
+        verificarHabilitado();
+        long inicio = System.currentTimeMillis();
+        escribir(() -> cargando = true);
+
+        ColumnasOfertas nuevas;
+        try {
+            nuevas = lectura.execute(status -> {
+                ColumnasOfertas leidas = new ColumnasOfertas(columnas != null ? columnas.getFilas() + 1024 : 1024);
+                jdbcTemplateCarga.query(SELECT_TODAS, (RowCallbackHandler) rs -> poner(leidas, rs));
+                return leidas;
+            });
+        } catch (RuntimeException e) {
+            escribir(() -> cargando = false);
+            throw e;
+        }
+
+        // Cambio de instantánea y cambios recibidos durante la carga (se releen con el lock tomado)
+        escribir(() -> {
+            List<Long> cambiadas = new ArrayList<>(pendientes);
+            pendientes.removeAll(cambiadas);
+            cambiadas.forEach(id -> aplicar(nuevas, id, leerOferta(id)));
+            columnas = nuevas;
+            cargando = false;
+            generacion++;
+            actualizadoEn = LocalDateTime.now();
+        });
+
+        log.info("📊 Instantánea analítica cargada: {} ofertas en {} ms",
+                nuevas.getFilas(), System.currentTimeMillis() - inicio);
+        auditoriaService.registrar("ANALITICA_RECARGADA", "ANALITICA", "ofertas", null,
+                Map.of("ofertas", nuevas.getFilas()));
+        return nuevas.getFilas();
+    }
+
+    /**
+     * Aplica los cambios del outbox, después del commit del lote del relay (una vez por evento).
+     * Si falla, la oferta queda desactualizada hasta el próximo cambio o recarga.
+     */
+    @TransactionalEventListener
+    public void alCambiarOferta(EventoOferta evento) {
+        if (!habilitado) {
+            return;
+        }
+        try {
+            Long id = evento.getOfertaId();
+            boolean eliminada = evento.getTipo() == EventoOferta.TipoEvento.ELIMINADA;
+            for (int intento = 1; ; intento++) {
+                boolean conLock = intento > INTENTOS_SIN_LOCK;
+                long vista = generacion;
+                List<Object[]> fila = eliminada || conLock ? List.of() : leerOferta(id);
+                boolean aplicado = escribirSi(() -> {
+                    if (cargando || columnas == null) {
+                        pendientes.add(id);
+                        return true;
+                    }
+                    if (!conLock && generacion != vista) {
+                        return false;
+                    }
+                    aplicar(columnas, id, conLock && !eliminada ? leerOferta(id) : fila);
+                    generacion++;
+                    actualizadoEn = LocalDateTime.now();
+                    return true;
+                });
+                if (aplicado) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("⚠️ No se pudo aplicar a la instantánea analítica el evento {}: {}",
+                    evento.getId(), e.getMessage());
+        }
+    }
+
+    public ResultadoAnaliticaDTO consultar(ConsultaAnaliticaDTO consulta) {
+        verificarHabilitado();
+        if (columnas == null) {
+            throw new IllegalArgumentException("La instantánea analítica se está cargando, reintente en unos segundos");
+        }
+
+        lock.readLock().lock();
+        try {
+            ResultadoAnaliticaDTO resultado = columnas.consultar(consulta);
+            resultado.setActualizadoEn(actualizadoEn);
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Object[]> leerOferta(Long id) {
+        return jdbcTemplate.query(SELECT_OFERTA, (rs, n) -> new Object[]{
+                rs.getLong("vendedor_id"),
+                rs.getString("tipo_material"),
+                rs.getBigDecimal("cantidad"),
+                rs.getBigDecimal("precio_unitario"),
+                rs.getBigDecimal("precio_total"),
+                rs.getString("ubicacion"),
+                Oferta.EstadoOferta.valueOf(rs.getString("estado")),
+                rs.getObject("fecha_creacion", LocalDateTime.class)
+        }, id, id);
+    }
+
+    /**
+     * Pone la fila leída o, si la oferta ya no existe, la quita
+     */
+    private static void aplicar(ColumnasOfertas destino, Long id, List<Object[]> fila) {
+        if (fila.isEmpty()) {
+            destino.quitar(id);
+            return;
+        }
+        Object[] f = fila.get(0);
+        destino.poner(id, (Long) f[0], (String) f[1], (BigDecimal) f[2], (BigDecimal) f[3],
+                (BigDecimal) f[4], (String) f[5], (Oferta.EstadoOferta) f[6], (LocalDateTime) f[7]);
+    }
+
+    private static void poner(ColumnasOfertas destino, ResultSet rs) throws SQLException {
+        destino.poner(
+                rs.getLong("id"),
+                rs.getLong("vendedor_id"),
+                rs.getString("tipo_material"),
+                rs.getBigDecimal("cantidad"),
+                rs.getBigDecimal("precio_unitario"),
+                rs.getBigDecimal("precio_total"),
+                rs.getString("ubicacion"),
+                Oferta.EstadoOferta.valueOf(rs.getString("estado")),
+                rs.getObject("fecha_creacion", LocalDateTime.class));
+    }
+
+    private void escribir(Runnable cambio) {
+        escribirSi(() -> {
+            cambio.run();
+            return true;
+        });
+    }
+
+    /**
+     * Ejecuta el cambio con el lock de escritura; devuelve lo que devuelva el cambio
+     */
+    private boolean escribirSi(BooleanSupplier cambio) {
+        lock.writeLock().lock();
+        try {
+            return cambio.getAsBoolean();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void verificarHabilitado() {
+        if (!habilitado) {
+            throw new IllegalArgumentException(
+                    "La instantánea analítica está deshabilitada (analitica.columnar.habilitado)");
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.chatarra.auth.service;
+
+import com.chatarra.auth.entity.Oferta;
+import com.chatarra.auth.entity.OfertaArchivada;
+import com.chatarra.auth.repository.OfertaArchivadaRepository;
+import com.chatarra.auth.repository.OfertaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Archivo de ofertas cerradas.
+ *
+ * Mueve las ofertas VENDIDA, RECHAZADA y CANCELADA creadas hace más de
+ * ofertas.archivo.antiguedad-dias de la tabla ofertas a ofertas_archivo, en lotes
+ * (cada lote en su propia transacción: INSERT ... SELECT y DELETE). Así la tabla ofertas
+ * y sus índices solo contienen el conjunto de trabajo (pendientes, aprobadas y cerradas recientes).
+ *
+ * Si ofertas_archivo está particionada (PostgreSQL, ver db/ofertas-archivo-particionada.sql)
+ * crea antes de cada lote las particiones mensuales que falten.
+ *
+ * Las consultas de historial (oferta por ID, listado y estadísticas del vendedor) leen
+ * también del archivo; ver OfertaService. Cada lote deja en la auditoría los ids que movió.
+ */
+@Service
+@Slf4j
+public class ArchivoOfertasService {
+
+    static final List<Oferta.EstadoOferta> CERRADAS = List.of(
+            Oferta.EstadoOferta.VENDIDA,
+            Oferta.EstadoOferta.RECHAZADA,
+            Oferta.EstadoOferta.CANCELADA);
+
+    private static final DateTimeFormatter SUFIJO_PARTICION = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final OfertaRepository ofertaRepository;
+    private final OfertaArchivadaRepository ofertaArchivadaRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AuditoriaService auditoriaService;
+    private final Counter archivadas;
+
+    @Value("${ofertas.archivo.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${ofertas.archivo.antiguedad-dias:180}")
+    private int antiguedadDias;
+
+    @Value("${ofertas.archivo.lote:1000}")
+    private int lote;
+
+    private volatile Boolean particionada;
+
+    public ArchivoOfertasService(OfertaRepository ofertaRepository,
+                                 OfertaArchivadaRepository ofertaArchivadaRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 AuditoriaService auditoriaService,
+                                 MeterRegistry registry) {
+        this.ofertaRepository = ofertaRepository;
+        this.ofertaArchivadaRepository = ofertaArchivadaRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.auditoriaService = auditoriaService;
+        this.archivadas = Counter.builder("ofertas.archivadas")
+                .description("Ofertas cerradas movidas a ofertas_archivo")
+                .register(registry);
+    }
+
+    /**
+     * Archivo programado (todos los días a las 3:30 por defecto)
+     */
+    @Scheduled(cron = "${ofertas.archivo.cron:0 30 3 * * *}")
+    public void archivarProgramado() {
+        if (habilitado) {
+            archivar();
+        }
+    }
+
+    /**
+     * Archiva todas las ofertas cerradas más antiguas que la antigüedad configurada
+     *
+     * @return cantidad de ofertas archivadas
+     */
+    public int archivar() {
+        LocalDateTime limite = LocalDateTime.now().minusDays(antiguedadDias);
+        long inicio = System.currentTimeMillis();
+        boolean conParticiones = esParticionada();
+        int total = 0;
+        int movidas;
+        do {
+            movidas = transactionTemplate.execute(status -> archivarLote(limite, conParticiones));
+            total += movidas;
+        } while (movidas == lote);
+
+        if (total > 0) {
+            log.info("🗄️ Archivadas {} ofertas cerradas anteriores a {} en {} ms",
+                    total, limite.toLocalDate(), System.currentTimeMillis() - inicio);
+        }
+        return total;
+    }
+
+    /**
+     * Ofertas archivadas creadas en [desde, hasta), más recientes primero
+     */
+    @Transactional(readOnly = true)
+    public List<OfertaArchivada> buscarPorPeriodo(LocalDate desde, LocalDate hasta, int maximo) {
+        if (!desde.isBefore(hasta)) {
+            throw new IllegalArgumentException("La fecha 'desde' debe ser anterior a 'hasta'");
+        }
+        return ofertaArchivadaRepository.buscarPorPeriodo(
+                desde.atStartOfDay(), hasta.atStartOfDay(), Limit.of(maximo));
+    }
+
+    private int archivarLote(LocalDateTime limite, boolean conParticiones) {
+        List<Long> ids = ofertaRepository.buscarIdsParaArchivar(CERRADAS, limite, Limit.of(lote));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        if (conParticiones) {
+            crearParticiones(YearMonth.from(ofertaRepository.buscarFechaMasAntigua(ids)), YearMonth.from(limite));
+        }
+
+        int copiadas = ofertaArchivadaRepository.copiarDesdeOfertas(ids, LocalDateTime.now());
+        int eliminadas = ofertaRepository.eliminarPorIds(ids);
+        if (copiadas != eliminadas) {
+            // Revierte el lote completo
+            throw new IllegalStateException("Archivo inconsistente: " + copiadas + " copiadas, "
+                    + eliminadas + " eliminadas");
+        }
+        auditoriaService.registrar("OFERTAS_ARCHIVADAS", "ARCHIVO", limite.toLocalDate(), null,
+                Map.of("ids", ids));
+        archivadas.increment(eliminadas);
+        return ids.size();
+    }
+
+    private boolean esParticionada() {
+        if (particionada == null) {
+            // Solo PostgreSQL tiene pg_partitioned_table; se consulta fuera de la transacción
+            // del lote porque un error de SQL la invalidaría
+            try {
+                particionada = Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                        "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table p JOIN pg_class c ON c.oid = p.partrelid "
+                                + "WHERE c.relname = 'ofertas_archivo')", Boolean.class));
+            } catch (DataAccessException e) {
+                particionada = false;
+            }
+            log.info("🗄️ ofertas_archivo {}", particionada ? "particionada por mes" : "sin particiones");
+        }
+        return particionada;
+    }
+
+    private void crearParticiones(YearMonth desde, YearMonth hasta) {
+        for (YearMonth mes = desde; !mes.isAfter(hasta); mes = mes.plusMonths(1)) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS ofertas_archivo_" + mes.format(SUFIJO_PARTICION)
+                    + " PARTITION OF ofertas_archivo FOR VALUES FROM ('" + mes.atDay(1)
+                    + "') TO ('" + mes.plusMonths(1).atDay(1) + "')");
+        }
+    }
+}
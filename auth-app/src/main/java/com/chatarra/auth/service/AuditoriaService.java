@@ -0,0 +1,84 @@
+package com.chatarra.auth.service;
+
+import com.chatarra.auth.entity.RegistroAuditoria;
+import com.chatarra.auth.repository.RegistroAuditoriaRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Auditoría de las acciones privilegiadas (roles, estado de usuarios, estado de ofertas, subastas,
+ * archivo de ofertas, instantánea analítica, niveles de log).
+ *
+ * registrar() inserta el registro con la misma conexión y transacción que la acción: se confirman
+ * juntos o no se confirma ninguno, y si el INSERT falla la acción falla. Fuera de una transacción
+ * (acciones en memoria) el registro se guarda en el momento; si no se puede, la petición falla.
+ * Es un INSERT por acción: las acciones privilegiadas son pocas.
+ */
+@Service
+@RequiredArgsConstructor
+public class AuditoriaService {
+
+    private static final String INSERTAR =
+            "INSERT INTO auditoria (actor, accion, entidad, entidad_id, antes, despues, fecha) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String SISTEMA = "sistema";
+
+    private final RegistroAuditoriaRepository registroRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Registra una acción privilegiada del usuario autenticado (o de "sistema" en las tareas
+     * programadas), dentro de la transacción en curso si la hay
+     */
+    public void registrar(String accion, String entidad, Object entidadId,
+                          Map<String, ?> antes, Map<String, ?> despues) {
+        jdbcTemplate.update(INSERTAR, actorActual(), accion, entidad, String.valueOf(entidadId),
+                json(antes), json(despues), Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    /**
+     * Historial de una entidad (el más reciente primero). Página siguiente: antesDe = último id
+     */
+    @Transactional(readOnly = true)
+    public List<RegistroAuditoria> porEntidad(String entidad, String entidadId, Long antesDe, int maximo) {
+        return registroRepository.findByEntidadAndEntidadIdAndIdLessThanOrderByIdDesc(entidad.toUpperCase(),
+                entidadId, antesDe != null ? antesDe : Long.MAX_VALUE, Limit.of(maximo));
+    }
+
+    /**
+     * Acciones de un actor (la más reciente primero). Página siguiente: antesDe = último id
+     */
+    @Transactional(readOnly = true)
+    public List<RegistroAuditoria> porActor(String actor, Long antesDe, int maximo) {
+        return registroRepository.findByActorAndIdLessThanOrderByIdDesc(actor,
+                antesDe != null ? antesDe : Long.MAX_VALUE, Limit.of(maximo));
+    }
+
+    private String json(Map<String, ?> valores) {
+        if (valores == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(valores);
+        } catch (JsonProcessingException e) {
+            return String.valueOf(valores);
+        }
+    }
+
+    private static String actorActual() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : SISTEMA;
+    }
+}
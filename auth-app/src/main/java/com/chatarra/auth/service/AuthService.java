@@ -2,11 +2,18 @@ package com.chatarra.auth.service;
 
 import com.chatarra.auth.dto.AuthResponseDTO;
 import com.chatarra.auth.dto.LoginDTO;
+import com.chatarra.auth.dto.RefreshTokenDTO;
 import com.chatarra.auth.dto.RegistroDTO;
+import com.chatarra.auth.entity.RefreshToken;
 import com.chatarra.auth.entity.Usuario;
+import com.chatarra.auth.exception.TokenInvalidoException;
 import com.chatarra.auth.exception.UsuarioExistenteException;
 import com.chatarra.auth.repository.UsuarioRepository;
 import com.chatarra.auth.security.JwtUtil;
+import com.chatarra.auth.security.ListaRevocacion;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -24,6 +31,7 @@ import org.springframework.transaction.annotation.Transactional;
  * @Slf4j - Lombok proporciona el objeto 'log' para logging
  */
 @Service
+@Observed
 @RequiredArgsConstructor
 @Slf4j
 public class AuthService {
@@ -33,6 +41,8 @@ public class AuthService {
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
     private final UserDetailsService userDetailsService;
+    private final RefreshTokenService refreshTokenService;
+    private final ListaRevocacion listaRevocacion;
 
     /**
      * Registra un nuevo usuario en el sistema.
@@ -70,8 +80,10 @@ public class AuthService {
         String passwordEncriptado = passwordEncoder.encode(registroDTO.getPassword());
         nuevoUsuario.setPassword(passwordEncriptado);
 
-        // 4. Asignar rol por defecto (VENDEDOR)
-        nuevoUsuario.setRol(Usuario.Rol.VENDEDOR);
+        // 4. Asignar rol: VENDEDOR por defecto, o COMPRADOR si lo pidió
+        nuevoUsuario.setRol(registroDTO.getRol() != null
+                ? Usuario.Rol.valueOf(registroDTO.getRol())
+                : Usuario.Rol.VENDEDOR);
         nuevoUsuario.setActivo(true);
 
         // 5. Guardar en la base de datos
@@ -83,10 +95,13 @@ public class AuthService {
         // Esto permite que el usuario inicie sesión inmediatamente sin hacer login
         UserDetails userDetails = userDetailsService.loadUserByUsername(usuarioGuardado.getEmail());
         String token = jwtUtil.generateToken(userDetails);
+        String refreshToken = refreshTokenService.emitir(usuarioGuardado.getId());
 
         // 7. Retornar respuesta con token y rol
         return new AuthResponseDTO(
                 token,
+                refreshToken,
+                jwtUtil.getExpiration() / 1000,
                 usuarioGuardado.getId(),
                 usuarioGuardado.getNombreCompleto(),
                 usuarioGuardado.getEmail(),
@@ -132,13 +147,78 @@ public class AuthService {
         Usuario usuario = usuarioRepository.findByEmail(loginDTO.getEmail())
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
 
-        // 6. Retornar respuesta con token y rol
+        // 6. Emitir el token de refresco (familia nueva)
+        String refreshToken = refreshTokenService.emitir(usuario.getId());
+
+        // 7. Retornar respuesta con token y rol
         return new AuthResponseDTO(
                 token,
+                refreshToken,
+                jwtUtil.getExpiration() / 1000,
                 usuario.getId(),
                 usuario.getNombreCompleto(),
                 usuario.getEmail(),
                 usuario.getRol().name()  // ← INCLUIR ROL
         );
     }
+
+    /**
+     * Renueva el token de acceso a partir de un token de refresco.
+     *
+     * Proceso:
+     * 1. Valida y consume el token de refresco (queda revocado)
+     * 2. Verifica que el usuario siga activo
+     * 3. Genera un token de acceso nuevo con el rol ACTUAL del usuario
+     * 4. Entrega un token de refresco nuevo de la misma familia (rotación)
+     *
+     * @param dto Token de refresco recibido en el login o en el refresh anterior
+     * @return AuthResponseDTO con los tokens nuevos
+     * @throws TokenInvalidoException si el token no es válido o el usuario está inactivo
+     */
+    @Transactional(noRollbackFor = TokenInvalidoException.class)
+    public AuthResponseDTO refrescar(RefreshTokenDTO dto) {
+        RefreshToken consumido = refreshTokenService.consumir(dto.getRefreshToken());
+
+        Usuario usuario = usuarioRepository.findById(consumido.getUsuarioId())
+                .orElseThrow(() -> new TokenInvalidoException("Token de refresco inválido"));
+        if (!usuario.getActivo()) {
+            throw new TokenInvalidoException("Usuario inactivo");
+        }
+
+        String token = jwtUtil.generateToken(usuario);
+        String refreshToken = refreshTokenService.rotar(consumido);
+
+        return new AuthResponseDTO(
+                token,
+                refreshToken,
+                jwtUtil.getExpiration() / 1000,
+                usuario.getId(),
+                usuario.getNombreCompleto(),
+                usuario.getEmail(),
+                usuario.getRol().name()
+        );
+    }
+
+    /**
+     * Cierra la sesión: revoca la familia del token de refresco y el token de acceso actual.
+     *
+     * @param dto Token de refresco de la sesión
+     * @param tokenAcceso Token de acceso enviado en el header Authorization (puede ser null)
+     */
+    @Transactional
+    public void logout(RefreshTokenDTO dto, String tokenAcceso) {
+        refreshTokenService.revocar(dto.getRefreshToken());
+
+        if (tokenAcceso != null) {
+            try {
+                Claims claims = jwtUtil.extractAllClaims(tokenAcceso);
+                if (claims.getId() != null) {
+                    listaRevocacion.revocarToken(claims.getId(), claims.getExpiration());
+                }
+            } catch (JwtException e) {
+                // Token expirado o inválido: ya no sirve, no hace falta revocarlo
+                log.debug("Token de acceso no revocado en logout: {}", e.getMessage());
+            }
+        }
+    }
 }
\ No newline at end of file
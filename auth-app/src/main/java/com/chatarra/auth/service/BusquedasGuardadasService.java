@@ -0,0 +1,242 @@
+package com.chatarra.auth.service;
+
+import com.chatarra.auth.dto.CrearBusquedaDTO;
+import com.chatarra.auth.entity.AlertaBusqueda;
+import com.chatarra.auth.entity.BusquedaGuardada;
+import com.chatarra.auth.entity.Cantidad;
+import com.chatarra.auth.entity.Dinero;
+import com.chatarra.auth.entity.EventoOferta;
+import com.chatarra.auth.entity.Oferta;
+import com.chatarra.auth.repository.AlertaBusquedaRepository;
+import com.chatarra.auth.repository.BusquedaGuardadaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Búsquedas guardadas de los compradores y sus alertas.
+ *
+ * - Las búsquedas están en un índice invertido en memoria (IndiceBusquedas) que se carga al
+ *   arrancar y se mantiene con las altas y bajas
+ * - Cuando una oferta pasa a APROBADA (evento del outbox, ya fuera de la petición del admin)
+ *   se buscan las coincidencias en el índice y se encolan las alertas
+ * - Una tarea periódica escribe las alertas encoladas por lotes. ON CONFLICT DO NOTHING:
+ *   una oferta que vuelve a APROBADA no avisa dos veces a la misma búsqueda
+ * - Un lote que no se puede escribir vuelve a la cola y se reintenta en la siguiente pasada
+ *   (las filas que sí llegaron a escribirse las descarta el ON CONFLICT)
+ *
+ * La cola está en memoria: al detenerse la aplicación se intenta escribir lo pendiente, y lo
+ * que no se pueda escribir entonces se pierde.
+ */
+@Service
+@Slf4j
+public class BusquedasGuardadasService {
+
+    private static final String SELECT_BUSQUEDAS =
+            "SELECT id, comprador_id, tipo_material, precio_min, precio_max, cantidad_min, ubicacion "
+                    + "FROM busquedas_guardadas";
+    private static final String SELECT_OFERTA =
+            "SELECT tipo_material, precio_unitario, COALESCE(cantidad_disponible, cantidad) AS disponible, ubicacion "
+                    + "FROM ofertas WHERE id = ?";
+    private static final String INSERTAR_ALERTA =
+            "INSERT INTO alertas_busqueda (busqueda_id, comprador_id, oferta_id, fecha, leida) "
+                    + "VALUES (?, ?, ?, ?, FALSE) ON CONFLICT DO NOTHING";
+
+    private final BusquedaGuardadaRepository busquedaRepository;
+    private final AlertaBusquedaRepository alertaRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final IndiceBusquedas indice = new IndiceBusquedas();
+    private final BlockingQueue<Object[]> alertasPendientes = new LinkedBlockingQueue<>();
+    private final Counter alertas;
+
+    @Value("${busquedas.maximo-por-comprador:20}")
+    private long maximoPorComprador;
+
+    @Value("${busquedas.alertas.lote:1000}")
+    private int lote;
+
+    public BusquedasGuardadasService(BusquedaGuardadaRepository busquedaRepository,
+                                     AlertaBusquedaRepository alertaRepository,
+                                     JdbcTemplate jdbcTemplate,
+                                     MeterRegistry registry) {
+        this.busquedaRepository = busquedaRepository;
+        this.alertaRepository = alertaRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.alertas = Counter.builder("busquedas.alertas")
+                .description("Coincidencias de ofertas aprobadas con búsquedas guardadas")
+                .register(registry);
+        Gauge.builder("busquedas.guardadas", indice, IndiceBusquedas::size).register(registry);
+        Gauge.builder("busquedas.alertas.pendientes", alertasPendientes, BlockingQueue::size).register(registry);
+    }
+
+    @PostConstruct
+    void cargar() {
+        jdbcTemplate.query(SELECT_BUSQUEDAS, (RowCallbackHandler) rs -> indice.poner(
+                rs.getLong("id"),
+                rs.getLong("comprador_id"),
+                rs.getString("tipo_material"),
+                Dinero.centimos(rs.getBigDecimal("precio_min")),
+                precioMax(rs.getBigDecimal("precio_max")),
+                Cantidad.gramos(rs.getBigDecimal("cantidad_min")),
+                rs.getString("ubicacion")));
+        log.info("🔔 {} búsquedas guardadas en el índice", indice.size());
+    }
+
+    /**
+     * Guarda una búsqueda del comprador
+     */
+    @Transactional
+    public BusquedaGuardada crear(Long compradorId, CrearBusquedaDTO dto) {
+        if (dto.getPrecioMin() != null && dto.getPrecioMax() != null
+                && dto.getPrecioMin().compareTo(dto.getPrecioMax()) > 0) {
+            throw new IllegalArgumentException("El precio mínimo no puede ser mayor que el máximo");
+        }
+        if (busquedaRepository.countByCompradorId(compradorId) >= maximoPorComprador) {
+            throw new IllegalArgumentException("Máximo " + maximoPorComprador + " búsquedas guardadas por comprador");
+        }
+
+        BusquedaGuardada busqueda = busquedaRepository.save(BusquedaGuardada.builder()
+                .compradorId(compradorId)
+                .tipoMaterial(dto.getTipoMaterial() == null || dto.getTipoMaterial().isBlank()
+                        ? null : dto.getTipoMaterial().trim().toUpperCase())
+                .precioMin(dto.getPrecioMin())
+                .precioMax(dto.getPrecioMax())
+                .cantidadMin(dto.getCantidadMin())
+                .ubicacion(dto.getUbicacion() == null || dto.getUbicacion().isBlank() ? null : dto.getUbicacion().trim())
+                .build());
+        alConfirmar(() -> indice.poner(busqueda.getId(), compradorId, busqueda.getTipoMaterial(),
+                Dinero.centimos(busqueda.getPrecioMin()), precioMax(busqueda.getPrecioMax()),
+                Cantidad.gramos(busqueda.getCantidadMin()), busqueda.getUbicacion()));
+        return busqueda;
+    }
+
+    @Transactional
+    public void eliminar(Long busquedaId, Long compradorId) {
+        BusquedaGuardada busqueda = busquedaRepository.findById(busquedaId)
+                .filter(b -> b.getCompradorId().equals(compradorId))
+                .orElseThrow(() -> new RuntimeException("Búsqueda no encontrada con ID: " + busquedaId));
+        alertaRepository.eliminarPorBusqueda(busquedaId);
+        busquedaRepository.delete(busqueda);
+        alConfirmar(() -> indice.quitar(busquedaId));
+    }
+
+    @Transactional(readOnly = true)
+    public List<BusquedaGuardada> listar(Long compradorId) {
+        return busquedaRepository.findByCompradorIdOrderByFechaCreacionDesc(compradorId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<AlertaBusqueda> alertas(Long compradorId, int maximo) {
+        return alertaRepository.findByCompradorIdOrderByIdDesc(compradorId, Limit.of(maximo));
+    }
+
+    @Transactional
+    public int marcarLeidas(Long compradorId) {
+        return alertaRepository.marcarLeidas(compradorId);
+    }
+
+    /**
+     * Busca coincidencias para las ofertas que pasan a APROBADA, después del commit del lote
+     * del relay: la consulta no comparte su transacción y el evento llega una sola vez
+     */
+    @TransactionalEventListener
+    public void alCambiarOferta(EventoOferta evento) {
+        if (evento.getTipo() == EventoOferta.TipoEvento.ELIMINADA
+                || evento.getEstadoNuevo() != Oferta.EstadoOferta.APROBADA
+                || indice.size() == 0) {
+            return;
+        }
+        try {
+            List<Object[]> fila = jdbcTemplate.query(SELECT_OFERTA, (rs, n) -> new Object[]{
+                    rs.getString("tipo_material"),
+                    rs.getBigDecimal("precio_unitario"),
+                    rs.getBigDecimal("disponible"),
+                    rs.getString("ubicacion")
+            }, evento.getOfertaId());
+            if (fila.isEmpty()) {
+                return;
+            }
+
+            Object[] oferta = fila.get(0);
+            long inicio = System.nanoTime();
+            List<IndiceBusquedas.Predicado> coincidencias = indice.coincidencias((String) oferta[0],
+                    Dinero.centimos((BigDecimal) oferta[1]), Cantidad.gramos((BigDecimal) oferta[2]),
+                    (String) oferta[3], evento.getVendedorId());
+            log.debug("Oferta {}: {} búsquedas coinciden ({} µs)", evento.getOfertaId(), coincidencias.size(),
+                    (System.nanoTime() - inicio) / 1000);
+
+            Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+            for (IndiceBusquedas.Predicado p : coincidencias) {
+                alertasPendientes.add(new Object[]{p.id(), p.compradorId(), evento.getOfertaId(), ahora});
+            }
+            alertas.increment(coincidencias.size());
+        } catch (RuntimeException e) {
+            log.warn("⚠️ No se pudieron buscar coincidencias para la oferta {}: {}",
+                    evento.getOfertaId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Escribe las alertas encoladas. Si un lote falla vuelve a la cola y la pasada termina:
+     * con la base caída no tiene sentido seguir sacando lotes
+     */
+    @Scheduled(fixedDelayString = "${busquedas.alertas.intervalo-ms:500}")
+    public synchronized void escribirAlertas() {
+        List<Object[]> lote = new ArrayList<>();
+        while (alertasPendientes.drainTo(lote, this.lote) > 0) {
+            try {
+                jdbcTemplate.batchUpdate(INSERTAR_ALERTA, lote);
+            } catch (RuntimeException e) {
+                alertasPendientes.addAll(lote);
+                log.error("❌ No se pudieron guardar {} alertas de búsquedas, se reintentará", lote.size(), e);
+                return;
+            }
+            lote.clear();
+        }
+    }
+
+    @PreDestroy
+    void detener() {
+        escribirAlertas();
+        if (!alertasPendientes.isEmpty()) {
+            log.warn("⚠️ {} alertas de búsquedas sin guardar al detenerse", alertasPendientes.size());
+        }
+    }
+
+    /**
+     * El índice cambia solo si la transacción se confirma
+     */
+    private static void alConfirmar(Runnable cambio) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cambio.run();
+            }
+        });
+    }
+
+    private static long precioMax(BigDecimal precioMax) {
+        return precioMax != null ? Dinero.centimos(precioMax) : Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,35 @@
+package com.chatarra.auth.service;
+
+import com.chatarra.auth.entity.Notificacion;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bandeja de entrada en la aplicación: la fila de la notificación ya es el mensaje, entregar
+ * solo la marca como enviada (GET /api/notificaciones)
+ */
+@Component
+public class CanalBandeja implements CanalNotificacion {
+
+    @Override
+    public Notificacion.Canal canal() {
+        return Notificacion.Canal.APP;
+    }
+
+    @Override
+    public boolean habilitado() {
+        return true;
+    }
+
+    @Override
+    public String destino(Long usuarioId, String email) {
+        return null;
+    }
+
+    @Override
+    public Map<Long, String> enviar(List<Notificacion> lote) {
+        return Map.of();
+    }
+}
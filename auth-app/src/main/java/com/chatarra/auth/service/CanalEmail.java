@@ -0,0 +1,140 @@
+package com.chatarra.auth.service;
+
+import com.chatarra.auth.entity.Notificacion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Email por SMTP sin autenticación ni TLS, pensado para un servidor local de pruebas
+ * (Mailpit, MailHog: notificaciones.email.host/puerto). Un lote se envía en una sola
+ * conexión; un mensaje rechazado no corta el resto del lote (RSET y se sigue).
+ *
+ * Deshabilitado por defecto (notificaciones.email.habilitado).
+ */
+@Component
+public class CanalEmail implements CanalNotificacion {
+
+    @Value("${notificaciones.email.habilitado:false}")
+    private boolean habilitado;
+
+    @Value("${notificaciones.email.host:localhost}")
+    private String host;
+
+    @Value("${notificaciones.email.puerto:1025}")
+    private int puerto;
+
+    @Value("${notificaciones.email.remitente:no-responder@chatarra.local}")
+    private String remitente;
+
+    @Value("${notificaciones.email.timeout-ms:5000}")
+    private int timeoutMs;
+
+    @Override
+    public Notificacion.Canal canal() {
+        return Notificacion.Canal.EMAIL;
+    }
+
+    @Override
+    public boolean habilitado() {
+        return habilitado;
+    }
+
+    @Override
+    public String destino(Long usuarioId, String email) {
+        return email;
+    }
+
+    @Override
+    public Map<Long, String> enviar(List<Notificacion> lote) {
+        Map<Long, String> errores = new HashMap<>();
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(host, puerto), timeoutMs);
+            socket.setSoTimeout(timeoutMs);
+            BufferedReader entrada = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            OutputStream salida = socket.getOutputStream();
+
+            esperar(entrada, 220);
+            comando(salida, entrada, "HELO chatarra", 250);
+            for (Notificacion notificacion : lote) {
+                try {
+                    comando(salida, entrada, "MAIL FROM:<" + remitente + ">", 250);
+                    comando(salida, entrada, "RCPT TO:<" + notificacion.getDestino() + ">", 250);
+                    comando(salida, entrada, "DATA", 354);
+                    comando(salida, entrada, mensaje(notificacion) + "\r\n.", 250);
+                } catch (SmtpException e) {
+                    errores.put(notificacion.getId(), e.getMessage());
+                    comando(salida, entrada, "RSET", 250);
+                }
+            }
+            comando(salida, entrada, "QUIT", 221);
+        } catch (IOException e) {
+            // Sin conexión (o se cortó): se reintentan las que no se confirmaron
+            String error = "SMTP " + host + ":" + puerto + ": " + e.getMessage();
+            lote.forEach(n -> errores.putIfAbsent(n.getId(), error));
+        }
+        return errores;
+    }
+
+    private String mensaje(Notificacion notificacion) {
+        String cuerpo = notificacion.getMensaje().replace("\r\n", "\n").replace("\n", "\r\n");
+        // Una línea que empieza con "." se duplica para no confundirla con el fin de DATA
+        cuerpo = cuerpo.replace("\r\n.", "\r\n..");
+        if (cuerpo.startsWith(".")) {
+            cuerpo = "." + cuerpo;
+        }
+        return "From: " + remitente + "\r\n"
+                + "To: " + notificacion.getDestino() + "\r\n"
+                + "Subject: =?UTF-8?B?" + Base64.getEncoder().encodeToString(
+                        notificacion.getAsunto().getBytes(StandardCharsets.UTF_8)) + "?=\r\n"
+                + "Message-ID: <notificacion-" + notificacion.getId() + "@chatarra.local>\r\n"
+                + "MIME-Version: 1.0\r\n"
+                + "Content-Type: text/plain; charset=UTF-8\r\n"
+                + "Content-Transfer-Encoding: 8bit\r\n"
+                + "\r\n"
+                + cuerpo;
+    }
+
+    private static void comando(OutputStream salida, BufferedReader entrada, String linea, int esperado)
+            throws IOException {
+        salida.write((linea + "\r\n").getBytes(StandardCharsets.UTF_8));
+        salida.flush();
+        esperar(entrada, esperado);
+    }
+
+    /**
+     * Lee la respuesta (incluidas las multilínea "250-...") y verifica el código
+     */
+    private static void esperar(BufferedReader entrada, int esperado) throws IOException {
+        String linea;
+        do {
+            linea = entrada.readLine();
+            if (linea == null) {
+                throw new IOException("El servidor cerró la conexión");
+            }
+        } while (linea.length() > 3 && linea.charAt(3) == '-');
+        if (!linea.startsWith(String.valueOf(esperado))) {
+            throw new SmtpException(linea);
+        }
+    }
+
+    /**
+     * Respuesta de rechazo del servidor (la conexión sigue sirviendo)
+     */
+    private static class SmtpException extends IOException {
+        SmtpException(String respuesta) {
+            super(respuesta);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.chatarra.auth.service;
+
+import com.chatarra.auth.entity.Notificacion;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Canal de entrega de notificaciones. Cada implementación (bean) es un canal; NotificacionService
+ * le entrega lotes desde un worker propio, así un canal lento no demora a los demás.
+ */
+public interface CanalNotificacion {
+
+    Notificacion.Canal canal();
+
+    /**
+     * Los canales deshabilitados no reciben notificaciones nuevas
+     */
+    boolean habilitado();
+
+    /**
+     * Destino de las notificaciones de un usuario en este canal (email, URL...), o null si el
+     * canal no lo necesita
+     */
+    String destino(Long usuarioId, String email);
+
+    /**
+     * Entrega un lote. Las que no están en el resultado se dan por enviadas; las que están se
+     * reintentan más tarde con el error indicado.
+     *
+     * @return errores por id de notificación
+     */
+    Map<Long, String> enviar(List<Notificacion> lote);
+}
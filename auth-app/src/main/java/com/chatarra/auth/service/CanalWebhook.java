@@ -0,0 +1,90 @@
+package com.chatarra.auth.service;
+
+import com.chatarra.auth.entity.Notificacion;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Webhook: un POST JSON por notificación a notificaciones.webhook.url (vacía = deshabilitado).
+ * La cabecera X-Notificacion-Id permite al receptor descartar repetidos (la entrega es "al
+ * menos una vez"). Cualquier respuesta que no sea 2xx se reintenta.
+ */
+@Component
+public class CanalWebhook implements CanalNotificacion {
+
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final String url;
+    private final Duration timeout;
+
+    public CanalWebhook(ObjectMapper objectMapper,
+                        @Value("${notificaciones.webhook.url:}") String url,
+                        @Value("${notificaciones.webhook.timeout-ms:5000}") long timeoutMs) {
+        this.objectMapper = objectMapper;
+        this.url = url;
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    @Override
+    public Notificacion.Canal canal() {
+        return Notificacion.Canal.WEBHOOK;
+    }
+
+    @Override
+    public boolean habilitado() {
+        return !url.isBlank();
+    }
+
+    @Override
+    public String destino(Long usuarioId, String email) {
+        return url;
+    }
+
+    @Override
+    public Map<Long, String> enviar(List<Notificacion> lote) {
+        Map<Long, String> errores = new HashMap<>();
+        for (Notificacion notificacion : lote) {
+            try {
+                HttpResponse<Void> respuesta = httpClient.send(HttpRequest.newBuilder(URI.create(notificacion.getDestino()))
+                        .timeout(timeout)
+                        .header("Content-Type", "application/json")
+                        .header("X-Notificacion-Id", notificacion.getId().toString())
+                        .POST(HttpRequest.BodyPublishers.ofString(cuerpo(notificacion)))
+                        .build(), HttpResponse.BodyHandlers.discarding());
+                if (respuesta.statusCode() / 100 != 2) {
+                    errores.put(notificacion.getId(), "HTTP " + respuesta.statusCode());
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                errores.put(notificacion.getId(), e.getClass().getSimpleName() + ": " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                errores.put(notificacion.getId(), "Interrumpido");
+            }
+        }
+        return errores;
+    }
+
+    private String cuerpo(Notificacion notificacion) throws JsonProcessingException {
+        Map<String, Object> cuerpo = new LinkedHashMap<>();
+        cuerpo.put("id", notificacion.getId());
+        cuerpo.put("usuarioId", notificacion.getUsuarioId());
+        cuerpo.put("asunto", notificacion.getAsunto());
+        cuerpo.put("mensaje", notificacion.getMensaje());
+        cuerpo.put("fecha", notificacion.getFechaCreacion().toString());
+        return objectMapper.writeValueAsString(cuerpo);
+    }
+}
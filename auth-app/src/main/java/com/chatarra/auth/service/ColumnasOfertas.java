@@ -0,0 +1,430 @@
+package com.chatarra.auth.service;
+
+import com.chatarra.auth.dto.ConsultaAnaliticaDTO;
+import com.chatarra.auth.dto.ResultadoAnaliticaDTO;
+import com.chatarra.auth.entity.Cantidad;
+import com.chatarra.auth.entity.Dinero;
+import com.chatarra.auth.entity.Oferta;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Ofertas en formato columnar para consultas analíticas (ver AnaliticaColumnarService).
+ *
+ * Una columna por campo, en arrays primitivos:
+ * - cantidad en gramos, precio unitario y precio total en céntimos (long, ver Cantidad y Dinero):
+ *   sumas exactas sin BigDecimal
+ * - tipoMaterial y ubicacion codificados con diccionario (int), estado por ordinal (byte)
+ * - fecha de creación en milisegundos epoch (la LocalDateTime se toma como UTC)
+ *
+ * Las consultas recorren las columnas por bloques en paralelo (ForkJoinPool común), con bucles
+ * sobre arrays sin objetos intermedios, y acumulan en arrays densos indexados por grupo.
+ *
+ * No es thread-safe: quien la usa coordina escrituras y lecturas.
+ */
+public final class ColumnasOfertas {
+
+    public enum Dimension {
+        MATERIAL,
+        ESTADO,
+        UBICACION,
+        DIA,
+        MES
+    }
+
+    static final int MAX_GRUPOS = 1 << 16;
+
+    private static final long MS_DIA = 86_400_000L;
+    private static final int FILAS_MIN_BLOQUE = 1 << 15;
+    private static final byte BORRADA = -1;
+    private static final Oferta.EstadoOferta[] ESTADOS = Oferta.EstadoOferta.values();
+
+    // Posiciones usadas (incluye filas borradas hasta la próxima compactación)
+    private int filas;
+    private int borradas;
+
+    private long[] ids;
+    private long[] vendedores;
+    private long[] cantidades;
+    private long[] preciosUnitarios;
+    private long[] totales;
+    private long[] creaciones;
+    private int[] materiales;
+    private int[] ubicaciones;
+    private byte[] estados;
+
+    private final Map<Long, Integer> posiciones = new HashMap<>();
+    private final Diccionario diccionarioMateriales = new Diccionario();
+    private final Diccionario diccionarioUbicaciones = new Diccionario();
+
+    private long minCreacion = Long.MAX_VALUE;
+    private long maxCreacion = Long.MIN_VALUE;
+
+    public ColumnasOfertas() {
+        this(1024);
+    }
+
+    public ColumnasOfertas(int capacidad) {
+        redimensionar(Math.max(16, capacidad));
+    }
+
+    /**
+     * Filas vigentes (sin las borradas)
+     */
+    public int getFilas() {
+        return filas - borradas;
+    }
+
+    /**
+     * Inserta o reemplaza la oferta con ese id
+     */
+    public void poner(long id, long vendedorId, String tipoMaterial, BigDecimal cantidad,
+                      BigDecimal precioUnitario, BigDecimal precioTotal, String ubicacion,
+                      Oferta.EstadoOferta estado, LocalDateTime fechaCreacion) {
+        Integer posicion = posiciones.get(id);
+        int i;
+        if (posicion == null) {
+            if (filas == ids.length) {
+                redimensionar(ids.length * 2);
+            }
+            i = filas++;
+            posiciones.put(id, i);
+            ids[i] = id;
+        } else {
+            i = posicion;
+        }
+
+        long creacion = fechaCreacion.toInstant(ZoneOffset.UTC).toEpochMilli();
+        vendedores[i] = vendedorId;
+        cantidades[i] = Cantidad.gramos(cantidad);
+        preciosUnitarios[i] = Dinero.centimos(precioUnitario);
+        totales[i] = Dinero.centimos(precioTotal);
+        creaciones[i] = creacion;
+        materiales[i] = diccionarioMateriales.codificar(tipoMaterial);
+        ubicaciones[i] = diccionarioUbicaciones.codificar(ubicacion != null ? ubicacion : "");
+        estados[i] = (byte) estado.ordinal();
+
+        minCreacion = Math.min(minCreacion, creacion);
+        maxCreacion = Math.max(maxCreacion, creacion);
+    }
+
+    /**
+     * Quita la oferta (queda marcada como borrada hasta la próxima compactación)
+     */
+    public boolean quitar(long id) {
+        Integer posicion = posiciones.remove(id);
+        if (posicion == null) {
+            return false;
+        }
+        estados[posicion] = BORRADA;
+        borradas++;
+        if (borradas > FILAS_MIN_BLOQUE && borradas > filas / 4) {
+            compactar();
+        }
+        return true;
+    }
+
+    /**
+     * Filtra, agrupa y suma. Lanza IllegalArgumentException si la consulta es inválida.
+     */
+    public ResultadoAnaliticaDTO consultar(ConsultaAnaliticaDTO consulta) {
+        long inicio = System.nanoTime();
+        Plan plan = planificar(consulta);
+
+        long[] acumulado;
+        if (plan == null) {
+            acumulado = new long[0];
+        } else {
+            int bloques = Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() * 2,
+                    filas / FILAS_MIN_BLOQUE));
+            int porBloque = (filas + bloques - 1) / bloques;
+            acumulado = IntStream.range(0, bloques).parallel()
+                    .mapToObj(b -> escanear(plan, b * porBloque, Math.min(filas, (b + 1) * porBloque)))
+                    .reduce(ColumnasOfertas::sumar)
+                    .orElseGet(() -> new long[plan.grupos * 3]);
+        }
+
+        List<ResultadoAnaliticaDTO.Fila> resultado = new ArrayList<>();
+        long coincidentes = 0;
+        for (int grupo = 0; grupo * 3 < acumulado.length; grupo++) {
+            long ofertas = acumulado[grupo * 3];
+            if (ofertas == 0) {
+                continue;
+            }
+            coincidentes += ofertas;
+            ResultadoAnaliticaDTO.Fila fila = new ResultadoAnaliticaDTO.Fila();
+            decodificarGrupo(plan, grupo, fila);
+            fila.setOfertas(ofertas);
+            fila.setCantidad(Cantidad.aKilos(acumulado[grupo * 3 + 1]));
+            fila.setTotal(Dinero.aBigDecimal(acumulado[grupo * 3 + 2]));
+            resultado.add(fila);
+        }
+
+        return ResultadoAnaliticaDTO.builder()
+                .filas(resultado)
+                .filasEscaneadas((long) getFilas())
+                .filasCoincidentes(coincidentes)
+                .duracionMs((System.nanoTime() - inicio) / 1_000_000.0)
+                .build();
+    }
+
+    /**
+     * Recorre las filas [desde, hasta) y acumula ofertas, cantidad y total por grupo
+     */
+    private long[] escanear(Plan p, int desde, int hasta) {
+        long[] acumulado = new long[p.grupos * 3];
+        long[] vendedores = this.vendedores;
+        long[] preciosUnitarios = this.preciosUnitarios;
+        long[] creaciones = this.creaciones;
+        long[] cantidades = this.cantidades;
+        long[] totales = this.totales;
+        int[] materiales = this.materiales;
+        int[] ubicaciones = this.ubicaciones;
+        byte[] estados = this.estados;
+
+        for (int i = desde; i < hasta; i++) {
+            int estado = estados[i];
+            long precio = preciosUnitarios[i];
+            long creacion = creaciones[i];
+            // Comparaciones sin cortocircuito: menos saltos en el bucle
+            boolean coincide = estado >= 0
+                    & precio >= p.precioMin & precio <= p.precioMax
+                    & creacion >= p.creacionDesde & creacion < p.creacionHasta
+                    & (!p.porVendedor | vendedores[i] == p.vendedor);
+            if (!coincide
+                    || (p.estados != null && !p.estados[estado])
+                    || (p.materiales != null && !p.materiales[materiales[i]])
+                    || (p.ubicaciones != null && !p.ubicaciones[ubicaciones[i]])) {
+                continue;
+            }
+
+            int grupo = 0;
+            for (int d = 0; d < p.dimensiones.length; d++) {
+                int clave = switch (p.dimensiones[d]) {
+                    case MATERIAL -> materiales[i];
+                    case ESTADO -> estado;
+                    case UBICACION -> ubicaciones[i];
+                    case DIA -> (int) (Math.floorDiv(creacion, MS_DIA) - p.diaBase);
+                    case MES -> p.mesPorDia[(int) (Math.floorDiv(creacion, MS_DIA) - p.diaBase)];
+                };
+                grupo = grupo * p.cardinalidades[d] + clave;
+            }
+            int base = grupo * 3;
+            acumulado[base]++;
+            acumulado[base + 1] += cantidades[i];
+            acumulado[base + 2] += totales[i];
+        }
+        return acumulado;
+    }
+
+    /**
+     * Traduce la consulta a filtros sobre códigos. Devuelve null si no puede haber resultados.
+     */
+    private Plan planificar(ConsultaAnaliticaDTO c) {
+        Plan p = new Plan();
+        p.precioMin = c.getPrecioMin() != null ? Dinero.centimos(c.getPrecioMin()) : Long.MIN_VALUE;
+        p.precioMax = c.getPrecioMax() != null ? Dinero.centimos(c.getPrecioMax()) : Long.MAX_VALUE;
+        p.creacionDesde = c.getDesde() != null ? c.getDesde().toEpochDay() * MS_DIA : Long.MIN_VALUE;
+        p.creacionHasta = c.getHasta() != null ? c.getHasta().toEpochDay() * MS_DIA : Long.MAX_VALUE;
+        p.porVendedor = c.getVendedorId() != null;
+        p.vendedor = p.porVendedor ? c.getVendedorId() : 0;
+        if (p.precioMin > p.precioMax || p.creacionDesde >= p.creacionHasta) {
+            throw new IllegalArgumentException("Rango inválido: el mínimo debe ser anterior al máximo");
+        }
+
+        if (c.getEstados() != null && !c.getEstados().isEmpty()) {
+            p.estados = new boolean[ESTADOS.length];
+            c.getEstados().forEach(e -> p.estados[e.ordinal()] = true);
+        }
+        if (c.getTiposMaterial() != null && !c.getTiposMaterial().isEmpty()) {
+            p.materiales = new boolean[diccionarioMateriales.tamano()];
+            for (int codigo = 0; codigo < p.materiales.length; codigo++) {
+                String material = diccionarioMateriales.valor(codigo);
+                p.materiales[codigo] = c.getTiposMaterial().stream().anyMatch(m -> m.trim().equalsIgnoreCase(material));
+            }
+        }
+        if (c.getUbicacion() != null && !c.getUbicacion().isBlank()) {
+            // Se evalúa el texto una vez por valor del diccionario, no por fila
+            String buscado = c.getUbicacion().trim().toLowerCase(Locale.ROOT);
+            p.ubicaciones = new boolean[diccionarioUbicaciones.tamano()];
+            for (int codigo = 0; codigo < p.ubicaciones.length; codigo++) {
+                p.ubicaciones[codigo] = diccionarioUbicaciones.valor(codigo).toLowerCase(Locale.ROOT).contains(buscado);
+            }
+        }
+
+        List<Dimension> dimensiones = parsearDimensiones(c.getAgrupar());
+        p.dimensiones = dimensiones.toArray(new Dimension[0]);
+        p.cardinalidades = new int[p.dimensiones.length];
+
+        long desde = Math.max(p.creacionDesde, minCreacion);
+        long hasta = Math.min(p.creacionHasta - 1, maxCreacion);
+        if (getFilas() == 0 || desde > hasta) {
+            return null;
+        }
+        p.diaBase = Math.floorDiv(desde, MS_DIA);
+        int dias = (int) (Math.floorDiv(hasta, MS_DIA) - p.diaBase + 1);
+        if (dimensiones.contains(Dimension.MES)) {
+            p.mesBase = YearMonth.from(LocalDate.ofEpochDay(p.diaBase));
+            p.mesPorDia = new int[dias];
+            for (int d = 0; d < dias; d++) {
+                p.mesPorDia[d] = (int) ChronoUnit.MONTHS.between(p.mesBase,
+                        YearMonth.from(LocalDate.ofEpochDay(p.diaBase + d)));
+            }
+        }
+
+        long grupos = 1;
+        for (int d = 0; d < p.dimensiones.length; d++) {
+            p.cardinalidades[d] = switch (p.dimensiones[d]) {
+                case MATERIAL -> diccionarioMateriales.tamano();
+                case ESTADO -> ESTADOS.length;
+                case UBICACION -> diccionarioUbicaciones.tamano();
+                case DIA -> dias;
+                case MES -> p.mesPorDia[dias - 1] + 1;
+            };
+            grupos *= p.cardinalidades[d];
+            if (grupos > MAX_GRUPOS) {
+                throw new IllegalArgumentException("Demasiados grupos (máximo " + MAX_GRUPOS
+                        + "): acote el rango de fechas o agrupe por menos campos");
+            }
+        }
+        p.grupos = (int) grupos;
+        return p;
+    }
+
+    private void decodificarGrupo(Plan p, int grupo, ResultadoAnaliticaDTO.Fila fila) {
+        for (int d = p.dimensiones.length - 1; d >= 0; d--) {
+            int clave = grupo % p.cardinalidades[d];
+            grupo /= p.cardinalidades[d];
+            switch (p.dimensiones[d]) {
+                case MATERIAL -> fila.setTipoMaterial(diccionarioMateriales.valor(clave));
+                case ESTADO -> fila.setEstado(ESTADOS[clave].name());
+                case UBICACION -> fila.setUbicacion(diccionarioUbicaciones.valor(clave));
+                case DIA -> fila.setDia(LocalDate.ofEpochDay(p.diaBase + clave));
+                case MES -> fila.setMes(p.mesBase.plusMonths(clave).toString());
+            }
+        }
+    }
+
+    private static List<Dimension> parsearDimensiones(List<String> agrupar) {
+        List<Dimension> dimensiones = new ArrayList<>();
+        if (agrupar == null) {
+            return dimensiones;
+        }
+        for (String nombre : agrupar) {
+            try {
+                Dimension dimension = Dimension.valueOf(nombre.trim().toUpperCase(Locale.ROOT));
+                if (!dimensiones.contains(dimension)) {
+                    dimensiones.add(dimension);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Campo de agrupación inválido: " + nombre.trim()
+                        + " (valores: " + Arrays.toString(Dimension.values()).toLowerCase(Locale.ROOT) + ")");
+            }
+        }
+        return dimensiones;
+    }
+
+    private static long[] sumar(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++) {
+            a[i] += b[i];
+        }
+        return a;
+    }
+
+    private void redimensionar(int capacidad) {
+        ids = Arrays.copyOf(ids != null ? ids : new long[0], capacidad);
+        vendedores = Arrays.copyOf(vendedores != null ? vendedores : new long[0], capacidad);
+        cantidades = Arrays.copyOf(cantidades != null ? cantidades : new long[0], capacidad);
+        preciosUnitarios = Arrays.copyOf(preciosUnitarios != null ? preciosUnitarios : new long[0], capacidad);
+        totales = Arrays.copyOf(totales != null ? totales : new long[0], capacidad);
+        creaciones = Arrays.copyOf(creaciones != null ? creaciones : new long[0], capacidad);
+        materiales = Arrays.copyOf(materiales != null ? materiales : new int[0], capacidad);
+        ubicaciones = Arrays.copyOf(ubicaciones != null ? ubicaciones : new int[0], capacidad);
+        estados = Arrays.copyOf(estados != null ? estados : new byte[0], capacidad);
+    }
+
+    /**
+     * Mueve las filas vigentes al principio de las columnas
+     */
+    private void compactar() {
+        int destino = 0;
+        for (int i = 0; i < filas; i++) {
+            if (estados[i] == BORRADA) {
+                continue;
+            }
+            if (destino != i) {
+                ids[destino] = ids[i];
+                vendedores[destino] = vendedores[i];
+                cantidades[destino] = cantidades[i];
+                preciosUnitarios[destino] = preciosUnitarios[i];
+                totales[destino] = totales[i];
+                creaciones[destino] = creaciones[i];
+                materiales[destino] = materiales[i];
+                ubicaciones[destino] = ubicaciones[i];
+                estados[destino] = estados[i];
+                posiciones.put(ids[destino], destino);
+            }
+            destino++;
+        }
+        filas = destino;
+        borradas = 0;
+    }
+
+    /**
+     * Consulta traducida a códigos y límites en céntimos y milisegundos
+     */
+    private static final class Plan {
+        long precioMin;
+        long precioMax;
+        long creacionDesde;
+        long creacionHasta;
+        boolean porVendedor;
+        long vendedor;
+        boolean[] estados;
+        boolean[] materiales;
+        boolean[] ubicaciones;
+
+        Dimension[] dimensiones;
+        int[] cardinalidades;
+        long diaBase;
+        YearMonth mesBase;
+        int[] mesPorDia;
+        int grupos;
+    }
+
+    /**
+     * Valores distintos de una columna de texto, cada uno con un código entero (0, 1, 2...)
+     */
+    private static final class Diccionario {
+        private final Map<String, Integer> codigos = new HashMap<>();
+        private final List<String> valores = new ArrayList<>();
+
+        int codificar(String valor) {
+            return codigos.computeIfAbsent(valor, v -> {
+                valores.add(v);
+                return valores.size() - 1;
+            });
+        }
+
+        String valor(int codigo) {
+            return valores.get(codigo);
+        }
+
+        int tamano() {
+            return valores.size();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.chatarra.auth.service;
+
+import com.chatarra.auth.dto.EstadisticasPlataformaDTO;
+import com.chatarra.auth.entity.Oferta;
+import com.chatarra.auth.repository.OfertaArchivadaRepository;
+import com.chatarra.auth.repository.OfertaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estadísticas globales de ofertas para el panel de admin.
+ *
+ * Se calculan con consultas de agregación (GROUP BY en la base, sin cargar ofertas) sobre
+ * la tabla ofertas y el archivo, y se guardan en memoria durante estadisticas.cache.ttl-ms.
+ * Si varias peticiones llegan con la caché vencida, solo una recalcula.
+ */
+@Service
+@Slf4j
+public class EstadisticasPlataformaService {
+
+    public static final int DIAS_MAXIMO = 365;
+
+    private record Entrada(EstadisticasPlataformaDTO valor, long expira) {
+    }
+
+    private final OfertaRepository ofertaRepository;
+    private final OfertaArchivadaRepository ofertaArchivadaRepository;
+    private final TransactionTemplate lectura;
+
+    @Value("${estadisticas.cache.ttl-ms:30000}")
+    private long ttlMs;
+
+    // Por cantidad de días de la serie
+    private final Map<Integer, Entrada> cache = new ConcurrentHashMap<>();
+
+    public EstadisticasPlataformaService(OfertaRepository ofertaRepository,
+                                         OfertaArchivadaRepository ofertaArchivadaRepository,
+                                         PlatformTransactionManager transactionManager) {
+        this.ofertaRepository = ofertaRepository;
+        this.ofertaArchivadaRepository = ofertaArchivadaRepository;
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+    }
+
+    /**
+     * Estadísticas con la serie de ventas de los últimos {@code dias} días (hoy incluido)
+     */
+    public EstadisticasPlataformaDTO obtener(int dias) {
+        if (dias < 1 || dias > DIAS_MAXIMO) {
+            throw new IllegalArgumentException("Los días deben estar entre 1 y " + DIAS_MAXIMO);
+        }
+        Entrada entrada = cache.get(dias);
+        if (entrada != null && entrada.expira() > System.currentTimeMillis()) {
+            return entrada.valor();
+        }
+        synchronized (this) {
+            entrada = cache.get(dias);
+            if (entrada != null && entrada.expira() > System.currentTimeMillis()) {
+                return entrada.valor();
+            }
+            long inicio = System.currentTimeMillis();
+            EstadisticasPlataformaDTO valor = lectura.execute(status -> calcular(dias));
+            cache.put(dias, new Entrada(valor, System.currentTimeMillis() + ttlMs));
+            log.debug("📊 Estadísticas de plataforma ({} días) calculadas en {} ms",
+                    dias, System.currentTimeMillis() - inicio);
+            return valor;
+        }
+    }
+
+    /**
+     * Descarta lo guardado: la próxima consulta de cada serie recalcula
+     */
+    public void invalidar() {
+        cache.clear();
+    }
+
+    public Duration getTtl() {
+        return Duration.ofMillis(ttlMs);
+    }
+
+    private EstadisticasPlataformaDTO calcular(int dias) {
+        // Por estado
+        Map<Oferta.EstadoOferta, Long> cantidades = new EnumMap<>(Oferta.EstadoOferta.class);
+        BigDecimal totalVendido = BigDecimal.ZERO;
+        List<Object[]> porEstado = new ArrayList<>(ofertaRepository.resumirPorEstado());
+        porEstado.addAll(ofertaArchivadaRepository.resumirPorEstado());
+        for (Object[] fila : porEstado) {
+            Oferta.EstadoOferta estado = (Oferta.EstadoOferta) fila[0];
+            cantidades.merge(estado, (Long) fila[1], Long::sum);
+            if (estado == Oferta.EstadoOferta.VENDIDA) {
+                totalVendido = totalVendido.add((BigDecimal) fila[2]);
+            }
+        }
+
+        // Por material (ordenado por nombre)
+        Map<String, EstadisticasPlataformaDTO.VolumenMaterial> materiales = new TreeMap<>();
+        List<Object[]> porMaterial = new ArrayList<>(ofertaRepository.resumirPorMaterial());
+        porMaterial.addAll(ofertaArchivadaRepository.resumirPorMaterial());
+        for (Object[] fila : porMaterial) {
+            materiales.merge((String) fila[0],
+                    new EstadisticasPlataformaDTO.VolumenMaterial((String) fila[0], (Long) fila[1],
+                            (BigDecimal) fila[2], (BigDecimal) fila[3], (BigDecimal) fila[4]),
+                    (a, b) -> new EstadisticasPlataformaDTO.VolumenMaterial(a.getTipoMaterial(),
+                            a.getOfertas() + b.getOfertas(),
+                            a.getCantidadOfertada().add(b.getCantidadOfertada()),
+                            a.getCantidadVendida().add(b.getCantidadVendida()),
+                            a.getTotalVendido().add(b.getTotalVendido())));
+        }
+
+        // Serie diaria, con los días sin ventas en 0
+        LocalDate hoy = LocalDate.now();
+        LocalDate desde = hoy.minusDays(dias - 1L);
+        Map<LocalDate, EstadisticasPlataformaDTO.VentasDia> serie = new TreeMap<>();
+        for (LocalDate dia = desde; !dia.isAfter(hoy); dia = dia.plusDays(1)) {
+            serie.put(dia, new EstadisticasPlataformaDTO.VentasDia(dia, 0L, BigDecimal.ZERO));
+        }
+        List<Object[]> porDia = new ArrayList<>(ofertaRepository.resumirVentasPorDia(desde.atStartOfDay()));
+        porDia.addAll(ofertaArchivadaRepository.resumirVentasPorDia(desde.atStartOfDay()));
+        for (Object[] fila : porDia) {
+            EstadisticasPlataformaDTO.VentasDia dia = serie.get((LocalDate) fila[0]);
+            if (dia != null) {
+                dia.setVentas(dia.getVentas() + (Long) fila[1]);
+                dia.setTotalVendido(dia.getTotalVendido().add((BigDecimal) fila[2]));
+            }
+        }
+
+        long pendientes = cantidades.getOrDefault(Oferta.EstadoOferta.PENDIENTE, 0L);
+        long aprobadas = cantidades.getOrDefault(Oferta.EstadoOferta.APROBADA, 0L);
+        long rechazadas = cantidades.getOrDefault(Oferta.EstadoOferta.RECHAZADA, 0L);
+        long vendidas = cantidades.getOrDefault(Oferta.EstadoOferta.VENDIDA, 0L);
+        long canceladas = cantidades.getOrDefault(Oferta.EstadoOferta.CANCELADA, 0L);
+
+        return EstadisticasPlataformaDTO.builder()
+                .ofertasPendientes(pendientes)
+                .ofertasAprobadas(aprobadas)
+                .ofertasRechazadas(rechazadas)
+                .ofertasVendidas(vendidas)
+                .ofertasCanceladas(canceladas)
+                .totalOfertas(pendientes + aprobadas + rechazadas + vendidas + canceladas)
+                .totalVendido(totalVendido)
+                .volumenPorMaterial(new ArrayList<>(materiales.values()))
+                .ventasPorDia(new ArrayList<>(serie.values()))
+                .generadoEn(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,180 @@
+package com.chatarra.auth.service;
+
+import com.chatarra.auth.dto.CambioEstadoOfertaDTO;
+import com.chatarra.auth.entity.EventoOferta;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Servicio que mantiene las conexiones SSE abiertas de los vendedores
+ * y les envía los cambios de sus ofertas.
+ *
+ * Cada conexión es una petición asíncrona del servlet (SseEmitter): mientras
+ * está inactiva no ocupa ningún hilo de Tomcat, solo el socket.
+ * Los cambios llegan desde el outbox (RelayEventosOfertaService) y se envían en un hilo
+ * propio ("eventos-sse"): un cliente lento retrasa otros envíos, no el relay. Las estadísticas
+ * se calculan una vez por ráfaga de cambios de un vendedor, no una vez por evento.
+ * Cada conexión se cierra al expirar el token con el que se abrió.
+ */
+@Service
+@Slf4j
+public class EventosVendedorService {
+
+    private final OfertaService ofertaService;
+
+    // Tiempo máximo de una conexión SSE (el navegador se reconecta al cerrarse)
+    private final long timeoutMs;
+
+    private final Map<Long, Set<SseEmitter>> suscripciones = new ConcurrentHashMap<>();
+    // Vendedores con un envío de estadísticas ya encolado
+    private final Set<Long> estadisticasPendientes = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor envios;
+
+    public EventosVendedorService(OfertaService ofertaService,
+                                  @Value("${ofertas.sse.timeout-ms:1800000}") long timeoutMs,
+                                  @Value("${ofertas.sse.cola-maxima:10000}") int colaMaxima) {
+        this.ofertaService = ofertaService;
+        this.timeoutMs = timeoutMs;
+        // Un solo hilo: los eventos de cada vendedor salen en orden. Con la cola llena se
+        // descartan (el cliente recupera el estado al reconectarse)
+        this.envios = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(colaMaxima), r -> {
+                    Thread hilo = new Thread(r, "eventos-sse");
+                    hilo.setDaemon(true);
+                    return hilo;
+                }, (tarea, executor) -> log.warn("⚠️ Cola de eventos SSE llena, se descarta un envío"));
+    }
+
+    @PreDestroy
+    void detener() throws InterruptedException {
+        envios.shutdown();
+        envios.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Abre una conexión SSE para el vendedor, hasta que expire su token, y envía sus
+     * estadísticas actuales
+     */
+    public SseEmitter suscribir(Long vendedorId, Instant expiraToken) {
+        long duracion = timeoutMs;
+        if (expiraToken != null) {
+            duracion = Math.max(1, Math.min(timeoutMs, Duration.between(Instant.now(), expiraToken).toMillis()));
+        }
+        SseEmitter emitter = new SseEmitter(duracion);
+        suscripciones.compute(vendedorId, (id, emitters) -> {
+            Set<SseEmitter> conjunto = emitters != null ? emitters : ConcurrentHashMap.newKeySet();
+            conjunto.add(emitter);
+            return conjunto;
+        });
+
+        emitter.onCompletion(() -> quitar(vendedorId, emitter));
+        emitter.onTimeout(() -> {
+            quitar(vendedorId, emitter);
+            emitter.complete();
+        });
+        emitter.onError(e -> quitar(vendedorId, emitter));
+
+        enviar(vendedorId, emitter, "estadisticas", ofertaService.obtenerEstadisticasVendedor(vendedorId));
+        return emitter;
+    }
+
+    /**
+     * Recibe los eventos del outbox, después del commit del lote del relay, y encola su envío
+     * al vendedor dueño de la oferta
+     */
+    @TransactionalEventListener
+    public void alCambiarOferta(EventoOferta evento) {
+        Long vendedorId = evento.getVendedorId();
+        if (!suscripciones.containsKey(vendedorId)) {
+            return;
+        }
+
+        CambioEstadoOfertaDTO cambio = CambioEstadoOfertaDTO.builder()
+                .eventoId(evento.getId())
+                .ofertaId(evento.getOfertaId())
+                .tipo(evento.getTipo().name())
+                .estadoAnterior(evento.getEstadoAnterior() != null ? evento.getEstadoAnterior().name() : null)
+                .estadoNuevo(evento.getEstadoNuevo() != null ? evento.getEstadoNuevo().name() : null)
+                .fecha(evento.getFechaCreacion())
+                .build();
+        envios.execute(() -> enviarATodos(vendedorId, "oferta", cambio));
+
+        // Si ya hay uno encolado, ese envío (que corre después de este cambio) ya lo incluye
+        if (estadisticasPendientes.add(vendedorId)) {
+            envios.execute(() -> {
+                estadisticasPendientes.remove(vendedorId);
+                enviarEstadisticas(vendedorId);
+            });
+        }
+    }
+
+    private void enviarEstadisticas(Long vendedorId) {
+        if (!suscripciones.containsKey(vendedorId)) {
+            return;
+        }
+        try {
+            enviarATodos(vendedorId, "estadisticas", ofertaService.obtenerEstadisticasVendedor(vendedorId));
+        } catch (Exception e) {
+            log.warn("No se pudieron enviar las estadísticas al vendedor {}: {}", vendedorId, e.getMessage());
+        }
+    }
+
+    private void enviarATodos(Long vendedorId, String nombre, Object datos) {
+        Set<SseEmitter> emitters = suscripciones.get(vendedorId);
+        if (emitters != null) {
+            for (SseEmitter emitter : emitters) {
+                enviar(vendedorId, emitter, nombre, datos);
+            }
+        }
+    }
+
+    /**
+     * Envía un comentario cada 25 segundos para mantener viva la conexión
+     * a través de proxies y detectar clientes desconectados (en el hilo de envíos, no en el
+     * del scheduler, que comparte con el relay)
+     */
+    @Scheduled(fixedDelayString = "${ofertas.sse.latido-ms:25000}")
+    public void enviarLatido() {
+        envios.execute(() -> suscripciones.forEach((vendedorId, emitters) -> {
+            for (SseEmitter emitter : emitters) {
+                try {
+                    emitter.send(SseEmitter.event().comment("latido"));
+                } catch (IOException | IllegalStateException e) {
+                    quitar(vendedorId, emitter);
+                }
+            }
+        }));
+    }
+
+    private boolean enviar(Long vendedorId, SseEmitter emitter, String nombre, Object datos) {
+        try {
+            emitter.send(SseEmitter.event().name(nombre).data(datos));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            quitar(vendedorId, emitter);
+            return false;
+        }
+    }
+
+    private void quitar(Long vendedorId, SseEmitter emitter) {
+        suscripciones.computeIfPresent(vendedorId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+}
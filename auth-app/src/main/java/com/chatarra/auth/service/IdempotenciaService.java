@@ -0,0 +1,339 @@
+package com.chatarra.auth.service;
+
+import com.chatarra.auth.entity.RespuestaIdempotente;
+import com.chatarra.auth.repository.RespuestaIdempotenteRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Almacén de respuestas de las peticiones con Idempotency-Key (ver FiltroIdempotencia).
+ *
+ * - En memoria, por usuario y clave, un futuro con la respuesta. La primera petición lo inserta
+ *   (una operación atómica del mapa) y las repetidas de esta instancia esperan ese mismo futuro
+ * - Antes de ejecutarse, la primera reclama la fila (usuario, clave) de la tabla idempotencia con
+ *   un INSERT (estado 0 = en curso). Si otra instancia ya la reclamó, la petición no se ejecuta:
+ *   espera leyendo la tabla hasta que la original guarde su respuesta. Un reclamo en curso de más
+ *   de idempotencia.en-curso-ms (instancia caída) se puede retomar
+ * - Al terminar, la respuesta se guarda en esa fila. Si no se puede, queda en memoria y se
+ *   reintenta (guardarPendientes); mientras tanto no sale de memoria
+ * - Las respuestas 5xx (y las excepciones) no se guardan: se borra el reclamo y el reintento
+ *   vuelve a ejecutarse
+ * - Memoria acotada: por encima de idempotencia.memoria.maximo se quitan las respuestas ya
+ *   guardadas más antiguas (siguen en la tabla), sin recorrer el mapa. Solo las peticiones en
+ *   curso y las pendientes de guardar pueden pasar del máximo. Memoria y tabla se purgan al
+ *   vencer idempotencia.ttl-h
+ */
+@Service
+@Slf4j
+public class IdempotenciaService {
+
+    // Estado de una fila reclamada cuya petición todavía no terminó
+    static final int EN_CURSO = 0;
+
+    private static final String RECLAMAR =
+            "INSERT INTO idempotencia (usuario, clave, metodo, ruta, estado, fecha_creacion, expira) "
+                    + "VALUES (?, ?, ?, ?, " + EN_CURSO + ", ?, ?) ON CONFLICT DO NOTHING";
+    private static final String RETOMAR =
+            "UPDATE idempotencia SET metodo = ?, ruta = ?, estado = " + EN_CURSO + ", tipo_contenido = NULL, "
+                    + "cuerpo = NULL, fecha_creacion = ?, expira = ? WHERE usuario = ? AND clave = ? "
+                    + "AND ((estado = " + EN_CURSO + " AND fecha_creacion < ?) OR expira < ?)";
+    private static final String GUARDAR =
+            "UPDATE idempotencia SET estado = ?, tipo_contenido = ?, cuerpo = ? "
+                    + "WHERE usuario = ? AND clave = ? AND estado = " + EN_CURSO + " AND fecha_creacion = ?";
+    private static final String SOLTAR =
+            "DELETE FROM idempotencia WHERE usuario = ? AND clave = ? AND estado = " + EN_CURSO
+                    + " AND fecha_creacion = ?";
+    private static final long CONSULTA_MS = 50;
+    private static final String SIGUE_EN_CURSO = "La petición original con esta Idempotency-Key sigue en curso";
+    private static final String FALLO = "La petición original con esta Idempotency-Key falló, reintente";
+
+    private final RespuestaIdempotenteRepository respuestaRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, Entrada> memoria = new ConcurrentHashMap<>();
+    // Entradas ya guardadas en la tabla, en orden de guardado: las primeras en salir de memoria
+    private final Queue<Entrada> guardadas = new ConcurrentLinkedQueue<>();
+    // Respuestas que no se pudieron guardar
+    private final Queue<Pendiente> pendientes = new ConcurrentLinkedQueue<>();
+    private final Counter repetidas;
+    private final Duration ttl;
+    private final int maximoEnMemoria;
+    private final long esperaMs;
+    private final long enCursoMs;
+
+    public IdempotenciaService(RespuestaIdempotenteRepository respuestaRepository,
+                               JdbcTemplate jdbcTemplate,
+                               @Value("${idempotencia.ttl-h:24}") long ttlHoras,
+                               @Value("${idempotencia.memoria.maximo:10000}") int maximoEnMemoria,
+                               @Value("${idempotencia.espera-ms:10000}") long esperaMs,
+                               @Value("${idempotencia.en-curso-ms:300000}") long enCursoMs,
+                               MeterRegistry registry) {
+        this.respuestaRepository = respuestaRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = Duration.ofHours(ttlHoras);
+        this.maximoEnMemoria = maximoEnMemoria;
+        this.esperaMs = esperaMs;
+        this.enCursoMs = enCursoMs;
+        this.repetidas = Counter.builder("idempotencia.repetidas")
+                .description("Peticiones con una Idempotency-Key ya usada (respuesta repetida)")
+                .register(registry);
+        Gauge.builder("idempotencia.memoria", memoria, Map::size).register(registry);
+    }
+
+    /**
+     * Turno de una petición: propio si es la primera con esa clave (debe ejecutarse y luego
+     * llamar a completar o abandonar); si no, la respuesta de la que se ejecutó o se está
+     * ejecutando (en esta instancia o en otra)
+     */
+    public Turno turno(String usuario, String clave, String metodo, String ruta) {
+        String id = usuario + '\n' + clave;
+        long ahora = System.currentTimeMillis();
+        Entrada nueva = new Entrada(id, new CompletableFuture<>(), ahora + ttl.toMillis());
+        Entrada actual = memoria.compute(id, (k, e) -> e == null || e.expira < ahora ? nueva : e);
+        if (actual != nueva) {
+            repetidas.increment();
+            return new Turno(id, usuario, clave, actual.respuesta, false, null);
+        }
+        if (memoria.size() > maximoEnMemoria) {
+            desalojarGuardadas();
+        }
+
+        LocalDateTime reclamo = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        Turno propio = new Turno(id, usuario, clave, nueva.respuesta, true, reclamo);
+        Optional<RespuestaIdempotente> guardada;
+        try {
+            if (reclamar(usuario, clave, metodo, ruta, reclamo)) {
+                return propio;
+            }
+            guardada = respuestaRepository.findByUsuarioAndClaveAndExpiraAfter(usuario, clave, reclamo);
+        } catch (RuntimeException e) {
+            memoria.remove(id, nueva);
+            nueva.respuesta.completeExceptionally(e);
+            throw e;
+        }
+
+        repetidas.increment();
+        if (guardada.isPresent() && guardada.get().getEstado() != EN_CURSO) {
+            nueva.respuesta.complete(aRespuesta(guardada.get()));
+            confirmarGuardada(nueva);
+            return new Turno(id, usuario, clave, nueva.respuesta, false, null);
+        }
+        // La original se está ejecutando en otra instancia: esperar lee la tabla (y las repetidas
+        // que tomaron esta entrada mientras tanto no esperan un futuro que nadie completa)
+        memoria.remove(id, nueva);
+        nueva.respuesta.completeExceptionally(new IllegalStateException(SIGUE_EN_CURSO));
+        return new Turno(id, usuario, clave, null, false, null);
+    }
+
+    /**
+     * Espera la respuesta de la petición original
+     *
+     * @throws IllegalStateException si no termina a tiempo o falló (el cliente puede reintentar)
+     */
+    public Respuesta esperar(Turno turno) {
+        try {
+            return turno.respuesta != null
+                    ? turno.respuesta.get(esperaMs, TimeUnit.MILLISECONDS)
+                    : esperarEnTabla(turno);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException(SIGUE_EN_CURSO);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(FALLO);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Petición interrumpida");
+        }
+    }
+
+    /**
+     * Guarda la respuesta de la petición propia y se la entrega a las repetidas en espera
+     */
+    public void completar(Turno turno, Respuesta respuesta) {
+        if (respuesta.estado() >= 500) {
+            abandonar(turno, new IllegalStateException("HTTP " + respuesta.estado()));
+            return;
+        }
+        turno.respuesta.complete(respuesta);
+        Pendiente pendiente = new Pendiente(turno, respuesta);
+        if (!guardar(pendiente)) {
+            pendientes.add(pendiente);
+        }
+    }
+
+    /**
+     * La petición propia falló: se quitan la entrada y el reclamo para que un reintento se ejecute
+     */
+    public void abandonar(Turno turno, Throwable error) {
+        memoria.computeIfPresent(turno.id, (k, e) -> e.respuesta == turno.respuesta ? null : e);
+        turno.respuesta.completeExceptionally(error);
+        try {
+            jdbcTemplate.update(SOLTAR, turno.usuario, turno.clave, Timestamp.valueOf(turno.reclamo));
+        } catch (RuntimeException e) {
+            // El reclamo vence a los idempotencia.en-curso-ms
+            log.warn("⚠️ No se pudo soltar la Idempotency-Key de {}: {}", turno.usuario, e.getMessage());
+        }
+    }
+
+    /**
+     * Reintenta guardar las respuestas que fallaron al completarse (hasta que vencen)
+     */
+    @Scheduled(fixedDelayString = "${idempotencia.reintento.intervalo-ms:5000}")
+    public void guardarPendientes() {
+        LocalDateTime vencidas = LocalDateTime.now().minus(ttl);
+        for (int i = pendientes.size(); i > 0; i--) {
+            Pendiente pendiente = pendientes.poll();
+            if (pendiente == null) {
+                return;
+            }
+            if (pendiente.turno.reclamo.isAfter(vencidas) && !guardar(pendiente)) {
+                pendientes.add(pendiente);
+            }
+        }
+    }
+
+    /**
+     * Quita de memoria y de la tabla las respuestas vencidas
+     */
+    @Scheduled(fixedDelayString = "${idempotencia.purga.intervalo-ms:600000}")
+    @Transactional
+    public void purgarVencidas() {
+        long ahora = System.currentTimeMillis();
+        memoria.values().removeIf(e -> e.expira < ahora);
+        // Se guardaron en orden: las vencidas están al principio
+        for (Entrada e = guardadas.peek(); e != null && e.expira < ahora; e = guardadas.peek()) {
+            guardadas.poll();
+        }
+        int eliminadas = respuestaRepository.eliminarExpiradas(LocalDateTime.now());
+        if (eliminadas > 0) {
+            log.info("🧹 {} respuestas idempotentes vencidas eliminadas", eliminadas);
+        }
+    }
+
+    /**
+     * La original está en otra instancia: se consulta su fila hasta que tenga la respuesta
+     */
+    private Respuesta esperarEnTabla(Turno turno) throws InterruptedException {
+        long limite = System.currentTimeMillis() + esperaMs;
+        do {
+            Optional<RespuestaIdempotente> fila = respuestaRepository.findByUsuarioAndClaveAndExpiraAfter(
+                    turno.usuario, turno.clave, LocalDateTime.now());
+            if (fila.isEmpty()) {
+                // La original falló y soltó el reclamo
+                throw new IllegalStateException(FALLO);
+            }
+            if (fila.get().getEstado() != EN_CURSO) {
+                return aRespuesta(fila.get());
+            }
+            Thread.sleep(CONSULTA_MS);
+        } while (System.currentTimeMillis() < limite);
+        throw new IllegalStateException(SIGUE_EN_CURSO);
+    }
+
+    /**
+     * Reclama la fila de la clave: nueva, vencida o de un reclamo en curso abandonado
+     */
+    private boolean reclamar(String usuario, String clave, String metodo, String ruta, LocalDateTime reclamo) {
+        Timestamp ahora = Timestamp.valueOf(reclamo);
+        Timestamp expira = Timestamp.valueOf(reclamo.plus(ttl));
+        if (jdbcTemplate.update(RECLAMAR, usuario, clave, metodo, ruta, ahora, expira) == 1) {
+            return true;
+        }
+        return jdbcTemplate.update(RETOMAR, metodo, ruta, ahora, expira, usuario, clave,
+                Timestamp.valueOf(reclamo.minus(Duration.ofMillis(enCursoMs))), ahora) == 1;
+    }
+
+    /**
+     * @return false si hay que reintentarlo
+     */
+    private boolean guardar(Pendiente pendiente) {
+        Turno turno = pendiente.turno;
+        Respuesta respuesta = pendiente.respuesta;
+        try {
+            if (jdbcTemplate.update(GUARDAR, respuesta.estado(), respuesta.tipoContenido(),
+                    new String(respuesta.cuerpo(), StandardCharsets.UTF_8),
+                    turno.usuario, turno.clave, Timestamp.valueOf(turno.reclamo)) == 0) {
+                // Otra instancia retomó el reclamo: su respuesta es la que queda en la tabla
+                log.warn("⚠️ Idempotency-Key de {} retomada por otra petición", turno.usuario);
+            }
+        } catch (RuntimeException e) {
+            log.warn("⚠️ No se pudo guardar la respuesta idempotente de {}: {}", turno.usuario, e.getMessage());
+            return false;
+        }
+        Entrada entrada = memoria.get(turno.id);
+        if (entrada != null && entrada.respuesta == turno.respuesta) {
+            confirmarGuardada(entrada);
+        }
+        return true;
+    }
+
+    private void confirmarGuardada(Entrada entrada) {
+        guardadas.add(entrada);
+    }
+
+    /**
+     * Quita de memoria las respuestas guardadas más antiguas hasta volver al máximo
+     */
+    private void desalojarGuardadas() {
+        int quitadas = 0;
+        while (memoria.size() > maximoEnMemoria) {
+            Entrada entrada = guardadas.poll();
+            if (entrada == null) {
+                break;
+            }
+            if (memoria.remove(entrada.id, entrada)) {
+                quitadas++;
+            }
+        }
+        log.debug("Idempotencia: {} respuestas guardadas quitadas de memoria", quitadas);
+    }
+
+    private static Respuesta aRespuesta(RespuestaIdempotente r) {
+        return new Respuesta(r.getMetodo(), r.getRuta(), r.getEstado(), r.getTipoContenido(),
+                r.getCuerpo() != null ? r.getCuerpo().getBytes(StandardCharsets.UTF_8) : new byte[0]);
+    }
+
+    /**
+     * Respuesta de la petición original (método y ruta para detectar una clave reusada en otra)
+     */
+    public record Respuesta(String metodo, String ruta, int estado, String tipoContenido, byte[] cuerpo) {
+
+        public boolean mismaPeticion(String metodo, String ruta) {
+            return this.metodo.equals(metodo) && this.ruta.equals(ruta);
+        }
+    }
+
+    /**
+     * Turno de una petición. Sin futuro (respuesta null) cuando la original está en otra
+     * instancia; reclamo es el instante con que la propia reclamó la fila
+     */
+    public record Turno(String id, String usuario, String clave, CompletableFuture<Respuesta> respuesta,
+                        boolean propio, LocalDateTime reclamo) {
+    }
+
+    private record Entrada(String id, CompletableFuture<Respuesta> respuesta, long expira) {
+    }
+
+    private record Pendiente(Turno turno, Respuesta respuesta) {
+    }
+}
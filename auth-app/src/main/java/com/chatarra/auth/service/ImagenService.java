@@ -0,0 +1,110 @@
+package com.chatarra.auth.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Servicio que localiza las imágenes de ofertas en disco y calcula su ETag.
+ *
+ * El ETag es el hash SHA-256 del contenido. Se calcula una sola vez por archivo
+ * y se guarda en memoria mientras el tamaño y la fecha de modificación no cambien,
+ * así las peticiones siguientes no vuelven a leer el archivo. Por encima de MAX_HUELLAS se
+ * quitan las más antiguas (en orden de alta), de a una.
+ */
+@Service
+@Slf4j
+public class ImagenService {
+
+    private static final int MAX_HUELLAS = 10_000;
+
+    // Lee el directorio de imágenes desde application.properties
+    @Value("${ofertas.imagenes.directorio:uploads/ofertas}")
+    private String directorio;
+
+    private final Map<Path, HuellaImagen> huellas = new ConcurrentHashMap<>();
+    // Rutas en el orden en que entraron al mapa: las primeras en salir
+    private final Queue<Path> orden = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Datos de una imagen lista para servir.
+     */
+    public record HuellaImagen(Path ruta, long tamano, long modificado, String etag, MediaType tipo) {
+    }
+
+    /**
+     * Busca una imagen por nombre dentro del directorio configurado.
+     * Rechaza nombres que intenten salir del directorio (ej: "../application.properties").
+     */
+    public Optional<HuellaImagen> buscarImagen(String nombre) {
+        Path base = Paths.get(directorio).toAbsolutePath().normalize();
+        Path ruta = base.resolve(nombre).normalize();
+
+        if (!ruta.startsWith(base) || !Files.isRegularFile(ruta)) {
+            return Optional.empty();
+        }
+
+        try {
+            BasicFileAttributes atributos = Files.readAttributes(ruta, BasicFileAttributes.class);
+            long tamano = atributos.size();
+            long modificado = atributos.lastModifiedTime().toMillis();
+
+            HuellaImagen huella = huellas.get(ruta);
+            if (huella == null || huella.tamano() != tamano || huella.modificado() != modificado) {
+                huella = new HuellaImagen(ruta, tamano, modificado, calcularEtag(ruta),
+                        MediaTypeFactory.getMediaType(nombre).orElse(MediaType.APPLICATION_OCTET_STREAM));
+                if (huellas.put(ruta, huella) == null) {
+                    orden.add(ruta);
+                    while (huellas.size() > MAX_HUELLAS) {
+                        Path antigua = orden.poll();
+                        if (antigua == null) {
+                            break;
+                        }
+                        huellas.remove(antigua);
+                    }
+                }
+            }
+            return Optional.of(huella);
+        } catch (IOException e) {
+            log.warn("No se pudo leer la imagen {}: {}", ruta, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Calcula el hash SHA-256 del archivo leyendo con un buffer directo (fuera del heap).
+     */
+    private String calcularEtag(Path ruta) throws IOException {
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+            while (canal.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+            return "\"" + HexFormat.of().formatHex(digest.digest()) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
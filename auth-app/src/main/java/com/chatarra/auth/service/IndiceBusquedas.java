@@ -0,0 +1,145 @@
+package com.chatarra.auth.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido de las búsquedas guardadas de los compradores, para saber qué búsquedas
+ * coinciden con una oferta sin recorrerlas todas.
+ *
+ * - Primer nivel: material (las búsquedas de cualquier material van a una entrada aparte)
+ * - Segundo nivel: árbol por precio máximo en céntimos. Las búsquedas con precio máximo
+ *   igual o mayor que el de la oferta son la cola del árbol desde ese precio; solo esas se
+ *   miran, y en ellas se comprueba el resto (precio mínimo, cantidad mínima, ubicación)
+ *
+ * La mayoría de las búsquedas son "material X por debajo de P", así que casi todas las
+ * candidatas coinciden: el coste depende de las coincidencias, no del total de búsquedas.
+ * Lecturas concurrentes con un lock de lectura; altas y bajas con el de escritura.
+ */
+public class IndiceBusquedas {
+
+    // Clave del primer nivel para las búsquedas sin material
+    private static final String CUALQUIER_MATERIAL = "";
+
+    private final Map<String, NavigableMap<Long, List<Predicado>>> porMaterial = new HashMap<>();
+    private final Map<Long, Predicado> porId = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Condiciones de una búsqueda (precios en céntimos por kg, cantidad en gramos)
+     *
+     * @param tipoMaterial null = cualquiera
+     * @param ubicacion    texto que debe contener la ubicación de la oferta, null = cualquiera
+     */
+    public record Predicado(long id, long compradorId, String tipoMaterial, long precioMinCentimos,
+                            long precioMaxCentimos, long cantidadMinGramos, String ubicacion) {
+
+        boolean coincide(long precioCentimos, long gramos, String ubicacionMinusculas) {
+            return precioCentimos >= precioMinCentimos
+                    && gramos >= cantidadMinGramos
+                    && (ubicacion == null || (ubicacionMinusculas != null && ubicacionMinusculas.contains(ubicacion)));
+        }
+    }
+
+    /**
+     * Agrega o reemplaza una búsqueda
+     */
+    public void poner(long id, long compradorId, String tipoMaterial, long precioMinCentimos,
+                      long precioMaxCentimos, long cantidadMinGramos, String ubicacion) {
+        Predicado predicado = new Predicado(id, compradorId, normalizarMaterial(tipoMaterial), precioMinCentimos,
+                precioMaxCentimos, cantidadMinGramos,
+                ubicacion == null || ubicacion.isBlank() ? null : ubicacion.trim().toLowerCase(Locale.ROOT));
+        lock.writeLock().lock();
+        try {
+            quitarSinLock(id);
+            porMaterial.computeIfAbsent(clave(predicado.tipoMaterial()), k -> new TreeMap<>())
+                    .computeIfAbsent(precioMaxCentimos, k -> new ArrayList<>())
+                    .add(predicado);
+            porId.put(id, predicado);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return true si la búsqueda estaba en el índice
+     */
+    public boolean quitar(long id) {
+        lock.writeLock().lock();
+        try {
+            return quitarSinLock(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Búsquedas que coinciden con una oferta (las del propio vendedor no cuentan)
+     */
+    public List<Predicado> coincidencias(String tipoMaterial, long precioCentimos, long gramos,
+                                         String ubicacion, long vendedorId) {
+        String ubicacionMinusculas = ubicacion != null ? ubicacion.toLowerCase(Locale.ROOT) : null;
+        List<Predicado> resultado = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            buscar(porMaterial.get(clave(normalizarMaterial(tipoMaterial))), precioCentimos, gramos,
+                    ubicacionMinusculas, vendedorId, resultado);
+            buscar(porMaterial.get(CUALQUIER_MATERIAL), precioCentimos, gramos,
+                    ubicacionMinusculas, vendedorId, resultado);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return resultado;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return porId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void buscar(NavigableMap<Long, List<Predicado>> porPrecioMax, long precioCentimos, long gramos,
+                               String ubicacionMinusculas, long vendedorId, List<Predicado> resultado) {
+        if (porPrecioMax == null) {
+            return;
+        }
+        for (List<Predicado> predicados : porPrecioMax.tailMap(precioCentimos, true).values()) {
+            for (Predicado p : predicados) {
+                if (p.compradorId() != vendedorId && p.coincide(precioCentimos, gramos, ubicacionMinusculas)) {
+                    resultado.add(p);
+                }
+            }
+        }
+    }
+
+    private boolean quitarSinLock(long id) {
+        Predicado anterior = porId.remove(id);
+        if (anterior == null) {
+            return false;
+        }
+        NavigableMap<Long, List<Predicado>> porPrecioMax = porMaterial.get(clave(anterior.tipoMaterial()));
+        List<Predicado> predicados = porPrecioMax.get(anterior.precioMaxCentimos());
+        predicados.removeIf(p -> p.id() == id);
+        if (predicados.isEmpty()) {
+            porPrecioMax.remove(anterior.precioMaxCentimos());
+        }
+        return true;
+    }
+
+    private static String normalizarMaterial(String tipoMaterial) {
+        return tipoMaterial == null || tipoMaterial.isBlank() ? null : tipoMaterial.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static String clave(String tipoMaterialNormalizado) {
+        return tipoMaterialNormalizado == null ? CUALQUIER_MATERIAL : tipoMaterialNormalizado;
+    }
+}
@@ -0,0 +1,433 @@
+package com.chatarra.auth.service;
+
+import com.chatarra.auth.dto.SubastaDTO;
+import com.chatarra.auth.entity.Dinero;
+import com.chatarra.auth.entity.Subasta;
+import com.chatarra.auth.repository.SubastaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Motor de pujas en memoria.
+ *
+ * - Cada subasta abierta tiene su estado y su lock en memoria: las pujas de una misma subasta
+ *   se validan y ordenan de a una (secuencia estricta), las de subastas distintas en paralelo.
+ *   ReentrantLock y no synchronized, para no fijar hilos virtuales (perfil "virtual")
+ * - Las pujas aceptadas pasan a una cola que escribe un único hilo por lotes (group commit):
+ *   un INSERT por lote en pujas y un UPDATE por subasta en subastas. La tabla ofertas no se
+ *   toca hasta la adjudicación, así una subasta caliente no genera esperas de locks en ofertas
+ * - La respuesta de una puja espera a que su lote esté confirmado en la base de datos
+ * - Anti-sniping: una puja a menos de subastas.anti-sniping.ventana-s del fin lo extiende
+ *   hasta subastas.anti-sniping.extension-s desde ese momento
+ *
+ * Si falla la escritura de un lote, sus pujas se rechazan y las subastas afectadas se vuelven
+ * a leer de la base de datos en una nueva época: las pujas ya encoladas de la época anterior
+ * se aceptaron sobre las rechazadas y también se rechazan, sin escribirse. Pensado para una
+ * sola instancia de la aplicación.
+ */
+@Service
+@Slf4j
+public class MotorSubastas {
+
+    private static final String INSERTAR_PUJA =
+            "INSERT INTO pujas (subasta_id, secuencia, postor_id, precio, fecha) VALUES (?, ?, ?, ?, ?)";
+    private static final String ACTUALIZAR_SUBASTA =
+            "UPDATE subastas SET mejor_precio = ?, mejor_postor_id = ?, pujas = ?, fin = ?, extensiones = ? "
+                    + "WHERE id = ?";
+
+    private final SubastaRepository subastaRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter aceptadas;
+    private final Counter rechazadas;
+    private final DistributionSummary tamanoLote;
+
+    private final Map<Long, EnCurso> abiertas = new ConcurrentHashMap<>();
+    // ofertaId -> subastaId de las abiertas
+    private final Map<Long, Long> porOferta = new ConcurrentHashMap<>();
+    private final BlockingQueue<Aceptada> cola = new LinkedBlockingQueue<>();
+    private final ReentrantLock escritura = new ReentrantLock();
+    private Thread escritor;
+    private volatile boolean activo = true;
+
+    @Value("${subastas.anti-sniping.ventana-s:60}")
+    private long ventanaAntiSnipingS;
+
+    @Value("${subastas.anti-sniping.extension-s:60}")
+    private long extensionAntiSnipingS;
+
+    @Value("${subastas.escritura.lote-maximo:1000}")
+    private int loteMaximo;
+
+    public MotorSubastas(SubastaRepository subastaRepository,
+                         JdbcTemplate jdbcTemplate,
+                         TransactionTemplate transactionTemplate,
+                         MeterRegistry registry) {
+        this.subastaRepository = subastaRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.aceptadas = Counter.builder("subastas.pujas").tag("resultado", "aceptada").register(registry);
+        this.rechazadas = Counter.builder("subastas.pujas").tag("resultado", "rechazada").register(registry);
+        this.tamanoLote = DistributionSummary.builder("subastas.escritura.lote")
+                .description("Pujas escritas por transacción")
+                .register(registry);
+        Gauge.builder("subastas.abiertas", abiertas, Map::size).register(registry);
+    }
+
+    /**
+     * Carga las subastas abiertas y arranca el hilo de escritura
+     */
+    @PostConstruct
+    void iniciar() {
+        subastaRepository.findByEstado(Subasta.EstadoSubasta.ABIERTA).forEach(this::registrar);
+        escritor = new Thread(this::escribirPujas, "escritor-pujas");
+        escritor.setDaemon(true);
+        escritor.start();
+        log.info("🔨 Motor de subastas iniciado con {} subastas abiertas", abiertas.size());
+    }
+
+    @PreDestroy
+    void detener() throws InterruptedException {
+        activo = false;
+        escritor.interrupt();
+        escritor.join(5000);
+    }
+
+    /**
+     * Pone en memoria una subasta abierta (recién creada o leída al arrancar)
+     */
+    public void registrar(Subasta subasta) {
+        abiertas.put(subasta.getId(), new EnCurso(subasta));
+        porOferta.put(subasta.getOfertaId(), subasta.getId());
+    }
+
+    public boolean tieneSubastaAbierta(Long ofertaId) {
+        return porOferta.containsKey(ofertaId);
+    }
+
+    public Collection<Long> abiertas() {
+        return new ArrayList<>(abiertas.keySet());
+    }
+
+    /**
+     * Estado vigente de una subasta abierta, o null si no está en memoria
+     */
+    public SubastaDTO estado(Long subastaId) {
+        EnCurso subasta = abiertas.get(subastaId);
+        if (subasta == null) {
+            return null;
+        }
+        subasta.lock.lock();
+        try {
+            return subasta.aDTO();
+        } finally {
+            subasta.lock.unlock();
+        }
+    }
+
+    /**
+     * Valida y ordena la puja. El futuro se completa cuando la puja está guardada; las pujas
+     * inválidas lo completan con IllegalArgumentException sin pasar por la base de datos.
+     */
+    public CompletableFuture<SubastaDTO> pujar(Long subastaId, Long postorId, BigDecimal precio) {
+        EnCurso subasta = abiertas.get(subastaId);
+        if (subasta == null) {
+            rechazadas.increment();
+            return CompletableFuture.failedFuture(
+                    new IllegalArgumentException("La subasta " + subastaId + " no está abierta"));
+        }
+
+        long centimos = Dinero.centimos(precio);
+        subasta.lock.lock();
+        try {
+            if (subasta.desactualizada) {
+                releer(subasta);
+            }
+            LocalDateTime ahora = LocalDateTime.now();
+            String error = subasta.validar(postorId, centimos, ahora);
+            if (error != null) {
+                rechazadas.increment();
+                return CompletableFuture.failedFuture(new IllegalArgumentException(error));
+            }
+
+            subasta.mejorCentimos = centimos;
+            subasta.mejorPostorId = postorId;
+            subasta.secuencia++;
+            LocalDateTime limite = ahora.plusSeconds(extensionAntiSnipingS);
+            if (Duration.between(ahora, subasta.fin).getSeconds() < ventanaAntiSnipingS && subasta.fin.isBefore(limite)) {
+                subasta.fin = limite;
+                subasta.extensiones++;
+            }
+
+            // Se encola dentro del lock: el orden de la cola respeta la secuencia
+            Aceptada aceptada = new Aceptada(subastaId, subasta.epoca, subasta.secuencia, postorId, centimos, ahora,
+                    subasta.fin, subasta.extensiones, subasta.aDTO(), new CompletableFuture<>());
+            cola.add(aceptada);
+            aceptadas.increment();
+            return aceptada.resultado;
+        } finally {
+            subasta.lock.unlock();
+        }
+    }
+
+    /**
+     * Cierra la subasta a nuevas pujas, espera a que sus pujas estén escritas y la quita
+     * de memoria. Devuelve el estado final, o null si no estaba abierta o ya la cerró otro
+     * (un cierre del admin y el de las vencidas a la vez: solo uno la reclama).
+     */
+    public SubastaDTO cerrar(Long subastaId) {
+        EnCurso subasta = abiertas.get(subastaId);
+        if (subasta == null) {
+            return null;
+        }
+        subasta.lock.lock();
+        try {
+            if (subasta.cerrada) {
+                return null;
+            }
+            subasta.cerrada = true;
+        } finally {
+            subasta.lock.unlock();
+        }
+        vaciarCola();
+        abiertas.remove(subastaId);
+        porOferta.remove(subasta.ofertaId, subastaId);
+        return subasta.aDTO();
+    }
+
+    /**
+     * Subastas abiertas cuyo fin ya pasó
+     */
+    public List<Long> vencidas(LocalDateTime ahora) {
+        List<Long> vencidas = new ArrayList<>();
+        abiertas.forEach((id, subasta) -> {
+            if (!subasta.fin.isAfter(ahora)) {
+                vencidas.add(id);
+            }
+        });
+        return vencidas;
+    }
+
+    /**
+     * Hilo escritor: espera la primera puja y se lleva todas las que se acumularon mientras
+     * tanto (cuanto más carga, lotes más grandes y menos transacciones por puja)
+     */
+    private void escribirPujas() {
+        while (activo) {
+            try {
+                Aceptada primera = cola.poll(1, TimeUnit.SECONDS);
+                if (primera != null) {
+                    escribirLote(primera);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("❌ Error en el escritor de pujas", e);
+            }
+        }
+    }
+
+    private void vaciarCola() {
+        while (!cola.isEmpty()) {
+            escribirLote(null);
+        }
+        // Un lote que el escritor tomó de la cola y todavía está escribiendo
+        escritura.lock();
+        escritura.unlock();
+    }
+
+    private void escribirLote(Aceptada primera) {
+        escritura.lock();
+        try {
+            List<Aceptada> lote = new ArrayList<>();
+            if (primera != null) {
+                lote.add(primera);
+            }
+            cola.drainTo(lote, loteMaximo - lote.size());
+            IllegalStateException error = new IllegalStateException("No se pudo registrar la puja, intente de nuevo");
+            lote.removeIf(a -> {
+                EnCurso subasta = abiertas.get(a.subastaId);
+                if (subasta == null || subasta.epoca == a.epoca) {
+                    return false;
+                }
+                a.resultado.completeExceptionally(error);
+                return true;
+            });
+            if (lote.isEmpty()) {
+                return;
+            }
+
+            // Última puja de cada subasta: su estado es el que queda en la fila
+            Map<Long, Aceptada> ultimas = new LinkedHashMap<>();
+            lote.forEach(a -> ultimas.put(a.subastaId, a));
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.batchUpdate(INSERTAR_PUJA, lote.stream()
+                            .map(a -> new Object[]{a.subastaId, a.secuencia, a.postorId,
+                                    Dinero.aBigDecimal(a.centimos), Timestamp.valueOf(a.fecha)})
+                            .toList());
+                    jdbcTemplate.batchUpdate(ACTUALIZAR_SUBASTA, ultimas.values().stream()
+                            .map(a -> new Object[]{Dinero.aBigDecimal(a.centimos), a.postorId, a.secuencia,
+                                    Timestamp.valueOf(a.fin), a.extensiones, a.subastaId})
+                            .toList());
+                });
+            } catch (RuntimeException e) {
+                log.error("❌ No se pudieron guardar {} pujas; se recargan {} subastas", lote.size(), ultimas.size(), e);
+                ultimas.keySet().forEach(this::recargar);
+                lote.forEach(a -> a.resultado.completeExceptionally(error));
+                return;
+            }
+
+            tamanoLote.record(lote.size());
+            lote.forEach(a -> a.resultado.complete(a.estado));
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    /**
+     * Tras un lote fallido: nueva época y estado leído de la base de datos
+     */
+    private void recargar(Long subastaId) {
+        EnCurso subasta = abiertas.get(subastaId);
+        if (subasta == null) {
+            return;
+        }
+        subasta.lock.lock();
+        try {
+            // Las pujas encoladas hasta aquí se aceptaron sobre el estado rechazado
+            subasta.epoca++;
+            subasta.desactualizada = true;
+            releer(subasta);
+        } finally {
+            subasta.lock.unlock();
+        }
+    }
+
+    /**
+     * Vuelve a cargar la subasta de la base de datos (con su lock tomado). Si falla, sigue
+     * desactualizada: no acepta pujas y se reintenta en la próxima
+     */
+    private void releer(EnCurso subasta) {
+        try {
+            subastaRepository.findById(subasta.id)
+                    .filter(s -> s.getEstado() == Subasta.EstadoSubasta.ABIERTA)
+                    .ifPresent(subasta::cargar);
+            subasta.desactualizada = false;
+        } catch (RuntimeException e) {
+            log.error("❌ No se pudo recargar la subasta {}", subasta.id, e);
+        }
+    }
+
+    /**
+     * Puja aceptada en espera de escribirse
+     */
+    private record Aceptada(Long subastaId, int epoca, int secuencia, Long postorId, long centimos, LocalDateTime fecha,
+                            LocalDateTime fin, int extensiones, SubastaDTO estado,
+                            CompletableFuture<SubastaDTO> resultado) {
+    }
+
+    /**
+     * Estado en memoria de una subasta abierta (se modifica solo con su lock tomado)
+     */
+    private static final class EnCurso {
+        final ReentrantLock lock = new ReentrantLock();
+        final Long id;
+        final Long ofertaId;
+        final Long vendedorId;
+        final LocalDateTime inicio;
+        final long inicialCentimos;
+        final long incrementoCentimos;
+
+        LocalDateTime fin;
+        int extensiones;
+        long mejorCentimos;
+        Long mejorPostorId;
+        int secuencia;
+        boolean cerrada;
+        // Cambia al recargar tras un lote fallido; el escritor la lee sin el lock
+        volatile int epoca;
+        boolean desactualizada;
+
+        EnCurso(Subasta subasta) {
+            id = subasta.getId();
+            ofertaId = subasta.getOfertaId();
+            vendedorId = subasta.getVendedorId();
+            inicio = subasta.getInicio();
+            inicialCentimos = Dinero.centimos(subasta.getPrecioInicial());
+            incrementoCentimos = Dinero.centimos(subasta.getIncrementoMinimo());
+            cargar(subasta);
+        }
+
+        void cargar(Subasta subasta) {
+            fin = subasta.getFin();
+            extensiones = subasta.getExtensiones();
+            mejorCentimos = Dinero.centimos(subasta.getMejorPrecio());
+            mejorPostorId = subasta.getMejorPostorId();
+            secuencia = subasta.getPujas();
+        }
+
+        long pujaMinima() {
+            return secuencia == 0 ? inicialCentimos : mejorCentimos + incrementoCentimos;
+        }
+
+        String validar(Long postorId, long centimos, LocalDateTime ahora) {
+            if (cerrada || !fin.isAfter(ahora)) {
+                return "La subasta " + id + " ya terminó";
+            }
+            if (desactualizada) {
+                return "No se pudo registrar la puja, intente de nuevo";
+            }
+            if (postorId.equals(vendedorId)) {
+                return "No puede pujar en su propia oferta";
+            }
+            if (centimos < pujaMinima()) {
+                return "La puja mínima es " + Dinero.aBigDecimal(pujaMinima()) + " por kg";
+            }
+            return null;
+        }
+
+        SubastaDTO aDTO() {
+            return SubastaDTO.builder()
+                    .id(id)
+                    .ofertaId(ofertaId)
+                    .estado(Subasta.EstadoSubasta.ABIERTA.name())
+                    .precioInicial(Dinero.aBigDecimal(inicialCentimos))
+                    .incrementoMinimo(Dinero.aBigDecimal(incrementoCentimos))
+                    .mejorPrecio(secuencia == 0 ? null : Dinero.aBigDecimal(mejorCentimos))
+                    .mejorPostorId(mejorPostorId)
+                    .pujas(secuencia)
+                    .pujaMinima(Dinero.aBigDecimal(pujaMinima()))
+                    .inicio(inicio)
+                    .fin(fin)
+                    .extensiones(extensiones)
+                    .build();
+        }
+    }
+}
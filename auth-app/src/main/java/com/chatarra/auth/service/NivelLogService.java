@@ -0,0 +1,113 @@
+package com.chatarra.auth.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import com.chatarra.auth.config.FiltroLogDinamico;
+import com.chatarra.auth.dto.ElevacionLogDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Servicio para cambiar el nivel de log en tiempo de ejecución, sin reiniciar,
+ * solo para un usuario o una petición concreta (ver FiltroLogDinamico).
+ */
+@Service
+@Slf4j
+public class NivelLogService {
+
+    private final FiltroLogDinamico filtro;
+    private final AuditoriaService auditoriaService;
+
+    public NivelLogService(@Value("${logs.muestreo.debug-cada:1}") int muestreoDebugCada,
+                           AuditoriaService auditoriaService) {
+        this.filtro = new FiltroLogDinamico(muestreoDebugCada);
+        this.auditoriaService = auditoriaService;
+    }
+
+    @PostConstruct
+    void registrar() {
+        LoggerContext contexto = (LoggerContext) LoggerFactory.getILoggerFactory();
+        filtro.setContext(contexto);
+        filtro.start();
+        contexto.addTurboFilter(filtro);
+    }
+
+    @PreDestroy
+    void quitarFiltro() {
+        LoggerContext contexto = (LoggerContext) LoggerFactory.getILoggerFactory();
+        contexto.getTurboFilterList().remove(filtro);
+    }
+
+    /**
+     * Eleva el nivel de log para un usuario o requestId durante unos minutos
+     */
+    public ElevacionLogDTO elevar(ElevacionLogDTO dto) {
+        FiltroLogDinamico.Tipo tipo = parsearTipo(dto.getTipo());
+        Level nivel = Level.toLevel(dto.getNivel(), null);
+        if (nivel == null) {
+            throw new IllegalArgumentException("Nivel de log inválido: " + dto.getNivel());
+        }
+
+        Instant expira = Instant.now().plus(dto.getMinutos(), ChronoUnit.MINUTES);
+        // Antes de aplicarla: sin registro de auditoría no hay elevación
+        auditoriaService.registrar("LOGS_ELEVADOS", "LOG_" + tipo, dto.getValor(), null,
+                Map.of("nivel", nivel.toString(), "logger", String.valueOf(dto.getLogger()), "expira", expira.toString()));
+        FiltroLogDinamico.Elevacion elevacion =
+                filtro.elevar(tipo, dto.getValor(), nivel, dto.getLogger(), expira);
+
+        log.warn("🔎 Logs elevados a {} para {} {} (loggers {}) hasta {}",
+                nivel, tipo, dto.getValor(), dto.getLogger(), expira);
+        return toDTO(elevacion);
+    }
+
+    public List<ElevacionLogDTO> listar() {
+        return filtro.activas().stream()
+                .map(this::toDTO)
+                .toList();
+    }
+
+    public void quitar(String tipo, String valor) {
+        FiltroLogDinamico.Tipo tipoElevacion = parsearTipo(tipo);
+        if (!filtro.quitar(tipoElevacion, valor)) {
+            throw new IllegalArgumentException("No hay una elevación activa para " + valor);
+        }
+        auditoriaService.registrar("LOGS_RESTAURADOS", "LOG_" + tipoElevacion, valor, null, null);
+        log.info("🔎 Elevación de logs eliminada para {} {}", tipo, valor);
+    }
+
+    /**
+     * Elimina las elevaciones vencidas (cada minuto)
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void purgarExpiradas() {
+        int eliminadas = filtro.purgarExpiradas(Instant.now());
+        if (eliminadas > 0) {
+            log.info("🔎 {} elevaciones de logs vencidas", eliminadas);
+        }
+    }
+
+    private FiltroLogDinamico.Tipo parsearTipo(String tipo) {
+        try {
+            return FiltroLogDinamico.Tipo.valueOf(tipo.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Tipo inválido (USUARIO o REQUEST): " + tipo);
+        }
+    }
+
+    private ElevacionLogDTO toDTO(FiltroLogDinamico.Elevacion e) {
+        long minutos = Math.max(0, ChronoUnit.MINUTES.between(Instant.now(), e.expira()));
+        return new ElevacionLogDTO(e.tipo().name(), e.valor(), e.nivel().toString(), e.logger(),
+                (int) minutos, e.expira());
+    }
+}
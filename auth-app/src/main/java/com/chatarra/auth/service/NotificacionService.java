@@ -0,0 +1,328 @@
+package com.chatarra.auth.service;
+
+import com.chatarra.auth.entity.EventoOferta;
+import com.chatarra.auth.entity.Notificacion;
+import com.chatarra.auth.entity.Oferta;
+import com.chatarra.auth.repository.NotificacionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cola persistente de notificaciones y su despacho.
+ *
+ * - Encolar es un INSERT en notificaciones (ON CONFLICT DO NOTHING sobre la clave: deduplica),
+ *   en una transacción propia. Los cambios de estado de las ofertas se encolan al recibir el
+ *   evento del outbox, durante el lote del relay: la petición del admin no hace nada más, y si
+ *   el lote se revierte el evento vuelve a llegar y la clave evita el duplicado
+ * - Cada canal (CanalNotificacion) tiene su worker. Una tarea periódica toma para cada canal
+ *   libre un lote de pendientes vencidas (las marca ENVIANDO) y se lo entrega a su worker
+ * - Si falla, se reintenta con espera exponencial (base, 2x base, 4x base... hasta el máximo,
+ *   con un 10% de azar); tras notificaciones.reintentos.maximo intentos queda FALLIDA
+ * - Al arrancar, las que quedaron ENVIANDO vuelven a PENDIENTE: la entrega es "al menos una vez"
+ *
+ * Pensado para una sola instancia de la aplicación.
+ */
+@Service
+@Slf4j
+public class NotificacionService {
+
+    private static final String INSERTAR =
+            "INSERT INTO notificaciones (usuario_id, canal, destino, asunto, mensaje, clave, estado, intentos, "
+                    + "proximo_intento, fecha_creacion, leida) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, 'PENDIENTE', 0, ?, ?, FALSE) ON CONFLICT DO NOTHING";
+    private static final String SELECT_PENDIENTES =
+            "SELECT id, usuario_id, canal, destino, asunto, mensaje, clave, intentos, fecha_creacion "
+                    + "FROM notificaciones WHERE estado = 'PENDIENTE' AND canal = ? AND proximo_intento <= ? "
+                    + "ORDER BY id LIMIT ?";
+    private static final String MARCAR_ENVIANDO =
+            "UPDATE notificaciones SET estado = 'ENVIANDO' WHERE id = ? AND estado = 'PENDIENTE'";
+    private static final String MARCAR_ENVIADA =
+            "UPDATE notificaciones SET estado = 'ENVIADA', intentos = intentos + 1, fecha_envio = ?, ultimo_error = NULL "
+                    + "WHERE id = ?";
+    private static final String MARCAR_ERROR =
+            "UPDATE notificaciones SET estado = ?, intentos = intentos + 1, proximo_intento = ?, ultimo_error = ? "
+                    + "WHERE id = ?";
+    private static final String REINICIAR_ENVIANDO =
+            "UPDATE notificaciones SET estado = 'PENDIENTE' WHERE estado = 'ENVIANDO'";
+    private static final String EMAIL_USUARIO = "SELECT email FROM usuarios WHERE id = ?";
+
+    private final NotificacionRepository notificacionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate nuevaTransaccion;
+    private final Map<Notificacion.Canal, CanalNotificacion> canales = new EnumMap<>(Notificacion.Canal.class);
+    private final Map<Notificacion.Canal, ExecutorService> workers = new EnumMap<>(Notificacion.Canal.class);
+    // Canales con un lote en curso
+    private final Set<Notificacion.Canal> ocupados = ConcurrentHashMap.newKeySet();
+    private final MeterRegistry registry;
+
+    @Value("${notificaciones.despacho.lote:100}")
+    private int lote;
+
+    @Value("${notificaciones.reintentos.maximo:8}")
+    private int maximoIntentos;
+
+    @Value("${notificaciones.reintentos.base-ms:2000}")
+    private long esperaBaseMs;
+
+    @Value("${notificaciones.reintentos.maximo-ms:3600000}")
+    private long esperaMaximaMs;
+
+    public NotificacionService(NotificacionRepository notificacionRepository,
+                               JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               List<CanalNotificacion> canales,
+                               MeterRegistry registry) {
+        this.notificacionRepository = notificacionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.nuevaTransaccion = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.nuevaTransaccion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.registry = registry;
+        for (CanalNotificacion canal : canales) {
+            if (canal.habilitado()) {
+                this.canales.put(canal.canal(), canal);
+                this.workers.put(canal.canal(), Executors.newSingleThreadExecutor(r -> {
+                    Thread hilo = new Thread(r, "notificaciones-" + canal.canal().name().toLowerCase());
+                    hilo.setDaemon(true);
+                    return hilo;
+                }));
+            }
+        }
+    }
+
+    @PostConstruct
+    void iniciar() {
+        int reiniciadas = jdbcTemplate.update(REINICIAR_ENVIANDO);
+        log.info("📨 Notificaciones: canales {} ({} pendientes de un envío interrumpido)",
+                canales.keySet(), reiniciadas);
+    }
+
+    @PreDestroy
+    void detener() throws InterruptedException {
+        for (ExecutorService worker : workers.values()) {
+            worker.shutdown();
+            worker.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Encola una notificación para un usuario en todos los canales habilitados, en una
+     * transacción propia (un error aquí no afecta a la transacción de quien llama). La clave
+     * deduplica: encolar de nuevo la misma clave no hace nada.
+     */
+    public void encolar(Long usuarioId, String clave, String asunto, String mensaje) {
+        nuevaTransaccion.executeWithoutResult(status -> {
+            String email = canales.containsKey(Notificacion.Canal.EMAIL)
+                    ? jdbcTemplate.queryForObject(EMAIL_USUARIO, String.class, usuarioId)
+                    : null;
+            Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> filas = new ArrayList<>();
+            for (CanalNotificacion canal : canales.values()) {
+                filas.add(new Object[]{usuarioId, canal.canal().name(), canal.destino(usuarioId, email), asunto,
+                        mensaje, clave + ":" + canal.canal().name(), ahora, ahora});
+            }
+            jdbcTemplate.batchUpdate(INSERTAR, filas);
+        });
+    }
+
+    /**
+     * Avisa al vendedor cuando un admin (o una subasta o reserva) cambia el estado de su oferta.
+     * Si no se puede encolar se registra y se sigue: el resto de suscriptores del lote no espera
+     * a este canal.
+     */
+    @EventListener
+    public void alCambiarOferta(EventoOferta evento) {
+        if (evento.getTipo() != EventoOferta.TipoEvento.ESTADO_CAMBIADO || evento.getEstadoNuevo() == null) {
+            return;
+        }
+        String asunto = switch (evento.getEstadoNuevo()) {
+            case APROBADA -> "Tu oferta fue aprobada";
+            case RECHAZADA -> "Tu oferta fue rechazada";
+            case VENDIDA -> "Tu oferta fue vendida";
+            default -> null;
+        };
+        if (asunto == null) {
+            return;
+        }
+
+        try {
+            encolar(evento.getVendedorId(), "oferta-evento-" + evento.getId(), asunto,
+                    mensaje(evento));
+        } catch (RuntimeException e) {
+            log.warn("⚠️ No se pudo encolar la notificación del evento {}: {}", evento.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Entrega a cada canal libre un lote de pendientes vencidas
+     */
+    @Scheduled(fixedDelayString = "${notificaciones.despacho.intervalo-ms:1000}")
+    public void despachar() {
+        for (Map.Entry<Notificacion.Canal, CanalNotificacion> entrada : canales.entrySet()) {
+            Notificacion.Canal canal = entrada.getKey();
+            if (!ocupados.add(canal)) {
+                continue;
+            }
+            List<Notificacion> tomadas;
+            try {
+                tomadas = tomar(canal);
+            } catch (RuntimeException e) {
+                ocupados.remove(canal);
+                log.error("❌ No se pudieron leer las notificaciones pendientes de {}", canal, e);
+                continue;
+            }
+            if (tomadas.isEmpty()) {
+                ocupados.remove(canal);
+                continue;
+            }
+            workers.get(canal).execute(() -> {
+                try {
+                    entregar(entrada.getValue(), tomadas);
+                } finally {
+                    ocupados.remove(canal);
+                }
+            });
+        }
+    }
+
+    /**
+     * Bandeja de entrada del usuario (canal APP)
+     */
+    @Transactional(readOnly = true)
+    public List<Notificacion> bandeja(Long usuarioId, int maximo) {
+        return notificacionRepository.findByUsuarioIdAndCanalOrderByIdDesc(usuarioId, Notificacion.Canal.APP,
+                Limit.of(maximo));
+    }
+
+    @Transactional(readOnly = true)
+    public long noLeidas(Long usuarioId) {
+        return notificacionRepository.countByUsuarioIdAndCanalAndLeidaFalse(usuarioId, Notificacion.Canal.APP);
+    }
+
+    @Transactional
+    public int marcarLeidas(Long usuarioId) {
+        return notificacionRepository.marcarLeidas(usuarioId);
+    }
+
+    /**
+     * Lee un lote de pendientes vencidas del canal y las marca ENVIANDO
+     */
+    private List<Notificacion> tomar(Notificacion.Canal canal) {
+        return transactionTemplate.execute(status -> {
+            List<Notificacion> pendientes = jdbcTemplate.query(SELECT_PENDIENTES, (rs, n) -> Notificacion.builder()
+                    .id(rs.getLong("id"))
+                    .usuarioId(rs.getLong("usuario_id"))
+                    .canal(canal)
+                    .destino(rs.getString("destino"))
+                    .asunto(rs.getString("asunto"))
+                    .mensaje(rs.getString("mensaje"))
+                    .clave(rs.getString("clave"))
+                    .intentos(rs.getInt("intentos"))
+                    .fechaCreacion(rs.getObject("fecha_creacion", LocalDateTime.class))
+                    .build(), canal.name(), Timestamp.valueOf(LocalDateTime.now()), lote);
+            if (pendientes.isEmpty()) {
+                return Collections.<Notificacion>emptyList();
+            }
+            jdbcTemplate.batchUpdate(MARCAR_ENVIANDO, pendientes.stream().map(n -> new Object[]{n.getId()}).toList());
+            return pendientes;
+        });
+    }
+
+    /**
+     * Worker del canal: entrega el lote y guarda el resultado de cada una
+     */
+    private void entregar(CanalNotificacion canal, List<Notificacion> lote) {
+        Map<Long, String> errores;
+        try {
+            errores = canal.enviar(lote);
+        } catch (RuntimeException e) {
+            String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+            errores = new ConcurrentHashMap<>();
+            for (Notificacion n : lote) {
+                errores.put(n.getId(), error);
+            }
+        }
+
+        LocalDateTime ahora = LocalDateTime.now();
+        List<Object[]> enviadas = new ArrayList<>();
+        List<Object[]> fallidas = new ArrayList<>();
+        for (Notificacion n : lote) {
+            String error = errores.get(n.getId());
+            if (error == null) {
+                enviadas.add(new Object[]{Timestamp.valueOf(ahora), n.getId()});
+                continue;
+            }
+            int intentos = n.getIntentos() + 1;
+            boolean agotada = intentos >= maximoIntentos;
+            fallidas.add(new Object[]{
+                    agotada ? Notificacion.EstadoNotificacion.FALLIDA.name() : Notificacion.EstadoNotificacion.PENDIENTE.name(),
+                    Timestamp.valueOf(ahora.plusNanos(espera(intentos) * 1_000_000)),
+                    error.length() > 500 ? error.substring(0, 500) : error,
+                    n.getId()});
+            if (agotada) {
+                log.warn("⚠️ Notificación {} ({}) descartada tras {} intentos: {}", n.getId(), n.getCanal(), intentos, error);
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(MARCAR_ENVIADA, enviadas);
+                jdbcTemplate.batchUpdate(MARCAR_ERROR, fallidas);
+            });
+        } catch (RuntimeException e) {
+            // Quedan ENVIANDO: se vuelven a enviar tras el próximo reinicio
+            log.error("❌ No se pudo guardar el resultado de {} notificaciones de {}", lote.size(), canal.canal(), e);
+        }
+        Counter.builder("notificaciones.entregas").tag("canal", canal.canal().name()).tag("resultado", "enviada")
+                .register(registry).increment(enviadas.size());
+        Counter.builder("notificaciones.entregas").tag("canal", canal.canal().name()).tag("resultado", "error")
+                .register(registry).increment(fallidas.size());
+    }
+
+    /**
+     * Espera antes del siguiente intento: base * 2^(intentos - 1), con tope y un 10% de azar
+     */
+    private long espera(int intentos) {
+        long espera = esperaBaseMs << Math.min(intentos - 1, 30);
+        espera = Math.min(espera <= 0 ? esperaMaximaMs : espera, esperaMaximaMs);
+        return espera + ThreadLocalRandom.current().nextLong(espera / 10 + 1);
+    }
+
+    private static String mensaje(EventoOferta evento) {
+        String estado = switch (evento.getEstadoNuevo()) {
+            case APROBADA -> "fue aprobada y ya está publicada";
+            case RECHAZADA -> "fue rechazada";
+            case VENDIDA -> "fue vendida";
+            default -> "cambió a " + evento.getEstadoNuevo();
+        };
+        return "Tu oferta #" + evento.getOfertaId() + " de " + evento.getTipoMaterial()
+                + " (" + evento.getCantidad() + " kg) " + estado + ".";
+    }
+}
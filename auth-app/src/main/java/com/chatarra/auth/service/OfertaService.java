@@ -1,27 +1,47 @@
 package com.chatarra.auth.service;
 
+import com.chatarra.auth.config.EscriturasRecientes;
 import com.chatarra.auth.dto.CrearOfertaDTO;
 import com.chatarra.auth.dto.EstadisticasVendedorDTO;
+import com.chatarra.auth.entity.Dinero;
+import com.chatarra.auth.entity.EventoOferta;
 import com.chatarra.auth.entity.Oferta;
+import com.chatarra.auth.entity.OfertaArchivada;
 import com.chatarra.auth.entity.Usuario;
+import com.chatarra.auth.repository.EventoOfertaRepository;
+import com.chatarra.auth.repository.OfertaArchivadaRepository;
 import com.chatarra.auth.repository.OfertaRepository;
 import com.chatarra.auth.repository.UsuarioRepository;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 
 @Service
+@Observed
 @RequiredArgsConstructor
 @Slf4j
 public class OfertaService {
 
     private final OfertaRepository ofertaRepository;
     private final UsuarioRepository usuarioRepository;
+    private final EventoOfertaRepository eventoOfertaRepository;
+    private final OfertaArchivadaRepository ofertaArchivadaRepository;
+    private final EscriturasRecientes escriturasRecientes;
+    private final VentasAgregadasService ventasAgregadasService;
+    private final MotorSubastas motorSubastas;
+    private final AuditoriaService auditoriaService;
+    private final Clock reloj;
 
     /**
      * Crear una nueva oferta
@@ -50,6 +70,9 @@ public class OfertaService {
         Oferta ofertaGuardada = ofertaRepository.save(oferta);
         log.info("Oferta creada con ID: {}", ofertaGuardada.getId());
 
+        registrarEvento(ofertaGuardada, EventoOferta.TipoEvento.CREADA, null);
+        escriturasRecientes.registrarUsuarioActual();
+
         return ofertaGuardada;
     }
 
@@ -58,7 +81,19 @@ public class OfertaService {
      */
     @Transactional(readOnly = true)
     public List<Oferta> obtenerOfertasPorVendedor(Long vendedorId) {
-        return ofertaRepository.findByVendedorIdOrderByFechaCreacionDesc(vendedorId);
+        List<Oferta> ofertas = ofertaRepository.findByVendedorIdOrderByFechaCreacionDesc(vendedorId);
+
+        // Incluye el historial archivado (ArchivoOfertasService)
+        List<OfertaArchivada> archivadas = ofertaArchivadaRepository.findByVendedorIdOrderByFechaCreacionDesc(vendedorId);
+        if (archivadas.isEmpty()) {
+            return ofertas;
+        }
+        Usuario vendedor = usuarioRepository.findById(vendedorId)
+                .orElseThrow(() -> new RuntimeException("Vendedor no encontrado"));
+        List<Oferta> todas = new ArrayList<>(ofertas);
+        archivadas.forEach(a -> todas.add(a.aOferta(vendedor)));
+        todas.sort(Comparator.comparing(Oferta::getFechaCreacion).reversed());
+        return todas;
     }
 
     /**
@@ -81,48 +116,85 @@ public class OfertaService {
         long vendidas = ofertaRepository.countByVendedorIdAndEstado(vendedorId, Oferta.EstadoOferta.VENDIDA);
         long rechazadas = ofertaRepository.countByVendedorIdAndEstado(vendedorId, Oferta.EstadoOferta.RECHAZADA);
 
-        BigDecimal totalVendido = ofertaRepository.calcularTotalVendidoPorVendedor(vendedorId);
+        Dinero totalVendido = Dinero.de(ofertaRepository.calcularTotalVendidoPorVendedor(vendedorId));
 
-        // Calcular promedio de venta
-        BigDecimal promedioVenta = BigDecimal.ZERO;
-        if (vendidas > 0) {
-            promedioVenta = totalVendido.divide(BigDecimal.valueOf(vendidas), 2, RoundingMode.HALF_UP);
+        // Ofertas cerradas ya archivadas (solo hay VENDIDA, RECHAZADA y CANCELADA)
+        for (Object[] fila : ofertaArchivadaRepository.resumirPorEstado(vendedorId)) {
+            Oferta.EstadoOferta estado = (Oferta.EstadoOferta) fila[0];
+            long cantidad = (Long) fila[1];
+            if (estado == Oferta.EstadoOferta.VENDIDA) {
+                vendidas += cantidad;
+                totalVendido = totalVendido.sumar(Dinero.de((BigDecimal) fila[2]));
+            } else if (estado == Oferta.EstadoOferta.RECHAZADA) {
+                rechazadas += cantidad;
+            }
         }
 
+        // Calcular promedio de venta
+        Dinero promedioVenta = vendidas > 0 ? totalVendido.dividir(vendidas) : Dinero.CERO;
+
         return EstadisticasVendedorDTO.builder()
                 .ofertasActivas(activas)
                 .ofertasPendientes(pendientes)
                 .ofertasVendidas(vendidas)
                 .ofertasRechazadas(rechazadas)
                 .totalOfertas(activas + pendientes + vendidas + rechazadas)
-                .totalVendido(totalVendido)
-                .promedioVenta(promedioVenta)
+                .totalVendido(totalVendido.aBigDecimal())
+                .promedioVenta(promedioVenta.aBigDecimal())
                 .build();
     }
 
     /**
-     * Obtener una oferta por ID
+     * Obtener una oferta por ID, también del archivo. Una oferta archivada puede ser de un
+     * usuario que ya no existe: se devuelve con un vendedor "eliminado" que solo tiene el id
      */
     @Transactional(readOnly = true)
     public Oferta obtenerOfertaPorId(Long id) {
         return ofertaRepository.findById(id)
+                .or(() -> ofertaArchivadaRepository.findById(id)
+                        .map(a -> a.aOferta(usuarioRepository.findById(a.getVendedorId())
+                                .orElseGet(() -> vendedorEliminado(a.getVendedorId())))))
                 .orElseThrow(() -> new RuntimeException("Oferta no encontrada con ID: " + id));
     }
 
+    private static Usuario vendedorEliminado(Long vendedorId) {
+        return Usuario.builder()
+                .id(vendedorId)
+                .nombreCompleto("Usuario eliminado")
+                .rol(Usuario.Rol.VENDEDOR)
+                .activo(false)
+                .build();
+    }
+
+    /**
+     * Oferta de la tabla ofertas para modificarla (las archivadas ya no cambian)
+     */
+    private Oferta obtenerOfertaModificable(Long id) {
+        return ofertaRepository.findById(id).orElseThrow(() -> new RuntimeException(
+                ofertaArchivadaRepository.existsById(id)
+                        ? "La oferta " + id + " está archivada y no se puede modificar"
+                        : "Oferta no encontrada con ID: " + id));
+    }
+
     /**
      * Actualizar estado de una oferta (usado por el vendedor)
      */
     @Transactional
     public Oferta actualizarEstadoOferta(Long ofertaId, Long vendedorId, Oferta.EstadoOferta nuevoEstado) {
-        Oferta oferta = obtenerOfertaPorId(ofertaId);
+        Oferta oferta = obtenerOfertaModificable(ofertaId);
 
         // Verificar que la oferta pertenece al vendedor
         if (!oferta.getVendedor().getId().equals(vendedorId)) {
             throw new RuntimeException("No tienes permiso para modificar esta oferta");
         }
+        verificarSinSubastaAbierta(ofertaId);
 
-        oferta.setEstado(nuevoEstado);
-        return ofertaRepository.save(oferta);
+        Oferta.EstadoOferta estadoAnterior = oferta.getEstado();
+        cambiarEstado(oferta, nuevoEstado);
+        Oferta ofertaActualizada = ofertaRepository.save(oferta);
+        registrarEvento(ofertaActualizada, EventoOferta.TipoEvento.ESTADO_CAMBIADO, estadoAnterior);
+        escriturasRecientes.registrarUsuarioActual();
+        return ofertaActualizada;
     }
 
     /**
@@ -130,7 +202,7 @@ public class OfertaService {
      */
     @Transactional
     public void eliminarOferta(Long ofertaId, Long vendedorId) {
-        Oferta oferta = obtenerOfertaPorId(ofertaId);
+        Oferta oferta = obtenerOfertaModificable(ofertaId);
 
         // Verificar que la oferta pertenece al vendedor
         if (!oferta.getVendedor().getId().equals(vendedorId)) {
@@ -143,11 +215,14 @@ public class OfertaService {
         }
 
         ofertaRepository.delete(oferta);
+        registrarEvento(oferta, EventoOferta.TipoEvento.ELIMINADA, oferta.getEstado());
+        escriturasRecientes.registrarUsuarioActual();
         log.info("Oferta eliminada con ID: {}", ofertaId);
     }
 
     /**
-     * Obtener todas las ofertas (para admin)
+     * Obtener todas las ofertas vivas (para admin). No incluye las archivadas, que pueden ser
+     * muchas: se consultan por periodo con ArchivoOfertasService.buscarPorPeriodo
      */
     @Transactional(readOnly = true)
     public List<Oferta> obtenerTodasLasOfertas() {
@@ -159,8 +234,103 @@ public class OfertaService {
      */
     @Transactional
     public Oferta cambiarEstadoOfertaAdmin(Long ofertaId, Oferta.EstadoOferta nuevoEstado) {
-        Oferta oferta = obtenerOfertaPorId(ofertaId);
+        Oferta oferta = obtenerOfertaModificable(ofertaId);
+        verificarSinSubastaAbierta(ofertaId);
+        Oferta.EstadoOferta estadoAnterior = oferta.getEstado();
+        cambiarEstado(oferta, nuevoEstado);
+        Oferta ofertaActualizada = ofertaRepository.save(oferta);
+        registrarEvento(ofertaActualizada, EventoOferta.TipoEvento.ESTADO_CAMBIADO, estadoAnterior);
+        auditoriaService.registrar("OFERTA_ESTADO", "OFERTA", ofertaId,
+                Map.of("estado", estadoAnterior), Map.of("estado", nuevoEstado));
+        return ofertaActualizada;
+    }
+
+    /**
+     * Adjudica la subasta de una oferta: pasa a VENDIDA con el precio por kg ganador
+     */
+    @Transactional
+    public Oferta adjudicarSubasta(Long ofertaId, BigDecimal precioPorKg) {
+        Oferta oferta = obtenerOfertaModificable(ofertaId);
+        if (oferta.getEstado() != Oferta.EstadoOferta.APROBADA) {
+            throw new RuntimeException("Solo se pueden adjudicar ofertas APROBADAS");
+        }
+
+        Oferta.EstadoOferta estadoAnterior = oferta.getEstado();
+        oferta.setPrecioUnitario(precioPorKg);
+        // Antes de cambiarEstado: los agregados de ventas suman el total ya adjudicado
+        oferta.calcularPrecioTotal();
+        cambiarEstado(oferta, Oferta.EstadoOferta.VENDIDA);
+        Oferta ofertaActualizada = ofertaRepository.save(oferta);
+        registrarEvento(ofertaActualizada, EventoOferta.TipoEvento.ESTADO_CAMBIADO, estadoAnterior);
+        log.info("🔨 Oferta {} adjudicada a {} por kg", ofertaId, precioPorKg);
+        return ofertaActualizada;
+    }
+
+    /**
+     * Después de reservar o liberar cantidad (ReservaService, misma transacción): pasa a VENDIDA
+     * cuando ya no queda nada por reservar y vuelve a APROBADA si se libera cantidad de una
+     * oferta agotada por reservas. Una VENDIDA por otro motivo (admin, subasta) no se toca
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void actualizarEstadoPorReservas(Long ofertaId, BigDecimal disponible) {
+        Oferta oferta = obtenerOfertaModificable(ofertaId);
+        Oferta.EstadoOferta estadoAnterior = oferta.getEstado();
+        boolean agotada = disponible.signum() == 0;
+        if (agotada && estadoAnterior == Oferta.EstadoOferta.APROBADA) {
+            cambiarEstado(oferta, Oferta.EstadoOferta.VENDIDA);
+            oferta.setVendidaPorReservas(true);
+        } else if (!agotada && estadoAnterior == Oferta.EstadoOferta.VENDIDA
+                && Boolean.TRUE.equals(oferta.getVendidaPorReservas())) {
+            cambiarEstado(oferta, Oferta.EstadoOferta.APROBADA);
+        } else {
+            return;
+        }
+        Oferta ofertaActualizada = ofertaRepository.save(oferta);
+        registrarEvento(ofertaActualizada, EventoOferta.TipoEvento.ESTADO_CAMBIADO, estadoAnterior);
+        log.info("Oferta {} pasa a {} por reservas", ofertaId, ofertaActualizada.getEstado());
+    }
+
+    /**
+     * Mientras hay una subasta abierta el estado lo decide la subasta (en memoria, sin consultas)
+     */
+    private void verificarSinSubastaAbierta(Long ofertaId) {
+        if (motorSubastas.tieneSubastaAbierta(ofertaId)) {
+            throw new RuntimeException("La oferta " + ofertaId + " tiene una subasta abierta");
+        }
+    }
+
+    /**
+     * Cambia el estado y mantiene fechaVenta y los agregados de ventas (ventas_agregadas).
+     * Cualquier cambio borra la marca de vendida por reservas (la vuelve a poner quien la causa)
+     */
+    private void cambiarEstado(Oferta oferta, Oferta.EstadoOferta nuevoEstado) {
+        boolean eraVendida = oferta.getEstado() == Oferta.EstadoOferta.VENDIDA;
+        if (nuevoEstado == Oferta.EstadoOferta.VENDIDA && !eraVendida) {
+            oferta.setFechaVenta(LocalDateTime.now(reloj));
+            ventasAgregadasService.registrarVenta(oferta, oferta.getFechaVenta(), 1);
+        } else if (eraVendida && nuevoEstado != Oferta.EstadoOferta.VENDIDA) {
+            // Venta anulada por un admin: se resta del bucket en que se sumó
+            LocalDateTime momento = oferta.getFechaVenta() != null ? oferta.getFechaVenta() : oferta.getFechaCreacion();
+            ventasAgregadasService.registrarVenta(oferta, momento, -1);
+            oferta.setFechaVenta(null);
+        }
         oferta.setEstado(nuevoEstado);
-        return ofertaRepository.save(oferta);
+        oferta.setVendidaPorReservas(false);
+    }
+
+    /**
+     * Guarda el evento en el outbox (misma transacción que el cambio de la oferta)
+     */
+    private void registrarEvento(Oferta oferta, EventoOferta.TipoEvento tipo, Oferta.EstadoOferta estadoAnterior) {
+        eventoOfertaRepository.save(EventoOferta.builder()
+                .tipo(tipo)
+                .ofertaId(oferta.getId())
+                .vendedorId(oferta.getVendedor().getId())
+                .estadoAnterior(estadoAnterior)
+                .estadoNuevo(tipo == EventoOferta.TipoEvento.ELIMINADA ? null : oferta.getEstado())
+                .tipoMaterial(oferta.getTipoMaterial())
+                .cantidad(oferta.getCantidad())
+                .precioTotal(oferta.getPrecioTotal())
+                .build());
     }
 }
\ No newline at end of file
@@ -0,0 +1,148 @@
+package com.chatarra.auth.service;
+
+import com.chatarra.auth.entity.RefreshToken;
+import com.chatarra.auth.exception.TokenInvalidoException;
+import com.chatarra.auth.repository.RefreshTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Servicio de tokens de refresco rotativos.
+ *
+ * Cada uso de un token de refresco lo revoca y entrega uno nuevo de la misma familia.
+ * Si llega un token ya revocado, alguien lo reutilizó (posible robo): se revoca
+ * la familia completa y el usuario debe iniciar sesión de nuevo. El uso se marca con un
+ * UPDATE condicional: de dos peticiones simultáneas con el mismo token solo una lo consume
+ * y la otra cuenta como reutilización.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    // Lee la duración de los tokens de refresco desde application.properties
+    @Value("${jwt.refresh.expiration-dias:14}")
+    private long expiracionDias;
+
+    /**
+     * Emite un token de refresco para un login nuevo (familia nueva)
+     *
+     * @return el valor del token (solo se conoce en este momento, en BD queda el hash)
+     */
+    @Transactional
+    public String emitir(Long usuarioId) {
+        return emitir(usuarioId, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Valida y rota un token de refresco
+     *
+     * @return el token consumido (para conocer el usuario y la familia)
+     * @throws TokenInvalidoException si no existe, expiró o ya fue usado
+     */
+    @Transactional(noRollbackFor = TokenInvalidoException.class)
+    public RefreshToken consumir(String valor) {
+        RefreshToken token = refreshTokenRepository.findByTokenHash(hash(valor))
+                .orElseThrow(() -> new TokenInvalidoException("Token de refresco inválido"));
+
+        if (token.getRevocado()) {
+            throw reutilizado(token);
+        }
+        if (token.getFechaExpiracion().isBefore(LocalDateTime.now())) {
+            throw new TokenInvalidoException("Token de refresco expirado");
+        }
+        if (refreshTokenRepository.marcarUsado(token.getId()) == 0) {
+            // Otra petición lo consumió entre la lectura y el UPDATE
+            throw reutilizado(token);
+        }
+        return token;
+    }
+
+    /**
+     * Emite el token que reemplaza a uno consumido (misma familia)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public String rotar(RefreshToken consumido) {
+        return emitir(consumido.getUsuarioId(), consumido.getFamilia());
+    }
+
+    /**
+     * Revoca la familia de un token (logout). Un token desconocido se ignora.
+     */
+    @Transactional
+    public void revocar(String valor) {
+        refreshTokenRepository.findByTokenHash(hash(valor))
+                .ifPresent(token -> refreshTokenRepository.revocarFamilia(token.getFamilia()));
+    }
+
+    /**
+     * Revoca todos los tokens de refresco de un usuario (desactivación)
+     */
+    @Transactional
+    public void revocarUsuario(Long usuarioId) {
+        int revocados = refreshTokenRepository.revocarPorUsuario(usuarioId);
+        log.info("🔐 {} tokens de refresco revocados para el usuario {}", revocados, usuarioId);
+    }
+
+    /**
+     * Elimina los tokens expirados (todos los días a las 4:00)
+     */
+    @Scheduled(cron = "0 0 4 * * *")
+    @Transactional
+    public void limpiarExpirados() {
+        int eliminados = refreshTokenRepository.eliminarExpirados(LocalDateTime.now());
+        log.info("🧹 Eliminados {} tokens de refresco expirados", eliminados);
+    }
+
+    /**
+     * Reutilización de un token ya rotado: revoca toda la familia
+     */
+    private TokenInvalidoException reutilizado(RefreshToken token) {
+        int revocados = refreshTokenRepository.revocarFamilia(token.getFamilia());
+        log.warn("🚨 Reutilización de token de refresco del usuario {}: {} tokens revocados",
+                token.getUsuarioId(), revocados);
+        return new TokenInvalidoException("Token de refresco inválido");
+    }
+
+    private String emitir(Long usuarioId, String familia) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String valor = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(valor))
+                .usuarioId(usuarioId)
+                .familia(familia)
+                .fechaExpiracion(LocalDateTime.now().plusDays(expiracionDias))
+                .revocado(false)
+                .build());
+        return valor;
+    }
+
+    private String hash(String valor) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(valor.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.chatarra.auth.service;
+
+import com.chatarra.auth.entity.EventoOferta;
+import com.chatarra.auth.repository.EventoOfertaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Relay del outbox de ofertas.
+ *
+ * Lee los eventos pendientes de la tabla eventos_oferta en orden de ID, los publica como
+ * eventos de Spring (EventoOferta) y los marca como publicados, todo en una transacción:
+ * - Un evento queda publicado solo si se confirma la transacción que lo entregó. Si algo
+ *   falla, el lote completo se revierte y se vuelve a entregar en el próximo ciclo
+ * - Un evento con un ID menor que se confirma tarde (IDENTITY no garantiza el orden de los
+ *   commits) sigue pendiente y sale en el ciclo siguiente, fuera de orden pero no se pierde
+ * - La entrega es "al menos una vez": los suscriptores que escriben en la base lo hacen en
+ *   su propia transacción y de forma idempotente (NotificacionService); los que solo
+ *   mantienen estado en memoria usan @TransactionalEventListener y reciben el evento después
+ *   del commit, una sola vez por proceso
+ * - Tras un reinicio se continúa desde el primer evento no publicado
+ *
+ * Pensado para una sola instancia de la aplicación.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RelayEventosOfertaService {
+
+    private final EventoOfertaRepository eventoOfertaRepository;
+    private final ApplicationEventPublisher publisher;
+
+    // Días que se conservan los eventos ya publicados
+    @Value("${ofertas.eventos.retencion-dias:7}")
+    private int retencionDias;
+
+    /**
+     * Publica los eventos pendientes (cada 500 ms por defecto)
+     */
+    @Scheduled(fixedDelayString = "${ofertas.eventos.relay.intervalo-ms:500}")
+    @Transactional
+    public void publicarPendientes() {
+        List<EventoOferta> pendientes = eventoOfertaRepository.findTop100ByPublicadoFalseOrderByIdAsc();
+        if (pendientes.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime ahora = LocalDateTime.now();
+        for (EventoOferta evento : pendientes) {
+            publisher.publishEvent(evento);
+            evento.setPublicado(true);
+            evento.setFechaPublicacion(ahora);
+        }
+        eventoOfertaRepository.saveAll(pendientes);
+
+        log.debug("📤 Publicados {} eventos de ofertas (último ID: {})", pendientes.size(),
+                pendientes.get(pendientes.size() - 1).getId());
+    }
+
+    /**
+     * Elimina los eventos publicados más antiguos que la retención (todos los días a las 3:00)
+     */
+    @Scheduled(cron = "${ofertas.eventos.limpieza-cron:0 0 3 * * *}")
+    @Transactional
+    public void limpiarPublicados() {
+        int eliminados = eventoOfertaRepository.eliminarPublicadosAntesDe(
+                LocalDateTime.now().minusDays(retencionDias));
+        log.info("🧹 Eliminados {} eventos de ofertas ya publicados", eliminados);
+    }
+}
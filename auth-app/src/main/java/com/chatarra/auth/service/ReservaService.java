@@ -0,0 +1,240 @@
+package com.chatarra.auth.service;
+
+import com.chatarra.auth.config.EscriturasRecientes;
+import com.chatarra.auth.dto.CrearReservaDTO;
+import com.chatarra.auth.entity.Cantidad;
+import com.chatarra.auth.entity.Dinero;
+import com.chatarra.auth.entity.Oferta;
+import com.chatarra.auth.entity.Reserva;
+import com.chatarra.auth.entity.Subasta;
+import com.chatarra.auth.repository.OfertaRepository;
+import com.chatarra.auth.repository.ReservaRepository;
+import com.chatarra.auth.repository.SubastaRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Reservas de cantidad sobre ofertas APROBADAS (compradores).
+ *
+ * - La cantidad se descuenta con un único UPDATE condicional sobre ofertas.cantidad_disponible
+ *   (estado APROBADA y cantidad suficiente): dos compradores no pueden llevarse la misma
+ *   cantidad, sin leer la oferta con lock ni reintentos
+ * - Cuando no queda nada por reservar la oferta pasa a VENDIDA; si una reserva de una oferta
+ *   agotada se cancela o expira, vuelve a APROBADA (solo si la VENDIDA la causaron las reservas)
+ * - Reservar, confirmar y abrir una subasta bloquean la fila de la oferta: una reserva no se
+ *   cuela en una oferta que se está subastando, ni se confirma sobre una oferta que un admin
+ *   está rechazando
+ * - Las reservas PENDIENTES vencen a los reservas.expiracion-s. Los vencimientos están en una
+ *   rueda de temporizadores en memoria (RuedaTemporizadores) que avanza una sola tarea
+ *   periódica; al arrancar se cargan las pendientes de la base de datos
+ * - Confirmar, cancelar y expirar son UPDATE condicionales sobre el estado PENDIENTE: solo
+ *   uno gana, y la cantidad se devuelve una única vez
+ */
+@Service
+@Slf4j
+public class ReservaService {
+
+    private static final String DESCONTAR =
+            "UPDATE ofertas SET cantidad_disponible = COALESCE(cantidad_disponible, cantidad) - ? "
+                    + "WHERE id = ? AND estado = 'APROBADA' AND COALESCE(cantidad_disponible, cantidad) >= ?";
+    private static final String DEVOLVER =
+            "UPDATE ofertas SET cantidad_disponible = COALESCE(cantidad_disponible, cantidad) + ? WHERE id = ?";
+    private static final String DISPONIBLE =
+            "SELECT cantidad_disponible FROM ofertas WHERE id = ?";
+
+    private final ReservaRepository reservaRepository;
+    private final OfertaRepository ofertaRepository;
+    private final OfertaService ofertaService;
+    private final SubastaRepository subastaRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EscriturasRecientes escriturasRecientes;
+    private final RuedaTemporizadores<Long> vencimientos;
+
+    @Value("${reservas.expiracion-s:900}")
+    private long expiracionS;
+
+    public ReservaService(ReservaRepository reservaRepository,
+                          OfertaRepository ofertaRepository,
+                          OfertaService ofertaService,
+                          SubastaRepository subastaRepository,
+                          JdbcTemplate jdbcTemplate,
+                          TransactionTemplate transactionTemplate,
+                          EscriturasRecientes escriturasRecientes,
+                          MeterRegistry registry,
+                          @Value("${reservas.rueda.ranuras:512}") int ranuras,
+                          @Value("${reservas.rueda.tick-ms:1000}") long tickMs) {
+        this.reservaRepository = reservaRepository;
+        this.ofertaRepository = ofertaRepository;
+        this.ofertaService = ofertaService;
+        this.subastaRepository = subastaRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.escriturasRecientes = escriturasRecientes;
+        this.vencimientos = new RuedaTemporizadores<>(ranuras, tickMs, System.currentTimeMillis());
+
+        Gauge.builder("reservas.pendientes", vencimientos, RuedaTemporizadores::size)
+                .description("Reservas pendientes con vencimiento programado")
+                .register(registry);
+    }
+
+    @PostConstruct
+    void cargarPendientes() {
+        List<Reserva> pendientes = reservaRepository.findByEstado(Reserva.EstadoReserva.PENDIENTE);
+        pendientes.forEach(r -> vencimientos.programar(r.getId(), aMs(r.getExpiraEn())));
+        log.info("⏳ {} reservas pendientes programadas para expirar", pendientes.size());
+    }
+
+    /**
+     * Reserva parte de una oferta APROBADA
+     */
+    @Transactional
+    public Reserva reservar(Long compradorId, CrearReservaDTO dto) {
+        Oferta oferta = ofertaRepository.bloquearPorId(dto.getOfertaId())
+                .orElseThrow(() -> new RuntimeException("Oferta no encontrada con ID: " + dto.getOfertaId()));
+        if (oferta.getVendedor().getId().equals(compradorId)) {
+            throw new RuntimeException("No puede reservar su propia oferta");
+        }
+        // Con la fila bloqueada se ve la subasta de un SubastaService.crear ya confirmado, aunque
+        // todavía no esté registrada en memoria
+        if (subastaRepository.existsByOfertaIdAndEstado(oferta.getId(), Subasta.EstadoSubasta.ABIERTA)) {
+            throw new RuntimeException("La oferta " + oferta.getId() + " está en subasta");
+        }
+
+        if (jdbcTemplate.update(DESCONTAR, dto.getCantidad(), oferta.getId(), dto.getCantidad()) == 0) {
+            throw new IllegalArgumentException(oferta.getEstado() != Oferta.EstadoOferta.APROBADA
+                    ? "Solo se pueden reservar ofertas APROBADAS"
+                    : "No hay cantidad disponible suficiente en la oferta " + oferta.getId());
+        }
+        // La fila está bloqueada: este valor es el que dejó esta reserva
+        BigDecimal disponible = jdbcTemplate.queryForObject(DISPONIBLE, BigDecimal.class, oferta.getId());
+
+        LocalDateTime ahora = LocalDateTime.now();
+        Reserva reserva = reservaRepository.save(Reserva.builder()
+                .ofertaId(oferta.getId())
+                .compradorId(compradorId)
+                .cantidad(dto.getCantidad())
+                .precioUnitario(oferta.getPrecioUnitario())
+                .total(Dinero.totalOferta(Cantidad.deKilos(dto.getCantidad()), Dinero.de(oferta.getPrecioUnitario()))
+                        .aBigDecimal())
+                .estado(Reserva.EstadoReserva.PENDIENTE)
+                .expiraEn(ahora.plusSeconds(expiracionS))
+                .build());
+        ofertaService.actualizarEstadoPorReservas(oferta.getId(), disponible);
+
+        // Si la transacción se revierte, al vencer no encuentra la reserva PENDIENTE y no hace nada
+        vencimientos.programar(reserva.getId(), aMs(reserva.getExpiraEn()));
+        escriturasRecientes.registrarUsuarioActual();
+        log.info("Reserva {} de {} kg de la oferta {} (quedan {})",
+                reserva.getId(), dto.getCantidad(), oferta.getId(), disponible);
+        return reserva;
+    }
+
+    /**
+     * Confirma una reserva pendiente y no vencida del comprador
+     */
+    @Transactional
+    public Reserva confirmar(Long reservaId, Long compradorId) {
+        Reserva pendiente = obtenerDelComprador(reservaId, compradorId);
+        // Un cambio de estado de la oferta (admin) espera a esta confirmación, o esta a él
+        Oferta.EstadoOferta estadoOferta = ofertaRepository.bloquearPorId(pendiente.getOfertaId())
+                .map(Oferta::getEstado)
+                .orElse(null);
+        LocalDateTime ahora = LocalDateTime.now();
+        if (reservaRepository.confirmarPendiente(reservaId, compradorId, ahora) == 0) {
+            Reserva reserva = obtenerDelComprador(reservaId, compradorId);
+            if (reserva.getEstado() != Reserva.EstadoReserva.PENDIENTE) {
+                throw new IllegalArgumentException("La reserva " + reservaId + " está " + reserva.getEstado());
+            }
+            throw new IllegalArgumentException(reserva.getExpiraEn().isAfter(ahora)
+                    ? "La oferta " + reserva.getOfertaId() + " ya no está disponible (" + estadoOferta + ")"
+                    : "La reserva " + reservaId + " está PENDIENTE pero ya venció");
+        }
+        vencimientos.cancelar(reservaId);
+        escriturasRecientes.registrarUsuarioActual();
+        return obtenerDelComprador(reservaId, compradorId);
+    }
+
+    /**
+     * Cancela una reserva pendiente del comprador y devuelve la cantidad a la oferta
+     */
+    @Transactional
+    public Reserva cancelar(Long reservaId, Long compradorId) {
+        Reserva reserva = obtenerDelComprador(reservaId, compradorId);
+        if (!liberar(reserva, Reserva.EstadoReserva.CANCELADA)) {
+            throw new IllegalArgumentException("La reserva " + reservaId + " ya no está pendiente");
+        }
+        vencimientos.cancelar(reservaId);
+        escriturasRecientes.registrarUsuarioActual();
+        return reservaRepository.findById(reservaId).orElseThrow();
+    }
+
+    @Transactional(readOnly = true)
+    public List<Reserva> listarDelComprador(Long compradorId) {
+        return reservaRepository.findByCompradorIdOrderByFechaCreacionDesc(compradorId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Oferta> ofertasDisponibles() {
+        return ofertaRepository.buscarDisponiblesParaReservar();
+    }
+
+    /**
+     * Avanza la rueda y expira las reservas vencidas (cada una en su transacción)
+     */
+    @Scheduled(fixedDelayString = "${reservas.rueda.tick-ms:1000}")
+    public void expirarVencidas() {
+        for (Long id : vencimientos.avanzar(System.currentTimeMillis())) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> reservaRepository.findById(id)
+                        .ifPresent(r -> liberar(r, Reserva.EstadoReserva.EXPIRADA)));
+            } catch (RuntimeException e) {
+                // Se reintenta en el próximo tick
+                log.error("❌ No se pudo expirar la reserva {}", id, e);
+                vencimientos.programar(id, System.currentTimeMillis());
+            }
+        }
+    }
+
+    /**
+     * Cierra la reserva si sigue PENDIENTE y devuelve su cantidad a la oferta
+     *
+     * @return false si ya estaba confirmada, cancelada o expirada
+     */
+    private boolean liberar(Reserva reserva, Reserva.EstadoReserva estado) {
+        if (reservaRepository.liberarPendiente(reserva.getId(), estado, LocalDateTime.now()) == 0) {
+            return false;
+        }
+        // Las ofertas archivadas ya no cambian
+        if (jdbcTemplate.update(DEVOLVER, reserva.getCantidad(), reserva.getOfertaId()) > 0) {
+            BigDecimal disponible = jdbcTemplate.queryForObject(DISPONIBLE, BigDecimal.class, reserva.getOfertaId());
+            ofertaService.actualizarEstadoPorReservas(reserva.getOfertaId(), disponible);
+        }
+        log.info("Reserva {} {}: {} kg vuelven a la oferta {}",
+                reserva.getId(), estado, reserva.getCantidad(), reserva.getOfertaId());
+        return true;
+    }
+
+    private Reserva obtenerDelComprador(Long reservaId, Long compradorId) {
+        return reservaRepository.findById(reservaId)
+                .filter(r -> r.getCompradorId().equals(compradorId))
+                .orElseThrow(() -> new RuntimeException("Reserva no encontrada con ID: " + reservaId));
+    }
+
+    private static long aMs(LocalDateTime fecha) {
+        return fecha.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,126 @@
+package com.chatarra.auth.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Rueda de temporizadores (hashed timing wheel) para muchos vencimientos con poca precisión.
+ *
+ * - El tiempo se divide en ticks de tickMs; cada clave va a la ranura de su tick de
+ *   vencimiento módulo el número de ranuras
+ * - programar y cancelar son O(1); avanzar solo mira las ranuras de los ticks transcurridos
+ * - Un vencimiento más lejano que una vuelta completa queda en su ranura y se revisa en cada
+ *   vuelta hasta que llega su hora
+ *
+ * Una sola tarea periódica llama a avanzar, en lugar de una tarea programada por clave.
+ * Las claves vencen como mucho un tick tarde, nunca antes.
+ */
+public class RuedaTemporizadores<K> {
+
+    private final long tickMs;
+    private final List<Set<K>> ranuras;
+    private final Map<K, Entrada> entradas = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Último tick procesado
+    private long tick;
+
+    public RuedaTemporizadores(int ranuras, long tickMs, long ahoraMs) {
+        if (ranuras < 1 || tickMs < 1) {
+            throw new IllegalArgumentException("La rueda necesita al menos una ranura y un tick de 1 ms");
+        }
+        this.tickMs = tickMs;
+        this.ranuras = new ArrayList<>(ranuras);
+        for (int i = 0; i < ranuras; i++) {
+            this.ranuras.add(new HashSet<>());
+        }
+        this.tick = ahoraMs / tickMs;
+    }
+
+    /**
+     * Programa (o reprograma) el vencimiento de una clave
+     */
+    public void programar(K clave, long venceMs) {
+        lock.lock();
+        try {
+            quitar(clave);
+            // Tick redondeado hacia arriba: al procesarlo el vencimiento ya pasó.
+            // Los ya vencidos van al próximo tick
+            long tickVencimiento = Math.max(Math.floorDiv(venceMs + tickMs - 1, tickMs), tick + 1);
+            int ranura = (int) Math.floorMod(tickVencimiento, (long) ranuras.size());
+            ranuras.get(ranura).add(clave);
+            entradas.put(clave, new Entrada(venceMs, ranura));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return true si la clave estaba programada
+     */
+    public boolean cancelar(K clave) {
+        lock.lock();
+        try {
+            return quitar(clave);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Procesa los ticks transcurridos hasta ahoraMs y quita de la rueda las claves vencidas
+     *
+     * @return claves vencidas
+     */
+    public List<K> avanzar(long ahoraMs) {
+        List<K> vencidas = new ArrayList<>();
+        lock.lock();
+        try {
+            long hasta = ahoraMs / tickMs;
+            // Con más de una vuelta de atraso basta con recorrer cada ranura una vez
+            long desde = Math.max(tick + 1, hasta - ranuras.size() + 1);
+            for (long t = desde; t <= hasta; t++) {
+                Iterator<K> claves = ranuras.get((int) Math.floorMod(t, (long) ranuras.size())).iterator();
+                while (claves.hasNext()) {
+                    K clave = claves.next();
+                    if (entradas.get(clave).venceMs() <= ahoraMs) {
+                        claves.remove();
+                        entradas.remove(clave);
+                        vencidas.add(clave);
+                    }
+                }
+            }
+            tick = Math.max(tick, hasta);
+        } finally {
+            lock.unlock();
+        }
+        return vencidas;
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entradas.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean quitar(K clave) {
+        Entrada entrada = entradas.remove(clave);
+        if (entrada == null) {
+            return false;
+        }
+        ranuras.get(entrada.ranura()).remove(clave);
+        return true;
+    }
+
+    private record Entrada(long venceMs, int ranura) {
+    }
+}
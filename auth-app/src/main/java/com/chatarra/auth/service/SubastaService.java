@@ -0,0 +1,252 @@
+package com.chatarra.auth.service;
+
+import com.chatarra.auth.config.EscriturasRecientes;
+import com.chatarra.auth.dto.CrearSubastaDTO;
+import com.chatarra.auth.dto.SubastaDTO;
+import com.chatarra.auth.entity.Oferta;
+import com.chatarra.auth.entity.Puja;
+import com.chatarra.auth.entity.Subasta;
+import com.chatarra.auth.repository.OfertaRepository;
+import com.chatarra.auth.repository.PujaRepository;
+import com.chatarra.auth.repository.SubastaRepository;
+import com.chatarra.auth.repository.UsuarioRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Subastas sobre ofertas APROBADAS: apertura (admin), pujas y cierre.
+ *
+ * Las pujas las valida y ordena MotorSubastas en memoria; aquí solo se resuelve el postor y
+ * se espera la confirmación. El cierre de las subastas vencidas es una tarea periódica que
+ * adjudica la oferta (VENDIDA al precio ganador) o deja la subasta DESIERTA.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SubastaService {
+
+    private static final BigDecimal INCREMENTO_POR_DEFECTO = new BigDecimal("0.01");
+
+    private final SubastaRepository subastaRepository;
+    private final PujaRepository pujaRepository;
+    private final OfertaRepository ofertaRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final OfertaService ofertaService;
+    private final MotorSubastas motorSubastas;
+    private final TransactionTemplate transactionTemplate;
+    private final AuditoriaService auditoriaService;
+    private final EscriturasRecientes escriturasRecientes;
+
+    // email -> id de los postores (el id de un usuario no cambia)
+    private final Map<String, Long> postores = new ConcurrentHashMap<>();
+
+    @Value("${subastas.puja.espera-ms:5000}")
+    private long esperaPujaMs;
+
+    /**
+     * Abre una subasta sobre una oferta APROBADA (solo admin)
+     */
+    public SubastaDTO crear(Long ofertaId, CrearSubastaDTO dto) {
+        Subasta subasta = transactionTemplate.execute(status -> {
+            // Bloquea la fila: otro crear o una reserva concurrente espera y luego ve la subasta
+            // (índice único de respaldo en db/subastas-abierta-unica.sql)
+            Oferta oferta = ofertaRepository.bloquearPorId(ofertaId)
+                    .orElseThrow(() -> new RuntimeException("Oferta no encontrada con ID: " + ofertaId));
+            if (oferta.getEstado() != Oferta.EstadoOferta.APROBADA) {
+                throw new RuntimeException("Solo se pueden subastar ofertas APROBADAS");
+            }
+            // En la base de datos y no en memoria: la subasta de otro crear ya confirmado puede no
+            // estar registrada todavía en MotorSubastas
+            if (subastaRepository.existsByOfertaIdAndEstado(ofertaId, Subasta.EstadoSubasta.ABIERTA)) {
+                throw new RuntimeException("La oferta " + ofertaId + " ya tiene una subasta abierta");
+            }
+            // Se subasta el lote completo
+            if (oferta.getCantidadDisponible() != null && oferta.getCantidadDisponible().compareTo(oferta.getCantidad()) < 0) {
+                throw new RuntimeException("La oferta " + ofertaId + " tiene cantidad reservada");
+            }
+
+            LocalDateTime ahora = LocalDateTime.now();
+            Subasta nueva = subastaRepository.save(Subasta.builder()
+                    .ofertaId(ofertaId)
+                    .vendedorId(oferta.getVendedor().getId())
+                    .precioInicial(Objects.requireNonNullElse(dto.getPrecioInicial(), oferta.getPrecioUnitario()))
+                    .incrementoMinimo(Objects.requireNonNullElse(dto.getIncrementoMinimo(), INCREMENTO_POR_DEFECTO))
+                    .inicio(ahora)
+                    .fin(ahora.plusMinutes(dto.getDuracionMinutos()))
+                    .extensiones(0)
+                    .pujas(0)
+                    .estado(Subasta.EstadoSubasta.ABIERTA)
+                    .build());
+            auditoriaService.registrar("SUBASTA_CREADA", "SUBASTA", nueva.getId(), null,
+                    Map.of("ofertaId", ofertaId, "precioInicial", nueva.getPrecioInicial(), "fin", nueva.getFin()));
+            return nueva;
+        });
+
+        motorSubastas.registrar(subasta);
+        log.info("🔨 Subasta {} abierta para la oferta {} hasta {}", subasta.getId(), ofertaId, subasta.getFin());
+        return motorSubastas.estado(subasta.getId());
+    }
+
+    /**
+     * Registra una puja (precio por kg) y devuelve el estado de la subasta tras ella
+     */
+    public SubastaDTO pujar(Long subastaId, String email, BigDecimal precio) {
+        Long postorId = postores.computeIfAbsent(email, e -> usuarioRepository.findByEmail(e)
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado: " + e))
+                .getId());
+        try {
+            SubastaDTO estado = motorSubastas.pujar(subastaId, postorId, precio).get(esperaPujaMs, TimeUnit.MILLISECONDS);
+            escriturasRecientes.registrarUsuarioActual();
+            return estado;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("La puja no se confirmó a tiempo, consulte la subasta antes de reintentar");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Puja interrumpida");
+        }
+    }
+
+    /**
+     * Estado de una subasta: el de memoria si está abierta, si no el guardado
+     */
+    public SubastaDTO obtener(Long subastaId) {
+        SubastaDTO abierta = motorSubastas.estado(subastaId);
+        if (abierta != null) {
+            return abierta;
+        }
+        return subastaRepository.findById(subastaId)
+                .map(SubastaService::aDTO)
+                .orElseThrow(() -> new RuntimeException("Subasta no encontrada con ID: " + subastaId));
+    }
+
+    public List<SubastaDTO> listarAbiertas() {
+        return motorSubastas.abiertas().stream()
+                .map(motorSubastas::estado)
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparing(SubastaDTO::getFin))
+                .toList();
+    }
+
+    public List<Puja> ultimasPujas(Long subastaId, int maximo) {
+        return pujaRepository.findBySubastaIdOrderBySecuenciaDesc(subastaId, Limit.of(maximo));
+    }
+
+    /**
+     * Cancela una subasta abierta (solo admin): la oferta sigue APROBADA
+     */
+    public SubastaDTO cancelar(Long subastaId) {
+        return cerrar(subastaId, true);
+    }
+
+    /**
+     * Cierra ya una subasta abierta, sin esperar a su fin (solo admin)
+     */
+    public SubastaDTO cerrar(Long subastaId) {
+        return cerrar(subastaId, false);
+    }
+
+    /**
+     * Cierra las subastas vencidas
+     */
+    @Scheduled(fixedDelayString = "${subastas.cierre.intervalo-ms:1000}")
+    public void cerrarVencidas() {
+        for (Long id : motorSubastas.vencidas(LocalDateTime.now())) {
+            try {
+                cerrar(id, false);
+            } catch (RuntimeException e) {
+                log.error("❌ No se pudo cerrar la subasta {}", id, e);
+            }
+        }
+    }
+
+    private SubastaDTO cerrar(Long subastaId, boolean cancelar) {
+        SubastaDTO estado = motorSubastas.cerrar(subastaId);
+        if (estado == null) {
+            throw new RuntimeException("La subasta " + subastaId + " no está abierta");
+        }
+
+        Subasta cerrada;
+        try {
+            cerrada = transactionTemplate.execute(status -> {
+                Subasta subasta = subastaRepository.findById(subastaId)
+                        .orElseThrow(() -> new RuntimeException("Subasta no encontrada con ID: " + subastaId));
+                if (subasta.getEstado() != Subasta.EstadoSubasta.ABIERTA) {
+                    throw new RuntimeException("La subasta " + subastaId + " no está abierta");
+                }
+                boolean ofertaAprobada = ofertaRepository.findById(subasta.getOfertaId())
+                        .map(o -> o.getEstado() == Oferta.EstadoOferta.APROBADA)
+                        .orElse(false);
+
+                Subasta.EstadoSubasta nuevoEstado;
+                if (cancelar || !ofertaAprobada) {
+                    nuevoEstado = Subasta.EstadoSubasta.CANCELADA;
+                } else if (subasta.getPujas() == 0) {
+                    nuevoEstado = Subasta.EstadoSubasta.DESIERTA;
+                } else {
+                    nuevoEstado = Subasta.EstadoSubasta.ADJUDICADA;
+                }
+                // Solo un cierre pasa la fila de ABIERTA a su estado final (el otro no liquida nada)
+                LocalDateTime ahora = LocalDateTime.now();
+                if (subastaRepository.cerrarAbierta(subastaId, nuevoEstado, ahora) == 0) {
+                    throw new RuntimeException("La subasta " + subastaId + " no está abierta");
+                }
+                if (nuevoEstado == Subasta.EstadoSubasta.ADJUDICADA) {
+                    ofertaService.adjudicarSubasta(subasta.getOfertaId(), subasta.getMejorPrecio());
+                }
+                auditoriaService.registrar(cancelar ? "SUBASTA_CANCELADA" : "SUBASTA_CERRADA", "SUBASTA", subastaId,
+                        Map.of("estado", Subasta.EstadoSubasta.ABIERTA),
+                        Map.of("estado", nuevoEstado, "pujas", subasta.getPujas()));
+                // La entidad quedó fuera del contexto con el UPDATE: solo se usa para la respuesta
+                subasta.setEstado(nuevoEstado);
+                subasta.setFechaCierre(ahora);
+                return subasta;
+            });
+        } catch (RuntimeException e) {
+            // Sigue abierta en la base de datos: vuelve a memoria y se reintenta en el próximo ciclo
+            subastaRepository.findById(subastaId)
+                    .filter(s -> s.getEstado() == Subasta.EstadoSubasta.ABIERTA)
+                    .ifPresent(motorSubastas::registrar);
+            throw e;
+        }
+
+        log.info("🔨 Subasta {} cerrada: {} ({} pujas)", subastaId, cerrada.getEstado(), cerrada.getPujas());
+        return aDTO(cerrada);
+    }
+
+    private static SubastaDTO aDTO(Subasta subasta) {
+        return SubastaDTO.builder()
+                .id(subasta.getId())
+                .ofertaId(subasta.getOfertaId())
+                .estado(subasta.getEstado().name())
+                .precioInicial(subasta.getPrecioInicial())
+                .incrementoMinimo(subasta.getIncrementoMinimo())
+                .mejorPrecio(subasta.getMejorPrecio())
+                .mejorPostorId(subasta.getMejorPostorId())
+                .pujas(subasta.getPujas())
+                .inicio(subasta.getInicio())
+                .fin(subasta.getFin())
+                .extensiones(subasta.getExtensiones())
+                .build();
+    }
+}
@@ -0,0 +1,293 @@
+package com.chatarra.auth.service;
+
+import com.chatarra.auth.dto.VentaAgregadaDTO;
+import com.chatarra.auth.entity.Cantidad;
+import com.chatarra.auth.entity.Dinero;
+import com.chatarra.auth.entity.Oferta;
+import com.chatarra.auth.entity.VentaAgregada.Granularidad;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Agregados de ventas por hora y por día (tabla ventas_agregadas), por material y vendedor.
+ *
+ * - Cada paso a VENDIDA suma la oferta a su bucket de hora y de día, en la misma transacción
+ *   que el cambio de estado; si un admin saca una oferta de VENDIDA se resta del bucket de su venta
+ * - Las consultas sobre un rango [desde, hasta) usan buckets diarios para los días completos
+ *   y horarios para los extremos, y fusionan los resultados por las claves pedidas
+ * - reconstruir() recalcula todos los buckets desde ofertas y ofertas_archivo (perfil
+ *   "reconstruir-ventas", ver ReconstructorVentasAgregadas)
+ *
+ * Resolución mínima: una hora (desde se redondea hacia abajo y hasta hacia arriba).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class VentasAgregadasService {
+
+    static final int MAX_DIAS_CONSULTA = 3 * 366;
+
+    private static final String ACTUALIZAR_BUCKET =
+            "UPDATE ventas_agregadas SET ventas = ventas + ?, cantidad = cantidad + ?, total = total + ? "
+                    + "WHERE granularidad = ? AND inicio = ? AND tipo_material = ? AND vendedor_id = ?";
+    private static final String INSERTAR_BUCKET =
+            "INSERT INTO ventas_agregadas (granularidad, inicio, tipo_material, vendedor_id, ventas, cantidad, total) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private static final String VENTAS_POR_HORA =
+            "INSERT INTO ventas_agregadas (granularidad, inicio, tipo_material, vendedor_id, ventas, cantidad, total) "
+                    + "SELECT 'HORA', DATE_TRUNC('hour', v.momento), v.tipo_material, v.vendedor_id, "
+                    + "COUNT(*), SUM(v.cantidad), COALESCE(SUM(v.precio_total), 0) FROM ("
+                    + "SELECT COALESCE(fecha_venta, fecha_creacion) AS momento, tipo_material, vendedor_id, cantidad, precio_total "
+                    + "FROM ofertas WHERE estado = 'VENDIDA' "
+                    + "UNION ALL "
+                    + "SELECT COALESCE(fecha_venta, fecha_creacion), tipo_material, vendedor_id, cantidad, precio_total "
+                    + "FROM ofertas_archivo WHERE estado = 'VENDIDA'"
+                    + ") v GROUP BY DATE_TRUNC('hour', v.momento), v.tipo_material, v.vendedor_id";
+    private static final String VENTAS_POR_DIA =
+            "INSERT INTO ventas_agregadas (granularidad, inicio, tipo_material, vendedor_id, ventas, cantidad, total) "
+                    + "SELECT 'DIA', DATE_TRUNC('day', inicio), tipo_material, vendedor_id, "
+                    + "SUM(ventas), SUM(cantidad), SUM(total) FROM ventas_agregadas WHERE granularidad = 'HORA' "
+                    + "GROUP BY DATE_TRUNC('day', inicio), tipo_material, vendedor_id";
+
+    /**
+     * Claves de agrupación aceptadas en las consultas (parámetro agrupar)
+     */
+    public enum Clave {
+        DIA("CAST(inicio AS DATE)"),
+        HORA("inicio"),
+        MATERIAL("tipo_material"),
+        VENDEDOR("vendedor_id");
+
+        private final String columna;
+
+        Clave(String columna) {
+            this.columna = columna;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Suma (signo 1) o resta (signo -1) una oferta vendida en sus buckets de hora y de día.
+     * Se ejecuta en la transacción del cambio de estado.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarVenta(Oferta oferta, LocalDateTime momento, int signo) {
+        BigDecimal cantidad = Cantidad.aKilos(signo * Cantidad.gramos(oferta.getCantidad()));
+        BigDecimal total = Dinero.aBigDecimal(signo * Dinero.centimos(oferta.getPrecioTotal()));
+        Long vendedorId = oferta.getVendedor().getId();
+
+        sumar(Granularidad.HORA, momento.truncatedTo(ChronoUnit.HOURS), oferta.getTipoMaterial(),
+                vendedorId, signo, cantidad, total);
+        sumar(Granularidad.DIA, momento.truncatedTo(ChronoUnit.DAYS), oferta.getTipoMaterial(),
+                vendedorId, signo, cantidad, total);
+    }
+
+    /**
+     * UPDATE del bucket y, si no existe, INSERT. Si otra transacción lo insertó entre medio
+     * (ON CONFLICT DO NOTHING no inserta nada) se vuelve a intentar el UPDATE.
+     */
+    private void sumar(Granularidad granularidad, LocalDateTime inicio, String tipoMaterial, Long vendedorId,
+                       long ventas, BigDecimal cantidad, BigDecimal total) {
+        Object[] clave = {granularidad.name(), Timestamp.valueOf(inicio), tipoMaterial, vendedorId};
+        Object[] actualizar = {ventas, cantidad, total, clave[0], clave[1], clave[2], clave[3]};
+
+        if (jdbcTemplate.update(ACTUALIZAR_BUCKET, actualizar) > 0) {
+            return;
+        }
+        if (jdbcTemplate.update(INSERTAR_BUCKET, clave[0], clave[1], clave[2], clave[3], ventas, cantidad, total) > 0) {
+            return;
+        }
+        jdbcTemplate.update(ACTUALIZAR_BUCKET, actualizar);
+    }
+
+    /**
+     * Totales de ventas en [desde, hasta) agrupados por las claves indicadas
+     * (sin claves: una sola fila con el total del rango).
+     */
+    @Transactional(readOnly = true)
+    public List<VentaAgregadaDTO> consultar(LocalDateTime desde, LocalDateTime hasta, Set<Clave> agrupar,
+                                            String tipoMaterial, Long vendedorId) {
+        LocalDateTime inicio = desde.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime fin = hasta.truncatedTo(ChronoUnit.HOURS);
+        if (fin.isBefore(hasta)) {
+            fin = fin.plusHours(1);
+        }
+        if (!inicio.isBefore(fin)) {
+            throw new IllegalArgumentException("El rango de fechas es inválido: desde debe ser anterior a hasta");
+        }
+        if (ChronoUnit.DAYS.between(inicio, fin) > MAX_DIAS_CONSULTA) {
+            throw new IllegalArgumentException("El rango máximo es de " + MAX_DIAS_CONSULTA + " días");
+        }
+
+        List<Clave> claves = agrupar.stream().sorted().toList();
+        Map<List<Object>, Acumulado> resultado = new LinkedHashMap<>();
+        for (Object[] tramo : tramos(inicio, fin, agrupar.contains(Clave.HORA))) {
+            acumularTramo(resultado, claves, (Granularidad) tramo[0], (LocalDateTime) tramo[1],
+                    (LocalDateTime) tramo[2], tipoMaterial, vendedorId);
+        }
+
+        List<VentaAgregadaDTO> filas = new ArrayList<>(resultado.size());
+        for (Acumulado acumulado : resultado.values()) {
+            acumulado.fila.setVentas(acumulado.ventas);
+            acumulado.fila.setCantidad(Cantidad.aKilos(acumulado.gramos));
+            acumulado.fila.setTotal(Dinero.aBigDecimal(acumulado.centimos));
+            filas.add(acumulado.fila);
+        }
+        filas.sort(Comparator
+                .comparing(VentaAgregadaDTO::getDia, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(VentaAgregadaDTO::getHora, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(VentaAgregadaDTO::getTipoMaterial, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(VentaAgregadaDTO::getVendedorId, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return filas;
+    }
+
+    /**
+     * Interpreta el parámetro agrupar ("material,dia")
+     */
+    public static Set<Clave> parsearClaves(String agrupar) {
+        Set<Clave> claves = EnumSet.noneOf(Clave.class);
+        if (agrupar == null || agrupar.isBlank()) {
+            return claves;
+        }
+        for (String nombre : agrupar.split(",")) {
+            try {
+                claves.add(Clave.valueOf(nombre.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Clave de agrupación inválida: " + nombre.trim()
+                        + " (valores: " + Arrays.toString(Clave.values()).toLowerCase(Locale.ROOT) + ")");
+            }
+        }
+        return claves;
+    }
+
+    /**
+     * Recalcula todos los buckets desde las ofertas vendidas (tabla caliente y archivo).
+     * La fecha de cada venta es fecha_venta o, para datos anteriores a esa columna, fecha_creacion.
+     *
+     * Borra y reescribe la tabla en una transacción: conviene ejecutarlo sin tráfico de ventas.
+     *
+     * @return buckets horarios y diarios generados
+     */
+    @Transactional
+    public int[] reconstruir() {
+        long inicio = System.currentTimeMillis();
+        jdbcTemplate.update("DELETE FROM ventas_agregadas");
+        int horas = jdbcTemplate.update(VENTAS_POR_HORA);
+        int dias = jdbcTemplate.update(VENTAS_POR_DIA);
+        log.info("📊 Agregados de ventas reconstruidos en {} ms: {} buckets por hora, {} por día",
+                System.currentTimeMillis() - inicio, horas, dias);
+        return new int[]{horas, dias};
+    }
+
+    /**
+     * Divide [inicio, fin) en tramos de buckets: horas sueltas al principio y al final,
+     * días completos en el medio. Con agrupación por hora todo el rango usa buckets horarios.
+     */
+    private static List<Object[]> tramos(LocalDateTime inicio, LocalDateTime fin, boolean porHora) {
+        LocalDateTime primerDia = inicio.truncatedTo(ChronoUnit.DAYS);
+        if (primerDia.isBefore(inicio)) {
+            primerDia = primerDia.plusDays(1);
+        }
+        LocalDateTime ultimoDia = fin.truncatedTo(ChronoUnit.DAYS);
+
+        List<Object[]> tramos = new ArrayList<>(3);
+        if (porHora || !primerDia.isBefore(ultimoDia)) {
+            tramos.add(new Object[]{Granularidad.HORA, inicio, fin});
+            return tramos;
+        }
+        if (inicio.isBefore(primerDia)) {
+            tramos.add(new Object[]{Granularidad.HORA, inicio, primerDia});
+        }
+        tramos.add(new Object[]{Granularidad.DIA, primerDia, ultimoDia});
+        if (ultimoDia.isBefore(fin)) {
+            tramos.add(new Object[]{Granularidad.HORA, ultimoDia, fin});
+        }
+        return tramos;
+    }
+
+    private void acumularTramo(Map<List<Object>, Acumulado> resultado, List<Clave> claves,
+                               Granularidad granularidad, LocalDateTime desde, LocalDateTime hasta,
+                               String tipoMaterial, Long vendedorId) {
+        StringBuilder sql = new StringBuilder("SELECT ");
+        for (Clave clave : claves) {
+            sql.append(clave.columna).append(", ");
+        }
+        sql.append("SUM(ventas), SUM(cantidad), SUM(total) FROM ventas_agregadas ")
+                .append("WHERE granularidad = ? AND inicio >= ? AND inicio < ?");
+
+        List<Object> parametros = new ArrayList<>(List.of(granularidad.name(), Timestamp.valueOf(desde),
+                Timestamp.valueOf(hasta)));
+        if (tipoMaterial != null) {
+            sql.append(" AND tipo_material = ?");
+            parametros.add(tipoMaterial);
+        }
+        if (vendedorId != null) {
+            sql.append(" AND vendedor_id = ?");
+            parametros.add(vendedorId);
+        }
+        if (!claves.isEmpty()) {
+            sql.append(" GROUP BY ");
+            for (int i = 0; i < claves.size(); i++) {
+                sql.append(i == 0 ? "" : ", ").append(claves.get(i).columna);
+            }
+        }
+
+        jdbcTemplate.query(sql.toString(), rs -> {
+            long ventas = rs.getLong(claves.size() + 1);
+            if (rs.wasNull()) {
+                return; // Sin claves y sin ventas en el tramo: SUM devuelve NULL
+            }
+            VentaAgregadaDTO fila = new VentaAgregadaDTO();
+            for (int i = 0; i < claves.size(); i++) {
+                switch (claves.get(i)) {
+                    case DIA -> fila.setDia(rs.getObject(i + 1, LocalDate.class));
+                    case HORA -> fila.setHora(rs.getObject(i + 1, LocalDateTime.class));
+                    case MATERIAL -> fila.setTipoMaterial(rs.getString(i + 1));
+                    case VENDEDOR -> fila.setVendedorId(rs.getLong(i + 1));
+                }
+            }
+            List<Object> clave = Arrays.asList(fila.getDia(), fila.getHora(), fila.getTipoMaterial(),
+                    fila.getVendedorId());
+
+            Acumulado acumulado = resultado.computeIfAbsent(clave, k -> new Acumulado(fila));
+            acumulado.ventas += ventas;
+            acumulado.gramos += Cantidad.gramos(rs.getBigDecimal(claves.size() + 2));
+            acumulado.centimos += Dinero.centimos(rs.getBigDecimal(claves.size() + 3));
+        }, parametros.toArray());
+    }
+
+    /**
+     * Totales de un grupo mientras se fusionan los tramos (en gramos y céntimos, ver Dinero)
+     */
+    private static final class Acumulado {
+        private final VentaAgregadaDTO fila;
+        private long ventas;
+        private long gramos;
+        private long centimos;
+
+        private Acumulado(VentaAgregadaDTO fila) {
+            this.fila = fila;
+        }
+    }
+}
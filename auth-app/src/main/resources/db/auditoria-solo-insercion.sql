@@ -0,0 +1,28 @@
+-- ==============================================
+-- auditoria: solo inserción (PostgreSQL)
+--
+-- Ejecutar una vez, después de que Hibernate cree la tabla (ddl-auto=update):
+--
+--   psql -d auth_chatarra_db -f src/main/resources/db/auditoria-solo-insercion.sql
+--
+-- El trigger rechaza UPDATE y DELETE aunque los pida un usuario con permisos sobre la tabla.
+-- Si el usuario de la aplicación no es el dueño de la tabla, además:
+--   REVOKE UPDATE, DELETE, TRUNCATE ON auditoria FROM <usuario_app>;
+--
+-- Consultas: idx_auditoria_entidad (entidad, entidad_id, id) e idx_auditoria_actor (actor, id)
+-- sirven las páginas por entidad o por actor. Para filtrar por periodo sobre meses de historial
+-- basta un índice BRIN sobre fecha (la tabla crece en orden de fecha y ocupa unos KB).
+-- ==============================================
+
+CREATE OR REPLACE FUNCTION auditoria_solo_insercion() RETURNS trigger AS $$
+BEGIN
+    RAISE EXCEPTION 'La tabla auditoria es de solo inserción (% rechazado)', TG_OP;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_auditoria_solo_insercion ON auditoria;
+CREATE TRIGGER trg_auditoria_solo_insercion
+    BEFORE UPDATE OR DELETE ON auditoria
+    FOR EACH ROW EXECUTE FUNCTION auditoria_solo_insercion();
+
+CREATE INDEX IF NOT EXISTS idx_auditoria_fecha_brin ON auditoria USING BRIN (fecha);
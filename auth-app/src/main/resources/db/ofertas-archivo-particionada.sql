@@ -0,0 +1,36 @@
+-- ==============================================
+-- ofertas_archivo particionada por mes de fecha_creacion (PostgreSQL)
+--
+-- Ejecutar una vez, ANTES de arrancar la versión que incluye OfertaArchivada
+-- (si no, Hibernate crea ofertas_archivo como tabla normal con ddl-auto=update):
+--
+--   psql -d auth_chatarra_db -f src/main/resources/db/ofertas-archivo-particionada.sql
+--
+-- ArchivoOfertasService crea las particiones mensuales (ofertas_archivo_AAAA_MM)
+-- que falten antes de cada lote. Las consultas por periodo (GET /api/admin/ofertas/archivo)
+-- solo leen las particiones de ese periodo, y una partición vieja se puede desconectar
+-- (DETACH PARTITION) y respaldar sin tocar el resto.
+-- ==============================================
+
+CREATE TABLE IF NOT EXISTS ofertas_archivo (
+    id              BIGINT         NOT NULL,
+    vendedor_id     BIGINT         NOT NULL,
+    tipo_material   VARCHAR(50)    NOT NULL,
+    cantidad        NUMERIC(10, 2) NOT NULL,
+    precio_unitario NUMERIC(10, 2) NOT NULL,
+    precio_total    NUMERIC(10, 2),
+    descripcion     TEXT,
+    ubicacion       VARCHAR(255),
+    imagen_url      VARCHAR(500),
+    estado          VARCHAR(20)    NOT NULL,
+    fecha_creacion  TIMESTAMP(6)   NOT NULL,
+    fecha_venta     TIMESTAMP(6),
+    fecha_archivo   TIMESTAMP(6)   NOT NULL,
+    -- La clave de partición debe formar parte de la clave primaria
+    PRIMARY KEY (id, fecha_creacion)
+) PARTITION BY RANGE (fecha_creacion);
+
+-- Se crea en cada partición
+CREATE INDEX IF NOT EXISTS idx_ofertas_archivo_vendedor ON ofertas_archivo (vendedor_id, fecha_creacion);
+-- Búsqueda por ID sin fecha (GET /api/vendedor/ofertas/{id} de una oferta archivada)
+CREATE INDEX IF NOT EXISTS idx_ofertas_archivo_id ON ofertas_archivo (id);
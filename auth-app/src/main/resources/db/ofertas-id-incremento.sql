@@ -0,0 +1,15 @@
+-- ==============================================
+-- ofertas.id en bloques de 50 para el perfil "persistencia" (PostgreSQL)
+--
+-- Ejecutar una vez antes de arrancar con el perfil sobre una base existente:
+--
+--   psql -d auth_chatarra_db -f src/main/resources/db/ofertas-id-incremento.sql
+--
+-- El perfil toma los ids de ofertas_id_seq (la secuencia de la columna IDENTITY) en bloques
+-- de 50 para agrupar los INSERT. Si la secuencia sigue con incremento 1, Hibernate se ajusta
+-- a ella (increment_size_mismatch_strategy=FIX) y vuelve a pedir un id por cada INSERT.
+-- Sin el perfil no hace falta, y tampoco molesta: IDENTITY sigue funcionando con incremento 50
+-- (los ids avanzan de 50 en 50).
+-- ==============================================
+
+ALTER TABLE ofertas ALTER COLUMN id SET INCREMENT BY 50;
@@ -0,0 +1,16 @@
+-- ==============================================
+-- subastas: una sola ABIERTA por oferta (PostgreSQL)
+--
+-- Ejecutar una vez, después de que Hibernate cree la tabla (ddl-auto=update):
+--
+--   psql -d auth_chatarra_db -f src/main/resources/db/subastas-abierta-unica.sql
+--
+-- SubastaService.crear ya bloquea la fila de la oferta antes de comprobar que no haya otra
+-- subasta abierta; el índice lo garantiza también frente a escrituras fuera de la aplicación.
+-- Si ya hubiera dos abiertas sobre la misma oferta, la creación del índice falla: cerrar
+-- una antes de ejecutarlo.
+-- ==============================================
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_subastas_oferta_abierta
+    ON subastas (oferta_id)
+    WHERE estado = 'ABIERTA';
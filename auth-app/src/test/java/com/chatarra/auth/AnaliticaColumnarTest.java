@@ -0,0 +1,88 @@
+package com.chatarra.auth;
+
+import com.chatarra.auth.dto.ConsultaAnaliticaDTO;
+import com.chatarra.auth.dto.ResultadoAnaliticaDTO;
+import com.chatarra.auth.entity.Oferta;
+import com.chatarra.auth.entity.Usuario;
+import com.chatarra.auth.service.AnaliticaColumnarService;
+import com.chatarra.auth.service.OfertaService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Instantánea columnar: carga completa, filtros y agrupación, y cambios desde el outbox.
+ */
+@SpringBootTest(classes = AuthApplication.class, properties = {
+        "spring.datasource.url=jdbc:h2:mem:analitica;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "analitica.columnar.habilitado=true",
+        "ofertas.eventos.relay.intervalo-ms=50"
+})
+@ActiveProfiles("test")
+class AnaliticaColumnarTest {
+
+    @Autowired
+    private AnaliticaColumnarService analiticaColumnarService;
+    @Autowired
+    private OfertaService ofertaService;
+    @Autowired
+    private DatosPrueba datosPrueba;
+
+    @Test
+    void filtraAgrupaYSeActualizaConLosEventos() throws InterruptedException {
+        Usuario vendedor = datosPrueba.crearVendedor("analitica@test.com");
+        datosPrueba.crearOferta(vendedor, "COBRE", "8.50", "Bodega Norte", Oferta.EstadoOferta.VENDIDA);
+        datosPrueba.crearOferta(vendedor, "COBRE", "9.00", "Bodega Sur", Oferta.EstadoOferta.APROBADA);
+        datosPrueba.crearOferta(vendedor, "HIERRO", "0.35", "Bodega Norte", Oferta.EstadoOferta.VENDIDA);
+        Oferta pendiente = datosPrueba.crearOferta(vendedor, "COBRE", "8.00", "Patio", Oferta.EstadoOferta.PENDIENTE);
+        assertEquals(4, analiticaColumnarService.recargar());
+
+        // Banda de precio + ubicación, agrupado por material y estado
+        ResultadoAnaliticaDTO porMaterial = analiticaColumnarService.consultar(ConsultaAnaliticaDTO.builder()
+                .precioMin(new BigDecimal("1"))
+                .ubicacion("bodega")
+                .agrupar(List.of("material", "estado"))
+                .build());
+        assertEquals(2, porMaterial.getFilasCoincidentes());
+        assertEquals(2, porMaterial.getFilas().size());
+        assertTrue(porMaterial.getFilas().stream().allMatch(f -> "COBRE".equals(f.getTipoMaterial())));
+
+        ResultadoAnaliticaDTO vendidas = analiticaColumnarService.consultar(ConsultaAnaliticaDTO.builder()
+                .estados(List.of(Oferta.EstadoOferta.VENDIDA))
+                .desde(LocalDate.now())
+                .agrupar(List.of("dia"))
+                .build());
+        assertEquals(1, vendidas.getFilas().size());
+        assertEquals(LocalDate.now(), vendidas.getFilas().get(0).getDia());
+        assertEquals(2L, vendidas.getFilas().get(0).getOfertas());
+        // 10 kg a 8.50 + 10 kg a 0.35
+        assertEquals(0, new BigDecimal("88.50").compareTo(vendidas.getFilas().get(0).getTotal()));
+
+        // Cambio por el flujo normal: llega con el relay del outbox
+        ofertaService.cambiarEstadoOfertaAdmin(pendiente.getId(), Oferta.EstadoOferta.VENDIDA);
+        ConsultaAnaliticaDTO cobreVendido = ConsultaAnaliticaDTO.builder()
+                .tiposMaterial(List.of("cobre"))
+                .estados(List.of(Oferta.EstadoOferta.VENDIDA))
+                .build();
+        long espera = System.currentTimeMillis() + 5000;
+        while (analiticaColumnarService.consultar(cobreVendido).getFilasCoincidentes() < 2
+                && System.currentTimeMillis() < espera) {
+            Thread.sleep(50);
+        }
+        assertEquals(2, analiticaColumnarService.consultar(cobreVendido).getFilasCoincidentes());
+    }
+
+    @Test
+    void rechazaAgrupacionesInvalidas() {
+        ConsultaAnaliticaDTO consulta = ConsultaAnaliticaDTO.builder().agrupar(List.of("semana")).build();
+        analiticaColumnarService.recargar();
+        assertThrows(IllegalArgumentException.class, () -> analiticaColumnarService.consultar(consulta));
+    }
+}
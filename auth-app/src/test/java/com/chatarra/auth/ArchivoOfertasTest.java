@@ -0,0 +1,99 @@
+package com.chatarra.auth;
+
+import com.chatarra.auth.dto.EstadisticasVendedorDTO;
+import com.chatarra.auth.entity.Oferta;
+import com.chatarra.auth.entity.Usuario;
+import com.chatarra.auth.repository.OfertaArchivadaRepository;
+import com.chatarra.auth.repository.OfertaRepository;
+import com.chatarra.auth.repository.UsuarioRepository;
+import com.chatarra.auth.service.ArchivoOfertasService;
+import com.chatarra.auth.service.AuditoriaService;
+import com.chatarra.auth.service.OfertaService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Archivo de ofertas cerradas: qué se mueve y que el historial siga visible.
+ */
+@SpringBootTest(classes = AuthApplication.class)
+@ActiveProfiles("test")
+class ArchivoOfertasTest {
+
+    @Autowired
+    private ArchivoOfertasService archivoOfertasService;
+    @Autowired
+    private OfertaService ofertaService;
+    @Autowired
+    private OfertaRepository ofertaRepository;
+    @Autowired
+    private OfertaArchivadaRepository ofertaArchivadaRepository;
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+    @Autowired
+    private AuditoriaService auditoriaService;
+    @Autowired
+    private DatosPrueba datosPrueba;
+
+    @Test
+    void archivaSoloOfertasCerradasAntiguasYMantieneElHistorial() {
+        Usuario vendedor = datosPrueba.crearVendedor("archivo@test.com");
+
+        Oferta vendidaAntigua = datosPrueba.crearOfertaAntigua(vendedor, Oferta.EstadoOferta.VENDIDA, 400);
+        Oferta canceladaAntigua = datosPrueba.crearOfertaAntigua(vendedor, Oferta.EstadoOferta.CANCELADA, 300);
+        Oferta pendienteAntigua = datosPrueba.crearOfertaAntigua(vendedor, Oferta.EstadoOferta.PENDIENTE, 400);
+        Oferta vendidaReciente = datosPrueba.crearOfertaAntigua(vendedor, Oferta.EstadoOferta.VENDIDA, 10);
+        EstadisticasVendedorDTO antes = ofertaService.obtenerEstadisticasVendedor(vendedor.getId());
+
+        assertTrue(archivoOfertasService.archivar() >= 2);
+
+        // Se movieron las cerradas antiguas, con el mismo ID
+        assertFalse(ofertaRepository.existsById(vendidaAntigua.getId()));
+        assertFalse(ofertaRepository.existsById(canceladaAntigua.getId()));
+        assertTrue(ofertaArchivadaRepository.existsById(vendidaAntigua.getId()));
+        assertTrue(ofertaRepository.existsById(pendienteAntigua.getId()));
+        assertTrue(ofertaRepository.existsById(vendidaReciente.getId()));
+        // Cada lote queda en la auditoría con los ids que movió
+        assertTrue(auditoriaService.porActor("sistema", null, 10).stream()
+                .anyMatch(r -> r.getAccion().equals("OFERTAS_ARCHIVADAS")
+                        && r.getDespues().contains(vendidaAntigua.getId().toString())));
+
+        // El historial sigue visible para el vendedor
+        assertEquals(Oferta.EstadoOferta.VENDIDA, ofertaService.obtenerOfertaPorId(vendidaAntigua.getId()).getEstado());
+        List<Long> ids = ofertaService.obtenerOfertasPorVendedor(vendedor.getId()).stream().map(Oferta::getId).toList();
+        assertEquals(4, ids.size());
+        assertEquals(List.of(vendidaReciente.getId(), canceladaAntigua.getId()), ids.subList(0, 2));
+        assertTrue(ids.containsAll(List.of(vendidaAntigua.getId(), pendienteAntigua.getId())));
+        EstadisticasVendedorDTO despues = ofertaService.obtenerEstadisticasVendedor(vendedor.getId());
+        assertEquals(antes.getOfertasVendidas(), despues.getOfertasVendidas());
+        assertEquals(0, antes.getTotalVendido().compareTo(despues.getTotalVendido()));
+
+        // Por periodo, y sin modificaciones
+        LocalDate hoy = LocalDate.now();
+        assertEquals(1, archivoOfertasService.buscarPorPeriodo(hoy.minusDays(401), hoy.minusDays(399), 10).size());
+        RuntimeException error = assertThrows(RuntimeException.class, () -> ofertaService.cambiarEstadoOfertaAdmin(
+                vendidaAntigua.getId(), Oferta.EstadoOferta.APROBADA));
+        assertTrue(error.getMessage().contains("archivada"));
+    }
+
+    @Test
+    void unaOfertaArchivadaDeUnUsuarioEliminadoConservaElIdDelVendedor() {
+        Usuario vendedor = datosPrueba.crearVendedor("archivo-eliminado@test.com");
+        Oferta vendida = datosPrueba.crearOfertaAntigua(vendedor, Oferta.EstadoOferta.VENDIDA, 500);
+        archivoOfertasService.archivar();
+        usuarioRepository.deleteById(vendedor.getId());
+
+        Oferta archivada = ofertaService.obtenerOfertaPorId(vendida.getId());
+        assertNotNull(archivada.getVendedor());
+        assertEquals(vendedor.getId(), archivada.getVendedor().getId());
+        assertFalse(archivada.getVendedor().getActivo());
+        // El listado de admin solo trae las ofertas vivas
+        assertTrue(ofertaService.obtenerTodasLasOfertas().stream().noneMatch(o -> o.getId().equals(vendida.getId())));
+    }
+}
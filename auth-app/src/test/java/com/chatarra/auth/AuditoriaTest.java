@@ -0,0 +1,163 @@
+package com.chatarra.auth;
+
+import com.chatarra.auth.dto.CrearOfertaDTO;
+import com.chatarra.auth.dto.ElevacionLogDTO;
+import com.chatarra.auth.entity.Oferta;
+import com.chatarra.auth.entity.RegistroAuditoria;
+import com.chatarra.auth.entity.Usuario;
+import com.chatarra.auth.repository.UsuarioRepository;
+import com.chatarra.auth.service.AdminService;
+import com.chatarra.auth.service.AnaliticaColumnarService;
+import com.chatarra.auth.service.AuditoriaService;
+import com.chatarra.auth.service.NivelLogService;
+import com.chatarra.auth.service.OfertaService;
+import org.h2.api.Trigger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Auditoría: quién cambió qué, guardado en la transacción de la acción (se confirman juntos o
+ * ninguno) y también para el archivo de ofertas, la instantánea analítica y los niveles de log.
+ */
+@SpringBootTest(classes = AuthApplication.class, properties = {
+        "spring.datasource.url=jdbc:h2:mem:auditoria;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "analitica.columnar.habilitado=true"
+})
+@ActiveProfiles("test")
+class AuditoriaTest {
+
+    private static final String ADMIN = "auditoria-admin@test.com";
+
+    @Autowired
+    private AuditoriaService auditoriaService;
+    @Autowired
+    private AdminService adminService;
+    @Autowired
+    private OfertaService ofertaService;
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private NivelLogService nivelLogService;
+    @Autowired
+    private AnaliticaColumnarService analiticaColumnarService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DatosPrueba datosPrueba;
+
+    @AfterEach
+    void limpiarSesion() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void registraLasAccionesDelAdminAlConfirmarse() {
+        Usuario vendedor = datosPrueba.crearVendedor("auditoria-vendedor@test.com");
+        Oferta oferta = ofertaService.crearOferta(vendedor.getId(), CrearOfertaDTO.builder()
+                .tipoMaterial("Cobre").cantidad(new BigDecimal("10")).precioUnitario(new BigDecimal("7.50"))
+                .build());
+
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(ADMIN, null, "ROLE_ADMIN"));
+        adminService.updateUserRole(vendedor.getId(), "COMPRADOR");
+        adminService.toggleUserStatus(vendedor.getId(), false);
+        ofertaService.cambiarEstadoOfertaAdmin(oferta.getId(), Oferta.EstadoOferta.APROBADA);
+
+        // Al volver de cada acción su registro ya está guardado
+        List<RegistroAuditoria> usuario = auditoriaService.porEntidad("usuario", vendedor.getId().toString(), null, 10);
+        assertEquals(List.of("USUARIO_ESTADO", "USUARIO_ROL"), usuario.stream().map(RegistroAuditoria::getAccion).toList());
+        assertEquals("{\"rol\":\"VENDEDOR\"}", usuario.get(1).getAntes());
+        assertEquals("{\"rol\":\"COMPRADOR\"}", usuario.get(1).getDespues());
+
+        List<RegistroAuditoria> ofertaRegistros = auditoriaService.porEntidad("OFERTA", oferta.getId().toString(), null, 10);
+        assertEquals(1, ofertaRegistros.size());
+        assertEquals(ADMIN, ofertaRegistros.get(0).getActor());
+        assertEquals("{\"estado\":\"PENDIENTE\"}", ofertaRegistros.get(0).getAntes());
+
+        // Por actor, paginando por id
+        List<RegistroAuditoria> primera = auditoriaService.porActor(ADMIN, null, 2);
+        assertEquals(2, primera.size());
+        List<RegistroAuditoria> segunda = auditoriaService.porActor(ADMIN, primera.get(1).getId(), 2);
+        assertEquals(List.of("USUARIO_ROL"), segunda.stream().map(RegistroAuditoria::getAccion).toList());
+    }
+
+    @Test
+    void unaAccionRevertidaNoDejaRegistro() {
+        transactionTemplate.executeWithoutResult(status -> {
+            auditoriaService.registrar("USUARIO_ROL", "USUARIO", 999_999L, Map.of("rol", "VENDEDOR"),
+                    Map.of("rol", "ADMIN"));
+            status.setRollbackOnly();
+        });
+        auditoriaService.registrar("USUARIO_ESTADO", "USUARIO", 999_999L, null, Map.of("activo", true));
+
+        List<RegistroAuditoria> registros = auditoriaService.porEntidad("USUARIO", "999999", null, 10);
+        assertEquals(1, registros.size());
+        assertEquals("USUARIO_ESTADO", registros.get(0).getAccion());
+        assertEquals("sistema", registros.get(0).getActor());
+    }
+
+    @Test
+    void siElRegistroNoSePuedeGuardarLaAccionFalla() {
+        Usuario vendedor = datosPrueba.crearVendedor("auditoria-falla@test.com");
+
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(ADMIN, null, "ROLE_ADMIN"));
+        jdbcTemplate.execute("CREATE TRIGGER falla_auditoria BEFORE INSERT ON auditoria FOR EACH ROW CALL \""
+                + FallaAuditoria.class.getName() + "\"");
+        try {
+            assertThrows(RuntimeException.class, () -> adminService.updateUserRole(vendedor.getId(), "ADMIN"));
+        } finally {
+            jdbcTemplate.execute("DROP TRIGGER falla_auditoria");
+        }
+
+        // La acción se revirtió junto con su registro
+        assertEquals(Usuario.Rol.VENDEDOR, usuarioRepository.findById(vendedor.getId()).orElseThrow().getRol());
+        assertTrue(auditoriaService.porEntidad("USUARIO", vendedor.getId().toString(), null, 10).isEmpty());
+    }
+
+    @Test
+    void registraElevacionesDeLogsYRecargasDeAnalitica() {
+        String actor = "auditoria-operador@test.com";
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(actor, null, "ROLE_ADMIN"));
+        ElevacionLogDTO elevacion = new ElevacionLogDTO();
+        elevacion.setTipo("USUARIO");
+        elevacion.setValor("auditoria-depurado@test.com");
+        nivelLogService.elevar(elevacion);
+        nivelLogService.quitar("USUARIO", "auditoria-depurado@test.com");
+        analiticaColumnarService.recargar();
+
+        List<RegistroAuditoria> registros = auditoriaService.porActor(actor, null, 10);
+        assertEquals(List.of("ANALITICA_RECARGADA", "LOGS_RESTAURADOS", "LOGS_ELEVADOS"),
+                registros.stream().map(RegistroAuditoria::getAccion).toList());
+        assertEquals(List.of("LOGS_RESTAURADOS", "LOGS_ELEVADOS"),
+                auditoriaService.porEntidad("LOG_USUARIO", "auditoria-depurado@test.com", null, 10).stream()
+                        .map(RegistroAuditoria::getAccion).toList());
+        assertTrue(registros.get(2).getDespues().contains("\"nivel\":\"DEBUG\""));
+    }
+
+    /**
+     * Trigger de H2: rechaza cualquier registro de auditoría
+     */
+    public static class FallaAuditoria implements Trigger {
+
+        @Override
+        public void fire(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+            throw new SQLException("fallo simulado de la auditoría");
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.chatarra.auth;
+
+import com.chatarra.auth.dto.CrearBusquedaDTO;
+import com.chatarra.auth.dto.CrearOfertaDTO;
+import com.chatarra.auth.entity.AlertaBusqueda;
+import com.chatarra.auth.entity.BusquedaGuardada;
+import com.chatarra.auth.entity.Oferta;
+import com.chatarra.auth.entity.Usuario;
+import com.chatarra.auth.service.BusquedasGuardadasService;
+import com.chatarra.auth.service.IndiceBusquedas;
+import com.chatarra.auth.service.OfertaService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Búsquedas guardadas: índice invertido y alertas al aprobarse una oferta.
+ */
+@SpringBootTest(classes = AuthApplication.class, properties = {
+        "spring.datasource.url=jdbc:h2:mem:busquedas;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "ofertas.eventos.relay.intervalo-ms=50",
+        "busquedas.alertas.intervalo-ms=50"
+})
+@ActiveProfiles("test")
+class BusquedasGuardadasTest {
+
+    @Autowired
+    private BusquedasGuardadasService busquedasGuardadasService;
+    @Autowired
+    private OfertaService ofertaService;
+    @Autowired
+    private DatosPrueba datosPrueba;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void avisaALasBusquedasQueCoincidenCuandoSeApruebaLaOferta() throws InterruptedException {
+        Usuario vendedor = datosPrueba.crearUsuario("busquedas-vendedor@test.com", Usuario.Rol.VENDEDOR);
+        Usuario cobreBarato = datosPrueba.crearUsuario("busquedas-cobre@test.com", Usuario.Rol.COMPRADOR);
+        Usuario cualquiera = datosPrueba.crearUsuario("busquedas-todo@test.com", Usuario.Rol.COMPRADOR);
+        Usuario cobreCaro = datosPrueba.crearUsuario("busquedas-caro@test.com", Usuario.Rol.COMPRADOR);
+
+        BusquedaGuardada cobre = busquedasGuardadasService.crear(cobreBarato.getId(), CrearBusquedaDTO.builder()
+                .tipoMaterial("cobre").precioMax(new BigDecimal("9.00")).ubicacion("norte").build());
+        busquedasGuardadasService.crear(cualquiera.getId(), CrearBusquedaDTO.builder()
+                .cantidadMin(new BigDecimal("100")).build());
+        busquedasGuardadasService.crear(cobreCaro.getId(), CrearBusquedaDTO.builder()
+                .tipoMaterial("COBRE").precioMin(new BigDecimal("10")).build());
+        assertThrows(IllegalArgumentException.class, () -> busquedasGuardadasService.crear(cobreCaro.getId(),
+                CrearBusquedaDTO.builder().precioMin(new BigDecimal("5")).precioMax(new BigDecimal("4")).build()));
+
+        Oferta oferta = ofertaService.crearOferta(vendedor.getId(), CrearOfertaDTO.builder()
+                .tipoMaterial("Cobre").cantidad(new BigDecimal("250")).precioUnitario(new BigDecimal("8.75"))
+                .ubicacion("Bodega Norte").build());
+        // Solo avisa al aprobarse, no al crearse
+        ofertaService.cambiarEstadoOfertaAdmin(oferta.getId(), Oferta.EstadoOferta.APROBADA);
+
+        long espera = System.currentTimeMillis() + 5000;
+        while (busquedasGuardadasService.alertas(cualquiera.getId(), 10).isEmpty()
+                && System.currentTimeMillis() < espera) {
+            Thread.sleep(50);
+        }
+        List<AlertaBusqueda> alertas = busquedasGuardadasService.alertas(cobreBarato.getId(), 10);
+        assertEquals(1, alertas.size());
+        assertEquals(cobre.getId(), alertas.get(0).getBusquedaId());
+        assertEquals(oferta.getId(), alertas.get(0).getOfertaId());
+        assertEquals(1, busquedasGuardadasService.alertas(cualquiera.getId(), 10).size());
+        assertTrue(busquedasGuardadasService.alertas(cobreCaro.getId(), 10).isEmpty());
+        assertEquals(1, busquedasGuardadasService.marcarLeidas(cobreBarato.getId()));
+
+        busquedasGuardadasService.eliminar(cobre.getId(), cobreBarato.getId());
+        assertTrue(busquedasGuardadasService.alertas(cobreBarato.getId(), 10).isEmpty());
+    }
+
+    @Test
+    void unLoteQueNoSePuedeEscribirSeReintenta() throws InterruptedException {
+        Usuario vendedor = datosPrueba.crearUsuario("busquedas-reintento-vendedor@test.com", Usuario.Rol.VENDEDOR);
+        Usuario comprador = datosPrueba.crearUsuario("busquedas-reintento@test.com", Usuario.Rol.COMPRADOR);
+        busquedasGuardadasService.crear(comprador.getId(), CrearBusquedaDTO.builder().tipoMaterial("LATON").build());
+        Oferta oferta = datosPrueba.crearOferta(vendedor, "LATON", "4.00", "Bodega Sur",
+                Oferta.EstadoOferta.PENDIENTE);
+
+        // Sin la tabla, las escrituras fallan mientras la alerta espera en la cola
+        jdbcTemplate.execute("ALTER TABLE alertas_busqueda RENAME TO alertas_busqueda_fuera");
+        try {
+            ofertaService.cambiarEstadoOfertaAdmin(oferta.getId(), Oferta.EstadoOferta.APROBADA);
+            long espera = System.currentTimeMillis() + 5000;
+            while (pendientes() == 0 && System.currentTimeMillis() < espera) {
+                Thread.sleep(20);
+            }
+            Thread.sleep(200);   // varias pasadas fallidas
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE alertas_busqueda_fuera RENAME TO alertas_busqueda");
+        }
+
+        long espera = System.currentTimeMillis() + 5000;
+        while (busquedasGuardadasService.alertas(comprador.getId(), 10).isEmpty()
+                && System.currentTimeMillis() < espera) {
+            Thread.sleep(50);
+        }
+        List<AlertaBusqueda> alertas = busquedasGuardadasService.alertas(comprador.getId(), 10);
+        assertEquals(1, alertas.size());
+        assertEquals(oferta.getId(), alertas.get(0).getOfertaId());
+        assertEquals(0, pendientes());
+    }
+
+    @Test
+    void indiceSoloDevuelveLasBusquedasQueCoinciden() {
+        IndiceBusquedas indice = new IndiceBusquedas();
+        indice.poner(1, 10, "COBRE", 0, 900, 0, null);
+        indice.poner(2, 11, null, 0, Long.MAX_VALUE, 100_000, null);
+        indice.poner(3, 12, "cobre", 500, 1000, 0, "Norte");
+        indice.poner(4, 13, "HIERRO", 0, Long.MAX_VALUE, 0, null);
+        indice.poner(5, 99, "COBRE", 0, Long.MAX_VALUE, 0, null);   // el propio vendedor
+
+        assertEquals(List.of(1L, 3L, 2L), ids(indice.coincidencias("Cobre", 875, 250_000, "Bodega norte", 99)));
+        assertEquals(List.of(3L), ids(indice.coincidencias("COBRE", 950, 50_000, "NORTE", 99)));
+        assertTrue(indice.quitar(3));
+        assertEquals(List.of(), ids(indice.coincidencias("COBRE", 950, 50_000, "NORTE", 99)));
+        assertEquals(4, indice.size());
+    }
+
+    private double pendientes() {
+        return registry.get("busquedas.alertas.pendientes").gauge().value();
+    }
+
+    private static List<Long> ids(List<IndiceBusquedas.Predicado> predicados) {
+        return predicados.stream().map(IndiceBusquedas.Predicado::id).toList();
+    }
+}
@@ -0,0 +1,360 @@
+package com.chatarra.auth;
+
+import com.chatarra.auth.dto.CrearSubastaDTO;
+import com.chatarra.auth.dto.ElevacionLogDTO;
+import com.chatarra.auth.dto.SubastaDTO;
+import com.chatarra.auth.entity.Oferta;
+import com.chatarra.auth.entity.Usuario;
+import com.chatarra.auth.repository.OfertaRepository;
+import com.chatarra.auth.repository.UsuarioRepository;
+import com.chatarra.auth.security.JwtUtil;
+import com.chatarra.auth.service.EstadisticasPlataformaService;
+import com.chatarra.auth.service.NivelLogService;
+import com.chatarra.auth.service.RefreshTokenService;
+import com.chatarra.auth.service.RelayEventosOfertaService;
+import com.chatarra.auth.service.SubastaService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+/**
+ * Regresiones de acceso a datos por endpoint.
+ *
+ * Para cada endpoint de VendedorController, AdminController, SubastaController y AuthController verifica:
+ * - el número EXACTO de sentencias SQL de una petición (un N+1 o un findByEmail extra lo cambia),
+ *   contadas en el DataSource: incluye las de JdbcTemplate (ver ContadorSql)
+ * - un máximo de bytes asignados por la petición en el hilo que la atiende
+ *
+ * Las escrituras que se hacen después de responder, en otros hilos (relay del outbox, escritor
+ * de pujas), no se cuentan.
+ *
+ * Si un cambio mejora un endpoint, actualizar el valor esperado en la misma PR.
+ * La tabla con los valores medidos se imprime al final del test.
+ */
+@SpringBootTest(classes = AuthApplication.class, properties = {
+        "spring.datasource.url=jdbc:h2:mem:consultas;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "analitica.columnar.habilitado=true",
+        // El relay del outbox solo corre cuando lo llama el test: sus eventos no llegan en medio de una medición
+        "ofertas.eventos.relay.intervalo-ms=3600000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(ContadorSql.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ConsultasPorPeticionTest {
+
+    private static final String PASSWORD = "Clave123!";
+    private static final String SUBASTA = "{\"duracionMinutos\":60,\"precioInicial\":0.40,\"incrementoMinimo\":0.01}";
+    private static final int CALENTAMIENTO = 5;
+    private static final int MEDICIONES = 5;
+
+    private static final com.sun.management.ThreadMXBean HILOS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+    @Autowired
+    private OfertaRepository ofertaRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private JwtUtil jwtUtil;
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    @Autowired
+    private SubastaService subastaService;
+    @Autowired
+    private NivelLogService nivelLogService;
+    @Autowired
+    private RelayEventosOfertaService relayEventosOfertaService;
+    @Autowired
+    private EstadisticasPlataformaService estadisticasPlataformaService;
+
+    private final AtomicInteger secuencia = new AtomicInteger();
+    private final List<String> reporte = new ArrayList<>();
+
+    private Usuario vendedor;
+    private String tokenVendedor;
+    private String tokenAdmin;
+    private Long ofertaVendedorId;
+    private Long subastaId;
+
+    @BeforeAll
+    void preparar() {
+        vendedor = crearUsuario("vendedor-consultas@test.com", Usuario.Rol.VENDEDOR);
+        Usuario admin = crearUsuario("admin-consultas@test.com", Usuario.Rol.ADMIN);
+        // Ofertas de varios vendedores: el listado de admin carga cada vendedor distinto
+        Usuario otro1 = crearUsuario("otro1-consultas@test.com", Usuario.Rol.VENDEDOR);
+        Usuario otro2 = crearUsuario("otro2-consultas@test.com", Usuario.Rol.VENDEDOR);
+
+        for (int i = 0; i < 10; i++) {
+            ofertaVendedorId = crearOferta(vendedor, Oferta.EstadoOferta.values()[i % 4]).getId();
+        }
+        for (int i = 0; i < 5; i++) {
+            crearOferta(otro1, Oferta.EstadoOferta.APROBADA);
+            crearOferta(otro2, Oferta.EstadoOferta.PENDIENTE);
+        }
+
+        tokenVendedor = "Bearer " + jwtUtil.generateToken(vendedor);
+        tokenAdmin = "Bearer " + jwtUtil.generateToken(admin);
+        subastaId = crearSubasta().getId();
+    }
+
+    @AfterAll
+    void imprimirReporte() {
+        System.out.println();
+        System.out.printf("%-40s %6s %12s%n", "endpoint", "sql", "bytes (min)");
+        reporte.forEach(System.out::println);
+    }
+
+    @TestFactory
+    Stream<DynamicTest> endpoints() {
+        return Stream.of(
+                // ========== VENDEDOR ==========
+                caso("GET /vendedor/estadisticas", 7, 850_000,
+                        () -> get("/api/vendedor/estadisticas").header("Authorization", tokenVendedor)),
+                caso("GET /vendedor/ofertas", 3, 600_000,
+                        () -> get("/api/vendedor/ofertas").header("Authorization", tokenVendedor)),
+                caso("GET /vendedor/ofertas/recientes", 2, 550_000,
+                        () -> get("/api/vendedor/ofertas/recientes").header("Authorization", tokenVendedor)),
+                caso("GET /vendedor/ofertas/{id}", 2, 500_000,
+                        () -> get("/api/vendedor/ofertas/" + ofertaVendedorId).header("Authorization", tokenVendedor)),
+                caso("POST /vendedor/ofertas", 3, 650_000,
+                        () -> post("/api/vendedor/ofertas").header("Authorization", tokenVendedor)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"tipoMaterial\":\"COBRE\",\"cantidad\":10,\"precioUnitario\":8.5,"
+                                        + "\"descripcion\":\"Cable\",\"ubicacion\":\"Bodega 1\"}")),
+                caso("PUT /vendedor/ofertas/{id}/cancelar", 4, 650_000,
+                        () -> put("/api/vendedor/ofertas/" + crearOferta(vendedor, Oferta.EstadoOferta.PENDIENTE).getId()
+                                + "/cancelar").header("Authorization", tokenVendedor)),
+                caso("DELETE /vendedor/ofertas/{id}", 4, 650_000,
+                        () -> delete("/api/vendedor/ofertas/" + crearOferta(vendedor, Oferta.EstadoOferta.PENDIENTE).getId())
+                                .header("Authorization", tokenVendedor)),
+
+                // ========== ADMIN ==========
+                caso("GET /admin/usuarios", 1, 450_000,
+                        () -> get("/api/admin/usuarios").header("Authorization", tokenAdmin)),
+                caso("GET /admin/usuarios/{id}", 1, 400_000,
+                        () -> get("/api/admin/usuarios/" + vendedor.getId()).header("Authorization", tokenAdmin)),
+                caso("PUT /admin/usuarios/{id}/rol", 4, 600_000,
+                        () -> put("/api/admin/usuarios/" + crearUsuarioTemporal().getId() + "/rol")
+                                .header("Authorization", tokenAdmin)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"newRole\":\"ADMIN\"}")),
+                caso("PUT /admin/usuarios/{id}/estado", 5, 700_000,
+                        () -> put("/api/admin/usuarios/" + crearUsuarioTemporal().getId() + "/estado")
+                                .header("Authorization", tokenAdmin)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"activo\":false}")),
+                caso("GET /admin/ofertas", 4, 850_000,
+                        () -> get("/api/admin/ofertas").header("Authorization", tokenAdmin)),
+                // Sin caché: por estado, por material y por día, en ofertas y en el archivo
+                caso("GET /admin/estadisticas (sin caché)", 6, 1_400_000,
+                        () -> {
+                            estadisticasPlataformaService.invalidar();
+                            return get("/api/admin/estadisticas").header("Authorization", tokenAdmin);
+                        }),
+                caso("GET /admin/estadisticas (desde la caché)", 0, 400_000,
+                        () -> {
+                            estadisticasPlataformaService.obtener(30);
+                            return get("/api/admin/estadisticas").header("Authorization", tokenAdmin);
+                        }),
+                caso("GET /admin/ofertas/{id}", 1, 400_000,
+                        () -> get("/api/admin/ofertas/" + ofertaVendedorId).header("Authorization", tokenAdmin)),
+                caso("PUT /admin/ofertas/{id}", 4, 600_000,
+                        () -> put("/api/admin/ofertas/" + crearOferta(vendedor, Oferta.EstadoOferta.PENDIENTE).getId())
+                                .header("Authorization", tokenAdmin)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"estado\":\"APROBADA\"}")),
+                caso("PUT /admin/ofertas/{id}/aprobar", 4, 600_000,
+                        () -> put("/api/admin/ofertas/" + crearOferta(vendedor, Oferta.EstadoOferta.PENDIENTE).getId()
+                                + "/aprobar").header("Authorization", tokenAdmin)),
+                caso("PUT /admin/ofertas/{id}/rechazar", 4, 600_000,
+                        () -> put("/api/admin/ofertas/" + crearOferta(vendedor, Oferta.EstadoOferta.PENDIENTE).getId()
+                                + "/rechazar").header("Authorization", tokenAdmin)),
+                caso("PUT /admin/ofertas/{id}/vendida", 6, 700_000,
+                        () -> put("/api/admin/ofertas/" + crearOferta(vendedor, Oferta.EstadoOferta.APROBADA).getId()
+                                + "/vendida").header("Authorization", tokenAdmin)),
+                caso("GET /admin/ventas", 2, 400_000,
+                        () -> get("/api/admin/ventas").param("desde", LocalDate.now().minusDays(30) + "T00:00").param("agrupar", "material,dia")
+                                .header("Authorization", tokenAdmin)),
+                caso("GET /admin/analitica/ofertas", 0, 300_000,
+                        () -> get("/api/admin/analitica/ofertas").param("agrupar", "material")
+                                .header("Authorization", tokenAdmin)),
+                caso("POST /admin/analitica/recargar", 2, 550_000,
+                        () -> {
+                            // Sin cambios pendientes: los que llegan durante la carga se releen de a uno
+                            relayEventosOfertaService.publicarPendientes();
+                            return post("/api/admin/analitica/recargar").header("Authorization", tokenAdmin);
+                        }),
+                caso("GET /admin/ofertas/archivo", 1, 450_000,
+                        () -> get("/api/admin/ofertas/archivo").param("desde", "2020-01-01").param("hasta", "2030-01-01")
+                                .header("Authorization", tokenAdmin)),
+                caso("POST /admin/ofertas/archivo", 1, 450_000,
+                        () -> post("/api/admin/ofertas/archivo").header("Authorization", tokenAdmin)),
+                caso("GET /admin/auditoria (entidad)", 1, 400_000,
+                        () -> get("/api/admin/auditoria").param("entidad", "OFERTA").param("entidadId", ofertaVendedorId.toString())
+                                .header("Authorization", tokenAdmin)),
+                caso("GET /admin/auditoria (actor)", 1, 700_000,
+                        () -> get("/api/admin/auditoria").param("actor", "admin-consultas@test.com")
+                                .header("Authorization", tokenAdmin)),
+                caso("POST /admin/logs/elevaciones", 1, 400_000,
+                        () -> post("/api/admin/logs/elevaciones").header("Authorization", tokenAdmin)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"tipo\":\"USUARIO\",\"valor\":\"elevado" + secuencia.incrementAndGet()
+                                        + "@test.com\",\"minutos\":1}")),
+                caso("GET /admin/logs/elevaciones", 0, 300_000,
+                        () -> get("/api/admin/logs/elevaciones").header("Authorization", tokenAdmin)),
+                caso("DELETE /admin/logs/elevaciones/{tipo}/{valor}", 1, 350_000,
+                        () -> delete("/api/admin/logs/elevaciones/USUARIO/" + crearElevacion())
+                                .header("Authorization", tokenAdmin)),
+
+                // ========== SUBASTAS ==========
+                caso("POST /admin/ofertas/{id}/subasta", 5, 800_000,
+                        () -> post("/api/admin/ofertas/" + crearOferta(vendedor, Oferta.EstadoOferta.APROBADA).getId()
+                                + "/subasta").header("Authorization", tokenAdmin)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(SUBASTA)),
+                caso("POST /admin/subastas/{id}/cerrar", 4, 650_000,
+                        () -> post("/api/admin/subastas/" + crearSubasta().getId() + "/cerrar")
+                                .header("Authorization", tokenAdmin)),
+                caso("POST /admin/subastas/{id}/cancelar", 4, 650_000,
+                        () -> post("/api/admin/subastas/" + crearSubasta().getId() + "/cancelar")
+                                .header("Authorization", tokenAdmin)),
+                caso("GET /subastas", 0, 350_000,
+                        () -> get("/api/subastas").header("Authorization", tokenVendedor)),
+                caso("GET /subastas/{id}", 0, 300_000,
+                        () -> get("/api/subastas/" + subastaId).header("Authorization", tokenVendedor)),
+                caso("GET /subastas/{id}/pujas", 1, 400_000,
+                        () -> get("/api/subastas/" + subastaId + "/pujas").header("Authorization", tokenVendedor)),
+
+                // ========== AUTH ==========
+                caso("POST /auth/register", 4, 3_500_000,
+                        () -> post("/api/auth/register")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"nombreCompleto\":\"Nuevo Usuario\",\"email\":\"nuevo"
+                                        + secuencia.incrementAndGet() + "@test.com\",\"password\":\"" + PASSWORD + "\"}")),
+                caso("POST /auth/login", 4, 3_500_000,
+                        () -> post("/api/auth/login")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"email\":\"" + vendedor.getEmail() + "\",\"password\":\"" + PASSWORD + "\"}")),
+                caso("POST /auth/refresh", 4, 650_000,
+                        () -> post("/api/auth/refresh")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"refreshToken\":\"" + refreshTokenService.emitir(vendedor.getId()) + "\"}")),
+                caso("POST /auth/logout", 3, 600_000,
+                        () -> post("/api/auth/logout")
+                                .header("Authorization", "Bearer " + jwtUtil.generateToken(vendedor))
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"refreshToken\":\"" + refreshTokenService.emitir(vendedor.getId()) + "\"}")),
+                caso("GET /auth/info", 0, 250_000,
+                        () -> get("/api/auth/info"))
+        );
+    }
+
+    /**
+     * @param sqlEsperadas sentencias SQL exactas de una petición
+     * @param maxBytes     máximo de bytes asignados por la petición (mínimo de varias mediciones)
+     * @param peticion     arma la petición; lo que haga antes de devolverla no se mide
+     */
+    private DynamicTest caso(String nombre, int sqlEsperadas, long maxBytes, Supplier<RequestBuilder> peticion) {
+        return DynamicTest.dynamicTest(nombre, () -> {
+            // Calentamiento: JIT y cachés (metadatos de Hibernate, Jackson, Spring MVC)
+            for (int i = 0; i < CALENTAMIENTO; i++) {
+                ejecutar(peticion.get());
+            }
+
+            long minBytes = Long.MAX_VALUE;
+            for (int i = 0; i < MEDICIONES; i++) {
+                RequestBuilder request = peticion.get();
+
+                ContadorSql.reiniciar();
+                long antes = HILOS.getCurrentThreadAllocatedBytes();
+                ejecutar(request);
+                long bytes = HILOS.getCurrentThreadAllocatedBytes() - antes;
+                int sql = ContadorSql.total();
+
+                assertEquals(sqlEsperadas, sql, nombre + ": sentencias SQL por petición");
+                minBytes = Math.min(minBytes, bytes);
+            }
+
+            reporte.add(String.format("%-40s %6d %12d", nombre, sqlEsperadas, minBytes));
+            assertTrue(minBytes <= maxBytes,
+                    nombre + ": " + minBytes + " bytes asignados por petición (máximo " + maxBytes + ")");
+        });
+    }
+
+    private void ejecutar(RequestBuilder request) throws Exception {
+        int estado = mockMvc.perform(request).andReturn().getResponse().getStatus();
+        assertTrue(estado < 400, "Respuesta " + estado);
+    }
+
+    private Usuario crearUsuario(String email, Usuario.Rol rol) {
+        return usuarioRepository.findByEmail(email).orElseGet(() -> usuarioRepository.save(Usuario.builder()
+                .nombreCompleto("Usuario " + email)
+                .email(email)
+                .password(passwordEncoder.encode(PASSWORD))
+                .rol(rol)
+                .activo(true)
+                .build()));
+    }
+
+    private Usuario crearUsuarioTemporal() {
+        return usuarioRepository.save(Usuario.builder()
+                .nombreCompleto("Temporal")
+                .email("temporal" + secuencia.incrementAndGet() + "@test.com")
+                .password("x")
+                .rol(Usuario.Rol.VENDEDOR)
+                .activo(true)
+                .build());
+    }
+
+    private SubastaDTO crearSubasta() {
+        return subastaService.crear(crearOferta(vendedor, Oferta.EstadoOferta.APROBADA).getId(),
+                CrearSubastaDTO.builder().duracionMinutos(60).build());
+    }
+
+    private String crearElevacion() {
+        String valor = "elevado" + secuencia.incrementAndGet() + "@test.com";
+        nivelLogService.elevar(new ElevacionLogDTO("USUARIO", valor, "DEBUG", "com.chatarra", 1, null));
+        return valor;
+    }
+
+    private Oferta crearOferta(Usuario vendedor, Oferta.EstadoOferta estado) {
+        return ofertaRepository.save(Oferta.builder()
+                .vendedor(vendedor)
+                .tipoMaterial("HIERRO")
+                .cantidad(new BigDecimal("100.00"))
+                .precioUnitario(new BigDecimal("0.35"))
+                .descripcion("Oferta de prueba")
+                .ubicacion("Bodega")
+                .estado(estado)
+                .build());
+    }
+}
@@ -0,0 +1,38 @@
+package com.chatarra.auth;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+
+/**
+ * Cuenta las sentencias SQL que se ejecutan contra el DataSource en el hilo actual: las de
+ * Hibernate y también las de JdbcTemplate o JDBC directo. Un lote JDBC cuenta como una.
+ *
+ * Envuelve el DataSource con datasource-proxy; se activa con @Import(ContadorSql.class).
+ * Por hilo para no contar las de las tareas programadas (relay del outbox, limpiezas)
+ * que corren en paralelo al test.
+ */
+public class ContadorSql implements BeanPostProcessor {
+
+    private static final ThreadLocal<int[]> CONTADOR = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return ProxyDataSourceBuilder.create(dataSource)
+                    .name("contador-sql")
+                    .afterQuery((ejecucion, consultas) -> CONTADOR.get()[0]++)
+                    .build();
+        }
+        return bean;
+    }
+
+    public static void reiniciar() {
+        CONTADOR.get()[0] = 0;
+    }
+
+    public static int total() {
+        return CONTADOR.get()[0];
+    }
+}
@@ -0,0 +1,81 @@
+package com.chatarra.auth;
+
+import com.chatarra.auth.entity.Oferta;
+import com.chatarra.auth.entity.Usuario;
+import com.chatarra.auth.repository.OfertaRepository;
+import com.chatarra.auth.repository.UsuarioRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Usuarios y ofertas de prueba guardados directamente en los repositorios (sin pasar por los
+ * servicios, así no se publican eventos ni auditoría). Cada test usa emails propios.
+ *
+ * Está en el paquete de AuthApplication: el escaneo de componentes la registra en todos los
+ * contextos de test sin cambiar su configuración (y por tanto sin crear contextos nuevos).
+ */
+@Component
+public class DatosPrueba {
+
+    private final UsuarioRepository usuarioRepository;
+    private final OfertaRepository ofertaRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public DatosPrueba(UsuarioRepository usuarioRepository, OfertaRepository ofertaRepository,
+                       JdbcTemplate jdbcTemplate) {
+        this.usuarioRepository = usuarioRepository;
+        this.ofertaRepository = ofertaRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Usuario crearUsuario(String email, Usuario.Rol rol) {
+        return usuarioRepository.save(Usuario.builder()
+                .nombreCompleto("Usuario Prueba")
+                .email(email)
+                .password("x")
+                .rol(rol)
+                .activo(true)
+                .build());
+    }
+
+    public Usuario crearVendedor(String email) {
+        return crearUsuario(email, Usuario.Rol.VENDEDOR);
+    }
+
+    /**
+     * 10 kg de cobre a 8.00 en "Bodega Norte", aprobada
+     */
+    public Oferta crearOferta(Usuario vendedor) {
+        return crearOferta(vendedor, "COBRE", "8.00", "Bodega Norte", Oferta.EstadoOferta.APROBADA);
+    }
+
+    /**
+     * 10 kg del material al precio indicado
+     */
+    public Oferta crearOferta(Usuario vendedor, String material, String precio, String ubicacion,
+                              Oferta.EstadoOferta estado) {
+        return ofertaRepository.save(Oferta.builder()
+                .vendedor(vendedor)
+                .tipoMaterial(material)
+                .cantidad(new BigDecimal("10"))
+                .precioUnitario(new BigDecimal(precio))
+                .ubicacion(ubicacion)
+                .estado(estado)
+                .build());
+    }
+
+    /**
+     * Como crearOferta(vendedor) pero con el estado dado y creada hace diasAtras días
+     */
+    public Oferta crearOfertaAntigua(Usuario vendedor, Oferta.EstadoOferta estado, int diasAtras) {
+        Oferta oferta = crearOferta(vendedor, "COBRE", "8.00", "Bodega Norte", estado);
+        // fechaCreacion no es actualizable desde JPA (@PrePersist la fija en ahora)
+        jdbcTemplate.update("UPDATE ofertas SET fecha_creacion = ? WHERE id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusDays(diasAtras)), oferta.getId());
+        return oferta;
+    }
+}
@@ -0,0 +1,53 @@
+package com.chatarra.auth;
+
+import com.chatarra.auth.entity.Cantidad;
+import com.chatarra.auth.entity.Dinero;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reglas de redondeo de Dinero y Cantidad: deben dar lo mismo que BigDecimal redondeado a
+ * la columna (precision = 10, scale = 2, HALF_UP).
+ */
+class DineroTest {
+
+    @Test
+    void totalOfertaCoincideConBigDecimalRedondeado() {
+        String[][] casos = {
+                {"10", "8.50"}, {"0.01", "0.50"}, {"0.03", "0.50"}, {"1234.57", "0.35"},
+                {"4999.99", "9.99"}, {"0.05", "0.01"}, {"99999.99", "999.99"}
+        };
+        for (String[] caso : casos) {
+            BigDecimal kilos = new BigDecimal(caso[0]);
+            BigDecimal precio = new BigDecimal(caso[1]);
+            BigDecimal esperado = kilos.multiply(precio).setScale(2, RoundingMode.HALF_UP);
+            assertEquals(esperado, Dinero.totalOferta(Cantidad.deKilos(kilos), Dinero.de(precio)).aBigDecimal(),
+                    caso[0] + " kg x " + caso[1]);
+        }
+    }
+
+    @Test
+    void redondeaComoLaColumna() {
+        assertEquals(1235, Dinero.centimos(new BigDecimal("12.345")));
+        assertEquals(-1235, Dinero.centimos(new BigDecimal("-12.345")));
+        assertEquals(12_350, Cantidad.gramos(new BigDecimal("12.345")));
+        assertEquals(new BigDecimal("12.35"), Cantidad.aKilos(12_345));
+        assertEquals(new BigDecimal("0.00"), Dinero.CERO.aBigDecimal());
+        assertEquals(0, Dinero.centimos(null));
+
+        assertEquals(new Dinero(3), new Dinero(10).dividir(3));
+        assertEquals(new Dinero(4), new Dinero(7).dividir(2));
+        assertEquals(new Dinero(-4), new Dinero(-7).dividir(2));
+    }
+
+    @Test
+    void rechazaImportesFueraDeLaColumna() {
+        assertThrows(ArithmeticException.class,
+                () -> Dinero.totalOferta(Cantidad.deKilos(new BigDecimal("99999999.99")), Dinero.de(new BigDecimal("2"))));
+        assertThrows(ArithmeticException.class, () -> new Dinero(Long.MAX_VALUE).sumar(new Dinero(1)));
+    }
+}
@@ -0,0 +1,149 @@
+package com.chatarra.auth;
+
+import com.chatarra.auth.dto.CrearOfertaDTO;
+import com.chatarra.auth.dto.CrearReservaDTO;
+import com.chatarra.auth.entity.Oferta;
+import com.chatarra.auth.entity.Reserva;
+import com.chatarra.auth.entity.Usuario;
+import com.chatarra.auth.service.OfertaService;
+import com.chatarra.auth.service.ReservaService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Enrutamiento primaria / réplica (ReplicasConfig).
+ *
+ * La "réplica" es la misma base H2 en memoria abierta con otro pool: siempre está al día,
+ * así que solo se verifica a qué pool va cada transacción (métrica bd.enrutamiento).
+ */
+@SpringBootTest(classes = AuthApplication.class, properties = {
+        "spring.datasource.url=" + EnrutamientoReplicasTest.URL,
+        "bd.replicas.habilitado=true",
+        "bd.replicas.urls=" + EnrutamientoReplicasTest.URL,
+        "bd.replicas.consulta-retraso=SELECT 0"
+})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EnrutamientoReplicasTest {
+
+    static final String URL = "jdbc:h2:mem:replicas;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH";
+
+    @Autowired
+    private OfertaService ofertaService;
+    @Autowired
+    private ReservaService reservaService;
+    @Autowired
+    private DatosPrueba datosPrueba;
+    @Autowired
+    private MeterRegistry registry;
+
+    private Usuario vendedor;
+    private Usuario otroVendedor;
+    private Usuario lector;
+
+    @BeforeAll
+    void preparar() {
+        vendedor = datosPrueba.crearVendedor("replica-vendedor@test.com");
+        otroVendedor = datosPrueba.crearVendedor("replica-otro@test.com");
+        lector = datosPrueba.crearVendedor("replica-lector@test.com");
+    }
+
+    @AfterEach
+    void limpiarSesion() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void lecturasDeSoloLecturaVanALaReplica() {
+        autenticar(lector);
+        double antes = contar("replica-1", "lectura");
+
+        ofertaService.obtenerOfertasPorVendedor(lector.getId());
+        ofertaService.obtenerEstadisticasVendedor(lector.getId());
+
+        assertEquals(antes + 2, contar("replica-1", "lectura"));
+    }
+
+    @Test
+    void escriturasVanALaPrimaria() {
+        autenticar(otroVendedor);
+        double primaria = contar("primaria", "escritura");
+        double replica = contar("replica-1", "lectura");
+
+        ofertaService.crearOferta(otroVendedor.getId(), nuevaOferta());
+
+        // >= y no ==: el relay del outbox también escribe en la primaria en segundo plano
+        assertTrue(contar("primaria", "escritura") >= primaria + 1);
+        assertEquals(replica, contar("replica-1", "lectura"));
+    }
+
+    @Test
+    void elVendedorLeeSusPropiasEscrituras() {
+        autenticar(vendedor);
+        Oferta creada = ofertaService.crearOferta(vendedor.getId(), nuevaOferta());
+        double replica = contar("replica-1", "lectura");
+        double propia = contar("primaria", "lectura-propia");
+
+        List<Oferta> ofertas = ofertaService.obtenerOfertasPorVendedor(vendedor.getId());
+
+        assertTrue(ofertas.stream().anyMatch(o -> o.getId().equals(creada.getId())));
+        assertEquals(propia + 1, contar("primaria", "lectura-propia"));
+        assertEquals(replica, contar("replica-1", "lectura"));
+
+        // Otro usuario sigue leyendo de la réplica
+        autenticar(otroVendedor);
+        ofertaService.obtenerOfertasPorVendedor(vendedor.getId());
+        assertEquals(replica + 1, contar("replica-1", "lectura"));
+    }
+
+    @Test
+    void elCompradorLeeSuReservaRecienHecha() {
+        Usuario comprador = datosPrueba.crearUsuario("replica-comprador@test.com", Usuario.Rol.COMPRADOR);
+        Oferta oferta = datosPrueba.crearOferta(vendedor);
+        autenticar(comprador);
+        Reserva reserva = reservaService.reservar(comprador.getId(), new CrearReservaDTO(oferta.getId(), new BigDecimal("3")));
+        double replica = contar("replica-1", "lectura");
+        double propia = contar("primaria", "lectura-propia");
+
+        List<Reserva> reservas = reservaService.listarDelComprador(comprador.getId());
+
+        assertTrue(reservas.stream().anyMatch(r -> r.getId().equals(reserva.getId())));
+        assertEquals(propia + 1, contar("primaria", "lectura-propia"));
+        assertEquals(replica, contar("replica-1", "lectura"));
+    }
+
+    private double contar(String destino, String motivo) {
+        Counter contador = registry.find("bd.enrutamiento").tags("destino", destino, "motivo", motivo).counter();
+        return contador == null ? 0 : contador.count();
+    }
+
+    private void autenticar(Usuario usuario) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(usuario.getEmail(), null, usuario.getAuthorities()));
+    }
+
+    private static CrearOfertaDTO nuevaOferta() {
+        return CrearOfertaDTO.builder()
+                .tipoMaterial("COBRE")
+                .cantidad(new BigDecimal("10"))
+                .precioUnitario(new BigDecimal("8.50"))
+                .descripcion("Oferta de prueba")
+                .ubicacion("Bodega 1")
+                .build();
+    }
+}
@@ -0,0 +1,46 @@
+package com.chatarra.auth;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import com.chatarra.auth.config.FiltroLogDinamico;
+import com.chatarra.auth.dto.ElevacionLogDTO;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Filtro de logs dinámico: el muestreo cuenta solo las llamadas que escriben y una elevación
+ * sin logger, nivel o duración no pasa la validación.
+ */
+class FiltroLogDinamicoTest {
+
+    @Test
+    void unDebugProtegidoSeMuestreaUnaVezPorLlamada() {
+        Logger logger = new LoggerContext().getLogger("com.chatarra.muestreo");
+        logger.setLevel(Level.DEBUG);
+        FiltroLogDinamico filtro = new FiltroLogDinamico(2);
+
+        int escritos = 0;
+        for (int i = 0; i < 10; i++) {
+            // if (log.isDebugEnabled()) log.debug("...", x)
+            if (filtro.decide(null, logger, Level.DEBUG, null, null, null) != FilterReply.DENY
+                    && filtro.decide(null, logger, Level.DEBUG, "evento {}", new Object[]{i}, null) != FilterReply.DENY) {
+                escritos++;
+            }
+        }
+        assertEquals(5, escritos);
+    }
+
+    @Test
+    void rechazaValoresNulosExplicitos() {
+        Validator validador = Validation.buildDefaultValidatorFactory().getValidator();
+        assertTrue(validador.validate(new ElevacionLogDTO("USUARIO", "a@test.com", "DEBUG", "com.chatarra", 10, null)).isEmpty());
+        assertEquals(1, validador.validate(new ElevacionLogDTO("USUARIO", "a@test.com", "DEBUG", null, 10, null)).size());
+        assertEquals(1, validador.validate(new ElevacionLogDTO("USUARIO", "a@test.com", null, "com.chatarra", 10, null)).size());
+        assertEquals(1, validador.validate(new ElevacionLogDTO("USUARIO", "a@test.com", "DEBUG", "com.chatarra", null, null)).size());
+    }
+}
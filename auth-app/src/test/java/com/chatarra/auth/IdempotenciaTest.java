@@ -0,0 +1,198 @@
+package com.chatarra.auth;
+
+import com.chatarra.auth.entity.Usuario;
+import com.chatarra.auth.repository.RespuestaIdempotenteRepository;
+import com.chatarra.auth.security.JwtUtil;
+import com.chatarra.auth.service.IdempotenciaService;
+import com.chatarra.auth.service.OfertaService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.options;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * Idempotency-Key: los reintentos y los duplicados concurrentes crean una sola oferta, también
+ * entre instancias (tabla idempotencia), y la memoria solo desaloja respuestas guardadas.
+ */
+@SpringBootTest(classes = AuthApplication.class, properties =
+        "spring.datasource.url=jdbc:h2:mem:idempotencia;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class IdempotenciaTest {
+
+    private static final String OFERTA = "{\"tipoMaterial\":\"COBRE\",\"cantidad\":10,\"precioUnitario\":8.5}";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private DatosPrueba datosPrueba;
+    @Autowired
+    private OfertaService ofertaService;
+    @Autowired
+    private JwtUtil jwtUtil;
+    @Autowired
+    private RespuestaIdempotenteRepository respuestaRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void unReintentoRecibeLaMismaRespuestaSinCrearOtraOferta() throws Exception {
+        Usuario vendedor = datosPrueba.crearVendedor("idempotencia-reintento@test.com");
+        String token = "Bearer " + jwtUtil.generateToken(vendedor);
+
+        MvcResult primera = mockMvc.perform(crear(token, "clave-1")).andReturn();
+        MvcResult reintento = mockMvc.perform(crear(token, "clave-1")).andReturn();
+
+        assertEquals(201, primera.getResponse().getStatus());
+        assertNull(primera.getResponse().getHeader("Idempotent-Replayed"));
+        assertEquals(201, reintento.getResponse().getStatus());
+        assertEquals("true", reintento.getResponse().getHeader("Idempotent-Replayed"));
+        assertEquals(primera.getResponse().getContentAsString(), reintento.getResponse().getContentAsString());
+        assertEquals(1, ofertaService.obtenerOfertasPorVendedor(vendedor.getId()).size());
+
+        // Otra clave (o ninguna) es otra petición
+        assertEquals(201, mockMvc.perform(crear(token, "clave-2")).andReturn().getResponse().getStatus());
+        assertEquals(201, mockMvc.perform(crear(token, null)).andReturn().getResponse().getStatus());
+        assertEquals(3, ofertaService.obtenerOfertasPorVendedor(vendedor.getId()).size());
+
+        // La misma clave en otra ruta se rechaza
+        Long id = ofertaService.obtenerOfertasPorVendedor(vendedor.getId()).get(0).getId();
+        assertEquals(422, mockMvc.perform(put("/api/vendedor/ofertas/" + id + "/cancelar")
+                .header("Authorization", token).header("Idempotency-Key", "clave-1")).andReturn().getResponse().getStatus());
+    }
+
+    @Test
+    void losDuplicadosConcurrentesSeEjecutanUnaVez() throws Exception {
+        Usuario vendedor = datosPrueba.crearVendedor("idempotencia-concurrente@test.com");
+        String token = "Bearer " + jwtUtil.generateToken(vendedor);
+
+        ExecutorService hilos = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<MvcResult>> resultados = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                resultados.add(hilos.submit(() -> mockMvc.perform(crear(token, "doble-clic")).andReturn()));
+            }
+            Set<String> cuerpos = resultados.stream().map(f -> {
+                try {
+                    MvcResult r = f.get();
+                    assertEquals(201, r.getResponse().getStatus());
+                    return r.getResponse().getContentAsString();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }).collect(Collectors.toSet());
+            assertEquals(1, cuerpos.size());
+        } finally {
+            hilos.shutdown();
+        }
+        assertEquals(1, ofertaService.obtenerOfertasPorVendedor(vendedor.getId()).size());
+    }
+
+    @Test
+    void otraInstanciaRepiteLaRespuestaGuardadaEnLaTabla() throws Exception {
+        Usuario vendedor = datosPrueba.crearVendedor("idempotencia-tabla@test.com");
+        String token = "Bearer " + jwtUtil.generateToken(vendedor);
+        MvcResult primera = mockMvc.perform(crear(token, "clave-tabla")).andReturn();
+
+        // Otra instancia (o esta tras reiniciar) no tiene la respuesta en memoria
+        IdempotenciaService otra = nuevaInstancia(10);
+        IdempotenciaService.Turno turno = otra.turno(vendedor.getEmail(), "clave-tabla", "POST", "/api/vendedor/ofertas");
+        assertFalse(turno.propio());
+        IdempotenciaService.Respuesta repetida = otra.esperar(turno);
+        assertEquals(201, repetida.estado());
+        assertEquals(primera.getResponse().getContentAsString(), new String(repetida.cuerpo(), StandardCharsets.UTF_8));
+        assertEquals(1, ofertaService.obtenerOfertasPorVendedor(vendedor.getId()).size());
+    }
+
+    @Test
+    void unaClaveEnCursoEnOtraInstanciaNoSeEjecutaDosVeces() throws Exception {
+        IdempotenciaService a = nuevaInstancia(10);
+        IdempotenciaService b = nuevaInstancia(10);
+        IdempotenciaService.Respuesta respuesta =
+                new IdempotenciaService.Respuesta("POST", "/api/admin/x", 200, "text/plain", "hecho".getBytes(StandardCharsets.UTF_8));
+
+        IdempotenciaService.Turno original = a.turno("instancias@test.com", "en-curso", "POST", "/api/admin/x");
+        assertTrue(original.propio());
+        IdempotenciaService.Turno duplicado = b.turno("instancias@test.com", "en-curso", "POST", "/api/admin/x");
+        assertFalse(duplicado.propio());
+
+        ExecutorService hilo = Executors.newSingleThreadExecutor();
+        try {
+            Future<IdempotenciaService.Respuesta> espera = hilo.submit(() -> b.esperar(duplicado));
+            a.completar(original, respuesta);
+            assertEquals("hecho", new String(espera.get().cuerpo(), StandardCharsets.UTF_8));
+        } finally {
+            hilo.shutdown();
+        }
+
+        // Una petición que falla suelta la clave: el reintento en otra instancia se ejecuta
+        IdempotenciaService.Turno fallida = a.turno("instancias@test.com", "fallida", "POST", "/api/admin/x");
+        a.abandonar(fallida, new IllegalStateException("HTTP 500"));
+        assertTrue(b.turno("instancias@test.com", "fallida", "POST", "/api/admin/x").propio());
+    }
+
+    @Test
+    void laMemoriaSoloDesalojaRespuestasGuardadas() {
+        SimpleMeterRegistry registro = new SimpleMeterRegistry();
+        IdempotenciaService servicio = new IdempotenciaService(respuestaRepository, jdbcTemplate, 24, 2, 1000, 300000, registro);
+        for (int i = 0; i < 5; i++) {
+            IdempotenciaService.Turno turno = servicio.turno("memoria@test.com", "k" + i, "POST", "/api/admin/x");
+            servicio.completar(turno, new IdempotenciaService.Respuesta("POST", "/api/admin/x", 200, null, new byte[0]));
+        }
+        assertEquals(2, registro.get("idempotencia.memoria").gauge().value());
+
+        // Las desalojadas se repiten desde la tabla
+        assertFalse(servicio.turno("memoria@test.com", "k0", "POST", "/api/admin/x").propio());
+
+        // Las que están en curso no se desalojan aunque pasen del máximo
+        for (int i = 0; i < 3; i++) {
+            assertTrue(servicio.turno("memoria@test.com", "en-curso-" + i, "POST", "/api/admin/x").propio());
+        }
+        assertTrue(registro.get("idempotencia.memoria").gauge().value() >= 3);
+    }
+
+    @Test
+    void corsPermitePatchYExponeLaCabeceraDeRespuestaRepetida() throws Exception {
+        MvcResult previa = mockMvc.perform(options("/api/vendedor/ofertas")
+                .header("Origin", "http://localhost:5173")
+                .header("Access-Control-Request-Method", "PATCH")).andReturn();
+        assertTrue(previa.getResponse().getHeader("Access-Control-Allow-Methods").contains("PATCH"));
+
+        Usuario vendedor = datosPrueba.crearVendedor("idempotencia-cors@test.com");
+        MvcResult respuesta = mockMvc.perform(crear("Bearer " + jwtUtil.generateToken(vendedor), "clave-cors")
+                .header("Origin", "http://localhost:5173")).andReturn();
+        assertTrue(respuesta.getResponse().getHeader("Access-Control-Expose-Headers").contains("Idempotent-Replayed"));
+    }
+
+    private IdempotenciaService nuevaInstancia(int maximoEnMemoria) {
+        return new IdempotenciaService(respuestaRepository, jdbcTemplate, 24, maximoEnMemoria, 2000, 300000,
+                new SimpleMeterRegistry());
+    }
+
+    private static MockHttpServletRequestBuilder crear(String token, String clave) {
+        MockHttpServletRequestBuilder peticion = post("/api/vendedor/ofertas").header("Authorization", token)
+                .contentType(MediaType.APPLICATION_JSON).content(OFERTA);
+        return clave != null ? peticion.header("Idempotency-Key", clave) : peticion;
+    }
+}
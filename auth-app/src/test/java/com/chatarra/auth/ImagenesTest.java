@@ -0,0 +1,117 @@
+package com.chatarra.auth;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Imágenes públicas: peticiones condicionales (304), rangos (206 / 416) e If-Range con ETag
+ * fuerte, ETag débil y fecha. MockMvc no soporta sendfile: se prueba la copia por tramos.
+ */
+@SpringBootTest(classes = AuthApplication.class, properties =
+        "spring.datasource.url=jdbc:h2:mem:imagenes;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ImagenesTest {
+
+    private static final String URL = "/api/web/imagenes/prueba-rangos.png";
+    private static final String CONTENIDO = "0123456789abcdefghij";
+    private static final Instant MODIFICADO = Instant.parse("2024-03-01T10:15:30Z");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Value("${ofertas.imagenes.directorio}")
+    private String directorio;
+
+    private String etag;
+
+    @BeforeAll
+    void crearImagen() throws Exception {
+        Path archivo = Path.of(directorio).resolve("prueba-rangos.png");
+        Files.createDirectories(archivo.getParent());
+        Files.writeString(archivo, CONTENIDO, StandardCharsets.US_ASCII);
+        Files.setLastModifiedTime(archivo, FileTime.from(MODIFICADO));
+
+        MvcResult completa = mockMvc.perform(get(URL)).andReturn();
+        assertEquals(200, completa.getResponse().getStatus());
+        assertEquals(CONTENIDO, completa.getResponse().getContentAsString());
+        etag = completa.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        assertEquals(fechaHttp(MODIFICADO), completa.getResponse().getHeader(HttpHeaders.LAST_MODIFIED));
+        // La URL no lleva el hash del contenido: se revalida en cada uso
+        assertEquals("public, no-cache", completa.getResponse().getHeader(HttpHeaders.CACHE_CONTROL));
+    }
+
+    @Test
+    void conElEtagVigenteResponde304() throws Exception {
+        MvcResult resultado = mockMvc.perform(get(URL).header(HttpHeaders.IF_NONE_MATCH, "\"otro\", " + etag)).andReturn();
+        assertEquals(304, resultado.getResponse().getStatus());
+        assertEquals(0, resultado.getResponse().getContentAsByteArray().length);
+    }
+
+    @Test
+    void unRangoSatisfacibleResponde206ConElTramo() throws Exception {
+        MvcResult tramo = mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=2-5")).andReturn();
+        assertEquals(206, tramo.getResponse().getStatus());
+        assertEquals("bytes 2-5/20", tramo.getResponse().getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("2345", tramo.getResponse().getContentAsString());
+
+        MvcResult sufijo = mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=-3")).andReturn();
+        assertEquals(206, sufijo.getResponse().getStatus());
+        assertEquals("hij", sufijo.getResponse().getContentAsString());
+    }
+
+    @Test
+    void unRangoFueraDelArchivoResponde416() throws Exception {
+        MvcResult resultado = mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=20-")).andReturn();
+        assertEquals(416, resultado.getResponse().getStatus());
+        assertEquals("bytes */20", resultado.getResponse().getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void ifRangeSoloAceptaElEtagFuerteOLaFechaExacta() throws Exception {
+        assertEquals(206, conIfRange(etag));
+        assertEquals(206, conIfRange(fechaHttp(MODIFICADO)));
+        // Validadores que no coinciden: se envía el archivo completo
+        assertEquals(200, conIfRange("W/" + etag));
+        assertEquals(200, conIfRange("\"otro\""));
+        assertEquals(200, conIfRange(fechaHttp(MODIFICADO.minusSeconds(60))));
+        assertEquals(200, conIfRange("no es una fecha"));
+    }
+
+    private int conIfRange(String validador) throws Exception {
+        MvcResult resultado = mockMvc.perform(get(URL)
+                .header(HttpHeaders.RANGE, "bytes=0-3")
+                .header(HttpHeaders.IF_RANGE, validador)).andReturn();
+        String esperado = resultado.getResponse().getStatus() == 206 ? "0123" : CONTENIDO;
+        assertEquals(esperado, resultado.getResponse().getContentAsString());
+        return resultado.getResponse().getStatus();
+    }
+
+    private static String fechaHttp(Instant instante) {
+        return DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US)
+                .format(instante.atZone(ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,63 @@
+package com.chatarra.auth;
+
+import com.chatarra.auth.exception.DemasiadosIntentosException;
+import com.chatarra.auth.security.LimitadorLogin;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Limitador de login con los mapas llenos: las claves nuevas no comparten una cubeta
+ * global y los bloqueos siguen contando.
+ */
+@SpringBootTest(classes = {LimitadorLogin.class, SimpleMeterRegistry.class},
+        properties = "login.limite.max-claves=10")
+class LimitadorLoginTest {
+
+    @Autowired
+    private LimitadorLogin limitadorLogin;
+
+    @Test
+    void conElMapaLlenoUnaCuentaNuevaSeBloqueaSinAfectarAOtras() {
+        llenar("lleno");
+
+        // Los fallos de una cuenta nueva se cuentan y la bloquean
+        for (int i = 0; i < 5; i++) {
+            limitadorLogin.verificar("10.1.0." + i, "victima@test.com");
+            limitadorLogin.registrarFallo("10.1.0." + i, "victima@test.com");
+        }
+        assertThrows(DemasiadosIntentosException.class,
+                () -> limitadorLogin.verificar("10.1.1.1", "victima@test.com"));
+
+        // Otras cuentas nuevas entran aunque el atacante siga creando claves
+        llenar("mas");
+        for (int i = 0; i < 5; i++) {
+            String email = "nuevo" + i + "@test.com";
+            assertDoesNotThrow(() -> limitadorLogin.verificar("10.2.0.1", email));
+        }
+    }
+
+    @Test
+    void losBloqueosVigentesNoSeDesalojan() {
+        for (int i = 0; i < 5; i++) {
+            limitadorLogin.verificar("10.3.0." + i, "bloqueada@test.com");
+            limitadorLogin.registrarFallo("10.3.0." + i, "bloqueada@test.com");
+        }
+        llenar("desalojo");
+
+        assertThrows(DemasiadosIntentosException.class,
+                () -> limitadorLogin.verificar("10.3.1.1", "bloqueada@test.com"));
+    }
+
+    /**
+     * Un intento por clave con IPs y emails distintos, tres veces el máximo de claves
+     */
+    private void llenar(String prefijo) {
+        for (int i = 0; i < 30; i++) {
+            limitadorLogin.verificar("10.9." + prefijo.length() + "." + i, prefijo + i + "@test.com");
+        }
+    }
+}
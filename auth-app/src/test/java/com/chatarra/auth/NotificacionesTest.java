@@ -0,0 +1,117 @@
+package com.chatarra.auth;
+
+import com.chatarra.auth.dto.CrearOfertaDTO;
+import com.chatarra.auth.entity.Notificacion;
+import com.chatarra.auth.entity.Oferta;
+import com.chatarra.auth.entity.Usuario;
+import com.chatarra.auth.repository.NotificacionRepository;
+import com.chatarra.auth.service.NotificacionService;
+import com.chatarra.auth.service.OfertaService;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Notificaciones: encolado desde el outbox, bandeja, webhook con reintento y deduplicación.
+ */
+@SpringBootTest(classes = AuthApplication.class, properties = {
+        "spring.datasource.url=jdbc:h2:mem:notificaciones;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "ofertas.eventos.relay.intervalo-ms=50",
+        "notificaciones.despacho.intervalo-ms=50",
+        "notificaciones.reintentos.base-ms=50"
+})
+@ActiveProfiles("test")
+class NotificacionesTest {
+
+    // Receptor del webhook: falla la primera llamada y acepta las siguientes
+    private static final AtomicInteger llamadas = new AtomicInteger();
+    private static final HttpServer receptor;
+
+    static {
+        try {
+            receptor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        receptor.createContext("/webhook", intercambio -> {
+            intercambio.getRequestBody().readAllBytes();
+            intercambio.sendResponseHeaders(llamadas.incrementAndGet() == 1 ? 500 : 200, -1);
+            intercambio.close();
+        });
+        receptor.start();
+    }
+
+    @DynamicPropertySource
+    static void webhook(DynamicPropertyRegistry registry) {
+        registry.add("notificaciones.webhook.url",
+                () -> "http://127.0.0.1:" + receptor.getAddress().getPort() + "/webhook");
+    }
+
+    @AfterAll
+    static void detenerReceptor() {
+        receptor.stop(0);
+    }
+
+    @Autowired
+    private NotificacionService notificacionService;
+    @Autowired
+    private NotificacionRepository notificacionRepository;
+    @Autowired
+    private OfertaService ofertaService;
+    @Autowired
+    private DatosPrueba datosPrueba;
+
+    @Test
+    void avisaAlVendedorCuandoSeApruebaSuOferta() throws InterruptedException {
+        Usuario vendedor = datosPrueba.crearVendedor("notificaciones-vendedor@test.com");
+        Oferta oferta = ofertaService.crearOferta(vendedor.getId(), CrearOfertaDTO.builder()
+                .tipoMaterial("Aluminio").cantidad(new BigDecimal("120")).precioUnitario(new BigDecimal("1.40"))
+                .ubicacion("Bodega Sur").build());
+        ofertaService.cambiarEstadoOfertaAdmin(oferta.getId(), Oferta.EstadoOferta.APROBADA);
+
+        long espera = System.currentTimeMillis() + 10000;
+        while (webhook(vendedor.getId()).stream().noneMatch(n -> n.getEstado() == Notificacion.EstadoNotificacion.ENVIADA)
+                && System.currentTimeMillis() < espera) {
+            Thread.sleep(50);
+        }
+
+        List<Notificacion> bandeja = notificacionService.bandeja(vendedor.getId(), 10);
+        assertEquals(1, bandeja.size());
+        assertEquals("Tu oferta fue aprobada", bandeja.get(0).getAsunto());
+        assertEquals(1, notificacionService.noLeidas(vendedor.getId()));
+
+        // El primer POST respondió 500: se reintentó y quedó enviada en el segundo intento
+        List<Notificacion> webhook = webhook(vendedor.getId());
+        assertEquals(1, webhook.size());
+        assertEquals(Notificacion.EstadoNotificacion.ENVIADA, webhook.get(0).getEstado());
+        assertEquals(2, webhook.get(0).getIntentos());
+        assertEquals(2, llamadas.get());
+
+        // Misma clave: no se encola de nuevo
+        notificacionService.encolar(vendedor.getId(), "prueba-duplicada", "Hola", "Mensaje");
+        notificacionService.encolar(vendedor.getId(), "prueba-duplicada", "Hola", "Mensaje");
+        assertEquals(2, notificacionService.bandeja(vendedor.getId(), 10).size());
+
+        assertEquals(2, notificacionService.marcarLeidas(vendedor.getId()));
+        assertEquals(0, notificacionService.noLeidas(vendedor.getId()));
+    }
+
+    private List<Notificacion> webhook(Long usuarioId) {
+        return notificacionRepository.findByUsuarioIdAndCanalOrderByIdDesc(usuarioId, Notificacion.Canal.WEBHOOK,
+                Limit.of(10));
+    }
+}
@@ -0,0 +1,68 @@
+package com.chatarra.auth;
+
+import com.chatarra.auth.entity.Usuario;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Perfil "persistencia": las escrituras con JdbcTemplate fuera de una transacción se confirman
+ * y Oferta toma los ids de la secuencia en bloques de 50.
+ */
+@SpringBootTest(classes = AuthApplication.class, properties =
+        // Las propiedades del driver PostgreSQL del perfil no existen en H2
+        "spring.datasource.url=jdbc:h2:mem:persistencia;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;"
+                + "DEFAULT_NULL_ORDERING=HIGH;IGNORE_UNKNOWN_SETTINGS=TRUE")
+@ActiveProfiles({"test", "persistencia"})
+class PerfilPersistenciaTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private DatosPrueba datosPrueba;
+
+    @Test
+    void lasEscriturasFueraDeTransaccionSeConfirman() throws Exception {
+        assertTrue(dataSource.unwrap(HikariDataSource.class).isAutoCommit());
+
+        try (Connection escritura = dataSource.getConnection()) {
+            new JdbcTemplate(new SingleConnectionDataSource(escritura, true)).update(
+                    "INSERT INTO alertas_busqueda (busqueda_id, comprador_id, oferta_id, fecha, leida) "
+                            + "VALUES (1, 1, 1, CURRENT_TIMESTAMP, FALSE)");
+
+            // Otra conexión del pool, con la primera todavía tomada, la ve: no quedó sin confirmar
+            try (Connection lectura = dataSource.getConnection();
+                 Statement consulta = lectura.createStatement();
+                 ResultSet filas = consulta.executeQuery("SELECT COUNT(*) FROM alertas_busqueda")) {
+                assertNotSame(escritura.unwrap(Connection.class), lectura.unwrap(Connection.class));
+                assertTrue(filas.next());
+                assertEquals(1, filas.getInt(1));
+            }
+        }
+    }
+
+    @Test
+    void lasOfertasTomanIdsDeLaSecuenciaEnBloques() {
+        assertEquals(50, jdbcTemplate.queryForObject(
+                "SELECT increment FROM information_schema.sequences WHERE sequence_name = 'ofertas_id_seq'", Long.class));
+
+        Usuario vendedor = datosPrueba.crearVendedor("persistencia-secuencia@test.com");
+        long primera = datosPrueba.crearOferta(vendedor).getId();
+        long segunda = datosPrueba.crearOferta(vendedor).getId();
+        // Del mismo bloque: la segunda no pidió otro valor a la secuencia
+        assertEquals(primera + 1, segunda);
+    }
+}
@@ -0,0 +1,95 @@
+package com.chatarra.auth;
+
+import com.chatarra.auth.entity.EventoOferta;
+import com.chatarra.auth.entity.Oferta;
+import com.chatarra.auth.repository.EventoOfertaRepository;
+import com.chatarra.auth.service.RelayEventosOfertaService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Relay del outbox: un lote revertido se vuelve a entregar completo.
+ */
+@SpringBootTest(classes = {AuthApplication.class, RelayEventosOfertaTest.Suscriptores.class}, properties = {
+        "spring.datasource.url=jdbc:h2:mem:relay;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        // El test llama al relay directamente
+        "ofertas.eventos.relay.intervalo-ms=3600000"
+})
+@ActiveProfiles("test")
+class RelayEventosOfertaTest {
+
+    @Autowired
+    private RelayEventosOfertaService relay;
+    @Autowired
+    private EventoOfertaRepository eventoOfertaRepository;
+    @Autowired
+    private Suscriptores suscriptores;
+
+    @Test
+    void unLoteRevertidoNoQuedaPublicadoYSeVuelveAEntregar() {
+        relay.publicarPendientes();
+        EventoOferta primero = guardarEvento(1001L);
+        EventoOferta segundo = guardarEvento(1002L);
+        suscriptores.recibidos.clear();
+        suscriptores.confirmados.clear();
+
+        // El suscriptor falla al recibir el segundo: el lote entero se revierte
+        suscriptores.fallar.set(true);
+        assertThrows(IllegalStateException.class, () -> relay.publicarPendientes());
+        assertFalse(eventoOfertaRepository.findById(primero.getId()).orElseThrow().getPublicado());
+        assertTrue(suscriptores.confirmados.isEmpty());
+
+        relay.publicarPendientes();
+        assertTrue(eventoOfertaRepository.findById(primero.getId()).orElseThrow().getPublicado());
+        assertTrue(eventoOfertaRepository.findById(segundo.getId()).orElseThrow().getPublicado());
+        // El primero se entregó dos veces dentro de la transacción y una sola después del commit
+        assertEquals(List.of(primero.getId(), segundo.getId(), primero.getId(), segundo.getId()), suscriptores.recibidos);
+        assertEquals(List.of(primero.getId(), segundo.getId()), suscriptores.confirmados);
+    }
+
+    private EventoOferta guardarEvento(Long ofertaId) {
+        return eventoOfertaRepository.save(EventoOferta.builder()
+                .tipo(EventoOferta.TipoEvento.ESTADO_CAMBIADO)
+                .ofertaId(ofertaId)
+                .vendedorId(1L)
+                .estadoAnterior(Oferta.EstadoOferta.PENDIENTE)
+                .estadoNuevo(Oferta.EstadoOferta.RECHAZADA)
+                .tipoMaterial("COBRE")
+                .cantidad(BigDecimal.TEN)
+                .build());
+    }
+
+    @TestConfiguration
+    static class Suscriptores {
+
+        final List<Long> recibidos = new CopyOnWriteArrayList<>();
+        final List<Long> confirmados = new CopyOnWriteArrayList<>();
+        final AtomicBoolean fallar = new AtomicBoolean();
+
+        @EventListener
+        public void recibir(EventoOferta evento) {
+            recibidos.add(evento.getId());
+            if (recibidos.size() == 2 && fallar.getAndSet(false)) {
+                throw new IllegalStateException("fallo del suscriptor");
+            }
+        }
+
+        @TransactionalEventListener
+        public void confirmar(EventoOferta evento) {
+            confirmados.add(evento.getId());
+        }
+    }
+}
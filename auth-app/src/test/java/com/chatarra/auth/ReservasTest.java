@@ -0,0 +1,178 @@
+package com.chatarra.auth;
+
+import com.chatarra.auth.dto.CrearReservaDTO;
+import com.chatarra.auth.entity.Oferta;
+import com.chatarra.auth.entity.Reserva;
+import com.chatarra.auth.entity.Subasta;
+import com.chatarra.auth.entity.Usuario;
+import com.chatarra.auth.repository.OfertaRepository;
+import com.chatarra.auth.repository.ReservaRepository;
+import com.chatarra.auth.repository.SubastaRepository;
+import com.chatarra.auth.service.OfertaService;
+import com.chatarra.auth.service.ReservaService;
+import com.chatarra.auth.service.RuedaTemporizadores;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reservas: sin sobreventa con compradores concurrentes, VENDIDA al agotarse, cancelación,
+ * expiración con la rueda de temporizadores, ventas manuales y subastas.
+ */
+@SpringBootTest(classes = AuthApplication.class, properties = {
+        "spring.datasource.url=jdbc:h2:mem:reservas;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "reservas.expiracion-s=1",
+        "reservas.rueda.tick-ms=100"
+})
+@ActiveProfiles("test")
+class ReservasTest {
+
+    @Autowired
+    private ReservaService reservaService;
+    @Autowired
+    private ReservaRepository reservaRepository;
+    @Autowired
+    private OfertaRepository ofertaRepository;
+    @Autowired
+    private DatosPrueba datosPrueba;
+    @Autowired
+    private SubastaRepository subastaRepository;
+    @Autowired
+    private OfertaService ofertaService;
+
+    @Test
+    void noVendeMasDeLoDisponibleYVuelveAAprobadaAlLiberar() throws Exception {
+        Usuario vendedor = datosPrueba.crearUsuario("reservas-vendedor@test.com", Usuario.Rol.VENDEDOR);
+        Oferta oferta = datosPrueba.crearOferta(vendedor);
+        int compradores = 8;
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < compradores; i++) {
+            ids.add(datosPrueba.crearUsuario("reservas-comprador" + i + "@test.com", Usuario.Rol.COMPRADOR).getId());
+        }
+
+        // 8 compradores piden 3 kg de 10: solo 3 reservas caben
+        ExecutorService hilos = Executors.newFixedThreadPool(compradores);
+        List<Future<Reserva>> intentos = new ArrayList<>();
+        for (Long compradorId : ids) {
+            intentos.add(hilos.submit(() -> {
+                try {
+                    return reservaService.reservar(compradorId, new CrearReservaDTO(oferta.getId(), new BigDecimal("3")));
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+            }));
+        }
+        List<Reserva> reservas = new ArrayList<>();
+        for (Future<Reserva> intento : intentos) {
+            if (intento.get() != null) {
+                reservas.add(intento.get());
+            }
+        }
+        hilos.shutdown();
+        assertEquals(3, reservas.size());
+        assertEquals(0, new BigDecimal("1").compareTo(disponible(oferta)));
+        assertEquals(0, new BigDecimal("24.00").compareTo(reservas.get(0).getTotal()));
+
+        // El último kg agota la oferta
+        Long ultimo = reservas.stream().map(Reserva::getCompradorId).toList().contains(ids.get(0)) ? ids.get(1) : ids.get(0);
+        Reserva ultima = reservaService.reservar(ultimo, new CrearReservaDTO(oferta.getId(), new BigDecimal("1")));
+        assertEquals(Oferta.EstadoOferta.VENDIDA, estado(oferta));
+        assertThrows(IllegalArgumentException.class,
+                () -> reservaService.reservar(ultimo, new CrearReservaDTO(oferta.getId(), new BigDecimal("0.01"))));
+
+        reservaService.confirmar(ultima.getId(), ultimo);
+        Reserva cancelada = reservaService.cancelar(reservas.get(0).getId(), reservas.get(0).getCompradorId());
+        assertEquals(Reserva.EstadoReserva.CANCELADA, cancelada.getEstado());
+        assertEquals(Oferta.EstadoOferta.APROBADA, estado(oferta));
+        assertEquals(0, new BigDecimal("3").compareTo(disponible(oferta)));
+        assertThrows(IllegalArgumentException.class,
+                () -> reservaService.confirmar(cancelada.getId(), cancelada.getCompradorId()));
+
+        // Las otras dos vencen sin confirmar (expiracion-s=1)
+        long espera = System.currentTimeMillis() + 5000;
+        while (disponible(oferta).compareTo(new BigDecimal("9")) < 0 && System.currentTimeMillis() < espera) {
+            Thread.sleep(100);
+        }
+        assertEquals(0, new BigDecimal("9").compareTo(disponible(oferta)));
+        assertEquals(Reserva.EstadoReserva.EXPIRADA, reservaRepository.findById(reservas.get(1).getId()).orElseThrow().getEstado());
+        assertEquals(Reserva.EstadoReserva.CONFIRMADA, reservaRepository.findById(ultima.getId()).orElseThrow().getEstado());
+    }
+
+    @Test
+    void soloSeDeshaceLaVentaCausadaPorReservasYNoSeConfirmaSobreUnaOfertaCerrada() {
+        Usuario vendedor = datosPrueba.crearUsuario("reservas-manual-vendedor@test.com", Usuario.Rol.VENDEDOR);
+        Long comprador = datosPrueba.crearUsuario("reservas-manual-comprador@test.com", Usuario.Rol.COMPRADOR).getId();
+
+        // Vendida a mano por un admin con una reserva pendiente: liberarla no la devuelve a APROBADA
+        Oferta vendida = datosPrueba.crearOferta(vendedor);
+        Reserva reserva = reservaService.reservar(comprador, new CrearReservaDTO(vendida.getId(), new BigDecimal("3")));
+        ofertaService.cambiarEstadoOfertaAdmin(vendida.getId(), Oferta.EstadoOferta.VENDIDA);
+        reservaService.cancelar(reserva.getId(), comprador);
+        assertEquals(Oferta.EstadoOferta.VENDIDA, estado(vendida));
+
+        // Rechazada con una reserva pendiente: la reserva ya no se confirma
+        Oferta rechazada = datosPrueba.crearOferta(vendedor);
+        Reserva otra = reservaService.reservar(comprador, new CrearReservaDTO(rechazada.getId(), new BigDecimal("3")));
+        ofertaService.cambiarEstadoOfertaAdmin(rechazada.getId(), Oferta.EstadoOferta.RECHAZADA);
+        assertThrows(IllegalArgumentException.class, () -> reservaService.confirmar(otra.getId(), comprador));
+        assertEquals(Reserva.EstadoReserva.PENDIENTE, reservaRepository.findById(otra.getId()).orElseThrow().getEstado());
+    }
+
+    @Test
+    void noSeReservaUnaOfertaConSubastaAbiertaAunqueNoEsteEnMemoria() {
+        Usuario vendedor = datosPrueba.crearUsuario("reservas-subasta-vendedor@test.com", Usuario.Rol.VENDEDOR);
+        Long comprador = datosPrueba.crearUsuario("reservas-subasta-comprador@test.com", Usuario.Rol.COMPRADOR).getId();
+        Oferta oferta = datosPrueba.crearOferta(vendedor);
+        // Subasta confirmada en la base de datos y aún no registrada en MotorSubastas
+        subastaRepository.save(Subasta.builder()
+                .ofertaId(oferta.getId())
+                .vendedorId(vendedor.getId())
+                .precioInicial(new BigDecimal("8.00"))
+                .incrementoMinimo(new BigDecimal("0.01"))
+                .inicio(LocalDateTime.now())
+                .fin(LocalDateTime.now().plusMinutes(5))
+                .extensiones(0)
+                .pujas(0)
+                .estado(Subasta.EstadoSubasta.ABIERTA)
+                .build());
+
+        assertThrows(RuntimeException.class,
+                () -> reservaService.reservar(comprador, new CrearReservaDTO(oferta.getId(), new BigDecimal("3"))));
+        assertEquals(0, new BigDecimal("10").compareTo(disponible(oferta)));
+    }
+
+    @Test
+    void ruedaVenceCadaClaveEnSuTickAunqueDeVariasVueltas() {
+        RuedaTemporizadores<String> rueda = new RuedaTemporizadores<>(4, 10, 0);
+        rueda.programar("pronto", 25);
+        rueda.programar("lejos", 95);   // más de dos vueltas de 40 ms
+        rueda.programar("cancelada", 25);
+        rueda.programar("vencida", -5);
+        assertTrue(rueda.cancelar("cancelada"));
+
+        assertEquals(List.of("vencida"), rueda.avanzar(20));
+        assertEquals(List.of("pronto"), rueda.avanzar(30));
+        assertEquals(List.of(), rueda.avanzar(90));
+        assertEquals(List.of("lejos"), rueda.avanzar(100));
+        assertEquals(0, rueda.size());
+    }
+
+    private BigDecimal disponible(Oferta oferta) {
+        return ofertaRepository.findById(oferta.getId()).orElseThrow().getCantidadDisponible();
+    }
+
+    private Oferta.EstadoOferta estado(Oferta oferta) {
+        return ofertaRepository.findById(oferta.getId()).orElseThrow().getEstado();
+    }
+}
@@ -0,0 +1,281 @@
+package com.chatarra.auth;
+
+import com.chatarra.auth.dto.CrearSubastaDTO;
+import com.chatarra.auth.dto.SubastaDTO;
+import com.chatarra.auth.entity.Oferta;
+import com.chatarra.auth.entity.Puja;
+import com.chatarra.auth.entity.Usuario;
+import com.chatarra.auth.repository.OfertaRepository;
+import com.chatarra.auth.repository.SubastaRepository;
+import com.chatarra.auth.service.MotorSubastas;
+import com.chatarra.auth.service.OfertaService;
+import com.chatarra.auth.service.SubastaService;
+import org.h2.api.Trigger;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Subastas: validación y orden de las pujas, anti-sniping, adjudicación, pujas concurrentes,
+ * lotes fallidos y aperturas concurrentes.
+ */
+@SpringBootTest(classes = AuthApplication.class)
+@ActiveProfiles("test")
+class SubastasTest {
+
+    @Autowired
+    private SubastaService subastaService;
+    @Autowired
+    private OfertaService ofertaService;
+    @Autowired
+    private OfertaRepository ofertaRepository;
+    @Autowired
+    private DatosPrueba datosPrueba;
+    @Autowired
+    private MotorSubastas motorSubastas;
+    @Autowired
+    private SubastaRepository subastaRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void validaPujasExtiendeElFinYAdjudica() {
+        Usuario vendedor = datosPrueba.crearVendedor("subasta-vendedor@test.com");
+        datosPrueba.crearVendedor("subasta-postor1@test.com");
+        datosPrueba.crearVendedor("subasta-postor2@test.com");
+        Oferta oferta = datosPrueba.crearOferta(vendedor);
+
+        SubastaDTO abierta = subastaService.crear(oferta.getId(), new CrearSubastaDTO(1, null, new BigDecimal("0.50")));
+        assertEquals(0, new BigDecimal("8.00").compareTo(abierta.getPujaMinima()));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> subastaService.pujar(abierta.getId(), "subasta-vendedor@test.com", new BigDecimal("9")));
+        assertThrows(IllegalArgumentException.class,
+                () -> subastaService.pujar(abierta.getId(), "subasta-postor1@test.com", new BigDecimal("7.99")));
+
+        // Queda menos de un minuto: la puja extiende el fin (anti-sniping)
+        SubastaDTO primera = subastaService.pujar(abierta.getId(), "subasta-postor1@test.com", new BigDecimal("8.00"));
+        assertEquals(1, primera.getPujas());
+        assertEquals(1, primera.getExtensiones());
+        assertTrue(primera.getFin().isAfter(abierta.getFin()));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> subastaService.pujar(abierta.getId(), "subasta-postor2@test.com", new BigDecimal("8.20")));
+        SubastaDTO segunda = subastaService.pujar(abierta.getId(), "subasta-postor2@test.com", new BigDecimal("8.50"));
+        assertEquals(2, segunda.getPujas());
+
+        // Con la subasta abierta el estado de la oferta no se cambia a mano
+        assertThrows(RuntimeException.class,
+                () -> ofertaService.cambiarEstadoOfertaAdmin(oferta.getId(), Oferta.EstadoOferta.VENDIDA));
+
+        SubastaDTO cerrada = subastaService.cerrar(abierta.getId());
+        assertEquals("ADJUDICADA", cerrada.getEstado());
+        assertEquals(segunda.getMejorPostorId(), cerrada.getMejorPostorId());
+
+        Oferta vendida = ofertaRepository.findById(oferta.getId()).orElseThrow();
+        assertEquals(Oferta.EstadoOferta.VENDIDA, vendida.getEstado());
+        assertEquals(0, new BigDecimal("8.50").compareTo(vendida.getPrecioUnitario()));
+        assertEquals(0, new BigDecimal("85.00").compareTo(vendida.getPrecioTotal()));
+
+        List<Puja> pujas = subastaService.ultimasPujas(abierta.getId(), 10);
+        assertEquals(List.of(2, 1), pujas.stream().map(Puja::getSecuencia).toList());
+        assertThrows(IllegalArgumentException.class,
+                () -> subastaService.pujar(abierta.getId(), "subasta-postor1@test.com", new BigDecimal("20")));
+    }
+
+    @Test
+    void pujasConcurrentesQuedanEnOrdenEstricto() throws Exception {
+        Usuario vendedor = datosPrueba.crearVendedor("subasta-concurrente@test.com");
+        int postores = 8;
+        for (int i = 0; i < postores; i++) {
+            datosPrueba.crearVendedor("subasta-concurrente" + i + "@test.com");
+        }
+        Oferta oferta = datosPrueba.crearOferta(vendedor);
+        Long subastaId = subastaService.crear(oferta.getId(),
+                new CrearSubastaDTO(60, new BigDecimal("1.00"), new BigDecimal("0.01"))).getId();
+
+        // Cada postor intenta superar la mejor puja vigente; muchas se rechazan por llegar tarde
+        ExecutorService hilos = Executors.newFixedThreadPool(postores);
+        List<Future<Integer>> aceptadas = new ArrayList<>();
+        for (int i = 0; i < postores; i++) {
+            String email = "subasta-concurrente" + i + "@test.com";
+            aceptadas.add(hilos.submit(() -> {
+                int ok = 0;
+                for (int n = 0; n < 50; n++) {
+                    try {
+                        subastaService.pujar(subastaId, email, subastaService.obtener(subastaId).getPujaMinima());
+                        ok++;
+                    } catch (IllegalArgumentException e) {
+                        // Otra puja llegó antes
+                    }
+                }
+                return ok;
+            }));
+        }
+        int total = 0;
+        for (Future<Integer> f : aceptadas) {
+            total += f.get();
+        }
+        hilos.shutdown();
+
+        List<Puja> pujas = subastaService.ultimasPujas(subastaId, 1000);
+        assertEquals(total, pujas.size());
+        assertEquals(total, subastaService.obtener(subastaId).getPujas());
+        for (int i = 0; i < pujas.size(); i++) {
+            assertEquals(total - i, pujas.get(i).getSecuencia());
+            if (i > 0) {
+                assertTrue(pujas.get(i - 1).getPrecio().compareTo(pujas.get(i).getPrecio()) > 0);
+            }
+        }
+        subastaService.cancelar(subastaId);
+        assertEquals(Oferta.EstadoOferta.APROBADA, ofertaRepository.findById(oferta.getId()).orElseThrow().getEstado());
+    }
+
+    @Test
+    void unLoteFallidoRechazaTambienLasPujasEncoladasSobreEl() throws Exception {
+        Usuario vendedor = datosPrueba.crearVendedor("subasta-fallo@test.com");
+        Long postor1 = datosPrueba.crearVendedor("subasta-fallo1@test.com").getId();
+        Long postor2 = datosPrueba.crearVendedor("subasta-fallo2@test.com").getId();
+        Oferta oferta = datosPrueba.crearOferta(vendedor);
+        Long subastaId = subastaService.crear(oferta.getId(),
+                new CrearSubastaDTO(60, new BigDecimal("1.00"), new BigDecimal("0.01"))).getId();
+
+        jdbcTemplate.execute("CREATE TRIGGER falla_puja BEFORE INSERT ON pujas FOR EACH ROW CALL \""
+                + FallaPuja.class.getName() + "\"");
+        try {
+            CompletableFuture<SubastaDTO> primera = motorSubastas.pujar(subastaId, postor1, new BigDecimal("1.00"));
+            // El escritor está guardando la primera: la segunda se acepta sobre ella y queda en cola
+            assertTrue(FallaPuja.ESCRIBIENDO.await(5, TimeUnit.SECONDS));
+            CompletableFuture<SubastaDTO> segunda = motorSubastas.pujar(subastaId, postor2, new BigDecimal("1.01"));
+            FallaPuja.FALLAR.countDown();
+
+            assertThrows(ExecutionException.class, () -> primera.get(5, TimeUnit.SECONDS));
+            assertThrows(ExecutionException.class, () -> segunda.get(5, TimeUnit.SECONDS));
+        } finally {
+            jdbcTemplate.execute("DROP TRIGGER falla_puja");
+        }
+
+        // Ninguna de las dos quedó escrita; la subasta sigue desde el estado guardado
+        assertEquals(0, subastaService.obtener(subastaId).getPujas());
+        assertEquals(1, subastaService.pujar(subastaId, "subasta-fallo2@test.com", new BigDecimal("1.00")).getPujas());
+        assertEquals(List.of(1), subastaService.ultimasPujas(subastaId, 10).stream().map(Puja::getSecuencia).toList());
+        subastaService.cancelar(subastaId);
+    }
+
+    @Test
+    void dosAperturasConcurrentesDejanUnaSolaSubastaAbierta() throws Exception {
+        Oferta oferta = datosPrueba.crearOferta(datosPrueba.crearVendedor("subasta-doble@test.com"));
+
+        ExecutorService hilos = Executors.newFixedThreadPool(4);
+        List<Future<Long>> intentos = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            intentos.add(hilos.submit(() -> {
+                try {
+                    return subastaService.crear(oferta.getId(), new CrearSubastaDTO(60, null, null)).getId();
+                } catch (RuntimeException e) {
+                    return null;
+                }
+            }));
+        }
+        List<Long> abiertas = new ArrayList<>();
+        for (Future<Long> intento : intentos) {
+            if (intento.get() != null) {
+                abiertas.add(intento.get());
+            }
+        }
+        hilos.shutdown();
+
+        assertEquals(1, abiertas.size());
+        subastaService.cancelar(abiertas.get(0));
+    }
+
+    @Test
+    void dosCierresALaVezLiquidanLaSubastaUnaSolaVez() throws Exception {
+        Usuario vendedor = datosPrueba.crearVendedor("subasta-cierre@test.com");
+        datosPrueba.crearVendedor("subasta-cierre-postor@test.com");
+        Oferta oferta = datosPrueba.crearOferta(vendedor);
+        Long subastaId = subastaService.crear(oferta.getId(), new CrearSubastaDTO(60, null, null)).getId();
+        subastaService.pujar(subastaId, "subasta-cierre-postor@test.com", new BigDecimal("8.00"));
+
+        // Un cierre del admin y una cancelación a la vez: solo uno liquida la subasta
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService hilos = Executors.newFixedThreadPool(2);
+        Future<SubastaDTO> cierre = hilos.submit(() -> {
+            salida.await();
+            return subastaService.cerrar(subastaId);
+        });
+        Future<SubastaDTO> cancelacion = hilos.submit(() -> {
+            salida.await();
+            return subastaService.cancelar(subastaId);
+        });
+        salida.countDown();
+        List<String> resultados = new ArrayList<>();
+        for (Future<SubastaDTO> intento : List.of(cierre, cancelacion)) {
+            try {
+                resultados.add(intento.get().getEstado());
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause().getMessage().contains("no está abierta"));
+            }
+        }
+        hilos.shutdown();
+
+        assertEquals(1, resultados.size());
+        String estado = resultados.get(0);
+        assertEquals(estado, subastaService.obtener(subastaId).getEstado());
+        assertEquals(estado.equals("ADJUDICADA") ? Oferta.EstadoOferta.VENDIDA : Oferta.EstadoOferta.APROBADA,
+                ofertaRepository.findById(oferta.getId()).orElseThrow().getEstado());
+        assertEquals(1, auditorias(subastaId));
+
+        // Aunque volviera a estar en memoria, la fila ya cerrada no se liquida otra vez
+        motorSubastas.registrar(subastaRepository.findById(subastaId).orElseThrow());
+        assertThrows(RuntimeException.class, () -> subastaService.cancelar(subastaId));
+        assertEquals(estado, subastaService.obtener(subastaId).getEstado());
+        assertEquals(1, auditorias(subastaId));
+    }
+
+    private int auditorias(Long subastaId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM auditoria "
+                + "WHERE accion IN ('SUBASTA_CERRADA', 'SUBASTA_CANCELADA') AND entidad_id = ?",
+                Integer.class, String.valueOf(subastaId));
+    }
+
+    /**
+     * Trigger de H2: la primera puja que se inserta espera a FALLAR y hace fallar su lote
+     */
+    public static class FallaPuja implements Trigger {
+
+        static final CountDownLatch ESCRIBIENDO = new CountDownLatch(1);
+        static final CountDownLatch FALLAR = new CountDownLatch(1);
+
+        @Override
+        public void fire(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+            if (ESCRIBIENDO.getCount() == 0) {
+                return;
+            }
+            ESCRIBIENDO.countDown();
+            try {
+                FALLAR.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new SQLException("fallo simulado del lote");
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.chatarra.auth;
+
+import com.chatarra.auth.dto.AuthResponseDTO;
+import com.chatarra.auth.dto.RefreshTokenDTO;
+import com.chatarra.auth.entity.Usuario;
+import com.chatarra.auth.exception.TokenInvalidoException;
+import com.chatarra.auth.security.JwtUtil;
+import com.chatarra.auth.security.ListaRevocacion;
+import com.chatarra.auth.service.AuthService;
+import com.chatarra.auth.service.RefreshTokenService;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tokens de refresco y revocación de tokens de acceso: un solo consumo por token aunque lleguen
+ * peticiones simultáneas, revocaciones solo al confirmarse y corte en milisegundos.
+ */
+@SpringBootTest(classes = AuthApplication.class, properties =
+        "spring.datasource.url=jdbc:h2:mem:tokens;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH")
+@ActiveProfiles("test")
+class TokensRefrescoTest {
+
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    @Autowired
+    private ListaRevocacion listaRevocacion;
+    @Autowired
+    private DatosPrueba datosPrueba;
+    @Autowired
+    private JwtUtil jwtUtil;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void unTokenSimultaneoSeConsumeUnaSolaVez() throws Exception {
+        Usuario usuario = datosPrueba.crearVendedor("tokens-simultaneos@test.com");
+        String valor = refreshTokenService.emitir(usuario.getId());
+
+        int peticiones = 8;
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService hilos = Executors.newFixedThreadPool(peticiones);
+        List<Future<AuthResponseDTO>> intentos = new ArrayList<>();
+        for (int i = 0; i < peticiones; i++) {
+            intentos.add(hilos.submit(() -> {
+                salida.await();
+                try {
+                    return authService.refrescar(new RefreshTokenDTO(valor));
+                } catch (RuntimeException e) {
+                    return null;
+                }
+            }));
+        }
+        salida.countDown();
+        int rotados = 0;
+        for (Future<AuthResponseDTO> intento : intentos) {
+            if (intento.get() != null) {
+                rotados++;
+            }
+        }
+        hilos.shutdown();
+
+        assertEquals(1, rotados);
+        assertThrows(TokenInvalidoException.class, () -> authService.refrescar(new RefreshTokenDTO(valor)));
+    }
+
+    @Test
+    void reutilizarUnTokenRotadoRevocaLaFamilia() {
+        Usuario usuario = datosPrueba.crearVendedor("tokens-reutilizado@test.com");
+        String valor = refreshTokenService.emitir(usuario.getId());
+
+        String rotado = authService.refrescar(new RefreshTokenDTO(valor)).getRefreshToken();
+        assertThrows(TokenInvalidoException.class, () -> authService.refrescar(new RefreshTokenDTO(valor)));
+        // El token nuevo de la familia también quedó revocado
+        assertThrows(TokenInvalidoException.class, () -> authService.refrescar(new RefreshTokenDTO(rotado)));
+    }
+
+    @Test
+    void unaRevocacionRevertidaNoQuedaEnMemoria() {
+        Usuario usuario = datosPrueba.crearVendedor("tokens-revertida@test.com");
+        Claims claims = jwtUtil.extractAllClaims(jwtUtil.generateToken(usuario));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            listaRevocacion.revocarUsuario(usuario.getEmail());
+            listaRevocacion.revocarToken(claims.getId(), claims.getExpiration());
+            status.setRollbackOnly();
+        });
+        assertFalse(listaRevocacion.estaRevocado(claims.getId(), usuario.getEmail(), JwtUtil.emitidoMs(claims)));
+
+        transactionTemplate.executeWithoutResult(status -> listaRevocacion.revocarToken(claims.getId(), claims.getExpiration()));
+        assertTrue(listaRevocacion.estaRevocado(claims.getId(), usuario.getEmail(), JwtUtil.emitidoMs(claims)));
+    }
+
+    @Test
+    void laRevocacionDeUnUsuarioCortaEnMilisegundos() throws Exception {
+        Usuario usuario = datosPrueba.crearVendedor("tokens-corte@test.com");
+        Claims anterior = jwtUtil.extractAllClaims(jwtUtil.generateToken(usuario));
+        Thread.sleep(2);
+        listaRevocacion.revocarUsuario(usuario.getEmail());
+        Thread.sleep(2);
+        Claims posterior = jwtUtil.extractAllClaims(jwtUtil.generateToken(usuario));
+
+        // Aunque los dos tengan el mismo "iat" (segundos), solo el anterior queda revocado
+        assertTrue(listaRevocacion.estaRevocado(anterior.getId(), usuario.getEmail(), JwtUtil.emitidoMs(anterior)));
+        assertFalse(listaRevocacion.estaRevocado(posterior.getId(), usuario.getEmail(), JwtUtil.emitidoMs(posterior)));
+    }
+}
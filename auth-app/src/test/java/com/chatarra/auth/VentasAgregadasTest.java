@@ -0,0 +1,114 @@
+package com.chatarra.auth;
+
+import com.chatarra.auth.dto.VentaAgregadaDTO;
+import com.chatarra.auth.entity.Oferta;
+import com.chatarra.auth.entity.Usuario;
+import com.chatarra.auth.service.OfertaService;
+import com.chatarra.auth.service.VentasAgregadasService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Agregados de ventas: actualización incremental, fusión de buckets por rango y backfill.
+ * Con el reloj fijo a media tarde: los tramos por hora y por día no dependen de la hora real
+ * (cerca de medianoche la venta y "ahora" caerían en días distintos).
+ */
+@SpringBootTest(classes = {AuthApplication.class, VentasAgregadasTest.RelojFijo.class}, properties =
+        "spring.datasource.url=jdbc:h2:mem:ventas;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH")
+@ActiveProfiles("test")
+class VentasAgregadasTest {
+
+    private static final LocalDateTime AHORA = LocalDateTime.of(2024, 6, 12, 15, 30);
+
+    @TestConfiguration
+    static class RelojFijo {
+        @Bean
+        @Primary
+        Clock relojFijo() {
+            return Clock.fixed(AHORA.atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+        }
+    }
+
+    @Autowired
+    private VentasAgregadasService ventasAgregadasService;
+    @Autowired
+    private OfertaService ofertaService;
+    @Autowired
+    private DatosPrueba datosPrueba;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void sumaYRestaVentasYCoincideConElBackfill() {
+        Usuario vendedor = datosPrueba.crearVendedor("agregados@test.com");
+        Oferta cobre = datosPrueba.crearOferta(vendedor, "COBRE", "8.50", "Bodega Norte", Oferta.EstadoOferta.APROBADA);
+        Oferta hierro = datosPrueba.crearOferta(vendedor, "HIERRO", "8.50", "Bodega Norte", Oferta.EstadoOferta.APROBADA);
+        Oferta anulada = datosPrueba.crearOferta(vendedor, "COBRE", "8.50", "Bodega Norte", Oferta.EstadoOferta.APROBADA);
+
+        ofertaService.cambiarEstadoOfertaAdmin(cobre.getId(), Oferta.EstadoOferta.VENDIDA);
+        ofertaService.cambiarEstadoOfertaAdmin(hierro.getId(), Oferta.EstadoOferta.VENDIDA);
+        ofertaService.cambiarEstadoOfertaAdmin(anulada.getId(), Oferta.EstadoOferta.VENDIDA);
+        ofertaService.cambiarEstadoOfertaAdmin(anulada.getId(), Oferta.EstadoOferta.APROBADA);
+
+        // Desde a mitad de un día: tramo horario + días completos + tramo horario de hoy
+        List<VentaAgregadaDTO> porMaterial = consultar(AHORA.minusDays(3).withHour(15), AHORA.plusHours(1),
+                "material", vendedor.getId());
+        assertEquals(2, porMaterial.size());
+        assertEquals("COBRE", porMaterial.get(0).getTipoMaterial());
+        assertEquals(1L, porMaterial.get(0).getVentas());
+        assertEquals(0, new BigDecimal("10").compareTo(porMaterial.get(0).getCantidad()));
+        assertEquals(0, new BigDecimal("85").compareTo(porMaterial.get(0).getTotal()));
+        assertEquals("HIERRO", porMaterial.get(1).getTipoMaterial());
+
+        assertTrue(consultar(AHORA.minusDays(3), AHORA.minusDays(2), "", vendedor.getId()).isEmpty());
+
+        // Backfill: incluye una venta anterior cargada por SQL y da lo mismo para las incrementales
+        Oferta antigua = datosPrueba.crearOferta(vendedor, "COBRE", "8.50", "Bodega Norte", Oferta.EstadoOferta.VENDIDA);
+        LocalDateTime fechaAntigua = AHORA.minusDays(5).truncatedTo(ChronoUnit.DAYS).withHour(10).withMinute(30);
+        jdbcTemplate.update("UPDATE ofertas SET fecha_venta = ? WHERE id = ?",
+                Timestamp.valueOf(fechaAntigua), antigua.getId());
+        ventasAgregadasService.reconstruir();
+
+        List<VentaAgregadaDTO> porDia = consultar(AHORA.minusDays(7).withHour(12), AHORA.plusHours(1),
+                "dia", vendedor.getId());
+        assertEquals(2, porDia.size());
+        assertEquals(fechaAntigua.toLocalDate(), porDia.get(0).getDia());
+        assertEquals(1L, porDia.get(0).getVentas());
+        assertEquals(AHORA.toLocalDate(), porDia.get(1).getDia());
+        assertEquals(2L, porDia.get(1).getVentas());
+
+        List<VentaAgregadaDTO> porHora = consultar(fechaAntigua.minusHours(2), fechaAntigua.plusHours(2),
+                "hora", vendedor.getId());
+        assertEquals(1, porHora.size());
+        assertEquals(fechaAntigua.withMinute(0), porHora.get(0).getHora());
+    }
+
+    @Test
+    void rechazaRangosYClavesInvalidos() {
+        assertThrows(IllegalArgumentException.class, () -> consultar(AHORA, AHORA.minusDays(1), "", null));
+        assertThrows(IllegalArgumentException.class, () -> consultar(AHORA.minusYears(5), AHORA, "", null));
+        assertThrows(IllegalArgumentException.class, () -> consultar(AHORA.minusDays(1), AHORA, "semana", null));
+    }
+
+    private List<VentaAgregadaDTO> consultar(LocalDateTime desde, LocalDateTime hasta, String agrupar, Long vendedorId) {
+        Set<VentasAgregadasService.Clave> claves = VentasAgregadasService.parsearClaves(agrupar);
+        return ventasAgregadasService.consultar(desde, hasta, claves, null, vendedorId);
+    }
+}
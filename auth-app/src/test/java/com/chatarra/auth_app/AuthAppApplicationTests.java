@@ -1,9 +1,12 @@
 package com.chatarra.auth_app;
 
+import com.chatarra.auth.AuthApplication;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 
-@SpringBootTest
+@SpringBootTest(classes = AuthApplication.class)
+@ActiveProfiles("test")
 class AuthAppApplicationTests {
 
 	@Test
@@ -0,0 +1,387 @@
+package com.chatarra.carga;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Prueba de carga reproducible de los endpoints reales (no es un test de JUnit).
+ *
+ * 1. Cargar datos (ver SembradorDatosCarga):
+ *
+ *   mvn spring-boot:run -Dspring-boot.run.profiles=semilla
+ *
+ * 2. Levantar el servidor con el perfil "carga" (sin límite de login por IP):
+ *
+ *   mvn spring-boot:run -Dspring-boot.run.profiles=carga
+ *
+ * 3. Ejecutar el escenario (solo usa el JDK, no necesita compilar el proyecto):
+ *
+ *   java src/test/java/com/chatarra/carga/CargaEscenario.java \
+ *       manifiesto=target/semilla-carga.properties usuarios=200 segundos=60 \
+ *       mezcla=login:5,ofertas:35,estadisticas:35,admin-ofertas:5,aprobar:20 \
+ *       salida=target/carga.csv
+ *
+ * Cada usuario virtual es un vendedor distinto de la semilla; las operaciones de admin
+ * usan los admins de la semilla. Con tasa=N (peticiones/s totales) la carga es de tasa fija
+ * y la latencia se mide desde el instante programado, así una respuesta lenta no oculta
+ * las peticiones que se debieron enviar mientras tanto (omisión coordinada).
+ *
+ * Imprime por endpoint: peticiones/segundo, p50, p90, p99, p99.9, máximo y errores.
+ */
+public class CargaEscenario {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    private static final String[] OPERACIONES = {"login", "ofertas", "estadisticas", "admin-ofertas", "aprobar"};
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opciones = new HashMap<>();
+        for (String arg : args) {
+            int igual = arg.indexOf('=');
+            if (igual > 0) {
+                opciones.put(arg.substring(0, igual), arg.substring(igual + 1));
+            }
+        }
+
+        Properties manifiesto = new Properties();
+        try (Reader reader = Files.newBufferedReader(
+                Path.of(opciones.getOrDefault("manifiesto", "target/semilla-carga.properties")), StandardCharsets.UTF_8)) {
+            manifiesto.load(reader);
+        }
+
+        Escenario escenario = new Escenario(
+                opciones.getOrDefault("base", "http://localhost:8081/api"),
+                manifiesto,
+                Integer.parseInt(opciones.getOrDefault("usuarios", "100")),
+                parsearMezcla(opciones.getOrDefault("mezcla", "login:5,ofertas:35,estadisticas:35,admin-ofertas:5,aprobar:20")),
+                Double.parseDouble(opciones.getOrDefault("tasa", "0")),
+                Long.parseLong(opciones.getOrDefault("pausa-ms", "0")),
+                Long.parseLong(opciones.getOrDefault("semilla", manifiesto.getProperty("aleatoria", "42"))));
+
+        int segundos = Integer.parseInt(opciones.getOrDefault("segundos", "60"));
+        int calentamiento = Integer.parseInt(opciones.getOrDefault("calentamiento", "10"));
+
+        escenario.iniciarSesiones();
+        System.out.println("Calentamiento " + calentamiento + " s...");
+        escenario.correr(calentamiento);
+        System.out.println("Midiendo " + segundos + " s con " + escenario.usuarios + " usuarios virtuales...");
+        Map<String, Resultado> resultados = escenario.correr(segundos);
+
+        imprimir(escenario.base, resultados, segundos);
+        String salida = opciones.get("salida");
+        if (salida != null) {
+            guardarCsv(Path.of(salida), resultados, segundos);
+            System.out.println("Resultados guardados en " + salida);
+        }
+    }
+
+    static class Escenario {
+        final String base;
+        final int usuarios;
+        private final Properties manifiesto;
+        private final int[] pesos;
+        private final int pesoTotal;
+        private final double tasa;
+        private final long pausaMs;
+        private final long semilla;
+        private final int vendedores;
+        private final long ofertaDesde;
+        private final long ofertaHasta;
+        private final HttpClient cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        private String[] tokensVendedor;
+        private String[] tokensAdmin;
+
+        Escenario(String base, Properties manifiesto, int usuarios, int[] pesos,
+                  double tasa, long pausaMs, long semilla) {
+            this.base = base;
+            this.manifiesto = manifiesto;
+            this.usuarios = usuarios;
+            this.pesos = pesos;
+            this.pesoTotal = Arrays.stream(pesos).sum();
+            this.tasa = tasa;
+            this.pausaMs = pausaMs;
+            this.semilla = semilla;
+            this.vendedores = Integer.parseInt(manifiesto.getProperty("vendedores"));
+            this.ofertaDesde = Long.parseLong(manifiesto.getProperty("ofertas.desde"));
+            this.ofertaHasta = Long.parseLong(manifiesto.getProperty("ofertas.hasta"));
+        }
+
+        void iniciarSesiones() throws Exception {
+            tokensVendedor = new String[usuarios];
+            for (int i = 0; i < usuarios; i++) {
+                tokensVendedor[i] = login(emailVendedor(i % vendedores + 1)).token;
+            }
+            int admins = Integer.parseInt(manifiesto.getProperty("admins"));
+            tokensAdmin = new String[admins];
+            for (int i = 0; i < admins; i++) {
+                tokensAdmin[i] = login(email("email.admin", i + 1)).token;
+            }
+        }
+
+        Map<String, Resultado> correr(int segundos) throws InterruptedException {
+            long inicio = System.nanoTime();
+            long fin = inicio + Duration.ofSeconds(segundos).toNanos();
+            // Con tasa fija cada usuario envía una petición cada "intervalo" nanos
+            long intervalo = tasa > 0 ? (long) (usuarios * 1_000_000_000L / tasa) : 0;
+
+            List<Map<String, Resultado>> porHilo = new ArrayList<>();
+            CountDownLatch terminados = new CountDownLatch(usuarios);
+
+            for (int u = 0; u < usuarios; u++) {
+                Map<String, Resultado> propios = new LinkedHashMap<>();
+                for (String operacion : OPERACIONES) {
+                    propios.put(operacion, new Resultado());
+                }
+                porHilo.add(propios);
+
+                int usuario = u;
+                Thread hilo = new Thread(() -> {
+                    Random random = new Random(semilla * 31 + usuario);
+                    // Desfase para que los usuarios no arranquen todos en el mismo instante
+                    long programada = inicio + (intervalo > 0 ? (intervalo * usuario) / usuarios : 0);
+                    try {
+                        while (true) {
+                            if (intervalo > 0) {
+                                long espera = programada - System.nanoTime();
+                                if (espera > 0) {
+                                    LockSupport.parkNanos(espera);
+                                }
+                            } else {
+                                programada = System.nanoTime();
+                            }
+                            if (programada >= fin) {
+                                break;
+                            }
+
+                            String operacion = elegirOperacion(random);
+                            boolean ok = ejecutar(operacion, usuario, random);
+                            propios.get(operacion).registrar(System.nanoTime() - programada, ok);
+
+                            if (intervalo > 0) {
+                                programada += intervalo;
+                            } else if (pausaMs > 0) {
+                                LockSupport.parkNanos(Duration.ofMillis(pausaMs).toNanos());
+                            }
+                        }
+                    } finally {
+                        terminados.countDown();
+                    }
+                });
+                hilo.start();
+            }
+            terminados.await();
+
+            Map<String, Resultado> total = new LinkedHashMap<>();
+            for (String operacion : OPERACIONES) {
+                Resultado combinado = new Resultado();
+                porHilo.forEach(m -> combinado.agregar(m.get(operacion)));
+                if (combinado.total() > 0) {
+                    total.put(operacion, combinado);
+                }
+            }
+            return total;
+        }
+
+        private String elegirOperacion(Random random) {
+            int r = random.nextInt(pesoTotal);
+            for (int i = 0; i < pesos.length; i++) {
+                r -= pesos[i];
+                if (r < 0) {
+                    return OPERACIONES[i];
+                }
+            }
+            return OPERACIONES[OPERACIONES.length - 1];
+        }
+
+        private boolean ejecutar(String operacion, int usuario, Random random) {
+            try {
+                switch (operacion) {
+                    case "login":
+                        return login(emailVendedor(1 + random.nextInt(vendedores))).estado == 200;
+                    case "ofertas":
+                        return get("/vendedor/ofertas", usuario, false);
+                    case "estadisticas":
+                        return get("/vendedor/estadisticas", usuario, false);
+                    case "admin-ofertas":
+                        return get("/admin/ofertas", usuario, true);
+                    case "aprobar":
+                        long id = ofertaDesde + (long) (random.nextDouble() * (ofertaHasta - ofertaDesde + 1));
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/admin/ofertas/" + id + "/aprobar"))
+                                .header("Authorization", "Bearer " + tokenAdmin(usuario))
+                                .timeout(Duration.ofSeconds(30))
+                                .PUT(HttpRequest.BodyPublishers.noBody())
+                                .build();
+                        return cliente.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+                    default:
+                        throw new IllegalArgumentException(operacion);
+                }
+            } catch (Exception e) {
+                return false;
+            }
+        }
+
+        private boolean get(String ruta, int usuario, boolean admin) throws Exception {
+            String token = admin ? tokenAdmin(usuario) : tokensVendedor[usuario];
+            HttpRequest request = HttpRequest.newBuilder(URI.create(base + ruta))
+                    .header("Authorization", "Bearer " + token)
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+            int estado = cliente.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            if (estado == 401 && !admin) {
+                // El token de acceso venció durante una prueba larga: se renueva para las siguientes
+                tokensVendedor[usuario] = login(emailVendedor(usuario % vendedores + 1)).token;
+            }
+            return estado == 200;
+        }
+
+        private String tokenAdmin(int usuario) {
+            return tokensAdmin[usuario % tokensAdmin.length];
+        }
+
+        private RespuestaLogin login(String email) throws IOException, InterruptedException {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/auth/login"))
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofSeconds(30))
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"email\":\"" + email + "\",\"password\":\"" + manifiesto.getProperty("password") + "\"}"))
+                    .build();
+            HttpResponse<String> response = cliente.send(request, HttpResponse.BodyHandlers.ofString());
+            Matcher m = TOKEN.matcher(response.body());
+            if (response.statusCode() == 200 && m.find()) {
+                return new RespuestaLogin(200, m.group(1));
+            }
+            if (tokensVendedor == null || tokensAdmin == null) {
+                throw new IllegalStateException("Login fallido para " + email + ": "
+                        + response.statusCode() + " " + response.body());
+            }
+            return new RespuestaLogin(response.statusCode(), null);
+        }
+
+        private String emailVendedor(int n) {
+            return email("email.vendedor", n);
+        }
+
+        private String email(String clave, int n) {
+            return manifiesto.getProperty(clave).replace("{n}", String.valueOf(n));
+        }
+    }
+
+    record RespuestaLogin(int estado, String token) {
+    }
+
+    private static int[] parsearMezcla(String mezcla) {
+        int[] pesos = new int[OPERACIONES.length];
+        for (String parte : mezcla.split(",")) {
+            String[] kv = parte.split(":");
+            int indice = Arrays.asList(OPERACIONES).indexOf(kv[0].trim());
+            if (indice < 0) {
+                throw new IllegalArgumentException("Operación desconocida: " + kv[0]
+                        + " (válidas: " + String.join(", ", OPERACIONES) + ")");
+            }
+            pesos[indice] = Integer.parseInt(kv[1].trim());
+        }
+        return pesos;
+    }
+
+    private static void imprimir(String base, Map<String, Resultado> resultados, int segundos) {
+        System.out.println();
+        System.out.println("Resultados para " + base + " (" + segundos + " s)");
+        System.out.printf("  %-15s %9s %9s %9s %9s %9s %9s %8s%n",
+                "endpoint", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "errores");
+        resultados.forEach((operacion, r) -> System.out.printf("  %-15s %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %8d%n",
+                operacion,
+                (double) r.total() / segundos,
+                r.percentil(50) / 1_000_000.0,
+                r.percentil(90) / 1_000_000.0,
+                r.percentil(99) / 1_000_000.0,
+                r.percentil(99.9) / 1_000_000.0,
+                r.percentil(100) / 1_000_000.0,
+                r.errores));
+    }
+
+    private static void guardarCsv(Path ruta, Map<String, Resultado> resultados, int segundos) throws IOException {
+        if (ruta.getParent() != null) {
+            Files.createDirectories(ruta.getParent());
+        }
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(ruta, StandardCharsets.UTF_8))) {
+            out.println("endpoint,peticiones,req_s,p50_ms,p90_ms,p99_ms,p999_ms,max_ms,errores");
+            resultados.forEach((operacion, r) -> out.printf(java.util.Locale.ROOT,
+                    "%s,%d,%.1f,%.3f,%.3f,%.3f,%.3f,%.3f,%d%n",
+                    operacion, r.total(), (double) r.total() / segundos,
+                    r.percentil(50) / 1e6, r.percentil(90) / 1e6, r.percentil(99) / 1e6,
+                    r.percentil(99.9) / 1e6, r.percentil(100) / 1e6, r.errores));
+        }
+    }
+
+    /**
+     * Latencias de una operación. Cada hilo tiene el suyo (sin contención); se combinan al final.
+     */
+    static class Resultado {
+        private long[] latencias = new long[1024];
+        private int cantidad;
+        private long errores;
+        private long[] ordenadas;
+
+        void registrar(long nanos, boolean ok) {
+            if (!ok) {
+                errores++;
+            }
+            if (cantidad == latencias.length) {
+                latencias = Arrays.copyOf(latencias, cantidad * 2);
+            }
+            latencias[cantidad++] = nanos;
+        }
+
+        void agregar(Resultado otro) {
+            if (cantidad + otro.cantidad > latencias.length) {
+                latencias = Arrays.copyOf(latencias, cantidad + otro.cantidad);
+            }
+            System.arraycopy(otro.latencias, 0, latencias, cantidad, otro.cantidad);
+            cantidad += otro.cantidad;
+            errores += otro.errores;
+            ordenadas = null;
+        }
+
+        long total() {
+            return cantidad;
+        }
+
+        long percentil(double p) {
+            if (cantidad == 0) {
+                return 0;
+            }
+            if (ordenadas == null) {
+                ordenadas = Arrays.copyOf(latencias, cantidad);
+                Arrays.sort(ordenadas);
+            }
+            int indice = (int) Math.ceil(p / 100.0 * cantidad) - 1;
+            return ordenadas[Math.max(0, Math.min(indice, cantidad - 1))];
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.chatarra.carga;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Prueba de carga de los endpoints /api/vendedor/* (no es un test de JUnit).
+ *
+ * Compara el modelo actual (pool de hilos de Tomcat) con el perfil "virtual"
+ * (hilos virtuales). Levantar dos instancias de la aplicación contra la misma base:
+ *
+ *   mvn spring-boot:run -Dspring-boot.run.arguments=--server.port=8081
+ *   mvn -P java21 spring-boot:run -Dspring-boot.run.arguments=--server.port=8082
+ *
+ * Y ejecutar (solo usa el JDK, no necesita compilar el proyecto):
+ *
+ *   java src/test/java/com/chatarra/carga/CargaVendedor.java \
+ *       base=http://localhost:8081/api comparar=http://localhost:8082/api \
+ *       email=vendedor@test.com password=123456 concurrencia=400 segundos=30
+ *
+ * Imprime por endpoint: peticiones/segundo, p50, p99 y errores.
+ */
+public class CargaVendedor {
+
+    private static final String[] ENDPOINTS = {
+            "/vendedor/estadisticas",
+            "/vendedor/ofertas",
+            "/vendedor/ofertas/recientes"
+    };
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opciones = new HashMap<>();
+        for (String arg : args) {
+            int igual = arg.indexOf('=');
+            if (igual > 0) {
+                opciones.put(arg.substring(0, igual), arg.substring(igual + 1));
+            }
+        }
+
+        String base = opciones.getOrDefault("base", "http://localhost:8081/api");
+        String comparar = opciones.get("comparar");
+        String email = opciones.getOrDefault("email", "vendedor@test.com");
+        String password = opciones.getOrDefault("password", "123456");
+        int concurrencia = Integer.parseInt(opciones.getOrDefault("concurrencia", "200"));
+        int segundos = Integer.parseInt(opciones.getOrDefault("segundos", "30"));
+        int calentamiento = Integer.parseInt(opciones.getOrDefault("calentamiento", "5"));
+
+        HttpClient cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        Map<String, Resultado> actual = ejecutar(cliente, base, email, password, concurrencia, segundos, calentamiento);
+        imprimir(base, actual, segundos);
+
+        if (comparar != null) {
+            Map<String, Resultado> otro = ejecutar(cliente, comparar, email, password, concurrencia, segundos, calentamiento);
+            imprimir(comparar, otro, segundos);
+
+            System.out.println();
+            System.out.println("Comparación (" + comparar + " vs " + base + ")");
+            for (String endpoint : ENDPOINTS) {
+                Resultado a = actual.get(endpoint);
+                Resultado b = otro.get(endpoint);
+                System.out.printf("  %-30s throughput x%.2f   p99 x%.2f%n", endpoint,
+                        (double) b.total() / Math.max(1, a.total()),
+                        (double) b.percentil(99) / Math.max(1, a.percentil(99)));
+            }
+        }
+    }
+
+    private static Map<String, Resultado> ejecutar(HttpClient cliente, String base, String email, String password,
+                                                   int concurrencia, int segundos, int calentamiento)
+            throws Exception {
+        String token = login(cliente, base, email, password);
+
+        // Calentamiento: JIT, pool de conexiones y caches de Hibernate
+        correr(cliente, base, token, concurrencia, calentamiento);
+        return correr(cliente, base, token, concurrencia, segundos);
+    }
+
+    private static Map<String, Resultado> correr(HttpClient cliente, String base, String token,
+                                                 int concurrencia, int segundos) throws InterruptedException {
+        long fin = System.nanoTime() + Duration.ofSeconds(segundos).toNanos();
+        List<Map<String, Resultado>> porHilo = new ArrayList<>();
+        CountDownLatch terminados = new CountDownLatch(concurrencia);
+
+        for (int i = 0; i < concurrencia; i++) {
+            Map<String, Resultado> propios = new LinkedHashMap<>();
+            for (String endpoint : ENDPOINTS) {
+                propios.put(endpoint, new Resultado());
+            }
+            porHilo.add(propios);
+
+            int desfase = i;
+            Thread hilo = new Thread(() -> {
+                try {
+                    int n = desfase;
+                    while (System.nanoTime() < fin) {
+                        String endpoint = ENDPOINTS[n++ % ENDPOINTS.length];
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(base + endpoint))
+                                .header("Authorization", "Bearer " + token)
+                                .timeout(Duration.ofSeconds(30))
+                                .GET()
+                                .build();
+                        long inicio = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = cliente.send(request, HttpResponse.BodyHandlers.discarding());
+                            propios.get(endpoint).registrar(System.nanoTime() - inicio, response.statusCode() == 200);
+                        } catch (Exception e) {
+                            propios.get(endpoint).registrar(System.nanoTime() - inicio, false);
+                        }
+                    }
+                } finally {
+                    terminados.countDown();
+                }
+            });
+            hilo.start();
+        }
+        terminados.await();
+
+        Map<String, Resultado> total = new LinkedHashMap<>();
+        for (String endpoint : ENDPOINTS) {
+            Resultado combinado = new Resultado();
+            porHilo.forEach(m -> combinado.agregar(m.get(endpoint)));
+            total.put(endpoint, combinado);
+        }
+        return total;
+    }
+
+    private static String login(HttpClient cliente, String base, String email, String password) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}"))
+                .build();
+        HttpResponse<String> response = cliente.send(request, HttpResponse.BodyHandlers.ofString());
+        Matcher m = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"").matcher(response.body());
+        if (response.statusCode() != 200 || !m.find()) {
+            throw new IllegalStateException("Login fallido en " + base + ": " + response.statusCode() + " " + response.body());
+        }
+        return m.group(1);
+    }
+
+    private static void imprimir(String base, Map<String, Resultado> resultados, int segundos) {
+        System.out.println();
+        System.out.println("Resultados para " + base + " (" + segundos + " s)");
+        System.out.printf("  %-30s %10s %10s %10s %8s%n", "endpoint", "req/s", "p50 ms", "p99 ms", "errores");
+        resultados.forEach((endpoint, r) -> System.out.printf("  %-30s %10.1f %10.2f %10.2f %8d%n",
+                endpoint,
+                (double) r.total() / segundos,
+                r.percentil(50) / 1_000_000.0,
+                r.percentil(99) / 1_000_000.0,
+                r.errores.get()));
+    }
+
+    /**
+     * Latencias de un endpoint. Cada hilo tiene el suyo (sin contención); se combinan al final.
+     */
+    static class Resultado {
+        private long[] latencias = new long[1024];
+        private int cantidad;
+        private final AtomicLong errores = new AtomicLong();
+
+        void registrar(long nanos, boolean ok) {
+            if (!ok) {
+                errores.incrementAndGet();
+            }
+            if (cantidad == latencias.length) {
+                latencias = Arrays.copyOf(latencias, cantidad * 2);
+            }
+            latencias[cantidad++] = nanos;
+        }
+
+        void agregar(Resultado otro) {
+            if (cantidad + otro.cantidad > latencias.length) {
+                latencias = Arrays.copyOf(latencias, cantidad + otro.cantidad);
+            }
+            System.arraycopy(otro.latencias, 0, latencias, cantidad, otro.cantidad);
+            cantidad += otro.cantidad;
+            errores.addAndGet(otro.errores.get());
+        }
+
+        long total() {
+            return cantidad;
+        }
+
+        long percentil(double p) {
+            if (cantidad == 0) {
+                return 0;
+            }
+            long[] ordenadas = Arrays.copyOf(latencias, cantidad);
+            Arrays.sort(ordenadas);
+            int indice = (int) Math.ceil(p / 100.0 * cantidad) - 1;
+            return ordenadas[Math.max(0, Math.min(indice, cantidad - 1))];
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.chatarra.benchmarks;
+
+import com.chatarra.auth.dto.ConsultaAnaliticaDTO;
+import com.chatarra.auth.dto.ResultadoAnaliticaDTO;
+import com.chatarra.auth.entity.Oferta;
+import com.chatarra.auth.service.ColumnasOfertas;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas sobre la instantánea columnar (ColumnasOfertas) con 1 millón de ofertas de un año:
+ * - totalSinFiltros: recorre todas las filas, un solo grupo
+ * - filtrosPorMaterial: material + banda de precio + ubicación, agrupado por material y estado
+ * - vendidasPorDia: estado + rango de 6 meses, agrupado por día (~180 grupos)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+@State(Scope.Benchmark)
+public class AnaliticaColumnarBenchmark {
+
+    private static final String[] MATERIALES = {"HIERRO", "ACERO", "ALUMINIO", "COBRE", "INOXIDABLE",
+            "LATON", "BRONCE", "PLOMO", "ZINC", "OTRO"};
+    private static final Oferta.EstadoOferta[] ESTADOS = Oferta.EstadoOferta.values();
+
+    @Param({"1000000"})
+    public int ofertas;
+
+    private ColumnasOfertas columnas;
+    private ConsultaAnaliticaDTO sinFiltros;
+    private ConsultaAnaliticaDTO filtrosPorMaterial;
+    private ConsultaAnaliticaDTO vendidasPorDia;
+
+    @Setup
+    public void preparar() {
+        Random random = new Random(42);
+        LocalDateTime ahora = LocalDateTime.now();
+        columnas = new ColumnasOfertas(ofertas);
+        for (int i = 0; i < ofertas; i++) {
+            BigDecimal cantidad = BigDecimal.valueOf(5 + random.nextInt(5000));
+            BigDecimal precio = BigDecimal.valueOf(10 + random.nextInt(900), 2);
+            columnas.poner(i, 1 + random.nextInt(1000), MATERIALES[random.nextInt(MATERIALES.length)],
+                    cantidad, precio, cantidad.multiply(precio), "Bodega " + (1 + random.nextInt(40)),
+                    ESTADOS[random.nextInt(ESTADOS.length)], ahora.minusMinutes(random.nextInt(365 * 24 * 60)));
+        }
+
+        sinFiltros = new ConsultaAnaliticaDTO();
+        filtrosPorMaterial = ConsultaAnaliticaDTO.builder()
+                .tiposMaterial(List.of("COBRE", "BRONCE", "LATON"))
+                .precioMin(new BigDecimal("2.00"))
+                .precioMax(new BigDecimal("7.50"))
+                .ubicacion("bodega 1")
+                .agrupar(List.of("material", "estado"))
+                .build();
+        vendidasPorDia = ConsultaAnaliticaDTO.builder()
+                .estados(List.of(Oferta.EstadoOferta.VENDIDA))
+                .desde(LocalDate.now().minusMonths(6))
+                .agrupar(List.of("dia"))
+                .build();
+    }
+
+    @Benchmark
+    public ResultadoAnaliticaDTO totalSinFiltros() {
+        return columnas.consultar(sinFiltros);
+    }
+
+    @Benchmark
+    public ResultadoAnaliticaDTO filtrosPorMaterial() {
+        return columnas.consultar(filtrosPorMaterial);
+    }
+
+    @Benchmark
+    public ResultadoAnaliticaDTO vendidasPorDia() {
+        return columnas.consultar(vendidasPorDia);
+    }
+}
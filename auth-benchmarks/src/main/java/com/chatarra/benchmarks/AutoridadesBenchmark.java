@@ -0,0 +1,47 @@
+package com.chatarra.benchmarks;
+
+import com.chatarra.auth.entity.Usuario;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construcción de autoridades en cada petición autenticada.
+ * - Usuario.getAuthorities: concatena "ROLE_" + rol y crea la lista en cada llamada
+ * - usuarioDesdeClaims: lo que hace JwtRequestFilter con el claim "rol" del token
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AutoridadesBenchmark {
+
+    private Usuario usuario;
+    private String email;
+    private String rol;
+
+    @Setup
+    public void preparar() {
+        usuario = Datos.vendedor();
+        email = usuario.getEmail();
+        rol = "ROLE_" + usuario.getRol().name();
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return usuario.getAuthorities();
+    }
+
+    @Benchmark
+    public UserDetails usuarioDesdeClaims() {
+        return new User(email, "", List.of(new SimpleGrantedAuthority(rol)));
+    }
+}
@@ -0,0 +1,75 @@
+package com.chatarra.benchmarks;
+
+import com.chatarra.auth.dto.OfertaResponseDTO;
+import com.chatarra.auth.entity.Oferta;
+import com.chatarra.auth.entity.Usuario;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Datos de prueba compartidos por los benchmarks (mismos valores en cada ejecución).
+ */
+final class Datos {
+
+    private static final String[] MATERIALES = {"COBRE", "ALUMINIO", "HIERRO", "BRONCE", "PLASTICO"};
+
+    private Datos() {
+    }
+
+    static Usuario vendedor() {
+        return Usuario.builder()
+                .id(42L)
+                .nombreCompleto("Vendedor de Prueba")
+                .email("vendedor@chatarra.com")
+                .password("$2a$10$abcdefghijklmnopqrstuuYJ0pXv1oW2m9T0v1k7r6V8a2bq3y5e")
+                .rol(Usuario.Rol.VENDEDOR)
+                .activo(true)
+                .fechaRegistro(LocalDateTime.of(2024, 1, 15, 10, 30))
+                .build();
+    }
+
+    static List<Oferta> ofertas(int cantidad) {
+        Usuario vendedor = vendedor();
+        List<Oferta> ofertas = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            BigDecimal kilos = BigDecimal.valueOf(10 + i, 0).setScale(2);
+            BigDecimal precio = new BigDecimal("3.75");
+            ofertas.add(Oferta.builder()
+                    .id((long) i + 1)
+                    .vendedor(vendedor)
+                    .tipoMaterial(MATERIALES[i % MATERIALES.length])
+                    .cantidad(kilos)
+                    .precioUnitario(precio)
+                    .precioTotal(kilos.multiply(precio))
+                    .descripcion("Lote de material reciclable número " + i)
+                    .ubicacion("Bodega " + (i % 7))
+                    .imagenUrl("/api/web/imagenes/oferta-" + i + ".jpg")
+                    .estado(Oferta.EstadoOferta.values()[i % Oferta.EstadoOferta.values().length])
+                    .fechaCreacion(LocalDateTime.of(2024, 1, 15, 10, 30).plusMinutes(i))
+                    .build());
+        }
+        return ofertas;
+    }
+
+    static List<OfertaResponseDTO> dtos(List<Oferta> ofertas) {
+        return ofertas.stream()
+                .map(o -> OfertaResponseDTO.builder()
+                        .id(o.getId())
+                        .vendedorId(o.getVendedor().getId())
+                        .vendedorNombre(o.getVendedor().getNombreCompleto())
+                        .tipoMaterial(o.getTipoMaterial())
+                        .cantidad(o.getCantidad())
+                        .precioUnitario(o.getPrecioUnitario())
+                        .precioTotal(o.getPrecioTotal())
+                        .descripcion(o.getDescripcion())
+                        .ubicacion(o.getUbicacion())
+                        .estado(o.getEstado().name())
+                        .imagenUrl(o.getImagenUrl())
+                        .fechaCreacion(o.getFechaCreacion())
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,97 @@
+package com.chatarra.benchmarks;
+
+import com.chatarra.auth.entity.Cantidad;
+import com.chatarra.auth.entity.Dinero;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BigDecimal contra céntimos y gramos en long (Dinero, Cantidad) para 10.000 ofertas:
+ * - totales*: precio total de cada oferta (lo que hace Oferta.onCreate) y su suma
+ * - resumen*: kg, total vendido y promedio, como las estadísticas y agregaciones
+ *
+ * Ejecutar con -prof gc para ver los bytes asignados por operación (gc.alloc.rate.norm).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DineroBenchmark {
+
+    @Param({"10000"})
+    public int ofertas;
+
+    private BigDecimal[] kilos;
+    private BigDecimal[] precios;
+    private BigDecimal[] totales;
+    private long[] gramos;
+    private long[] centimosPorKg;
+    private long[] centimos;
+
+    @Setup
+    public void preparar() {
+        Random random = new Random(42);
+        kilos = new BigDecimal[ofertas];
+        precios = new BigDecimal[ofertas];
+        totales = new BigDecimal[ofertas];
+        gramos = new long[ofertas];
+        centimosPorKg = new long[ofertas];
+        centimos = new long[ofertas];
+        for (int i = 0; i < ofertas; i++) {
+            kilos[i] = BigDecimal.valueOf(500 + random.nextInt(500_000), 2);
+            precios[i] = BigDecimal.valueOf(10 + random.nextInt(900), 2);
+            totales[i] = kilos[i].multiply(precios[i]).setScale(2, RoundingMode.HALF_UP);
+            gramos[i] = Cantidad.gramos(kilos[i]);
+            centimosPorKg[i] = Dinero.centimos(precios[i]);
+            centimos[i] = Dinero.centimos(totales[i]);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal totalesBigDecimal() {
+        BigDecimal suma = BigDecimal.ZERO;
+        for (int i = 0; i < ofertas; i++) {
+            suma = suma.add(kilos[i].multiply(precios[i]).setScale(2, RoundingMode.HALF_UP));
+        }
+        return suma;
+    }
+
+    @Benchmark
+    public long totalesLong() {
+        long suma = 0;
+        for (int i = 0; i < ofertas; i++) {
+            suma += Dinero.totalOferta(gramos[i], centimosPorKg[i]);
+        }
+        return suma;
+    }
+
+    @Benchmark
+    public BigDecimal[] resumenBigDecimal() {
+        BigDecimal kg = BigDecimal.ZERO;
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < ofertas; i++) {
+            kg = kg.add(kilos[i]);
+            total = total.add(totales[i]);
+        }
+        return new BigDecimal[]{kg, total, total.divide(BigDecimal.valueOf(ofertas), 2, RoundingMode.HALF_UP)};
+    }
+
+    @Benchmark
+    public BigDecimal[] resumenLong() {
+        long kg = 0;
+        long total = 0;
+        for (int i = 0; i < ofertas; i++) {
+            kg += gramos[i];
+            total += centimos[i];
+        }
+        // Conversión a BigDecimal solo del resultado
+        return new BigDecimal[]{Cantidad.aKilos(kg), Dinero.aBigDecimal(total),
+                Dinero.aBigDecimal(Dinero.dividirRedondeando(total, ofertas))};
+    }
+}
@@ -0,0 +1,100 @@
+package com.chatarra.benchmarks;
+
+import com.chatarra.auth.service.IndiceBusquedas;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coincidencias de una oferta recién aprobada con 100.000 búsquedas guardadas:
+ * - indice: IndiceBusquedas (material + árbol por precio máximo)
+ * - recorrerTodas: la alternativa sin índice, comprobar cada búsqueda
+ *
+ * Búsquedas sintéticas: 90% "material X por debajo de P" (10 materiales, P entre 1 y 10 €/kg,
+ * un 30% con ubicación), 10% de cualquier material con cantidad mínima.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+@State(Scope.Benchmark)
+public class IndiceBusquedasBenchmark {
+
+    private static final String[] MATERIALES = {"HIERRO", "ACERO", "ALUMINIO", "COBRE", "INOXIDABLE",
+            "LATON", "BRONCE", "PLOMO", "ZINC", "OTRO"};
+    private static final int OFERTAS = 1024;
+
+    @Param({"100000"})
+    public int busquedas;
+
+    private IndiceBusquedas indice;
+
+    // Las mismas búsquedas en arreglos, para recorrerlas todas
+    private String[] material;
+    private long[] precioMax;
+    private long[] cantidadMin;
+    private String[] ubicacion;
+
+    private String[] ofertaMaterial;
+    private long[] ofertaPrecio;
+    private long[] ofertaGramos;
+    private String[] ofertaUbicacion;
+    private int siguiente;
+
+    @Setup
+    public void preparar() {
+        Random random = new Random(42);
+        indice = new IndiceBusquedas();
+        material = new String[busquedas];
+        precioMax = new long[busquedas];
+        cantidadMin = new long[busquedas];
+        ubicacion = new String[busquedas];
+        for (int i = 0; i < busquedas; i++) {
+            if (random.nextInt(10) == 0) {
+                precioMax[i] = Long.MAX_VALUE;
+                cantidadMin[i] = (1 + random.nextInt(5000)) * 1000L;
+            } else {
+                material[i] = MATERIALES[random.nextInt(MATERIALES.length)];
+                precioMax[i] = 100 + random.nextInt(900);
+                ubicacion[i] = random.nextInt(10) < 3 ? "bodega " + (1 + random.nextInt(40)) : null;
+            }
+            indice.poner(i, 1_000_000 + i, material[i], 0, precioMax[i], cantidadMin[i], ubicacion[i]);
+        }
+
+        ofertaMaterial = new String[OFERTAS];
+        ofertaPrecio = new long[OFERTAS];
+        ofertaGramos = new long[OFERTAS];
+        ofertaUbicacion = new String[OFERTAS];
+        for (int i = 0; i < OFERTAS; i++) {
+            ofertaMaterial[i] = MATERIALES[random.nextInt(MATERIALES.length)];
+            ofertaPrecio[i] = 10 + random.nextInt(900);
+            ofertaGramos[i] = (5 + random.nextInt(5000)) * 1000L;
+            ofertaUbicacion[i] = "Bodega " + (1 + random.nextInt(40));
+        }
+    }
+
+    @Benchmark
+    public List<IndiceBusquedas.Predicado> indice() {
+        int o = siguiente++ & (OFERTAS - 1);
+        return indice.coincidencias(ofertaMaterial[o], ofertaPrecio[o], ofertaGramos[o], ofertaUbicacion[o], 1);
+    }
+
+    @Benchmark
+    public int recorrerTodas() {
+        int o = siguiente++ & (OFERTAS - 1);
+        String ubicacionOferta = ofertaUbicacion[o].toLowerCase();
+        int coincidencias = 0;
+        for (int i = 0; i < busquedas; i++) {
+            if ((material[i] == null || material[i].equalsIgnoreCase(ofertaMaterial[o]))
+                    && precioMax[i] >= ofertaPrecio[o]
+                    && ofertaGramos[o] >= cantidadMin[i]
+                    && (ubicacion[i] == null || ubicacionOferta.contains(ubicacion[i]))) {
+                coincidencias++;
+            }
+        }
+        return coincidencias;
+    }
+}
@@ -0,0 +1,55 @@
+package com.chatarra.benchmarks;
+
+import com.chatarra.auth.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtUtil: generación, parseo y validación de tokens de acceso.
+ *
+ * validateToken verifica la firma dos veces (extractUsername + extractExpiration),
+ * por eso cuesta aproximadamente el doble que extractAllClaims.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private com.chatarra.auth.entity.Usuario usuario;
+    private String token;
+
+    @Setup
+    public void preparar() {
+        jwtUtil = new JwtUtil(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtUtil, "secret",
+                "MiClaveSecretaSuperSeguraParaJWTQueDebeSerMuyLarga12345678901234567890");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 900_000L);
+        ReflectionTestUtils.invokeMethod(jwtUtil, "init");
+
+        usuario = Datos.vendedor();
+        token = jwtUtil.generateToken(usuario);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(usuario);
+    }
+
+    @Benchmark
+    public Claims extractAllClaims() {
+        return jwtUtil.extractAllClaims(token);
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtUtil.validateToken(token, usuario);
+    }
+}
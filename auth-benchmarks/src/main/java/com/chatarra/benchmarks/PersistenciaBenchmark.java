@@ -0,0 +1,181 @@
+package com.chatarra.benchmarks;
+
+import com.chatarra.auth.AuthApplication;
+import com.chatarra.auth.entity.Oferta;
+import com.chatarra.auth.entity.Usuario;
+import com.chatarra.auth.repository.OfertaRepository;
+import com.chatarra.auth.repository.UsuarioRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Perfil "persistencia" contra la configuración por defecto, con la aplicación real (Spring + Hibernate).
+ *
+ * - guardarLote: 500 ofertas en una transacción (lotes JDBC + secuencia pooled)
+ * - listarTodas: listado de admin, 5000 ofertas de 200 vendedores (default_batch_fetch_size contra N+1)
+ * - listarVendedor: listado de un vendedor
+ *
+ * Por defecto usa H2 en memoria (no necesita nada instalado). Los parámetros del driver de
+ * PostgreSQL (sentencias preparadas, reWriteBatchedInserts) solo se miden contra PostgreSQL local:
+ *
+ *   java -jar target/benchmarks.jar PersistenciaBenchmark -p bd=postgres
+ *
+ * (usa spring.datasource.* de application.properties; la base debe estar vacía o ser de pruebas)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersistenciaBenchmark {
+
+    private static final int VENDEDORES = 200;
+    private static final int OFERTAS = 5000;
+    private static final int LOTE = 500;
+    private static final String DESCRIPCION_LOTE = "benchmark-lote";
+
+    @Param({"base", "persistencia"})
+    public String perfil;
+
+    @Param({"h2"})
+    public String bd;
+
+    private ConfigurableApplicationContext contexto;
+    private TransactionTemplate transaccion;
+    private TransactionTemplate lectura;
+    private OfertaRepository ofertaRepository;
+    private UsuarioRepository usuarioRepository;
+    private JdbcTemplate jdbcTemplate;
+    private Long vendedorId;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        Map<String, String> propiedades = new HashMap<>();
+        propiedades.put("spring.jpa.show-sql", "false");
+        propiedades.put("logging.level.root", "WARN");
+        propiedades.put("logging.level.com.chatarra.auth", "WARN");
+        propiedades.put("management.tracing.enabled", "false");
+        propiedades.put("trazas.archivo.habilitado", "false");
+        if ("h2".equals(bd)) {
+            propiedades.put("spring.datasource.url", "jdbc:h2:mem:benchmark-" + perfil
+                    + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;IGNORE_UNKNOWN_SETTINGS=TRUE");
+            propiedades.put("spring.datasource.driver-class-name", "org.h2.Driver");
+            propiedades.put("spring.datasource.username", "sa");
+            propiedades.put("spring.datasource.password", "");
+            propiedades.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+            propiedades.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+        }
+
+        // Como argumentos de línea de comandos: tienen prioridad sobre application.properties
+        String[] argumentos = propiedades.entrySet().stream()
+                .map(e -> "--" + e.getKey() + "=" + e.getValue())
+                .toArray(String[]::new);
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(AuthApplication.class)
+                .web(WebApplicationType.NONE);
+        if ("persistencia".equals(perfil)) {
+            builder.profiles("persistencia");
+        }
+        contexto = builder.run(argumentos);
+
+        PlatformTransactionManager transactionManager = contexto.getBean(PlatformTransactionManager.class);
+        transaccion = new TransactionTemplate(transactionManager);
+        lectura = new TransactionTemplate(transactionManager);
+        lectura.setReadOnly(true);
+        ofertaRepository = contexto.getBean(OfertaRepository.class);
+        usuarioRepository = contexto.getBean(UsuarioRepository.class);
+        jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+
+        sembrar();
+    }
+
+    @TearDown(Level.Iteration)
+    public void limpiarLotes() {
+        transaccion.executeWithoutResult(status ->
+                jdbcTemplate.update("DELETE FROM ofertas WHERE descripcion = ?", DESCRIPCION_LOTE));
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        transaccion.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM ofertas WHERE vendedor_id IN "
+                    + "(SELECT id FROM usuarios WHERE email LIKE '%@benchmark.test')");
+            jdbcTemplate.update("DELETE FROM usuarios WHERE email LIKE '%@benchmark.test'");
+        });
+        contexto.close();
+    }
+
+    @Benchmark
+    public int guardarLote() {
+        return transaccion.execute(status -> {
+            Usuario vendedor = usuarioRepository.getReferenceById(vendedorId);
+            List<Oferta> ofertas = new ArrayList<>(LOTE);
+            for (int i = 0; i < LOTE; i++) {
+                ofertas.add(Oferta.builder()
+                        .vendedor(vendedor)
+                        .tipoMaterial("COBRE")
+                        .cantidad(BigDecimal.valueOf(10 + i))
+                        .precioUnitario(new BigDecimal("8.50"))
+                        .descripcion(DESCRIPCION_LOTE)
+                        .ubicacion("Bodega " + (i % 10))
+                        .estado(Oferta.EstadoOferta.PENDIENTE)
+                        .build());
+            }
+            return ofertaRepository.saveAll(ofertas).size();
+        });
+    }
+
+    @Benchmark
+    public int listarTodas() {
+        return lectura.execute(status -> ofertaRepository.findAll().size());
+    }
+
+    @Benchmark
+    public int listarVendedor() {
+        return lectura.execute(status ->
+                ofertaRepository.findByVendedorIdOrderByFechaCreacionDesc(vendedorId).size());
+    }
+
+    private void sembrar() {
+        LocalDateTime ahora = LocalDateTime.now();
+        transaccion.executeWithoutResult(status -> {
+            List<Object[]> usuarios = new ArrayList<>();
+            for (int i = 0; i < VENDEDORES; i++) {
+                usuarios.add(new Object[]{"Vendedor " + i, "vendedor" + i + "@benchmark.test", "x",
+                        "VENDEDOR", true, Timestamp.valueOf(ahora)});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO usuarios (nombre_completo, email, password, rol, activo, "
+                    + "fecha_registro) VALUES (?, ?, ?, ?, ?, ?)", usuarios);
+        });
+
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM usuarios WHERE email LIKE '%@benchmark.test' ORDER BY id", Long.class);
+        vendedorId = ids.get(0);
+
+        transaccion.executeWithoutResult(status -> {
+            List<Object[]> ofertas = new ArrayList<>();
+            for (int i = 0; i < OFERTAS; i++) {
+                ofertas.add(new Object[]{ids.get(i % ids.size()), "HIERRO", new BigDecimal("100.00"),
+                        new BigDecimal("0.35"), new BigDecimal("35.00"), "Oferta " + i, "Bodega",
+                        "APROBADA", Timestamp.valueOf(ahora.minusMinutes(i))});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO ofertas (id, vendedor_id, tipo_material, cantidad, "
+                    + "precio_unitario, precio_total, descripcion, ubicacion, estado, fecha_creacion) "
+                    + "VALUES (nextval('ofertas_id_seq'), ?, ?, ?, ?, ?, ?, ?, ?, ?)", ofertas);
+        });
+    }
+}
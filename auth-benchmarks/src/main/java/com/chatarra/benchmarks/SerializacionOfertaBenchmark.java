@@ -0,0 +1,53 @@
+package com.chatarra.benchmarks;
+
+import com.chatarra.auth.dto.OfertaResponseDTO;
+import com.chatarra.auth.entity.Oferta;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización JSON de ofertas: entidad Oferta (incluye el Usuario vendedor completo)
+ * contra OfertaResponseDTO (campos planos). cantidad = 1 es GET de una oferta,
+ * cantidad = 100 es un listado.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializacionOfertaBenchmark {
+
+    @Param({"1", "100"})
+    public int cantidad;
+
+    private ObjectMapper objectMapper;
+    private List<Oferta> ofertas;
+    private List<OfertaResponseDTO> dtos;
+
+    @Setup
+    public void preparar() {
+        // Misma configuración que el ObjectMapper de Spring Boot
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        ofertas = Datos.ofertas(cantidad);
+        dtos = Datos.dtos(ofertas);
+    }
+
+    @Benchmark
+    public byte[] entidad() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(ofertas);
+    }
+
+    @Benchmark
+    public byte[] dto() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+}
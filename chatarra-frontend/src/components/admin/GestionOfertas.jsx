@@ -19,6 +19,7 @@ import {
 const GestionOfertas = () => {
   const navigate = useNavigate();
   const [ofertas, setOfertas] = useState([]);
+  const [estadisticas, setEstadisticas] = useState(null);
   const [loading, setLoading] = useState(true);
   const [filtroEstado, setFiltroEstado] = useState('TODOS');
   const [busqueda, setBusqueda] = useState('');
@@ -30,8 +31,12 @@ const GestionOfertas = () => {
   const cargarOfertas = async () => {
     setLoading(true);
     try {
-      const data = await adminService.obtenerTodasLasOfertas();
+      const [data, resumen] = await Promise.all([
+        adminService.obtenerTodasLasOfertas(),
+        adminService.obtenerEstadisticas()
+      ]);
       setOfertas(data);
+      setEstadisticas(resumen);
     } catch (error) {
       toast.error('Error al cargar ofertas');
     } finally {
@@ -94,16 +99,14 @@ const GestionOfertas = () => {
     return cumpleFiltroEstado && cumpleBusqueda;
   });
 
-  // Calcular estadísticas
+  // Estadísticas calculadas en el servidor (GET /api/admin/estadisticas)
   const stats = {
-    total: ofertas.length,
-    pendientes: ofertas.filter(o => o.estado === 'PENDIENTE').length,
-    aprobadas: ofertas.filter(o => o.estado === 'APROBADA').length,
-    rechazadas: ofertas.filter(o => o.estado === 'RECHAZADA').length,
-    vendidas: ofertas.filter(o => o.estado === 'VENDIDA').length,
-    totalVendido: ofertas
-      .filter(o => o.estado === 'VENDIDA')
-      .reduce((sum, o) => sum + (o.precioTotal || 0), 0)
+    total: estadisticas?.totalOfertas ?? 0,
+    pendientes: estadisticas?.ofertasPendientes ?? 0,
+    aprobadas: estadisticas?.ofertasAprobadas ?? 0,
+    rechazadas: estadisticas?.ofertasRechazadas ?? 0,
+    vendidas: estadisticas?.ofertasVendidas ?? 0,
+    totalVendido: estadisticas?.totalVendido ?? 0
   };
 
   return (
@@ -13,6 +13,10 @@ export const useAuth = () => {
   return context;
 };
 
+// Agrega la oferta al principio si todavía no está (puede llegar también por SSE)
+const agregarOferta = (ofertas, oferta) =>
+  ofertas.some(o => o.id === oferta.id) ? ofertas : [oferta, ...ofertas];
+
 export const AuthProvider = ({ children }) => {
   const [user, setUser] = useState(null);
   const [loading, setLoading] = useState(true);
@@ -31,6 +35,31 @@ export const AuthProvider = ({ children }) => {
     setLoading(false);
   }, []);
 
+  // Recibir cambios de estado de las ofertas en tiempo real (en lugar de recargar)
+  useEffect(() => {
+    if (user?.rol !== 'VENDEDOR') return undefined;
+
+    const cerrar = ofertaService.suscribirseEventos((nombre, datos) => {
+      if (nombre === 'estadisticas') {
+        setEstadisticas(datos);
+      } else if (nombre === 'oferta') {
+        if (datos.tipo === 'CREADA') {
+          // Creada en otra pestaña o dispositivo: el evento no trae la oferta completa
+          ofertaService.obtenerOfertaPorId(datos.ofertaId)
+            .then(oferta => setOfertas(prev => agregarOferta(prev, oferta)))
+            .catch(error => console.warn('⚠️ No se pudo cargar la oferta creada:', error));
+        } else if (datos.tipo === 'ELIMINADA') {
+          setOfertas(prev => prev.filter(o => o.id !== datos.ofertaId));
+        } else if (datos.tipo === 'ESTADO_CAMBIADO') {
+          setOfertas(prev =>
+            prev.map(o => o.id === datos.ofertaId ? { ...o, estado: datos.estadoNuevo } : o)
+          );
+        }
+      }
+    });
+    return cerrar;
+  }, [user?.id, user?.rol]);
+
   // ========== FUNCIONES DE AUTENTICACIÓN ==========
   
   const login = async (credentials) => {
@@ -94,7 +123,7 @@ export const AuthProvider = ({ children }) => {
   const crearOferta = async (ofertaData) => {
     try {
       const nuevaOferta = await ofertaService.crearOferta(ofertaData);
-      setOfertas(prev => [nuevaOferta, ...prev]);
+      setOfertas(prev => agregarOferta(prev, nuevaOferta));
       await cargarEstadisticas(); // Actualizar stats
       return nuevaOferta;
     } catch (error) {
@@ -28,6 +28,17 @@ const adminService = {
     }
   },
 
+  // Contadores y totales calculados en el servidor (no hace falta descargar todas las ofertas)
+  obtenerEstadisticas: async (dias = 30) => {
+    try {
+      const response = await api.get('/admin/estadisticas', { params: { dias } });
+      return response.data;
+    } catch (error) {
+      console.error('❌ [adminService] ERROR obteniendo estadísticas:', error);
+      throw error.response?.data || { mensaje: 'Error al obtener estadísticas' };
+    }
+  },
+
   cambiarEstadoOferta: async (ofertaId, nuevoEstado) => {
     try {
       console.log(`🔄 [adminService] Cambiando estado de oferta ${ofertaId} a ${nuevoEstado}`);
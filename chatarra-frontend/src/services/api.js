@@ -30,24 +30,67 @@ api.interceptors.request.use(
   }
 );
 
+// Renovación del token de acceso (dura poco): una sola petición de refresh
+// aunque fallen varias peticiones a la vez
+let refreshEnCurso = null;
+
+const pedirRenovacion = async () => {
+  const refreshToken = localStorage.getItem('refreshToken');
+  if (!refreshToken) throw new Error('Sin token de refresco');
+
+  // Se usa axios directamente para no pasar por estos interceptores
+  const response = await axios.post(`${api.defaults.baseURL}/auth/refresh`, { refreshToken });
+  localStorage.setItem('token', response.data.token);
+  localStorage.setItem('refreshToken', response.data.refreshToken);
+  return response.data.token;
+};
+
+// Renueva el token compartiendo la petición en curso; también la usa la conexión SSE,
+// que va por fetch y no pasa por los interceptores
+export const renovarToken = () => {
+  refreshEnCurso = refreshEnCurso || pedirRenovacion().finally(() => { refreshEnCurso = null; });
+  return refreshEnCurso;
+};
+
+export const cerrarSesionLocal = () => {
+  localStorage.removeItem('token');
+  localStorage.removeItem('refreshToken');
+  localStorage.removeItem('user');
+  window.location.href = '/login';
+};
+
 // Interceptor para manejar errores de respuesta
 api.interceptors.response.use(
   (response) => {
     console.log('📥 [api] Response OK:', response.status, response.config.url);
     return response;
   },
-  (error) => {
+  async (error) => {
     console.error('❌ [api] Response Error:', {
       status: error.response?.status,
       url: error.config?.url,
       data: error.response?.data
     });
 
-    if (error.response?.status === 401) {
-      console.warn('🚨 [api] Token expirado o inválido - Redirigiendo a login');
-      localStorage.removeItem('token');
-      localStorage.removeItem('user');
-      window.location.href = '/login';
+    const original = error.config;
+    const esAuth = original?.url?.startsWith('/auth/');
+
+    if (error.response?.status === 401 && original && !original._reintento && !esAuth) {
+      original._reintento = true;
+      try {
+        console.warn('🔄 [api] Token expirado - Renovando con refresh token');
+        const token = await renovarToken();
+        original.headers.Authorization = `Bearer ${token}`;
+        return api(original);
+      } catch (refreshError) {
+        console.warn('🚨 [api] No se pudo renovar el token - Redirigiendo a login');
+        cerrarSesionLocal();
+        return Promise.reject(error);
+      }
+    }
+
+    if (error.response?.status === 401 && !esAuth) {
+      cerrarSesionLocal();
     }
 
     if (error.response?.status === 403) {
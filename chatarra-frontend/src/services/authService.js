@@ -7,6 +7,7 @@ const authService = {
       
       if (response.data.token) {
         localStorage.setItem('token', response.data.token);
+        localStorage.setItem('refreshToken', response.data.refreshToken);
         localStorage.setItem('user', JSON.stringify({
           id: response.data.id,
           nombreCompleto: response.data.nombreCompleto,
@@ -27,6 +28,7 @@ const authService = {
       
       if (response.data.token) {
         localStorage.setItem('token', response.data.token);
+        localStorage.setItem('refreshToken', response.data.refreshToken);
         localStorage.setItem('user', JSON.stringify({
           id: response.data.id,
           nombreCompleto: response.data.nombreCompleto,
@@ -42,7 +44,16 @@ const authService = {
   },
 
   logout: () => {
+    // Revocar los tokens en el servidor (sin esperar la respuesta)
+    const refreshToken = localStorage.getItem('refreshToken');
+    const token = localStorage.getItem('token');
+    if (refreshToken) {
+      api.post('/auth/logout', { refreshToken }, {
+        headers: { Authorization: `Bearer ${token}` }
+      }).catch(() => {});
+    }
     localStorage.removeItem('token');
+    localStorage.removeItem('refreshToken');
     localStorage.removeItem('user');
   },
 
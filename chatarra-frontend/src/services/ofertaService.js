@@ -1,5 +1,5 @@
 // src/services/ofertaService.js
-import api from './api';
+import api, { cerrarSesionLocal, renovarToken } from './api';
 
 const ofertaService = {
   // ==================== VENDEDOR ====================
@@ -63,6 +63,87 @@ const ofertaService = {
       throw error.response?.data || { mensaje: 'Error al obtener estadísticas' };
     }
   },
+
+  /**
+   * Suscribirse a los cambios de mis ofertas (Server-Sent Events)
+   * Se usa fetch en lugar de EventSource porque EventSource no permite enviar el header Authorization.
+   * Devuelve una función para cerrar la conexión.
+   */
+  suscribirseEventos: (onEvento) => {
+    const controller = new AbortController();
+    const baseURL = import.meta.env.VITE_API_URL || 'http://localhost:8081/api';
+
+    // Token renovado para esta reconexión: si el servidor lo vuelve a rechazar se cierra la sesión
+    let renovado = false;
+
+    const conectar = async () => {
+      try {
+        const response = await fetch(`${baseURL}/vendedor/eventos`, {
+          headers: {
+            Authorization: `Bearer ${localStorage.getItem('token')}`,
+            Accept: 'text/event-stream',
+          },
+          signal: controller.signal,
+        });
+        // El servidor cierra el stream cuando vence el token de acceso: se renueva una vez y se reconecta
+        if (response.status === 401) {
+          if (renovado) {
+            console.warn('🚨 [ofertaService] SSE rechaza el token renovado - Cerrando sesión');
+            cerrarSesionLocal();
+            return;
+          }
+          renovado = true;
+          try {
+            await renovarToken();
+          } catch (refreshError) {
+            console.warn('🚨 [ofertaService] No se pudo renovar el token para SSE - Cerrando sesión');
+            cerrarSesionLocal();
+            return;
+          }
+          if (!controller.signal.aborted) conectar();
+          return;
+        }
+        if (!response.ok || !response.body) {
+          throw new Error(`SSE status ${response.status}`);
+        }
+
+        renovado = false;
+        const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+        let buffer = '';
+        while (true) {
+          const { value, done } = await reader.read();
+          if (done) break;
+          buffer += value;
+
+          // Cada evento SSE termina con una línea vacía
+          let fin;
+          while ((fin = buffer.indexOf('\n\n')) >= 0) {
+            const bloque = buffer.slice(0, fin);
+            buffer = buffer.slice(fin + 2);
+
+            let nombre = 'message';
+            let datos = '';
+            bloque.split('\n').forEach((linea) => {
+              if (linea.startsWith('event:')) nombre = linea.slice(6).trim();
+              else if (linea.startsWith('data:')) datos += linea.slice(5);
+            });
+            if (datos) onEvento(nombre, JSON.parse(datos));
+          }
+        }
+      } catch (error) {
+        if (controller.signal.aborted) return;
+        console.warn('⚠️ [ofertaService] Conexión SSE perdida:', error.message);
+      }
+
+      // Reconectar tras unos segundos (el servidor cierra la conexión por timeout)
+      if (!controller.signal.aborted) {
+        setTimeout(conectar, 5000);
+      }
+    };
+
+    conectar();
+    return () => controller.abort();
+  },
 };
 
 export default ofertaService;
\ No newline at end of file